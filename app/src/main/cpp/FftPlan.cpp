@@ -0,0 +1,150 @@
+#include "FftPlan.h"
+#include "SimdOps.h"
+#include <cmath>
+
+namespace voicechanger {
+
+FftPlan::FftPlan(size_t size)
+    : size_(size), half_(size / 2), bitReverse_(size / 2),
+      twiddleRe_(size / 2), twiddleIm_(size / 2), splitRe_(size / 2 + 1),
+      splitIm_(size / 2 + 1), workRe_(size / 2), workIm_(size / 2) {
+
+  size_t bits = 0;
+  while ((static_cast<size_t>(1) << bits) < half_) {
+    ++bits;
+  }
+  for (size_t i = 0; i < half_; ++i) {
+    size_t reversed = 0;
+    for (size_t b = 0; b < bits; ++b) {
+      reversed |= ((i >> b) & 1) << (bits - 1 - b);
+    }
+    bitReverse_[i] = reversed;
+  }
+
+  for (size_t h = 1; h < half_; h <<= 1) {
+    for (size_t j = 0; j < h; ++j) {
+      double angle = -M_PI * static_cast<double>(j) / static_cast<double>(h);
+      twiddleRe_[h + j] = static_cast<float>(std::cos(angle));
+      twiddleIm_[h + j] = static_cast<float>(std::sin(angle));
+    }
+  }
+
+  for (size_t k = 0; k <= half_; ++k) {
+    double angle = -2.0 * M_PI * static_cast<double>(k) / static_cast<double>(size_);
+    splitRe_[k] = static_cast<float>(std::cos(angle));
+    splitIm_[k] = static_cast<float>(std::sin(angle));
+  }
+}
+
+void FftPlan::transform(float *re, float *im) const {
+  // Input is already in bit reversed order
+  const size_t n = half_;
+
+  for (size_t g = 0; g < n && n > 1; g += 2) {
+    float ar = re[g], ai = im[g];
+    float br = re[g + 1], bi = im[g + 1];
+    re[g] = ar + br;
+    im[g] = ai + bi;
+    re[g + 1] = ar - br;
+    im[g + 1] = ai - bi;
+  }
+
+  if (n > 2) {
+    // Span 2: twiddles are 1 and -i
+    for (size_t g = 0; g < n; g += 4) {
+      float ar = re[g], ai = im[g];
+      float br = re[g + 2], bi = im[g + 2];
+      re[g] = ar + br;
+      im[g] = ai + bi;
+      re[g + 2] = ar - br;
+      im[g + 2] = ai - bi;
+
+      ar = re[g + 1];
+      ai = im[g + 1];
+      br = im[g + 3];
+      bi = -re[g + 3];
+      re[g + 1] = ar + br;
+      im[g + 1] = ai + bi;
+      re[g + 3] = ar - br;
+      im[g + 3] = ai - bi;
+    }
+  }
+
+  for (size_t h = 4; h < n; h <<= 1) {
+    const float *wRe = twiddleRe_.data() + h;
+    const float *wIm = twiddleIm_.data() + h;
+    for (size_t g = 0; g < n; g += 2 * h) {
+      float *aRe = re + g;
+      float *aIm = im + g;
+      float *bRe = re + g + h;
+      float *bIm = im + g + h;
+      for (size_t j = 0; j < h; j += 4) {
+        simd::float4 wr = simd::load(wRe + j);
+        simd::float4 wi = simd::load(wIm + j);
+        simd::float4 br = simd::load(bRe + j);
+        simd::float4 bi = simd::load(bIm + j);
+        simd::float4 tr = simd::sub(simd::mul(br, wr), simd::mul(bi, wi));
+        simd::float4 ti = simd::madd(br, wi, simd::mul(bi, wr));
+        simd::float4 ar = simd::load(aRe + j);
+        simd::float4 ai = simd::load(aIm + j);
+        simd::store(aRe + j, simd::add(ar, tr));
+        simd::store(aIm + j, simd::add(ai, ti));
+        simd::store(bRe + j, simd::sub(ar, tr));
+        simd::store(bIm + j, simd::sub(ai, ti));
+      }
+    }
+  }
+}
+
+void FftPlan::forward(const float *input, float *re, float *im) {
+  // Even samples as real parts, odd samples as imaginary parts
+  for (size_t m = 0; m < half_; ++m) {
+    workRe_[bitReverse_[m]] = input[2 * m];
+    workIm_[bitReverse_[m]] = input[2 * m + 1];
+  }
+  transform(workRe_.data(), workIm_.data());
+
+  for (size_t k = 0; k <= half_; ++k) {
+    size_t a = k == half_ ? 0 : k;
+    size_t b = k == 0 ? 0 : half_ - k;
+    float aRe = workRe_[a], aIm = workIm_[a];
+    float bRe = workRe_[b], bIm = -workIm_[b];
+
+    float evenRe = 0.5f * (aRe + bRe);
+    float evenIm = 0.5f * (aIm + bIm);
+    float oddRe = 0.5f * (aIm - bIm);
+    float oddIm = -0.5f * (aRe - bRe);
+
+    re[k] = evenRe + splitRe_[k] * oddRe - splitIm_[k] * oddIm;
+    im[k] = evenIm + splitRe_[k] * oddIm + splitIm_[k] * oddRe;
+  }
+}
+
+void FftPlan::inverse(const float *re, const float *im, float *output) {
+  for (size_t k = 0; k < half_; ++k) {
+    float aRe = re[k], aIm = im[k];
+    float bRe = re[half_ - k], bIm = -im[half_ - k];
+
+    float evenRe = 0.5f * (aRe + bRe);
+    float evenIm = 0.5f * (aIm + bIm);
+    float diffRe = 0.5f * (aRe - bRe);
+    float diffIm = 0.5f * (aIm - bIm);
+    // Undo the split twiddle: multiply by its conjugate
+    float oddRe = diffRe * splitRe_[k] + diffIm * splitIm_[k];
+    float oddIm = diffIm * splitRe_[k] - diffRe * splitIm_[k];
+
+    // Z = E + i*O, stored with real and imaginary parts swapped so the
+    // forward butterflies compute the inverse transform
+    workIm_[bitReverse_[k]] = evenRe - oddIm;
+    workRe_[bitReverse_[k]] = evenIm + oddRe;
+  }
+  transform(workRe_.data(), workIm_.data());
+
+  const float scale = 1.0f / static_cast<float>(half_);
+  for (size_t m = 0; m < half_; ++m) {
+    output[2 * m] = workIm_[m] * scale;
+    output[2 * m + 1] = workRe_[m] * scale;
+  }
+}
+
+} // namespace voicechanger
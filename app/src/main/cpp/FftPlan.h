@@ -0,0 +1,64 @@
+#ifndef VOICE_FFT_PLAN_H
+#define VOICE_FFT_PLAN_H
+
+#include <cstddef>
+#include <vector>
+
+namespace voicechanger {
+
+/**
+ * Real FFT of a fixed power of two size.
+ *
+ * Bit reversal indices and twiddle factors are computed once per plan, so a
+ * transform does no trigonometry and no allocation. The N real samples are
+ * packed into an N/2 point complex FFT, whose butterflies are vectorised.
+ * A plan owns its work buffers and must not be shared between threads.
+ */
+class FftPlan {
+public:
+    explicit FftPlan(size_t size);
+
+    size_t size() const { return size_; }
+
+    /**
+     * Number of spectrum bins, size / 2 + 1
+     */
+    size_t bins() const { return half_ + 1; }
+
+    /**
+     * Forward transform, unnormalised
+     * @param input size() real samples
+     * @param re Real parts of bins() bins
+     * @param im Imaginary parts of bins() bins
+     */
+    void forward(const float* input, float* re, float* im);
+
+    /**
+     * Inverse transform, normalised so that inverse(forward(x)) == x
+     * @param re Real parts of bins() bins
+     * @param im Imaginary parts of bins() bins
+     * @param output size() real samples
+     */
+    void inverse(const float* re, const float* im, float* output);
+
+private:
+    size_t size_;
+    size_t half_;
+
+    std::vector<size_t> bitReverse_;
+    // Twiddles of the butterfly stage with span h start at index h
+    std::vector<float> twiddleRe_;
+    std::vector<float> twiddleIm_;
+    // e^(-2*pi*i*k/size), used to split the packed spectrum
+    std::vector<float> splitRe_;
+    std::vector<float> splitIm_;
+
+    std::vector<float> workRe_;
+    std::vector<float> workIm_;
+
+    void transform(float* re, float* im) const;
+};
+
+} // namespace voicechanger
+
+#endif // VOICE_FFT_PLAN_H
@@ -0,0 +1,193 @@
+#include "PhaseVocoder.h"
+#include "SimdOps.h"
+#include <algorithm>
+#include <cstdint>
+#include <cmath>
+#include <cstring>
+
+namespace voicechanger {
+
+static inline float wrapPhase(float phase) {
+  // Map to [-pi, pi)
+  const float twoPi = static_cast<float>(2.0 * M_PI);
+  return phase - twoPi * std::floor((phase + static_cast<float>(M_PI)) / twoPi);
+}
+
+PhaseVocoder::PhaseVocoder(size_t fftSize, size_t overlap)
+    : fft_(fftSize), size_(fftSize), bins_(fftSize / 2 + 1),
+      synthesisHop_(fftSize / overlap), analysisWindow_(fftSize),
+      synthesisWindow_(fftSize), binFrequency_(fftSize / 2 + 1),
+      frame_(fftSize), re_(fftSize / 2 + 1), im_(fftSize / 2 + 1),
+      magnitude_(fftSize / 2 + 1), phase_(fftSize / 2 + 1),
+      lastPhase_(fftSize / 2 + 1), synthesisPhase_(fftSize / 2 + 1),
+      overlapAdd_(fftSize), fifoConsumed_(0), nextFrame_(0.0), lastFrame_(0),
+      hasLastFrame_(false), stretch_(1.0), analysisHop_(0.0),
+      inputSamples_(0), pendingSkip_(0), emitted_(0),
+      emitLimit_(SIZE_MAX) {
+
+  // Periodic Hann window for analysis and synthesis
+  double windowEnergy = 0.0;
+  for (size_t n = 0; n < size_; ++n) {
+    double w = 0.5 - 0.5 * std::cos(2.0 * M_PI * n / size_);
+    analysisWindow_[n] = static_cast<float>(w);
+    windowEnergy += w * w;
+  }
+  // Overlapping squared windows add up to windowEnergy / hop
+  float gain = static_cast<float>(synthesisHop_ / windowEnergy);
+  for (size_t n = 0; n < size_; ++n) {
+    synthesisWindow_[n] = analysisWindow_[n] * gain;
+  }
+  for (size_t k = 0; k < bins_; ++k) {
+    binFrequency_[k] = static_cast<float>(2.0 * M_PI * k / size_);
+  }
+  peaks_.reserve(bins_);
+  fifo_.reserve(size_ * 4);
+}
+
+void PhaseVocoder::reset(double stretch) {
+  stretch_ = stretch;
+  analysisHop_ = synthesisHop_ / stretch;
+  std::fill(overlapAdd_.begin(), overlapAdd_.end(), 0.0f);
+  std::fill(synthesisPhase_.begin(), synthesisPhase_.end(), 0.0f);
+  // A window of silence ahead of the input, so the first samples are
+  // covered by as many frames as the rest
+  fifo_.assign(size_, 0.0f);
+  fifoConsumed_ = 0;
+  nextFrame_ = 0.0;
+  hasLastFrame_ = false;
+  inputSamples_ = 0;
+  pendingSkip_ = static_cast<size_t>(std::llround(size_ * stretch_));
+  emitted_ = 0;
+  emitLimit_ = SIZE_MAX;
+}
+
+size_t PhaseVocoder::maxOutputSize(size_t inputSize) const {
+  return static_cast<size_t>(std::ceil((inputSize + 2 * size_) * stretch_)) +
+         size_;
+}
+
+void PhaseVocoder::process(const float *input, size_t inputSize,
+                           std::vector<float> &output) {
+  fifo_.insert(fifo_.end(), input, input + inputSize);
+  inputSamples_ += inputSize;
+  runFrames(output);
+}
+
+void PhaseVocoder::finish(std::vector<float> &output) {
+  size_t total = static_cast<size_t>(std::llround(inputSamples_ * stretch_));
+  emitLimit_ = total;
+
+  // Trailing silence flushes the frames that overlap the end of the input
+  fifo_.insert(fifo_.end(), size_, 0.0f);
+  runFrames(output);
+
+  if (emitted_ < total) {
+    emit(overlapAdd_.data(), size_, output);
+  }
+  while (emitted_ < total) {
+    output.push_back(0.0f);
+    ++emitted_;
+  }
+}
+
+void PhaseVocoder::runFrames(std::vector<float> &output) {
+  while (true) {
+    size_t start = static_cast<size_t>(nextFrame_);
+    if (start + size_ > fifoConsumed_ + fifo_.size()) {
+      break;
+    }
+    processFrame(fifo_.data() + (start - fifoConsumed_), start);
+
+    // The first synthesisHop_ samples will not receive further frames
+    emit(overlapAdd_.data(), synthesisHop_, output);
+    std::memmove(overlapAdd_.data(), overlapAdd_.data() + synthesisHop_,
+                 (size_ - synthesisHop_) * sizeof(float));
+    std::fill(overlapAdd_.end() - synthesisHop_, overlapAdd_.end(), 0.0f);
+
+    nextFrame_ += analysisHop_;
+  }
+
+  // Drop the input no future frame reads, keeping the buffer capacity
+  size_t keepFrom = static_cast<size_t>(nextFrame_);
+  if (keepFrom > fifoConsumed_) {
+    size_t drop = std::min(keepFrom - fifoConsumed_, fifo_.size());
+    fifo_.erase(fifo_.begin(), fifo_.begin() + drop);
+    fifoConsumed_ += drop;
+  }
+}
+
+void PhaseVocoder::processFrame(const float *frame, size_t frameStart) {
+  simd::multiply(frame, analysisWindow_.data(), frame_.data(), size_);
+  fft_.forward(frame_.data(), re_.data(), im_.data());
+
+  for (size_t k = 0; k < bins_; ++k) {
+    magnitude_[k] = std::sqrt(re_[k] * re_[k] + im_[k] * im_[k]);
+    phase_[k] = std::atan2(im_[k], re_[k]);
+  }
+
+  // Frames start on whole samples, so the real hop can differ from
+  // analysisHop_ by one sample
+  float hop = hasLastFrame_ ? static_cast<float>(frameStart - lastFrame_)
+                            : static_cast<float>(analysisHop_);
+  float hopRatio = static_cast<float>(synthesisHop_) / hop;
+
+  peaks_.clear();
+  for (size_t k = 0; k < bins_; ++k) {
+    float m = magnitude_[k];
+    if ((k == 0 || m > magnitude_[k - 1]) &&
+        (k + 1 == bins_ || m >= magnitude_[k + 1])) {
+      peaks_.push_back(k);
+    }
+  }
+
+  if (!hasLastFrame_) {
+    std::copy(phase_.begin(), phase_.end(), synthesisPhase_.begin());
+  } else {
+    // Advance each peak by its measured frequency
+    for (size_t p : peaks_) {
+      float expected = binFrequency_[p] * hop;
+      float deviation = wrapPhase(phase_[p] - lastPhase_[p] - expected);
+      synthesisPhase_[p] =
+          wrapPhase(synthesisPhase_[p] + (expected + deviation) * hopRatio);
+    }
+    // Bins around a peak keep their phase relative to it
+    size_t region = 0;
+    for (size_t k = 0; k < bins_; ++k) {
+      while (region + 1 < peaks_.size() &&
+             k * 2 >= peaks_[region] + peaks_[region + 1]) {
+        ++region;
+      }
+      size_t p = peaks_.empty() ? k : peaks_[region];
+      if (p != k) {
+        synthesisPhase_[k] = synthesisPhase_[p] + (phase_[k] - phase_[p]);
+      }
+    }
+  }
+  std::copy(phase_.begin(), phase_.end(), lastPhase_.begin());
+  lastFrame_ = frameStart;
+  hasLastFrame_ = true;
+
+  for (size_t k = 0; k < bins_; ++k) {
+    re_[k] = magnitude_[k] * std::cos(synthesisPhase_[k]);
+    im_[k] = magnitude_[k] * std::sin(synthesisPhase_[k]);
+  }
+  fft_.inverse(re_.data(), im_.data(), frame_.data());
+  simd::multiplyAdd(frame_.data(), synthesisWindow_.data(), overlapAdd_.data(),
+                    size_);
+}
+
+void PhaseVocoder::emit(const float *samples, size_t count,
+                        std::vector<float> &output) {
+  if (pendingSkip_ >= count) {
+    pendingSkip_ -= count;
+    return;
+  }
+  samples += pendingSkip_;
+  count -= pendingSkip_;
+  pendingSkip_ = 0;
+  count = std::min(count, emitLimit_ - emitted_);
+  output.insert(output.end(), samples, samples + count);
+  emitted_ += count;
+}
+
+} // namespace voicechanger
@@ -0,0 +1,86 @@
+#ifndef VOICE_PHASE_VOCODER_H
+#define VOICE_PHASE_VOCODER_H
+
+#include "FftPlan.h"
+#include <cstddef>
+#include <vector>
+
+namespace voicechanger {
+
+/**
+ * Streaming STFT phase vocoder that changes the duration of a signal
+ * without changing its pitch.
+ *
+ * Frames are read every size / overlap / stretch input samples and written
+ * every size / overlap output samples, with identity phase locking around
+ * spectral peaks to keep voices from sounding phasey. Windows, the FFT plan
+ * and all frame buffers are allocated once per instance; input can be fed
+ * in blocks of any size.
+ */
+class PhaseVocoder {
+public:
+    PhaseVocoder(size_t fftSize, size_t overlap);
+
+    /**
+     * Start a new stream
+     * @param stretch Output duration / input duration
+     */
+    void reset(double stretch);
+
+    /**
+     * Append the samples that are ready for the next inputSize input samples
+     */
+    void process(const float* input, size_t inputSize, std::vector<float>& output);
+
+    /**
+     * Append the rest of the stream, so that the total output is
+     * stretch * total input samples
+     */
+    void finish(std::vector<float>& output);
+
+    /**
+     * Upper bound of the samples process or finish append for inputSize samples
+     */
+    size_t maxOutputSize(size_t inputSize) const;
+
+private:
+    FftPlan fft_;
+    const size_t size_;
+    const size_t bins_;
+    const size_t synthesisHop_;
+
+    std::vector<float> analysisWindow_;
+    std::vector<float> synthesisWindow_;  // window * overlap-add gain
+    std::vector<float> binFrequency_;     // radians per sample of each bin
+
+    std::vector<float> frame_;
+    std::vector<float> re_;
+    std::vector<float> im_;
+    std::vector<float> magnitude_;
+    std::vector<float> phase_;
+    std::vector<float> lastPhase_;
+    std::vector<float> synthesisPhase_;
+    std::vector<size_t> peaks_;
+    std::vector<float> overlapAdd_;
+
+    std::vector<float> fifo_;
+    size_t fifoConsumed_;   // stream position of fifo_[0]
+    double nextFrame_;      // stream position of the next analysis frame
+    size_t lastFrame_;
+    bool hasLastFrame_;
+
+    double stretch_;
+    double analysisHop_;
+    size_t inputSamples_;
+    size_t pendingSkip_;    // output produced by the leading padding
+    size_t emitted_;
+    size_t emitLimit_;      // total output, known once the stream finishes
+
+    void runFrames(std::vector<float>& output);
+    void processFrame(const float* frame, size_t frameStart);
+    void emit(const float* samples, size_t count, std::vector<float>& output);
+};
+
+} // namespace voicechanger
+
+#endif // VOICE_PHASE_VOCODER_H
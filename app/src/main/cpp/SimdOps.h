@@ -0,0 +1,94 @@
+#ifndef VOICE_SIMD_OPS_H
+#define VOICE_SIMD_OPS_H
+
+#include <cstddef>
+
+#if defined(__ARM_NEON) || defined(__ARM_NEON__)
+#include <arm_neon.h>
+#define VOICE_SIMD_NEON 1
+#elif defined(__SSE2__) || defined(_M_X64)
+#include <xmmintrin.h>
+#define VOICE_SIMD_SSE 1
+#endif
+
+namespace voicechanger {
+namespace simd {
+
+/**
+ * Four float lanes on NEON (arm64-v8a, armeabi-v7a) and SSE (x86, x86_64),
+ * plain scalar code everywhere else.
+ */
+#if defined(VOICE_SIMD_NEON)
+
+typedef float32x4_t float4;
+
+inline float4 load(const float* p) { return vld1q_f32(p); }
+inline void store(float* p, float4 v) { vst1q_f32(p, v); }
+inline float4 set1(float v) { return vdupq_n_f32(v); }
+inline float4 add(float4 a, float4 b) { return vaddq_f32(a, b); }
+inline float4 sub(float4 a, float4 b) { return vsubq_f32(a, b); }
+inline float4 mul(float4 a, float4 b) { return vmulq_f32(a, b); }
+#if defined(__aarch64__)
+inline float4 madd(float4 a, float4 b, float4 c) { return vfmaq_f32(c, a, b); }
+#else
+inline float4 madd(float4 a, float4 b, float4 c) { return vmlaq_f32(c, a, b); }
+#endif
+
+#elif defined(VOICE_SIMD_SSE)
+
+typedef __m128 float4;
+
+inline float4 load(const float* p) { return _mm_loadu_ps(p); }
+inline void store(float* p, float4 v) { _mm_storeu_ps(p, v); }
+inline float4 set1(float v) { return _mm_set1_ps(v); }
+inline float4 add(float4 a, float4 b) { return _mm_add_ps(a, b); }
+inline float4 sub(float4 a, float4 b) { return _mm_sub_ps(a, b); }
+inline float4 mul(float4 a, float4 b) { return _mm_mul_ps(a, b); }
+inline float4 madd(float4 a, float4 b, float4 c) { return _mm_add_ps(_mm_mul_ps(a, b), c); }
+
+#else
+
+struct float4 {
+    float v[4];
+};
+
+inline float4 load(const float* p) { return {{p[0], p[1], p[2], p[3]}}; }
+inline void store(float* p, float4 a) { for (int i = 0; i < 4; ++i) p[i] = a.v[i]; }
+inline float4 set1(float v) { return {{v, v, v, v}}; }
+inline float4 add(float4 a, float4 b) { for (int i = 0; i < 4; ++i) a.v[i] += b.v[i]; return a; }
+inline float4 sub(float4 a, float4 b) { for (int i = 0; i < 4; ++i) a.v[i] -= b.v[i]; return a; }
+inline float4 mul(float4 a, float4 b) { for (int i = 0; i < 4; ++i) a.v[i] *= b.v[i]; return a; }
+inline float4 madd(float4 a, float4 b, float4 c) { for (int i = 0; i < 4; ++i) c.v[i] += a.v[i] * b.v[i]; return c; }
+
+#endif
+
+/**
+ * out[i] = a[i] * b[i]
+ */
+inline void multiply(const float* a, const float* b, float* out, size_t n) {
+    size_t i = 0;
+    for (; i + 4 <= n; i += 4) {
+        store(out + i, mul(load(a + i), load(b + i)));
+    }
+    for (; i < n; ++i) {
+        out[i] = a[i] * b[i];
+    }
+}
+
+/**
+ * acc[i] += a[i] * b[i]
+ */
+inline void multiplyAdd(const float* a, const float* b, float* acc, size_t n) {
+    size_t i = 0;
+    for (; i + 4 <= n; i += 4) {
+        store(acc + i, madd(load(a + i), load(b + i), load(acc + i)));
+    }
+    for (; i < n; ++i) {
+        acc[i] += a[i] * b[i];
+    }
+}
+
+} // namespace simd
+} // namespace voicechanger
+
+#endif // VOICE_SIMD_OPS_H
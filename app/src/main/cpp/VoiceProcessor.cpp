@@ -1,17 +1,25 @@
 #include "VoiceProcessor.h"
 #include <algorithm>
-#include <android/log.h>
 #include <cmath>
 
+#ifdef __ANDROID__
+#include <android/log.h>
 
 #define LOG_TAG "VoiceChanger"
 #define LOGD(...) __android_log_print(ANDROID_LOG_DEBUG, LOG_TAG, __VA_ARGS__)
 #define LOGE(...) __android_log_print(ANDROID_LOG_ERROR, LOG_TAG, __VA_ARGS__)
+#else
+// Host builds (benchmark) have no logcat
+#define LOGD(...) ((void)0)
+#define LOGE(...) ((void)0)
+#endif
 
 namespace voicechanger {
 
 VoiceProcessor::VoiceProcessor()
-    : effect_(VoiceEffect::DISABLED), params_{1.0f, 0.0f, 1.0f} {}
+    : effect_(VoiceEffect::DISABLED), params_{1.0f, 0.0f, 1.0f},
+      vocoder_(FFT_SIZE, OVERLAP), stretching_(false), ratio_(1.0f),
+      position_(0.0), lastSample_(0.0f), hasLast_(false) {}
 
 VoiceProcessor::~VoiceProcessor() = default;
 
@@ -81,72 +89,120 @@ bool VoiceProcessor::process(const int16_t *input, size_t inputSize,
 
   LOGD("Processing %zu samples at %d Hz", inputSize, sampleRate);
 
-  // Convert input to float [-1.0, 1.0]
-  inputBuffer_.resize(inputSize);
+  beginStream(sampleRate);
+  output.resize(maxOutputSize(inputSize) + maxOutputSize(0));
+  size_t written = processBlock(input, inputSize, output.data(), output.size());
+  written += finishStream(output.data() + written, output.size() - written);
+  output.resize(written);
+
+  LOGD("Processed: input=%zu, output=%zu samples", inputSize, output.size());
+  return true;
+}
+
+void VoiceProcessor::beginStream([[maybe_unused]] int sampleRate) {
+  float pitchFactor = semitonesToFactor(params_.pitch);
+  float tempo = params_.tempo > 0.0f ? params_.tempo : 1.0f;
+  float speed = params_.speed > 0.0f ? params_.speed : 1.0f;
+
+  // Resampling by pitch * speed shifts the pitch and shortens the clip by the
+  // same factor; the vocoder first lengthens it so that only tempo * speed
+  // remains as a change of duration.
+  ratio_ = pitchFactor * speed;
+  double stretch = static_cast<double>(pitchFactor) / tempo;
+  stretching_ = std::fabs(stretch - 1.0) > 1e-3;
+  if (stretching_) {
+    vocoder_.reset(stretch);
+  }
+
+  position_ = 0.0;
+  lastSample_ = 0.0f;
+  hasLast_ = false;
+  LOGD("Stream started at %d Hz, stretch=%.3f, ratio=%.3f", sampleRate,
+       stretch, ratio_);
+}
+
+size_t VoiceProcessor::maxOutputSize(size_t inputSize) const {
+  size_t stretched =
+      stretching_ ? vocoder_.maxOutputSize(inputSize) : inputSize;
+  // The previous block's last sample adds one input position
+  return static_cast<size_t>(std::ceil((stretched + 1) / ratio_)) + 1;
+}
+
+static inline int16_t toPcm16(float sample) {
+  // Clamp to [-1.0, 1.0]
+  sample = std::max(-1.0f, std::min(1.0f, sample));
+  return static_cast<int16_t>(sample * 32767.0f);
+}
+
+size_t VoiceProcessor::processBlock(const int16_t *input, size_t inputSize,
+                                    int16_t *output, size_t outputCapacity) {
+  if (inputSize == 0) {
+    return 0;
+  }
+
+  // Convert input to float [-1.0, 1.0], reusing the buffers between blocks
+  floatInput_.resize(inputSize);
   for (size_t i = 0; i < inputSize; ++i) {
-    inputBuffer_[i] = static_cast<float>(input[i]) / 32768.0f;
+    floatInput_[i] = static_cast<float>(input[i]) / 32768.0f;
   }
 
-  // Calculate pitch shift factor
-  float pitchFactor = semitonesToFactor(params_.pitch);
+  if (!stretching_) {
+    return resample(floatInput_.data(), inputSize, output, outputCapacity);
+  }
+  stretched_.clear();
+  vocoder_.process(floatInput_.data(), inputSize, stretched_);
+  return resample(stretched_.data(), stretched_.size(), output,
+                  outputCapacity);
+}
 
-  // Calculate output size based on tempo
-  size_t outputSize = static_cast<size_t>(inputSize / params_.tempo);
-  outputBuffer_.resize(outputSize);
-
-  // === STFT-based Pitch Shifting ===
-  // This is a simplified implementation. For production, use the full
-  // stftPitchShift library.
-
-  const int fftSize = FFT_SIZE;
-  const int hopSize = HOP_SIZE;
-  const int numFrames = (inputSize - fftSize) / hopSize + 1;
-
-  if (numFrames <= 0) {
-    // Audio too short for processing, just apply simple pitch shift
-    for (size_t i = 0; i < outputSize; ++i) {
-      size_t srcIdx = static_cast<size_t>(i * params_.tempo);
-      if (srcIdx < inputSize) {
-        outputBuffer_[i] = inputBuffer_[srcIdx];
-      } else {
-        outputBuffer_[i] = 0.0f;
-      }
-    }
-  } else {
-    // Simple time-domain pitch shifting (resampling)
-    // For proper formant preservation, use full STFT implementation
-    float resampleRatio = pitchFactor * params_.speed;
-    size_t newSize = static_cast<size_t>(inputSize / resampleRatio);
-    outputBuffer_.resize(newSize);
-
-    for (size_t i = 0; i < newSize; ++i) {
-      float srcPos = i * resampleRatio;
-      size_t srcIdx = static_cast<size_t>(srcPos);
-      float frac = srcPos - srcIdx;
-
-      if (srcIdx + 1 < inputSize) {
-        // Linear interpolation
-        outputBuffer_[i] = inputBuffer_[srcIdx] * (1.0f - frac) +
-                           inputBuffer_[srcIdx + 1] * frac;
-      } else if (srcIdx < inputSize) {
-        outputBuffer_[i] = inputBuffer_[srcIdx];
-      } else {
-        outputBuffer_[i] = 0.0f;
-      }
-    }
+size_t VoiceProcessor::resample(const float *input, size_t inputSize,
+                                int16_t *output, size_t outputCapacity) {
+  if (inputSize == 0) {
+    return 0;
   }
 
-  // Convert back to int16
-  output.resize(outputBuffer_.size());
-  for (size_t i = 0; i < outputBuffer_.size(); ++i) {
-    float sample = outputBuffer_[i];
-    // Clamp to [-1.0, 1.0]
-    sample = std::max(-1.0f, std::min(1.0f, sample));
-    output[i] = static_cast<int16_t>(sample * 32767.0f);
+  // Positions in [-1, 0) interpolate between the previous block's last
+  // sample and input[0], so the block boundary is seamless.
+  const double end = static_cast<double>(inputSize - 1);
+  double pos = std::max(position_, hasLast_ ? -1.0 : 0.0);
+  size_t written = 0;
+
+  while (pos < end && written < outputCapacity) {
+    double floorPos = std::floor(pos);
+    long idx = static_cast<long>(floorPos);
+    float frac = static_cast<float>(pos - floorPos);
+
+    // Linear interpolation
+    float a = idx < 0 ? lastSample_ : input[idx];
+    float b = input[idx + 1];
+    output[written++] = toPcm16(a * (1.0f - frac) + b * frac);
+    pos += ratio_;
   }
 
-  LOGD("Processed: input=%zu, output=%zu samples", inputSize, output.size());
-  return true;
+  position_ = pos - static_cast<double>(inputSize);
+  lastSample_ = input[inputSize - 1];
+  hasLast_ = true;
+  return written;
+}
+
+size_t VoiceProcessor::finishStream(int16_t *output, size_t outputCapacity) {
+  size_t written = 0;
+  if (stretching_) {
+    stretched_.clear();
+    vocoder_.finish(stretched_);
+    written = resample(stretched_.data(), stretched_.size(), output,
+                       outputCapacity);
+  }
+  if (!hasLast_) {
+    return written;
+  }
+  // Positions between the last sample and the end of the input repeat it
+  while (position_ < 0.0 && written < outputCapacity) {
+    output[written++] = toPcm16(lastSample_);
+    position_ += ratio_;
+  }
+  hasLast_ = false;
+  return written;
 }
 
 } // namespace voicechanger
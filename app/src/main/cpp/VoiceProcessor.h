@@ -5,6 +5,8 @@
 #include <cstdint>
 #include <string>
 
+#include "PhaseVocoder.h"
+
 namespace voicechanger {
 
 /**
@@ -35,7 +37,10 @@ struct EffectParams {
 /**
  * VoiceProcessor - Processes audio samples with pitch/tempo effects
  * 
- * Uses STFT-based pitch shifting algorithm for real-time voice modification.
+ * Uses STFT-based pitch shifting algorithm for real-time voice modification:
+ * a phase vocoder stretches the signal by pitch / tempo without changing its
+ * pitch, then a resampler plays it back at pitch * speed. Pitch and tempo can
+ * therefore be set independently.
  */
 class VoiceProcessor {
 public:
@@ -63,6 +68,34 @@ public:
     bool process(const int16_t* input, size_t inputSize,
                  std::vector<int16_t>& output, int sampleRate);
 
+    /**
+     * Start a new stream. State carried between blocks is cleared and the
+     * current effect parameters are captured for the whole stream.
+     */
+    void beginStream(int sampleRate);
+
+    /**
+     * Process the next block of a stream
+     * @param input Input PCM samples (16-bit signed, mono)
+     * @param inputSize Number of input samples
+     * @param output Destination for the processed samples
+     * @param outputCapacity Size of output, at least maxOutputSize(inputSize)
+     * @return number of samples written to output
+     */
+    size_t processBlock(const int16_t* input, size_t inputSize,
+                        int16_t* output, size_t outputCapacity);
+
+    /**
+     * Write the samples still held back at the end of a stream
+     * @return number of samples written to output
+     */
+    size_t finishStream(int16_t* output, size_t outputCapacity);
+
+    /**
+     * Upper bound of the samples processBlock can produce for inputSize samples
+     */
+    size_t maxOutputSize(size_t inputSize) const;
+
     /**
      * Get the current effect parameters
      */
@@ -77,17 +110,26 @@ private:
     VoiceEffect effect_;
     EffectParams params_;
 
-    // Internal processing buffers
-    std::vector<float> inputBuffer_;
-    std::vector<float> outputBuffer_;
-
     // STFT parameters
     static constexpr int FFT_SIZE = 2048;
     static constexpr int HOP_SIZE = 512;
-    static constexpr int OVERLAP = 4;
+    static constexpr int OVERLAP = FFT_SIZE / HOP_SIZE;
+
+    PhaseVocoder vocoder_;
+    bool stretching_;   // false when the vocoder would not change anything
+    std::vector<float> floatInput_;
+    std::vector<float> stretched_;
+
+    // Streaming state
+    float ratio_;       // input samples consumed per output sample
+    double position_;   // next read position, relative to the next block
+    float lastSample_;  // last sample of the previous block
+    bool hasLast_;
 
     void updateParamsForEffect(VoiceEffect effect);
     float semitonesToFactor(float semitones);
+    size_t resample(const float* input, size_t inputSize,
+                    int16_t* output, size_t outputCapacity);
 };
 
 } // namespace voicechanger
@@ -59,53 +59,75 @@ Java_com_wmods_wppenhacer_xposed_features_others_VoiceChanger_nativeSetCustomPar
   }
 }
 
-JNIEXPORT jshortArray JNICALL
-Java_com_wmods_wppenhacer_xposed_features_others_VoiceChanger_nativeProcessAudio(
-    JNIEnv *env, jclass clazz, jshortArray inputArray, jint sampleRate) {
+JNIEXPORT void JNICALL
+Java_com_wmods_wppenhacer_xposed_features_others_VoiceChanger_nativeBeginStream(
+    JNIEnv *env, jclass clazz, jint sampleRate) {
 
-  if (g_processor == nullptr) {
-    LOGE("Processor not initialized!");
-    return nullptr;
+  if (g_processor != nullptr) {
+    g_processor->beginStream(static_cast<int>(sampleRate));
   }
+}
 
-  // Get input data
-  jsize inputSize = env->GetArrayLength(inputArray);
-  jshort *inputData = env->GetShortArrayElements(inputArray, nullptr);
+JNIEXPORT jint JNICALL
+Java_com_wmods_wppenhacer_xposed_features_others_VoiceChanger_nativeMaxOutputBytes(
+    JNIEnv *env, jclass clazz, jint inputBytes) {
 
-  if (inputData == nullptr) {
-    LOGE("Failed to get input array elements");
-    return nullptr;
+  if (g_processor == nullptr) {
+    return inputBytes;
   }
+  size_t samples = g_processor->maxOutputSize(
+      static_cast<size_t>(inputBytes) / sizeof(int16_t));
+  return static_cast<jint>(samples * sizeof(int16_t));
+}
 
-  LOGD("Processing %d samples", inputSize);
+JNIEXPORT jint JNICALL
+Java_com_wmods_wppenhacer_xposed_features_others_VoiceChanger_nativeProcessBlock(
+    JNIEnv *env, jclass clazz, jobject input, jint inputOffset,
+    jint inputLength, jobject output, jint outputOffset) {
 
-  // Process audio
-  std::vector<int16_t> output;
-  bool success = g_processor->process(
-      reinterpret_cast<const int16_t *>(inputData),
-      static_cast<size_t>(inputSize), output, static_cast<int>(sampleRate));
+  if (g_processor == nullptr) {
+    LOGE("Processor not initialized!");
+    return -1;
+  }
 
-  // Release input array
-  env->ReleaseShortArrayElements(inputArray, inputData, JNI_ABORT);
+  // Both buffers are direct: the decoder output is read and the encoder
+  // staging buffer is written in place, without copying through Java arrays
+  auto *inputData = static_cast<uint8_t *>(env->GetDirectBufferAddress(input));
+  auto *outputData = static_cast<uint8_t *>(env->GetDirectBufferAddress(output));
+  jlong outputCapacity = env->GetDirectBufferCapacity(output) - outputOffset;
 
-  if (!success || output.empty()) {
-    LOGE("Processing failed or empty output");
-    return nullptr;
+  if (inputData == nullptr || outputData == nullptr || outputCapacity < 0) {
+    LOGE("Buffers must be direct");
+    return -1;
   }
 
-  // Create output array
-  jshortArray outputArray =
-      env->NewShortArray(static_cast<jsize>(output.size()));
-  if (outputArray == nullptr) {
-    LOGE("Failed to create output array");
-    return nullptr;
+  size_t written = g_processor->processBlock(
+      reinterpret_cast<const int16_t *>(inputData + inputOffset),
+      static_cast<size_t>(inputLength) / sizeof(int16_t),
+      reinterpret_cast<int16_t *>(outputData + outputOffset),
+      static_cast<size_t>(outputCapacity) / sizeof(int16_t));
+  return static_cast<jint>(written * sizeof(int16_t));
+}
+
+JNIEXPORT jint JNICALL
+Java_com_wmods_wppenhacer_xposed_features_others_VoiceChanger_nativeFinishStream(
+    JNIEnv *env, jclass clazz, jobject output, jint outputOffset) {
+
+  if (g_processor == nullptr) {
+    return 0;
   }
 
-  env->SetShortArrayRegion(outputArray, 0, static_cast<jsize>(output.size()),
-                           reinterpret_cast<const jshort *>(output.data()));
+  auto *outputData = static_cast<uint8_t *>(env->GetDirectBufferAddress(output));
+  jlong outputCapacity = env->GetDirectBufferCapacity(output) - outputOffset;
+  if (outputData == nullptr || outputCapacity < 0) {
+    LOGE("Buffers must be direct");
+    return -1;
+  }
 
-  LOGD("Processed successfully: %zu samples output", output.size());
-  return outputArray;
+  size_t written = g_processor->finishStream(
+      reinterpret_cast<int16_t *>(outputData + outputOffset),
+      static_cast<size_t>(outputCapacity) / sizeof(int16_t));
+  return static_cast<jint>(written * sizeof(int16_t));
 }
 
 JNIEXPORT jboolean JNICALL
@@ -10,11 +10,16 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.preference.Preference;
 
+import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 import com.wmods.wppenhacer.R;
 import com.wmods.wppenhacer.activities.AutoReplyRulesActivity;
 import com.wmods.wppenhacer.activities.ScheduledMessagesListActivity;
 import com.wmods.wppenhacer.ui.fragments.base.BaseFragment;
 import com.wmods.wppenhacer.ui.fragments.base.BasePreferenceFragment;
+import com.wmods.wppenhacer.xposed.core.FeatureLoader;
+import com.wmods.wppenhacer.xposed.core.StartupTrace;
+
+import java.util.ArrayList;
 
 public class GeneralFragment extends BaseFragment {
 
@@ -58,8 +63,27 @@ public class GeneralFragment extends BaseFragment {
                 startActivity(intent);
                 return true;
             }
+            if ("startup_report".equals(key)) {
+                showStartupReport();
+                return true;
+            }
             return super.onPreferenceTreeClick(preference);
         }
+
+        private void showStartupReport() {
+            var context = requireContext();
+            var reports = new ArrayList<String>();
+            for (var pkg : new String[]{FeatureLoader.PACKAGE_WPP, FeatureLoader.PACKAGE_BUSINESS}) {
+                var summary = StartupTrace.readSummary(pkg);
+                if (summary != null) reports.add(pkg + " " + summary);
+            }
+            var message = reports.isEmpty() ? getString(R.string.startup_report_empty) : String.join("\n\n", reports);
+            new MaterialAlertDialogBuilder(context)
+                    .setTitle(R.string.startup_report)
+                    .setMessage(message)
+                    .setPositiveButton(android.R.string.ok, null)
+                    .show();
+        }
     }
 
     public static class HomeScreenGeneralPreference extends BasePreferenceFragment {
@@ -0,0 +1,119 @@
+package com.wmods.wppenhacer.utils;
+
+import androidx.annotation.NonNull;
+
+import java.util.Map;
+
+/**
+ * Compiled form of a color map used by {@link IColors#getFromIntColor(int, java.util.HashMap)}.
+ * <p>
+ * The string map holds two kinds of entries: {@code "#aarrggbb"} keys that replace an exact color and
+ * {@code "rrggbb"} keys that replace the RGB part of a translucent color while keeping its alpha.
+ * Both are stored here in primitive open addressing tables so a lookup does not allocate.
+ */
+public class ColorTable {
+
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private final IntTable exact;
+    private final IntTable rgb;
+
+    private ColorTable(IntTable exact, IntTable rgb) {
+        this.exact = exact;
+        this.rgb = rgb;
+    }
+
+    @NonNull
+    public static ColorTable compile(@NonNull Map<String, String> colors) {
+        int exactCount = 0;
+        int rgbCount = 0;
+        for (var key : colors.keySet()) {
+            if (key.length() == 9) exactCount++;
+            else if (key.length() == 6) rgbCount++;
+        }
+        var exact = new IntTable(exactCount);
+        var rgb = new IntTable(rgbCount);
+        for (var entry : colors.entrySet()) {
+            var key = entry.getKey();
+            var value = entry.getValue();
+            if (value == null) continue;
+            if (key.length() == 9 && value.length() == 9 && key.charAt(0) == '#') {
+                if (!isHex(key, 1, false) || value.charAt(0) != '#' || !isHex(value, 1, true)) continue;
+                exact.put(parseHex(key, 1), parseHex(value, 1));
+            } else if (key.length() == 6 && value.length() == 6) {
+                if (!isHex(key, 0, false) || !isHex(value, 0, true)) continue;
+                rgb.put(parseHex(key, 0), parseHex(value, 0));
+            }
+        }
+        return new ColorTable(exact, rgb);
+    }
+
+    /**
+     * @return the replacement for {@code color}, or {@code color} itself when the map has no entry for it
+     */
+    public int map(int color) {
+        int index = exact.indexOf(color);
+        if (index >= 0) return exact.values[index];
+        int alpha = color & 0xff000000;
+        if (alpha != 0xff000000) {
+            index = rgb.indexOf(color & 0x00ffffff);
+            if (index >= 0) return alpha | rgb.values[index];
+        }
+        return color;
+    }
+
+    /**
+     * Keys only match in lowercase, as they are compared against {@link IColors#toString(int)}.
+     */
+    private static boolean isHex(String value, int start, boolean ignoreCase) {
+        for (int i = start; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (ignoreCase) c = Character.toLowerCase(c);
+            if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) return false;
+        }
+        return true;
+    }
+
+    private static int parseHex(String value, int start) {
+        return (int) Long.parseLong(value.substring(start), 16);
+    }
+
+    private static class IntTable {
+        final int[] keys;
+        final int[] values;
+        final boolean[] used;
+        final int mask;
+
+        IntTable(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(2, (int) (expected / LOAD_FACTOR)) - 1) << 1;
+            keys = new int[capacity];
+            values = new int[capacity];
+            used = new boolean[capacity];
+            mask = capacity - 1;
+        }
+
+        void put(int key, int value) {
+            int i = hash(key) & mask;
+            while (used[i] && keys[i] != key) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            values[i] = value;
+            used[i] = true;
+        }
+
+        int indexOf(int key) {
+            int i = hash(key) & mask;
+            while (used[i]) {
+                if (keys[i] == key) return i;
+                i = (i + 1) & mask;
+            }
+            return -1;
+        }
+
+        private static int hash(int key) {
+            int h = key * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
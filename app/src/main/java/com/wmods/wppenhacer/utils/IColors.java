@@ -3,6 +3,8 @@ package com.wmods.wppenhacer.utils;
 import android.graphics.Color;
 
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
 
 public class IColors {
     public static HashMap<String, String> colors = new HashMap<>();
@@ -14,6 +16,8 @@ public class IColors {
     public static final HashMap<String, String> primaryColors = new HashMap<>();
     public static final HashMap<String, String> textColors = new HashMap<>();
 
+    private static volatile Map<Map<String, String>, ColorTable> compiledTables = new IdentityHashMap<>();
+
     public static int parseColor(String str) {
         return Color.parseColor(str);
     }
@@ -29,7 +33,22 @@ public class IColors {
     }
 
 
+    /**
+     * Compiles {@code colors} so that {@link #getFromIntColor(int, HashMap)} resolves it without building strings.
+     * Must be called again after the map is changed, until then the previous contents are used.
+     */
+    public static synchronized void compile(HashMap<String, String> colors) {
+        var tables = new IdentityHashMap<>(compiledTables);
+        tables.put(colors, ColorTable.compile(colors));
+        compiledTables = tables;
+    }
+
     public static int getFromIntColor(int color, HashMap<String, String> colors) {
+        // "#00rrggbb" is not rendered with 8 digits by toString, keep the string path for fully transparent colors
+        if ((color >>> 24) != 0) {
+            var table = compiledTables.get(colors);
+            if (table != null) return table.map(color);
+        }
         var sColor = IColors.toString(color);
         var newColor = colors.get(sColor);
         if (newColor != null && newColor.length() == 9) {
@@ -47,6 +66,9 @@ public class IColors {
     }
 
     public static void initColors() {
+        synchronized (IColors.class) {
+            compiledTables = new IdentityHashMap<>();
+        }
         primaryColors.clear();
         textColors.clear();
         backgroundColors.clear();
@@ -14,6 +14,7 @@ import android.view.WindowManager;
 
 import androidx.annotation.NonNull;
 
+import com.wmods.wppenhacer.xposed.utils.ResIdWpp;
 import com.wmods.wppenhacer.xposed.utils.Utils;
 
 public class BottomDialogWpp {
@@ -73,7 +74,7 @@ public class BottomDialogWpp {
             dialog.getWindow().setBackgroundDrawable(null);
             dialog.getWindow().setDimAmount(0);
             var view = dialog.getWindow().getDecorView();
-            view.findViewById(Utils.getID("design_bottom_sheet", "id")).setBackgroundColor(Color.TRANSPARENT);
+            view.findViewById(ResIdWpp.id.design_bottom_sheet).setBackgroundColor(Color.TRANSPARENT);
             dialog.getWindow().setSoftInputMode(WindowManager.LayoutParams.SOFT_INPUT_ADJUST_PAN);
         }
     }
@@ -12,6 +12,7 @@ import android.content.IntentFilter;
 import android.content.pm.PackageInfo;
 import android.content.pm.PackageManager;
 import android.os.Bundle;
+import android.text.TextUtils;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
@@ -24,6 +25,7 @@ import com.wmods.wppenhacer.xposed.core.components.AlertDialogWpp;
 import com.wmods.wppenhacer.xposed.core.components.FMessageWpp;
 import com.wmods.wppenhacer.xposed.core.components.SharedPreferencesWrapper;
 import com.wmods.wppenhacer.xposed.core.components.WaContactWpp;
+import com.wmods.wppenhacer.xposed.core.devkit.DexKitQueryPlanner;
 import com.wmods.wppenhacer.xposed.core.devkit.Unobfuscator;
 import com.wmods.wppenhacer.xposed.core.devkit.UnobfuscatorCache;
 import com.wmods.wppenhacer.xposed.features.customization.BubbleColors;
@@ -98,17 +100,26 @@ import com.wmods.wppenhacer.xposed.spoofer.HookBL;
 import com.wmods.wppenhacer.xposed.utils.DesignUtils;
 import com.wmods.wppenhacer.xposed.utils.ReflectionUtils;
 import com.wmods.wppenhacer.xposed.utils.ResId;
+import com.wmods.wppenhacer.xposed.utils.ResIdWpp;
 import com.wmods.wppenhacer.xposed.utils.Utils;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import de.robv.android.xposed.XC_MethodHook;
 import de.robv.android.xposed.XSharedPreferences;
@@ -176,6 +187,9 @@ public class FeatureLoader {
                             var timemillis = System.currentTimeMillis();
                             SharedPreferencesWrapper.hookInit(mApp.getClassLoader());
                             UnobfuscatorCache.init(mApp);
+                            DexKitQueryPlanner.init(mApp);
+                            if (UnobfuscatorCache.getInstance().isColdStart())
+                                Unobfuscator.prefetchPlannedQueries();
                             ReflectionUtils.initCache(mApp);
                             boolean isSupported = supportedVersions.stream()
                                     .anyMatch(s -> packageInfo.versionName.startsWith(s.replace(".xx", "")));
@@ -191,6 +205,7 @@ public class FeatureLoader {
                             }
                             initComponents(loader, pref);
                             plugins(loader, pref, packageInfo.versionName);
+                            UnobfuscatorCache.getInstance().flush();
                             sendEnabledBroadcast(mApp);
                             // XposedHelpers.setStaticIntField(XposedHelpers.findClass("com.whatsapp.util.Log",
                             // loader), "level", 5);
@@ -231,6 +246,7 @@ public class FeatureLoader {
     }
 
     private static void initComponents(ClassLoader loader, XSharedPreferences pref) throws Exception {
+        ResIdWpp.init(mApp);
         WppCore.Initialize(loader, pref);
         FMessageWpp.initialize(loader);
         DesignUtils.setPrefs(pref);
@@ -394,30 +410,105 @@ public class FeatureLoader {
         };
         XposedBridge.log("Loading Plugins");
         var executorService = Executors.newWorkStealingPool(Math.min(Runtime.getRuntime().availableProcessors(), 4));
-        var times = new ArrayList<String>();
+        StartupTrace.start();
+        var prefValues = pref.getAll();
+        var enabled = new LinkedHashSet<Class<?>>();
         for (var classe : classes) {
-            CompletableFuture.runAsync(() -> {
-                var timemillis = System.currentTimeMillis();
-                try {
-                    var constructor = classe.getConstructor(ClassLoader.class, XSharedPreferences.class);
-                    var plugin = (Feature) constructor.newInstance(loader, pref);
-                    plugin.doHook();
-                } catch (Throwable e) {
-                    XposedBridge.log(e);
-                    ErrorDialogManager.addError(ErrorDialogManager.createError(classe.getSimpleName(), versionWpp, e));
-                }
-                var timemillis2 = System.currentTimeMillis() - timemillis;
-                times.add("* Loaded Plugin " + classe.getSimpleName() + " in " + timemillis2 + "ms");
-            }, executorService);
+            if (isFeatureEnabled(classe, prefValues))
+                enabled.add(classe);
+        }
+        XposedBridge.log("Enabled Plugins: " + enabled.size() + "/" + classes.length);
+
+        var tasks = new HashMap<Class<?>, CompletableFuture<Void>>();
+        for (var classe : enabled) {
+            scheduleFeature(classe, enabled, tasks, new HashSet<>(), executorService, loader, pref, versionWpp);
+        }
+        try {
+            CompletableFuture.allOf(tasks.values().toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+            // Every loader ran its queries, the ones left out of this scan are stale
+            if (UnobfuscatorCache.getInstance().isColdStart())
+                DexKitQueryPlanner.prune();
+        } catch (TimeoutException e) {
+            XposedBridge.log("Plugins still loading after 10s, continuing startup");
         }
         executorService.shutdown();
-        executorService.awaitTermination(10, TimeUnit.SECONDS);
+        StartupTrace.finish();
         if (DebugFeature.DEBUG) {
-            for (var time : times) {
-                if (time != null)
-                    XposedBridge.log(time);
+            XposedBridge.log(StartupTrace.summary());
+            CompletableFuture.runAsync(() -> StartupTrace.export(mApp, versionWpp));
+        }
+    }
+
+
+    /**
+     * A feature is skipped, without being constructed, when none of the preferences in its {@link FeatureSpec}
+     * is turned on.
+     */
+    private static boolean isFeatureEnabled(Class<?> classe, Map<String, ?> prefValues) {
+        var spec = classe.getAnnotation(FeatureSpec.class);
+        if (spec == null || spec.prefs().length == 0)
+            return true;
+        for (var key : spec.prefs()) {
+            var value = prefValues.get(key);
+            if (value == null) {
+                if (Arrays.asList(spec.enabledByDefault()).contains(key)) return true;
+            } else if (value instanceof Boolean bool) {
+                if (bool) return true;
+            } else if (value instanceof Number number) {
+                if (number.doubleValue() != 0) return true;
+            } else if (value instanceof Collection<?> collection) {
+                if (!collection.isEmpty()) return true;
+            } else if (!TextUtils.isEmpty(value.toString()) && !"0".equals(value.toString())) {
+                return true;
             }
         }
+        return false;
+    }
+
+    /**
+     * Starts the feature once the features it depends on have installed their hooks. Independent features
+     * run in parallel on the executor; dependencies that are disabled are ignored.
+     */
+    private static CompletableFuture<Void> scheduleFeature(Class<?> classe, Set<Class<?>> enabled,
+            Map<Class<?>, CompletableFuture<Void>> tasks, Set<Class<?>> visiting, ExecutorService executorService,
+            ClassLoader loader, XSharedPreferences pref, String versionWpp) {
+        var task = tasks.get(classe);
+        if (task != null)
+            return task;
+        if (!visiting.add(classe))
+            throw new IllegalStateException("Cyclic feature dependency on " + classe.getSimpleName());
+
+        var dependencies = new ArrayList<CompletableFuture<Void>>();
+        var spec = classe.getAnnotation(FeatureSpec.class);
+        if (spec != null) {
+            for (var dependency : spec.dependsOn()) {
+                if (enabled.contains(dependency))
+                    dependencies.add(scheduleFeature(dependency, enabled, tasks, visiting, executorService, loader,
+                            pref, versionWpp));
+            }
+        }
+
+        Runnable load = () -> {
+            var span = StartupTrace.begin(classe.getSimpleName());
+            Throwable error = null;
+            try {
+                var constructor = classe.getConstructor(ClassLoader.class, XSharedPreferences.class);
+                var plugin = (Feature) constructor.newInstance(loader, pref);
+                plugin.doHook();
+            } catch (Throwable e) {
+                error = e;
+                XposedBridge.log(e);
+                ErrorDialogManager.addError(ErrorDialogManager.createError(classe.getSimpleName(), versionWpp, e));
+            }
+            StartupTrace.end(span, error);
+        };
+        task = dependencies.isEmpty()
+                ? CompletableFuture.runAsync(load, executorService)
+                : CompletableFuture.allOf(dependencies.toArray(new CompletableFuture[0])).thenRunAsync(load,
+                executorService);
+        tasks.put(classe, task);
+        visiting.remove(classe);
+        return task;
     }
 
 }
@@ -0,0 +1,32 @@
+package com.wmods.wppenhacer.xposed.core;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Describes when and in which order {@link FeatureLoader} installs a {@link Feature}.
+ * Features without this annotation are always loaded and have no dependencies.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface FeatureSpec {
+
+    /**
+     * Preferences that turn the feature on. The feature is loaded when any of them is set
+     * (true, a non-zero number, a non-empty set or a string other than "0"). Empty means always loaded.
+     */
+    String[] prefs() default {};
+
+    /**
+     * The gate preferences that count as set while the user never changed them, because the feature reads them
+     * with a default of true. Any other gate preference that was never changed counts as off.
+     */
+    String[] enabledByDefault() default {};
+
+    /**
+     * Features whose {@link Feature#doHook()} must finish before this one starts.
+     */
+    Class<? extends Feature>[] dependsOn() default {};
+}
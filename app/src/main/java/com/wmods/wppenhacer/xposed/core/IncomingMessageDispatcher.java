@@ -0,0 +1,185 @@
+package com.wmods.wppenhacer.xposed.core;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.wmods.wppenhacer.xposed.core.components.FMessageWpp;
+import com.wmods.wppenhacer.xposed.core.devkit.Unobfuscator;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import de.robv.android.xposed.XC_MethodHook;
+import de.robv.android.xposed.XposedBridge;
+
+/**
+ * Single entry point for incoming messages.
+ * <p>
+ * WhatsApp passes a received message through several methods. Listeners pick the one they are called from:
+ * {@link #SOURCE_INSERT} runs after the message is stored, when the FMessage is complete, and
+ * {@link #SOURCE_RECEIPT} runs when the delivery receipt is sent. Each source is hooked once for all features,
+ * wraps the message in a {@link FMessageWpp} a single time, drops repeated calls for the same message and
+ * calls the listeners on the dispatcher thread, so nothing slow runs on WhatsApp's message processing thread.
+ */
+public class IncomingMessageDispatcher {
+
+    public static final int SOURCE_RECEIPT = 0;
+    public static final int SOURCE_INSERT = 1;
+
+    private static final int RECENT_IDS = 512;
+
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private static final Source receipt = new Source();
+    private static final Source insert = new Source();
+
+    /**
+     * Registers a listener, installing the hook of its source on first use.
+     *
+     * @param source {@link #SOURCE_INSERT} or {@link #SOURCE_RECEIPT}
+     */
+    public static synchronized void subscribe(@NonNull ClassLoader classLoader, int source, @NonNull OnIncomingMessageListener listener) {
+        if (source == SOURCE_INSERT) {
+            insert.listeners.add(listener);
+            if (insert.hooked) return;
+            insert.hooked = true;
+            if (hookInsert(classLoader)) return;
+            // The messages still reach the listeners through the receipt, read back from the store
+            insert.fromReceipt = true;
+        } else {
+            receipt.listeners.add(listener);
+        }
+        if (receipt.hooked) return;
+        receipt.hooked = true;
+        hookReceipt(classLoader);
+    }
+
+    private static boolean hookInsert(ClassLoader classLoader) {
+        return hookSource("MessageInsert", () -> Unobfuscator.loadMessageInsertMethod(classLoader), new XC_MethodHook() {
+            @Override
+            protected void afterHookedMethod(MethodHookParam param) {
+                if (param.args == null || param.args.length == 0) return;
+                if (FMessageWpp.isFMessage(param.args[0])) dispatch(insert, param.args[0]);
+            }
+        });
+    }
+
+    private static void hookReceipt(ClassLoader classLoader) {
+        hookSource("Receipt", () -> Unobfuscator.loadReceiptMethod(classLoader), new XC_MethodHook() {
+            @Override
+            protected void beforeHookedMethod(MethodHookParam param) {
+                if (param.args == null || param.args.length < 4) return;
+                // "sender" receipts belong to outgoing messages
+                if (param.args.length > 4 && "sender".equals(param.args[4])) return;
+                if (param.args[1] == null || param.args[3] == null) return;
+                var fMessage = WppCore.getFMessageFromKey(param.args[3]);
+                var messageObj = fMessage != null ? fMessage : findFMessageInArgs(param.args);
+                dispatch(receipt, messageObj);
+                if (insert.fromReceipt) dispatch(insert, messageObj);
+            }
+        });
+    }
+
+    private static boolean hookSource(String name, MethodLoader loader, XC_MethodHook hook) {
+        try {
+            var method = loader.load();
+            if (method == null) return false;
+            XposedBridge.hookMethod(method, hook);
+            return true;
+        } catch (Throwable e) {
+            XposedBridge.log("IncomingMessageDispatcher: Failed to hook " + name + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static void dispatch(Source source, @Nullable Object messageObj) {
+        if (messageObj == null || source.listeners.isEmpty()) return;
+        try {
+            var fMessage = new FMessageWpp(messageObj);
+            if (!fMessage.isValid()) return;
+            var key = fMessage.getKey();
+            if (key == null || key.remoteJid == null || key.isFromMe) return;
+            if (!source.markSeen(key)) return;
+            executor.execute(() -> {
+                for (var listener : source.listeners) {
+                    try {
+                        listener.onIncomingMessage(fMessage);
+                    } catch (Throwable e) {
+                        XposedBridge.log(e);
+                    }
+                }
+            });
+        } catch (Throwable e) {
+            XposedBridge.log("IncomingMessageDispatcher: " + e.getMessage());
+        }
+    }
+
+    @Nullable
+    private static Object findFMessageInArgs(Object[] args) {
+        if (args == null) return null;
+        for (Object arg : args) {
+            if (arg == null) continue;
+            if (FMessageWpp.isFMessage(arg)) return arg;
+
+            if (arg instanceof Collection<?> collection) {
+                for (Object item : collection) {
+                    if (FMessageWpp.isFMessage(item)) return item;
+                }
+            }
+
+            var className = arg.getClass().getName();
+            if (!className.startsWith("X.") && !className.startsWith("com.whatsapp")) continue;
+            try {
+                for (Field field : arg.getClass().getDeclaredFields()) {
+                    if (!FMessageWpp.isFMessageClass(field.getType())) continue;
+                    field.setAccessible(true);
+                    var value = field.get(arg);
+                    if (value != null) return value;
+                }
+            } catch (Exception ignored) {
+            }
+        }
+        return null;
+    }
+
+    private interface MethodLoader {
+        Method load() throws Exception;
+    }
+
+    private static class Source {
+        final CopyOnWriteArrayList<OnIncomingMessageListener> listeners = new CopyOnWriteArrayList<>();
+        final Map<String, Boolean> recentIds = new LinkedHashMap<>(RECENT_IDS, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > RECENT_IDS;
+            }
+        };
+        boolean hooked;
+        volatile boolean fromReceipt;
+
+        /**
+         * @return false when the source already dispatched the message, e.g. a read receipt after the delivery one
+         */
+        boolean markSeen(FMessageWpp.Key key) {
+            if (key.messageID == null || key.messageID.isEmpty()) return true;
+            var id = key.remoteJid.getPhoneRawString() + ":" + key.messageID;
+            synchronized (recentIds) {
+                return recentIds.put(id, Boolean.TRUE) == null;
+            }
+        }
+    }
+
+    public abstract static class OnIncomingMessageListener {
+        /**
+         * Called once per received message, on the dispatcher thread.
+         *
+         * @param fMessage The message, never sent by the user
+         */
+        public abstract void onIncomingMessage(FMessageWpp fMessage);
+    }
+}
@@ -0,0 +1,291 @@
+package com.wmods.wppenhacer.xposed.core;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.wmods.wppenhacer.App;
+import com.wmods.wppenhacer.BuildConfig;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import de.robv.android.xposed.XposedBridge;
+
+/**
+ * Records how long each feature takes to install its hooks during {@link FeatureLoader} startup.
+ * <p>
+ * Every feature runs inside a {@link Span}. While a span is active on the current thread, the
+ * {@link com.wmods.wppenhacer.xposed.core.devkit.UnobfuscatorCache} reports each lookup as either a cache hit
+ * (reflection only) or a miss (DexKit scan). Whatever remains of the feature time is spent installing hooks.
+ * The result is exported in Chrome trace format (open it in chrome://tracing or Perfetto) into the WaEnhancer
+ * folder, where the module app reads the last report of each WhatsApp package.
+ * <p>
+ * Features are loaded from several executor threads. Each thread keeps its own stack of open spans, the spans
+ * are collected in a concurrent list, and a span is only written by the thread that opened it.
+ */
+public class StartupTrace {
+
+    private static final String TAG = "StartupTrace";
+    private static final String TRACE_FILE = "wae_startup_trace.json";
+
+    private static final ThreadLocal<ArrayDeque<Span>> openSpans = ThreadLocal.withInitial(ArrayDeque::new);
+    private static final List<Span> spans = new CopyOnWriteArrayList<>();
+    private static volatile long origin = System.nanoTime();
+    private static volatile long finished;
+
+    public static void start() {
+        spans.clear();
+        origin = System.nanoTime();
+        finished = 0;
+    }
+
+    public static void finish() {
+        finished = System.nanoTime();
+    }
+
+    @NonNull
+    public static Span begin(@NonNull String name) {
+        var span = new Span(name, Thread.currentThread());
+        openSpans.get().push(span);
+        spans.add(span);
+        return span;
+    }
+
+    public static void end(@NonNull Span span, @Nullable Throwable error) {
+        span.failed = error != null;
+        span.end = System.nanoTime();
+        openSpans.get().remove(span);
+    }
+
+    /**
+     * Marks the start of a cache lookup. Returns 0 when no feature is being traced on this thread.
+     */
+    public static long enterResolve() {
+        var span = openSpans.get().peek();
+        if (span == null) return 0;
+        span.depth++;
+        return System.nanoTime();
+    }
+
+    /**
+     * Closes a lookup opened by {@link #enterResolve()}. Nested lookups (loaders calling other loaders on a miss)
+     * are counted, but only the outermost one adds time, so DexKit time is never counted twice.
+     */
+    public static void exitResolve(long started, String key, boolean hit) {
+        var span = openSpans.get().peek();
+        if (span == null || started == 0) return;
+        span.depth--;
+        if (hit) span.hits++;
+        else span.misses++;
+        if (span.depth > 0) return;
+        long duration = System.nanoTime() - started;
+        if (hit) span.reflectionNanos += duration;
+        else span.dexkitNanos += duration;
+        span.resolves.add(new Resolve(key, started, duration, hit));
+    }
+
+    @NonNull
+    public static String summary() {
+        var sb = new StringBuilder();
+        var sorted = new ArrayList<>(spans);
+        sorted.sort(Comparator.comparingLong(Span::duration).reversed());
+        for (var span : sorted) {
+            sb.append(String.format(Locale.US, "* %s: %dms (dexkit %dms, cache %dms, hooks %dms, %d hits, %d misses)%s\n",
+                    span.name, ms(span.duration()), ms(span.dexkitNanos), ms(span.reflectionNanos),
+                    ms(span.hookNanos()), span.hits, span.misses, span.failed ? " [failed]" : ""));
+        }
+        var critical = criticalPath();
+        if (!critical.isEmpty()) {
+            long total = 0;
+            var names = new ArrayList<String>();
+            for (var span : critical) {
+                total += span.duration();
+                names.add(span.name);
+            }
+            sb.append(String.format(Locale.US, "Critical path (%s, %dms): %s\n",
+                    critical.get(0).threadName, ms(total), String.join(" -> ", names)));
+        }
+        sb.append(String.format(Locale.US, "Total: %dms", ms(wallNanos())));
+        return sb.toString();
+    }
+
+    /**
+     * The features that ran on the executor thread that finished last. That thread bounds the startup time,
+     * speeding up anything else does not make WhatsApp start faster.
+     */
+    @NonNull
+    private static List<Span> criticalPath() {
+        var byThread = new HashMap<Long, List<Span>>();
+        Span last = null;
+        for (var span : spans) {
+            byThread.computeIfAbsent(span.threadId, k -> new ArrayList<>()).add(span);
+            if (last == null || span.end > last.end) last = span;
+        }
+        if (last == null) return new ArrayList<>();
+        var lane = byThread.get(last.threadId);
+        lane.sort(Comparator.comparingLong(s -> s.start));
+        return lane;
+    }
+
+    private static long wallNanos() {
+        return (finished == 0 ? System.nanoTime() : finished) - origin;
+    }
+
+    @NonNull
+    public static JSONObject toChromeTrace(String packageName, String version) throws JSONException {
+        var events = new JSONArray();
+        for (var span : spans) {
+            var args = new JSONObject();
+            args.put("dexkit_ms", ms(span.dexkitNanos));
+            args.put("cache_ms", ms(span.reflectionNanos));
+            args.put("hooks_ms", ms(span.hookNanos()));
+            args.put("cache_hits", span.hits);
+            args.put("cache_misses", span.misses);
+            args.put("failed", span.failed);
+            events.put(event(span.name, "feature", span.start, span.duration(), span.threadId)
+                    .put("args", args));
+            for (var resolve : span.resolves) {
+                events.put(event(resolve.key, resolve.hit ? "cache" : "dexkit", resolve.start, resolve.duration,
+                        span.threadId));
+            }
+        }
+        for (var span : spans) {
+            events.put(new JSONObject()
+                    .put("name", "thread_name").put("ph", "M").put("pid", 1).put("tid", span.threadId)
+                    .put("args", new JSONObject().put("name", span.threadName)));
+        }
+        var trace = new JSONObject();
+        trace.put("traceEvents", events);
+        trace.put("displayTimeUnit", "ms");
+        trace.put("otherData", new JSONObject()
+                .put("package", packageName)
+                .put("version", version)
+                .put("module", BuildConfig.VERSION_NAME)
+                .put("total_ms", ms(wallNanos()))
+                .put("summary", summary()));
+        return trace;
+    }
+
+    private static JSONObject event(String name, String category, long start, long duration, long tid)
+            throws JSONException {
+        return new JSONObject()
+                .put("name", name)
+                .put("cat", category)
+                .put("ph", "X")
+                .put("ts", (start - origin) / 1000)
+                .put("dur", Math.max(1, duration / 1000))
+                .put("pid", 1)
+                .put("tid", tid);
+    }
+
+    /**
+     * Writes the trace into the WhatsApp data dir and a copy into the WaEnhancer folder for the module app.
+     */
+    public static void export(@NonNull Context context, String version) {
+        try {
+            var trace = toChromeTrace(context.getPackageName(), version).toString().getBytes(StandardCharsets.UTF_8);
+            try (var out = new FileOutputStream(new File(context.getFilesDir(), TRACE_FILE))) {
+                out.write(trace);
+            }
+            try (var out = new FileOutputStream(getTraceFile(context.getPackageName()))) {
+                out.write(trace);
+            }
+        } catch (Exception e) {
+            XposedBridge.log(e);
+        }
+    }
+
+    @NonNull
+    public static File getTraceFile(@NonNull String pkg) {
+        return new File(App.getWaEnhancerFolder(), getTraceFileName(pkg));
+    }
+
+    private static String getTraceFileName(String pkg) {
+        return "startup_trace_" + pkg + ".json";
+    }
+
+    /**
+     * Called from the module app.
+     *
+     * @return the human readable summary of the last trace written by {@code pkg}, or null if none
+     */
+    @Nullable
+    public static String readSummary(@NonNull String pkg) {
+        var file = getTraceFile(pkg);
+        if (!file.exists()) return null;
+        try {
+            var json = new JSONObject(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+            var data = json.getJSONObject("otherData");
+            return data.optString("version") + "\n" + data.optString("summary");
+        } catch (Exception e) {
+            Log.e(TAG, "Failed to read startup trace", e);
+            return null;
+        }
+    }
+
+    private static long ms(long nanos) {
+        return nanos / 1_000_000;
+    }
+
+    public static class Span {
+        final String name;
+        final long threadId;
+        final String threadName;
+        final long start = System.nanoTime();
+        // Written by the thread that opened the span only, volatile so the exporting thread sees the last values
+        final Queue<Resolve> resolves = new ConcurrentLinkedQueue<>();
+        volatile long end;
+        volatile boolean failed;
+        int depth;
+        volatile int hits;
+        volatile int misses;
+        volatile long dexkitNanos;
+        volatile long reflectionNanos;
+
+        Span(String name, Thread thread) {
+            this.name = name;
+            this.threadId = thread.getId();
+            this.threadName = thread.getName();
+        }
+
+        long duration() {
+            return (end == 0 ? System.nanoTime() : end) - start;
+        }
+
+        long hookNanos() {
+            return Math.max(0, duration() - dexkitNanos - reflectionNanos);
+        }
+    }
+
+    private static class Resolve {
+        final String key;
+        final long start;
+        final long duration;
+        final boolean hit;
+
+        Resolve(String key, long start, long duration, boolean hit) {
+            this.key = key;
+            this.start = start;
+            this.duration = duration;
+            this.hit = hit;
+        }
+    }
+}
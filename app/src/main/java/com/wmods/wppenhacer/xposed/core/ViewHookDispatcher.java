@@ -0,0 +1,142 @@
+package com.wmods.wppenhacer.xposed.core;
+
+import android.util.SparseArray;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import de.robv.android.xposed.XC_MethodHook;
+import de.robv.android.xposed.XposedBridge;
+import de.robv.android.xposed.XposedHelpers;
+
+/**
+ * Single owner of the hooks on {@link View} methods that run for every view of every frame.
+ * <p>
+ * Each framework method is hooked once, the first time a feature needs it. Features register listeners for the
+ * view ids they care about, and a hooked call looks up the id in an int keyed table, so views nobody registered
+ * cost one lookup. Views that must stay hidden are kept in a weak set checked by a single setVisibility hook.
+ */
+public class ViewHookDispatcher {
+
+    public static final int INVALIDATE = 0;
+    public static final int REQUEST_LAYOUT = 1;
+
+    private static final int EVENT_COUNT = 2;
+
+    private static final AtomicReferenceArray<SparseArray<OnViewEventListener[]>> listeners = new AtomicReferenceArray<>(EVENT_COUNT);
+    private static final boolean[] hooked = new boolean[EVENT_COUNT];
+    private static final Set<View> hiddenViews = Collections.newSetFromMap(new WeakHashMap<>());
+    private static volatile boolean hasHiddenViews;
+    private static boolean visibilityHooked;
+
+    static {
+        for (int i = 0; i < EVENT_COUNT; i++) {
+            listeners.set(i, new SparseArray<>());
+        }
+    }
+
+    /**
+     * Calls the listener after the event, for each view with the given id.
+     *
+     * @param event {@link #INVALIDATE} or {@link #REQUEST_LAYOUT}
+     */
+    public static synchronized void register(int event, int viewId, @NonNull OnViewEventListener listener) {
+        if (viewId == View.NO_ID) return;
+        // Copy on write, the hooks read the table without locking
+        var table = listeners.get(event).clone();
+        var current = table.get(viewId);
+        if (current == null) {
+            table.put(viewId, new OnViewEventListener[]{listener});
+        } else {
+            var updated = Arrays.copyOf(current, current.length + 1);
+            updated[current.length] = listener;
+            table.put(viewId, updated);
+        }
+        listeners.set(event, table);
+        if (!hooked[event]) {
+            hooked[event] = true;
+            hookEvent(event);
+        }
+    }
+
+    /**
+     * Hides the view and ignores any later attempt to show it again.
+     */
+    public static void keepHidden(@NonNull View view) {
+        synchronized (ViewHookDispatcher.class) {
+            if (!visibilityHooked) {
+                visibilityHooked = true;
+                hookVisibility();
+            }
+        }
+        synchronized (hiddenViews) {
+            hiddenViews.add(view);
+            hasHiddenViews = true;
+        }
+        view.setVisibility(View.GONE);
+    }
+
+    private static void hookEvent(int event) {
+        var hook = new XC_MethodHook() {
+            @Override
+            protected void afterHookedMethod(MethodHookParam param) {
+                dispatch(event, (View) param.thisObject);
+            }
+        };
+        try {
+            switch (event) {
+                case INVALIDATE -> XposedHelpers.findAndHookMethod(View.class, "invalidate", boolean.class, hook);
+                case REQUEST_LAYOUT -> XposedHelpers.findAndHookMethod(View.class, "requestLayout", hook);
+            }
+        } catch (Throwable e) {
+            XposedBridge.log("ViewHookDispatcher: Failed to hook event " + event + ": " + e.getMessage());
+        }
+    }
+
+    private static void dispatch(int event, View view) {
+        int id = view.getId();
+        if (id == View.NO_ID) return;
+        var viewListeners = listeners.get(event).get(id);
+        if (viewListeners == null) return;
+        for (var listener : viewListeners) {
+            try {
+                listener.onViewEvent(view);
+            } catch (Throwable e) {
+                XposedBridge.log(e);
+            }
+        }
+    }
+
+    private static void hookVisibility() {
+        try {
+            XposedHelpers.findAndHookMethod(View.class, "setVisibility", int.class, new XC_MethodHook() {
+                @Override
+                protected void beforeHookedMethod(MethodHookParam param) {
+                    if (!hasHiddenViews || (int) param.args[0] == View.GONE) return;
+                    boolean hidden;
+                    synchronized (hiddenViews) {
+                        hidden = hiddenViews.contains((View) param.thisObject);
+                    }
+                    if (hidden) param.setResult(null);
+                }
+            });
+        } catch (Throwable e) {
+            XposedBridge.log("ViewHookDispatcher: Failed to hook setVisibility: " + e.getMessage());
+        }
+    }
+
+    public abstract static class OnViewEventListener {
+        /**
+         * Called on the thread of the hooked call, after it returns.
+         *
+         * @param view A view with the id the listener was registered for
+         */
+        public abstract void onViewEvent(View view);
+    }
+}
@@ -21,6 +21,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import de.robv.android.xposed.XposedBridge;
 import de.robv.android.xposed.XposedHelpers;
@@ -455,114 +456,14 @@ public class FMessageWpp {
                 return;
 
             try {
-                // 1. Find MessageID (String)
-                boolean foundId = false;
-
-                // Prioritize Unobfuscator field
-                if (keyMessageIdField != null) {
-                    try {
-                        String val = (String) keyMessageIdField.get(key);
-                        if (val != null) {
-                            this.messageID = val;
-                            foundId = true;
-                        }
-                    } catch (Exception ignored) {
-                    }
-                }
-
-                if (!foundId) {
-                    for (Field f : key.getClass().getDeclaredFields()) {
-                        if (f.getType() == String.class) {
-                            f.setAccessible(true);
-                            try {
-                                String val = (String) f.get(key);
-                                if (val != null && val.length() > 5) {
-                                    this.messageID = val;
-                                    foundId = true;
-                                    break;
-                                }
-                            } catch (Exception ignored) {
-                            }
-                        }
-                    }
-                }
-
-                // 2. Find isFromMe (boolean)
-                boolean foundFromMe = false;
-                for (Field f : key.getClass().getDeclaredFields()) {
-                    if (f.getType() == boolean.class) {
-                        f.setAccessible(true);
-                        try {
-                            this.isFromMe = f.getBoolean(key);
-                            foundFromMe = true;
-                            break;
-                        } catch (Exception ignored) {
-                        }
-                    }
-                }
-
-                // 3. Find RemoteJid
-                boolean foundJid = false;
-                for (Field f : key.getClass().getDeclaredFields()) {
-                    if (f.getType().getName().contains("Jid")) {
-                        f.setAccessible(true);
-                        try {
-                            Object val = f.get(key);
-                            if (val != null) {
-                                this.remoteJid = new UserJid(val);
-                                foundJid = true;
-                                break;
-                            }
-                        } catch (Exception ignored) {
-                        }
-                    }
-                }
-                // Last resort hardcoded
-                try {
-                    Object val = XposedHelpers.getObjectField(key, "A01");
-                    if (val instanceof String)
-                        this.messageID = (String) val;
-                } catch (Exception ignored) {
-                }
-
-                if (!foundFromMe && keyFromMeField != null) {
-                    try {
-                        this.isFromMe = keyFromMeField.getBoolean(key);
-                    } catch (Exception e) {
-                        try {
-                            this.isFromMe = XposedHelpers.getBooleanField(key, "A02");
-                        } catch (Exception ignored) {
-                        }
-                    }
-                } else if (!foundFromMe) {
-                    try {
-                        this.isFromMe = XposedHelpers.getBooleanField(key, "A02");
-                    } catch (Exception ignored) {
-                    }
-                }
-
-                if (!foundJid && keyRemoteJidField != null) {
-                    try {
-                        Object val = keyRemoteJidField.get(key);
-                        if (val != null)
-                            this.remoteJid = new UserJid(val);
-                    } catch (Exception e) {
-                        try {
-                            Object val = XposedHelpers.getObjectField(key, "A00");
-                            if (val != null)
-                                this.remoteJid = new UserJid(val);
-                        } catch (Exception ignored) {
-                        }
-                    }
-                } else if (!foundJid) {
-                    try {
-                        Object val = XposedHelpers.getObjectField(key, "A00");
-                        if (val != null)
-                            this.remoteJid = new UserJid(val);
-                    } catch (Exception ignored) {
-                    }
-                }
-
+                var layout = KeyLayout.of(key.getClass());
+                var id = layout.readMessageId(key);
+                if (id != null)
+                    this.messageID = id;
+                this.isFromMe = layout.readFromMe(key);
+                var jid = layout.readRemoteJid(key);
+                if (jid != null)
+                    this.remoteJid = new UserJid(jid);
             } catch (Exception e) {
                 XposedBridge.log("Key constructor error: " + e.getMessage());
             }
@@ -602,6 +503,96 @@ public class FMessageWpp {
         }
     }
 
+    /**
+     * Where the message ID, fromMe flag and remote JID live in a key class. Resolved once per class, so building
+     * a {@link Key} only reads fields. Each candidate list keeps the order the fields used to be probed in and
+     * the first usable value wins.
+     */
+    private static class KeyLayout {
+
+        private static final ConcurrentHashMap<Class<?>, KeyLayout> layouts = new ConcurrentHashMap<>();
+
+        private final Field[] idFields;
+        private final int scannedIdFrom;
+        private final Field[] fromMeFields;
+        private final Field[] jidFields;
+
+        private KeyLayout(Class<?> cls) {
+            var declared = cls.getDeclaredFields();
+            var ids = new ArrayList<Field>();
+            addIfExists(ids, XposedHelpers.findFieldIfExists(cls, "A01"));
+            if (keyMessageIdField != null && keyMessageIdField.getDeclaringClass().isAssignableFrom(cls))
+                addIfExists(ids, keyMessageIdField);
+            scannedIdFrom = ids.size();
+            var fromMe = new ArrayList<Field>();
+            var jids = new ArrayList<Field>();
+            for (Field f : declared) {
+                if (f.getType() == String.class) {
+                    addIfExists(ids, f);
+                } else if (f.getType() == boolean.class) {
+                    addIfExists(fromMe, f);
+                } else if (f.getType().getName().contains("Jid")) {
+                    addIfExists(jids, f);
+                }
+            }
+            if (keyFromMeField != null && keyFromMeField.getDeclaringClass().isAssignableFrom(cls))
+                addIfExists(fromMe, keyFromMeField);
+            addIfExists(fromMe, XposedHelpers.findFieldIfExists(cls, "A02"));
+            if (keyRemoteJidField != null && keyRemoteJidField.getDeclaringClass().isAssignableFrom(cls))
+                addIfExists(jids, keyRemoteJidField);
+            addIfExists(jids, XposedHelpers.findFieldIfExists(cls, "A00"));
+            idFields = ids.toArray(new Field[0]);
+            fromMeFields = fromMe.toArray(new Field[0]);
+            jidFields = jids.toArray(new Field[0]);
+        }
+
+        static KeyLayout of(Class<?> cls) {
+            return layouts.computeIfAbsent(cls, KeyLayout::new);
+        }
+
+        private static void addIfExists(List<Field> fields, Field field) {
+            if (field == null || fields.contains(field))
+                return;
+            field.setAccessible(true);
+            fields.add(field);
+        }
+
+        @Nullable
+        String readMessageId(Object key) {
+            for (int i = 0; i < idFields.length; i++) {
+                try {
+                    if (idFields[i].get(key) instanceof String val && (i < scannedIdFrom || val.length() > 5))
+                        return val;
+                } catch (Exception ignored) {
+                }
+            }
+            return null;
+        }
+
+        boolean readFromMe(Object key) {
+            for (Field f : fromMeFields) {
+                try {
+                    return f.getBoolean(key);
+                } catch (Exception ignored) {
+                }
+            }
+            return false;
+        }
+
+        @Nullable
+        Object readRemoteJid(Object key) {
+            for (Field f : jidFields) {
+                try {
+                    var val = f.get(key);
+                    if (val != null)
+                        return val;
+                } catch (Exception ignored) {
+                }
+            }
+            return null;
+        }
+    }
+
     public static class UserJid {
 
         public Object phoneJid;
@@ -359,7 +359,7 @@ public class AutoReplyDatabase extends SQLiteOpenHelper {
 
     // ==================== JSON Sync for Cross-App Access ====================
 
-    private static final String PREFS_KEY_RULES = "auto_reply_rules_json";
+    public static final String PREFS_KEY_RULES = "auto_reply_rules_json";
 
     /**
      * Sync all enabled rules to SharedPreferences as JSON.
@@ -442,7 +442,7 @@ public class AutoReplyDatabase extends SQLiteOpenHelper {
         return rules;
     }
 
-    private static List<AutoReplyRule> parseRulesJson(String json) {
+    public static List<AutoReplyRule> parseRulesJson(String json) {
         List<AutoReplyRule> rules = new ArrayList<>();
         if (json == null || json.isEmpty() || json.equals("[]")) {
             return rules;
@@ -1,26 +1,40 @@
 package com.wmods.wppenhacer.xposed.core.db;
 
-import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
 
 import androidx.annotation.NonNull;
 
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import de.robv.android.xposed.XposedBridge;
 
 public class DelMessageStore extends SQLiteOpenHelper {
     private static DelMessageStore mInstance;
 
+    private SQLiteDatabase db;
+    private SQLiteStatement insertStatement;
+    private SQLiteStatement containsStatement;
+
+    // Revokes arrive in bursts (e.g. an admin clearing a busy group), the ones queued while a transaction
+    // commits are written together in the next one
+    private final List<Object[]> pendingInserts = new ArrayList<>();
+
     private DelMessageStore(@NonNull Context context) {
-        super(context, "delmessages.db", null, 6);
+        super(context, "delmessages.db", null, 7);
+        setWriteAheadLoggingEnabled(true);
     }
 
     public static DelMessageStore getInstance(Context ctx) {
         synchronized (DelMessageStore.class) {
-            if (mInstance == null || !mInstance.getWritableDatabase().isOpen()) {
+            if (mInstance == null || !mInstance.db.isOpen()) {
                 mInstance = new DelMessageStore(ctx);
+                mInstance.db = mInstance.getWritableDatabase();
             }
         }
         return mInstance;
@@ -33,6 +47,9 @@ public class DelMessageStore extends SQLiteOpenHelper {
                 sqLiteDatabase.execSQL("ALTER TABLE delmessages ADD COLUMN timestamp INTEGER DEFAULT 0;");
             }
         }
+        if (oldVersion < 7) {
+            sqLiteDatabase.execSQL("CREATE INDEX IF NOT EXISTS delmessages_msgid ON delmessages(msgid)");
+        }
     }
 
     @Override
@@ -40,43 +57,88 @@ public class DelMessageStore extends SQLiteOpenHelper {
         // Allow downgrade without error
     }
 
+    /**
+     * Stores the revoke before returning, so it blocks on the disk and is only called from background threads.
+     * A caller arriving while another transaction commits waits for it and writes every revoke queued meanwhile
+     * in one transaction.
+     */
     public void insertMessage(String jid, String msgid, long timestamp) {
-        try (SQLiteDatabase dbWrite = this.getWritableDatabase()) {
-            ContentValues values = new ContentValues();
-            values.put("jid", jid);
-            values.put("msgid", msgid);
-            values.put("timestamp", timestamp);
-            dbWrite.insert("delmessages", null, values);
+        synchronized (pendingInserts) {
+            pendingInserts.add(new Object[]{jid, msgid, timestamp});
+        }
+        flush();
+    }
+
+    /**
+     * Writes the queued revokes. The batch is taken and committed under the same lock, so a reader calling
+     * this first waits for a transaction in progress and always sees the revokes stored before it.
+     */
+    public synchronized void flush() {
+        List<Object[]> batch;
+        synchronized (pendingInserts) {
+            if (pendingInserts.isEmpty()) return;
+            batch = new ArrayList<>(pendingInserts);
+            pendingInserts.clear();
+        }
+        db.beginTransaction();
+        try {
+            if (insertStatement == null) {
+                insertStatement = db.compileStatement("INSERT OR IGNORE INTO delmessages (jid, msgid, timestamp) VALUES (?, ?, ?)");
+            }
+            for (var row : batch) {
+                insertStatement.clearBindings();
+                if (row[0] != null) insertStatement.bindString(1, (String) row[0]);
+                if (row[1] != null) insertStatement.bindString(2, (String) row[1]);
+                insertStatement.bindLong(3, (long) row[2]);
+                insertStatement.executeInsert();
+            }
+            db.setTransactionSuccessful();
+        } catch (Exception e) {
+            XposedBridge.log("DelMessageStore: Failed to write revoked messages: " + e.getMessage());
+        } finally {
+            db.endTransaction();
         }
     }
 
-    public HashSet<String> getMessagesByJid(String jid) {
-        HashSet<String> messages = new HashSet<>();
+    /**
+     * @return the deleted message ids of a chat, mapped to the time they were deleted (0 when unknown)
+     */
+    public HashMap<String, Long> getTimestampsByJid(String jid) {
+        HashMap<String, Long> messages = new HashMap<>();
         if (jid == null) return messages;
-        SQLiteDatabase dbReader = this.getReadableDatabase();
-        try (dbReader; Cursor query = dbReader.query("delmessages", new String[]{"_id", "jid", "msgid"}, "jid=?", new String[]{jid}, null, null, null)) {
-            if (query.moveToFirst()) {
-                do {
-                    messages.add(query.getString(query.getColumnIndexOrThrow("msgid")));
-                } while (query.moveToNext());
+        flush();
+        try (Cursor query = db.query("delmessages", new String[]{"msgid", "timestamp"}, "jid=?", new String[]{jid}, null, null, null)) {
+            while (query.moveToNext()) {
+                messages.put(query.getString(0), query.getLong(1));
             }
         }
         return messages;
     }
 
+    /**
+     * @return true when the message of the chat is stored as deleted
+     */
+    public boolean containsMessage(String jid, String msgid) {
+        if (jid == null || msgid == null) return false;
+        flush();
+        synchronized (this) {
+            if (containsStatement == null) {
+                containsStatement = db.compileStatement("SELECT COUNT(*) FROM delmessages WHERE jid=? AND msgid=?");
+            }
+            containsStatement.bindString(1, jid);
+            containsStatement.bindString(2, msgid);
+            try {
+                return containsStatement.simpleQueryForLong() > 0;
+            } finally {
+                containsStatement.clearBindings();
+            }
+        }
+    }
+
     @Override
     public void onCreate(SQLiteDatabase sqLiteDatabase) {
         sqLiteDatabase.execSQL("CREATE TABLE IF NOT EXISTS delmessages (_id INTEGER PRIMARY KEY AUTOINCREMENT, jid TEXT, msgid TEXT, timestamp INTEGER DEFAULT 0, UNIQUE(jid, msgid))");
-    }
-
-    public long getTimestampByMessageId(String msgid) {
-        SQLiteDatabase dbReader = this.getReadableDatabase();
-        try (dbReader; Cursor query = dbReader.query("delmessages", new String[]{"timestamp"}, "msgid=?", new String[]{msgid}, null, null, null)) {
-            if (query.moveToFirst()) {
-                return query.getLong(query.getColumnIndexOrThrow("timestamp"));
-            }
-            return 0;
-        }
+        sqLiteDatabase.execSQL("CREATE INDEX IF NOT EXISTS delmessages_msgid ON delmessages(msgid)");
     }
 
     private boolean checkColumnExists(SQLiteDatabase db, String tableName, String columnName) {
@@ -94,4 +156,4 @@ public class DelMessageStore extends SQLiteOpenHelper {
         }
         return false;
     }
-}
\ No newline at end of file
+}
@@ -1,10 +1,12 @@
 package com.wmods.wppenhacer.xposed.core.db;
 
-import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
+import android.database.SQLException;
 import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteDoneException;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
 import android.util.LruCache;
 
 import androidx.annotation.Nullable;
@@ -13,6 +15,8 @@ import com.wmods.wppenhacer.xposed.core.components.FMessageWpp;
 import com.wmods.wppenhacer.xposed.utils.Utils;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 import lombok.AccessLevel;
@@ -23,6 +27,10 @@ import lombok.RequiredArgsConstructor;
 public class MessageHistory extends SQLiteOpenHelper {
     private static MessageHistory mInstance;
     private SQLiteDatabase dbWrite;
+    private SQLiteStatement insertMessageStatement;
+    private SQLiteStatement insertSeenStatement;
+    private SQLiteStatement updateSeenStatement;
+    private SQLiteStatement viewedStatement;
 
     private static final int MESSAGE_CACHE_SIZE = 100;
     private static final int SEEN_MESSAGE_CACHE_SIZE = 200;
@@ -37,7 +45,8 @@ public class MessageHistory extends SQLiteOpenHelper {
     }
 
     public MessageHistory(Context context) {
-        super(context, "MessageHistory.db", null, 2);
+        super(context, "MessageHistory.db", null, 3);
+        setWriteAheadLoggingEnabled(true);
         messagesCache = new LruCache<>(MESSAGE_CACHE_SIZE);
         seenMessageCache = new LruCache<>(SEEN_MESSAGE_CACHE_SIZE);
         seenMessagesListCache = new LruCache<>(SEEN_MESSAGES_LIST_CACHE_SIZE);
@@ -55,11 +64,19 @@ public class MessageHistory extends SQLiteOpenHelper {
 
     public final void insertMessage(long id, String message, long timestamp) {
         synchronized (this) {
-            ContentValues contentValues0 = new ContentValues();
-            contentValues0.put("row_id", id);
-            contentValues0.put("text_data", message);
-            contentValues0.put("editTimestamp", timestamp);
-            dbWrite.insert("MessageHistory", null, contentValues0);
+            if (insertMessageStatement == null) {
+                insertMessageStatement = dbWrite.compileStatement("INSERT INTO MessageHistory (row_id, text_data, editTimestamp) VALUES (?, ?, ?)");
+            }
+            insertMessageStatement.bindLong(1, id);
+            if (message != null) insertMessageStatement.bindString(2, message);
+            insertMessageStatement.bindLong(3, timestamp);
+            try {
+                insertMessageStatement.executeInsert();
+            } catch (SQLException e) {
+                // text_data is NOT NULL, like insert() this only skips the row
+            } finally {
+                insertMessageStatement.clearBindings();
+            }
 
             // Invalidate cache for this message ID
             messagesCache.remove(id);
@@ -96,14 +113,20 @@ public class MessageHistory extends SQLiteOpenHelper {
 
     public final void insertHideSeenMessage(String jid, String message_id, MessageType type, boolean viewed) {
         synchronized (this) {
-            if (updateViewedMessage(jid, message_id, type, viewed)) {
+            // UPSERT needs SQLite 3.24 (Android 11), the unique index gives the same result in two statements
+            if (insertSeenStatement == null) {
+                insertSeenStatement = dbWrite.compileStatement("INSERT OR IGNORE INTO hide_seen_messages (jid, message_id, type, viewed) VALUES (?, ?, ?, ?)");
+            }
+            insertSeenStatement.bindString(1, jid);
+            insertSeenStatement.bindString(2, message_id);
+            insertSeenStatement.bindLong(3, type.ordinal());
+            insertSeenStatement.bindLong(4, viewed ? 1 : 0);
+            long rowId = insertSeenStatement.executeInsert();
+            insertSeenStatement.clearBindings();
+            if (rowId == -1) {
+                updateViewedMessage(jid, message_id, type, viewed);
                 return;
             }
-            ContentValues content = new ContentValues();
-            content.put("jid", jid);
-            content.put("message_id", message_id);
-            content.put("type", type.ordinal());
-            dbWrite.insert("hide_seen_messages", null, content);
 
             // Invalidate caches
             String cacheKey = createSeenMessageCacheKey(jid, message_id, type);
@@ -113,15 +136,17 @@ public class MessageHistory extends SQLiteOpenHelper {
     }
 
     public boolean updateViewedMessage(String jid, String message_id, MessageType type, boolean viewed) {
-        Cursor cursor = dbWrite.query("hide_seen_messages", new String[]{"_id"}, "jid=? AND message_id=? AND type =?", new String[]{jid, message_id, String.valueOf(type.ordinal())}, null, null, null);
-        if (!cursor.moveToFirst()) {
-            cursor.close();
-            return false;
-        }
         synchronized (this) {
-            ContentValues content = new ContentValues();
-            content.put("viewed", viewed ? 1 : 0);
-            dbWrite.update("hide_seen_messages", content, "_id=?", new String[]{cursor.getString(cursor.getColumnIndexOrThrow("_id"))});
+            if (updateSeenStatement == null) {
+                updateSeenStatement = dbWrite.compileStatement("UPDATE hide_seen_messages SET viewed=? WHERE jid=? AND message_id=? AND type=?");
+            }
+            updateSeenStatement.bindLong(1, viewed ? 1 : 0);
+            updateSeenStatement.bindString(2, jid);
+            updateSeenStatement.bindString(3, message_id);
+            updateSeenStatement.bindLong(4, type.ordinal());
+            int updated = updateSeenStatement.executeUpdateDelete();
+            updateSeenStatement.clearBindings();
+            if (updated == 0) return false;
 
             // Update cache or invalidate
             String cacheKey = createSeenMessageCacheKey(jid, message_id, type);
@@ -131,10 +156,41 @@ public class MessageHistory extends SQLiteOpenHelper {
             }
             invalidateSeenMessagesListCache(jid, type);
         }
-        cursor.close();
         return true;
     }
 
+    /**
+     * Sets the viewed flag of many messages of one chat with a single statement per 500 ids, in one transaction.
+     */
+    public void updateViewedMessages(String jid, Collection<String> messageIds, MessageType type, boolean viewed) {
+        if (messageIds.isEmpty()) return;
+        var ids = new ArrayList<>(messageIds);
+        synchronized (this) {
+            dbWrite.beginTransaction();
+            try {
+                // stay below SQLITE_MAX_VARIABLE_NUMBER on older devices
+                for (int start = 0; start < ids.size(); start += 500) {
+                    var chunk = ids.subList(start, Math.min(start + 500, ids.size()));
+                    var args = new ArrayList<Object>(chunk.size() + 3);
+                    args.add(viewed ? 1 : 0);
+                    args.add(jid);
+                    args.add(type.ordinal());
+                    args.addAll(chunk);
+                    var placeholders = String.join(",", Collections.nCopies(chunk.size(), "?"));
+                    dbWrite.execSQL("UPDATE hide_seen_messages SET viewed=? WHERE jid=? AND type=? AND message_id IN (" + placeholders + ")", args.toArray());
+                }
+                dbWrite.setTransactionSuccessful();
+            } finally {
+                dbWrite.endTransaction();
+            }
+
+            for (var messageId : ids) {
+                seenMessageCache.remove(createSeenMessageCacheKey(jid, messageId, type));
+            }
+            invalidateSeenMessagesListCache(jid, type);
+        }
+    }
+
     public MessageSeenItem getHideSeenMessage(String jid, String message_id, MessageType type) {
         // Check cache first
         String cacheKey = createSeenMessageCacheKey(jid, message_id, type);
@@ -144,14 +200,23 @@ public class MessageHistory extends SQLiteOpenHelper {
         }
 
         // If not in cache, query database
-        Cursor cursor = dbWrite.query("hide_seen_messages", new String[]{"viewed"}, "jid=? AND message_id=? AND type=?", new String[]{jid, message_id, String.valueOf(type.ordinal())}, null, null, null);
-        if (!cursor.moveToFirst()) {
-            cursor.close();
-            return null;
+        boolean viewed;
+        synchronized (this) {
+            if (viewedStatement == null) {
+                viewedStatement = dbWrite.compileStatement("SELECT viewed FROM hide_seen_messages WHERE jid=? AND message_id=? AND type=?");
+            }
+            viewedStatement.bindString(1, jid);
+            viewedStatement.bindString(2, message_id);
+            viewedStatement.bindLong(3, type.ordinal());
+            try {
+                viewed = viewedStatement.simpleQueryForLong() == 1;
+            } catch (SQLiteDoneException e) {
+                return null;
+            } finally {
+                viewedStatement.clearBindings();
+            }
         }
-        var viewed = cursor.getInt(cursor.getColumnIndexOrThrow("viewed")) == 1;
         var message = new MessageSeenItem(jid, message_id, viewed);
-        cursor.close();
 
         // Store in cache
         seenMessageCache.put(cacheKey, message);
@@ -193,6 +258,7 @@ public class MessageHistory extends SQLiteOpenHelper {
     public void onCreate(SQLiteDatabase sqLiteDatabase) {
         sqLiteDatabase.execSQL("create table MessageHistory(_id INTEGER PRIMARY KEY AUTOINCREMENT, row_id INTEGER NOT NULL, text_data TEXT NOT NULL, editTimestamp BIGINT DEFAULT 0 );");
         sqLiteDatabase.execSQL("create table hide_seen_messages(_id INTEGER PRIMARY KEY AUTOINCREMENT, jid TEXT NOT NULL, message_id TEXT NOT NULL,type INT NOT NULL, viewed INT DEFAULT 0);");
+        createIndexes(sqLiteDatabase);
     }
 
     @Override
@@ -200,6 +266,19 @@ public class MessageHistory extends SQLiteOpenHelper {
         if (oldVersion < 2) {
             sqLiteDatabase.execSQL("create table hide_seen_messages(_id INTEGER PRIMARY KEY AUTOINCREMENT, jid TEXT NOT NULL, message_id TEXT NOT NULL,type INT NOT NULL, viewed INT DEFAULT 0);");
         }
+        if (oldVersion < 3) {
+            // The old query-then-insert could race into duplicates, keep the newest row of each message
+            sqLiteDatabase.execSQL("DELETE FROM hide_seen_messages WHERE _id NOT IN (SELECT MAX(_id) FROM hide_seen_messages GROUP BY jid, message_id, type)");
+            createIndexes(sqLiteDatabase);
+        }
+    }
+
+    private static void createIndexes(SQLiteDatabase sqLiteDatabase) {
+        sqLiteDatabase.execSQL("CREATE INDEX IF NOT EXISTS message_history_row_id ON MessageHistory(row_id)");
+        // Lookups of one message, and the constraint INSERT OR IGNORE relies on
+        sqLiteDatabase.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS hide_seen_messages_key ON hide_seen_messages(jid, message_id, type)");
+        // Covers getHideSeenMessages
+        sqLiteDatabase.execSQL("CREATE INDEX IF NOT EXISTS hide_seen_messages_list ON hide_seen_messages(jid, type, viewed, message_id)");
     }
 
     private String createSeenMessageCacheKey(String jid, String message_id, MessageType type) {
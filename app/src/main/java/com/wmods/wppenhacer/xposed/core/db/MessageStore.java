@@ -1,22 +1,39 @@
 package com.wmods.wppenhacer.xposed.core.db;
 
 import android.database.Cursor;
+import android.database.DatabaseUtils;
 import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteDoneException;
+import android.database.sqlite.SQLiteStatement;
 
 import com.wmods.wppenhacer.xposed.utils.Utils;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 import android.util.LruCache;
 import de.robv.android.xposed.XposedBridge;
 
+/**
+ * Data access for WhatsApp's msgstore.db.
+ * <p>
+ * Lookups go through a read-only connection and single value queries are compiled once and kept in
+ * {@link #statements}. Lookups by many ids or keys are done with IN lists of bound arguments.
+ */
 public class MessageStore {
 
+    // stay below SQLITE_MAX_VARIABLE_NUMBER on older devices
+    private static final int MAX_BOUND_ARGS = 500;
+
     private static MessageStore mInstance;
     private SQLiteDatabase sqLiteDatabase;
+    private SQLiteDatabase readDatabase;
+    private final HashMap<String, SQLiteStatement> statements = new HashMap<>();
     private final LruCache<Long, String> messageIdCache = new LruCache<>(200);
     private final LruCache<String, String> messageKeyCache = new LruCache<>(200);
     private final LruCache<String, Long> keyToIdCache = new LruCache<>(200);
@@ -26,11 +43,17 @@ public class MessageStore {
         try {
             var dataDir = Utils.getApplication().getFilesDir().getParentFile();
             var dbFile = new File(dataDir, "/databases/msgstore.db");
-            
+
             XposedBridge.log("MessageStore: Initializing. DB Path: " + dbFile.getAbsolutePath());
 
             if (dbFile.exists()) {
                 sqLiteDatabase = SQLiteDatabase.openDatabase(dbFile.getAbsolutePath(), null, SQLiteDatabase.OPEN_READWRITE);
+                try {
+                    readDatabase = SQLiteDatabase.openDatabase(dbFile.getAbsolutePath(), null, SQLiteDatabase.OPEN_READONLY);
+                } catch (Exception e) {
+                    XposedBridge.log("MessageStore: Read-only connection unavailable, using the writable one: " + e.getMessage());
+                    readDatabase = sqLiteDatabase;
+                }
                 XposedBridge.log("MessageStore: Database opened successfully.");
             } else {
                 XposedBridge.log("MessageStore: msgstore.db does not exist yet.");
@@ -47,8 +70,9 @@ public class MessageStore {
                 mInstance = new MessageStore();
             } else {
                 // If instance exists but DB is closed or null, try to reopen
-                if (mInstance.sqLiteDatabase == null || !mInstance.sqLiteDatabase.isOpen()) {
+                if (!mInstance.isOpen()) {
                     XposedBridge.log("MessageStore: Instance exists but DB closed/null. Retrying init.");
+                    mInstance.close();
                     mInstance = new MessageStore();
                 }
             }
@@ -56,64 +80,137 @@ public class MessageStore {
         return mInstance;
     }
 
+    /**
+     * Releases the compiled statements and the connections of an instance being replaced.
+     */
+    private void close() {
+        synchronized (statements) {
+            for (var statement : statements.values()) {
+                try {
+                    statement.close();
+                } catch (Exception ignored) {
+                }
+            }
+            statements.clear();
+        }
+        try {
+            if (readDatabase != null && readDatabase != sqLiteDatabase) readDatabase.close();
+            if (sqLiteDatabase != null) sqLiteDatabase.close();
+        } catch (Exception e) {
+            XposedBridge.log("MessageStore: Error closing database: " + e.getMessage());
+        }
+    }
+
+    private boolean isOpen() {
+        return sqLiteDatabase != null && sqLiteDatabase.isOpen() && readDatabase != null && readDatabase.isOpen();
+    }
+
+    /**
+     * Runs a compiled single value query on the read-only connection.
+     *
+     * @return the first column of the first row, or null when there is no row
+     */
+    private String queryString(String sql, Object... args) {
+        if (!isOpen()) return null;
+        synchronized (statements) {
+            try {
+                var statement = compile(sql);
+                bind(statement, args);
+                return statement.simpleQueryForString();
+            } catch (SQLiteDoneException e) {
+                return null;
+            } catch (Exception e) {
+                XposedBridge.log("MessageStore: " + e.getMessage());
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Same as {@link #queryString(String, Object...)} for integer columns.
+     */
+    private long queryLong(String sql, long defaultValue, Object... args) {
+        if (!isOpen()) return defaultValue;
+        synchronized (statements) {
+            try {
+                var statement = compile(sql);
+                bind(statement, args);
+                return statement.simpleQueryForLong();
+            } catch (SQLiteDoneException e) {
+                return defaultValue;
+            } catch (Exception e) {
+                XposedBridge.log("MessageStore: " + e.getMessage());
+                return defaultValue;
+            }
+        }
+    }
+
+    private SQLiteStatement compile(String sql) {
+        var statement = statements.get(sql);
+        if (statement == null) {
+            statement = readDatabase.compileStatement(sql);
+            statements.put(sql, statement);
+        }
+        return statement;
+    }
+
+    private static void bind(SQLiteStatement statement, Object[] args) {
+        statement.clearBindings();
+        for (int i = 0; i < args.length; i++) {
+            DatabaseUtils.bindObjectToProgram(statement, i + 1, args[i]);
+        }
+    }
+
+    private static String placeholders(int count) {
+        return String.join(",", Collections.nCopies(count, "?"));
+    }
+
+    private static <T> List<List<T>> chunks(Collection<T> values) {
+        var list = new ArrayList<>(values);
+        var chunks = new ArrayList<List<T>>();
+        for (int start = 0; start < list.size(); start += MAX_BOUND_ARGS) {
+            chunks.add(list.subList(start, Math.min(start + MAX_BOUND_ARGS, list.size())));
+        }
+        return chunks;
+    }
+
+    private static String[] toArgs(List<?> values) {
+        var args = new String[values.size()];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = String.valueOf(values.get(i));
+        }
+        return args;
+    }
+
     public String getMessageById(long id) {
         synchronized (messageIdCache) {
             String cached = messageIdCache.get(id);
             if (cached != null) return cached;
         }
-        if (sqLiteDatabase == null || !sqLiteDatabase.isOpen()) {
+        if (!isOpen()) {
             XposedBridge.log("MessageStore: DB not open when getting message by ID");
             return "";
         }
-        String message = "";
-        Cursor cursor = null;
-        try {
-            String[] columns = new String[]{"c0content"};
-            String selection = "docid=?";
-            String[] selectionArgs = new String[]{String.valueOf(id)};
-
-            cursor = sqLiteDatabase.query("message_ftsv2_content", columns, selection, selectionArgs, null, null, null);
-            if (cursor != null && cursor.moveToFirst()) {
-                message = cursor.getString(cursor.getColumnIndexOrThrow("c0content"));
-                if (message != null) {
-                    synchronized (messageIdCache) {
-                        messageIdCache.put(id, message);
-                    }
-                }
-            }
-        } catch (Exception e) {
-            XposedBridge.log("MessageStore: Error getting message by ID: " + e.getMessage());
-        } finally {
-            if (cursor != null) cursor.close();
+        String message = queryString("SELECT c0content FROM message_ftsv2_content WHERE docid=?", id);
+        if (message == null) return "";
+        synchronized (messageIdCache) {
+            messageIdCache.put(id, message);
         }
         return message;
     }
 
-
     public String getCurrentMessageByKey(String message_key) {
         if (message_key == null) return "";
         synchronized (messageKeyCache) {
             String cached = messageKeyCache.get(message_key);
             if (cached != null) return cached;
         }
-        if (sqLiteDatabase == null || !sqLiteDatabase.isOpen()) return "";
-        String[] columns = new String[]{"text_data"};
-        String selection = "key_id=?";
-        String[] selectionArgs = new String[]{message_key};
-        try (Cursor cursor = sqLiteDatabase.query("message", columns, selection, selectionArgs, null, null, null)) {
-            if (cursor != null && cursor.moveToFirst()) {
-                String text = cursor.getString(0);
-                if (text != null) {
-                    synchronized (messageKeyCache) {
-                        messageKeyCache.put(message_key, text);
-                    }
-                }
-                return text;
-            }
-        } catch (Exception e) {
-            XposedBridge.log(e);
+        String text = queryString("SELECT text_data FROM message WHERE key_id=?", message_key);
+        if (text == null) return "";
+        synchronized (messageKeyCache) {
+            messageKeyCache.put(message_key, text);
         }
-        return "";
+        return text;
     }
 
 
@@ -123,76 +220,57 @@ public class MessageStore {
             Long cached = keyToIdCache.get(message_key);
             if (cached != null) return cached;
         }
-        if (sqLiteDatabase == null || !sqLiteDatabase.isOpen()) return -1;
-        String[] columns = new String[]{"_id"};
-        String selection = "key_id=?";
-        String[] selectionArgs = new String[]{message_key};
-        try (Cursor cursor = sqLiteDatabase.query("message", columns, selection, selectionArgs, null, null, null)) {
-            if (cursor != null && cursor.moveToFirst()) {
-                long id = cursor.getLong(0);
-                synchronized (keyToIdCache) {
-                    keyToIdCache.put(message_key, id);
-                }
-                return id;
-            }
-        } catch (Exception e) {
-            XposedBridge.log(e);
+        long id = queryLong("SELECT _id FROM message WHERE key_id=?", -1, message_key);
+        if (id == -1) return -1;
+        synchronized (keyToIdCache) {
+            keyToIdCache.put(message_key, id);
         }
-        return -1;
+        return id;
     }
 
-
     public String getMediaFromID(long id) {
-        if (sqLiteDatabase == null || !sqLiteDatabase.isOpen()) return null;
-        String[] columns = new String[]{"file_path"};
-        String selection = "message_row_id=?";
-        String[] selectionArgs = new String[]{String.valueOf(id)};
-        try (Cursor cursor = sqLiteDatabase.query("message_media", columns, selection, selectionArgs, null, null, null)) {
-            if (cursor != null && cursor.moveToFirst()) {
-                return cursor.getString(0);
-            }
-        } catch (Exception e) {
-            XposedBridge.log(e);
-        }
-        return null;
+        return queryString("SELECT file_path FROM message_media WHERE message_row_id=?", id);
     }
 
     public String getCurrentMessageByID(long row_id) {
-        if (sqLiteDatabase == null || !sqLiteDatabase.isOpen()) return "";
-        String[] columns = new String[]{"text_data"};
-        String selection = "_id=?";
-        String[] selectionArgs = new String[]{String.valueOf(row_id)};
-        try (Cursor cursor = sqLiteDatabase.query("message", columns, selection, selectionArgs, null, null, null)) {
-            if (cursor != null && cursor.moveToFirst()) {
-                return cursor.getString(0);
-            }
-        } catch (Exception e) {
-            XposedBridge.log(e);
-        }
-        return "";
+        var text = queryString("SELECT text_data FROM message WHERE _id=?", row_id);
+        return text == null ? "" : text;
     }
 
     public String getOriginalMessageKey(long id) {
-        if (sqLiteDatabase == null || !sqLiteDatabase.isOpen()) return "";
-        String message = "";
-        try (Cursor cursor = sqLiteDatabase.rawQuery("SELECT parent_message_row_id, key_id FROM message_add_on WHERE parent_message_row_id=\"" + id + "\"", null)) {
-            if (cursor != null && cursor.moveToFirst()) {
-                message = cursor.getString(1);
+        var key = queryString("SELECT key_id FROM message_add_on WHERE parent_message_row_id=?", id);
+        return key == null ? "" : key;
+    }
+
+    /**
+     * Reverse of {@link #getOriginalMessageKey(long)} for many keys at once.
+     *
+     * @return the row id of each message whose add-on has one of the given key ids, mapped to that key id
+     */
+    public Map<Long, String> getParentRowIdsByAddOnKeys(Collection<String> keyIds) {
+        var result = new HashMap<Long, String>();
+        if (keyIds.isEmpty() || !isOpen()) return result;
+        for (var chunk : chunks(keyIds)) {
+            var sql = "SELECT parent_message_row_id, key_id FROM message_add_on WHERE key_id IN (" + placeholders(chunk.size()) + ")";
+            try (Cursor cursor = readDatabase.rawQuery(sql, toArgs(chunk))) {
+                while (cursor.moveToNext()) {
+                    result.put(cursor.getLong(0), cursor.getString(1));
+                }
+            } catch (Exception e) {
+                XposedBridge.log(e);
             }
-        } catch (Exception e) {
-            XposedBridge.log(e);
         }
-        return message;
+        return result;
     }
 
     public List<MessageHistory.MessageItem> getWAEditHistory(long rowId) {
         List<MessageHistory.MessageItem> history = new ArrayList<>();
-        if (sqLiteDatabase == null || !sqLiteDatabase.isOpen()) return history;
+        if (!isOpen()) return history;
 
         // Query message_add_on for edits (type 7)
         // Usually message_add_on stores previous versions
         String sql = "SELECT text_data, timestamp FROM message_add_on WHERE parent_message_row_id = ? AND message_add_on_type = 7 ORDER BY timestamp ASC";
-        try (Cursor cursor = sqLiteDatabase.rawQuery(sql, new String[]{String.valueOf(rowId)})) {
+        try (Cursor cursor = readDatabase.rawQuery(sql, new String[]{String.valueOf(rowId)})) {
             if (cursor != null && cursor.moveToFirst()) {
                 int textIdx = cursor.getColumnIndexOrThrow("text_data");
                 int tsIdx = cursor.getColumnIndexOrThrow("timestamp");
@@ -208,32 +286,29 @@ public class MessageStore {
         return history;
     }
 
+    /**
+     * @return the keys of the given messages that are voice notes
+     */
     public List<String> getAudioListByMessageList(List<String> messageList) {
-        if (sqLiteDatabase == null || !sqLiteDatabase.isOpen() || messageList == null || messageList.isEmpty()) {
-            return new ArrayList<>();
-        }
-
         var list = new ArrayList<String>();
-        var placeholders = messageList.stream().map(m -> "?").collect(Collectors.joining(","));
-        var sql = "SELECT message_type FROM message WHERE key_id IN (" + placeholders + ")";
-        try (Cursor cursor = sqLiteDatabase.rawQuery(sql, messageList.toArray(new String[0]))) {
-            if (cursor != null && cursor.moveToFirst()) {
-                do {
-                    if (cursor.getInt(0) == 2) {
-                        list.add(cursor.getString(0));
-                    }
-                } while (cursor.moveToNext());
+        if (!isOpen() || messageList == null || messageList.isEmpty()) return list;
+
+        for (var chunk : chunks(messageList)) {
+            var sql = "SELECT key_id FROM message WHERE message_type = 2 AND key_id IN (" + placeholders(chunk.size()) + ")";
+            try (Cursor cursor = readDatabase.rawQuery(sql, toArgs(chunk))) {
+                while (cursor.moveToNext()) {
+                    list.add(cursor.getString(0));
+                }
+            } catch (Exception e) {
+                XposedBridge.log(e);
             }
-        } catch (Exception e) {
-            XposedBridge.log(e);
         }
-
         return list;
     }
 
     public synchronized void executeSQL(String sql) {
         try {
-            if (sqLiteDatabase == null || !sqLiteDatabase.isOpen()) return;
+            if (!isOpen()) return;
             sqLiteDatabase.execSQL(sql);
         } catch (Exception e) {
             XposedBridge.log(e);
@@ -241,33 +316,40 @@ public class MessageStore {
     }
 
     public void storeMessageRead(String messageId) {
-        if (sqLiteDatabase == null || !sqLiteDatabase.isOpen()) return;
-        XposedBridge.log("storeMessageRead: " + messageId);
-        sqLiteDatabase.execSQL("UPDATE message SET status = 1 WHERE key_id = \"" + messageId + "\"");
+        storeMessagesRead(Collections.singletonList(messageId));
     }
 
-    public boolean isReadMessageStatus(String messageId) {
-        if (sqLiteDatabase == null || !sqLiteDatabase.isOpen()) return false;
-        boolean result = false;
-        Cursor cursor = null;
+    /**
+     * Marks all the given messages as read with one statement per 500 ids, in a single transaction.
+     */
+    public void storeMessagesRead(Collection<String> messageIds) {
+        if (messageIds.isEmpty() || !isOpen()) return;
+        sqLiteDatabase.beginTransaction();
         try {
-            String[] columns = new String[]{"status"};
-            String selection = "key_id=?";
-            String[] selectionArgs = new String[]{messageId};
-
-            cursor = sqLiteDatabase.query("message", columns, selection, selectionArgs, null, null, null);
-            if (cursor != null && cursor.moveToFirst()) {
-                result = cursor.getInt(cursor.getColumnIndexOrThrow("status")) == 1;
+            for (var chunk : chunks(messageIds)) {
+                sqLiteDatabase.execSQL("UPDATE message SET status = 1 WHERE key_id IN (" + placeholders(chunk.size()) + ")", chunk.toArray());
             }
+            sqLiteDatabase.setTransactionSuccessful();
         } catch (Exception e) {
-            XposedBridge.log(e);
+            XposedBridge.log("MessageStore: Error storing read messages: " + e.getMessage());
         } finally {
-            if (cursor != null) cursor.close();
+            sqLiteDatabase.endTransaction();
         }
-        return result;
+    }
+
+    public boolean isReadMessageStatus(String messageId) {
+        if (messageId == null) return false;
+        return queryLong("SELECT status FROM message WHERE key_id=?", 0, messageId) == 1;
     }
 
     public SQLiteDatabase getDatabase() {
         return sqLiteDatabase;
     }
+
+    /**
+     * @return the read-only connection, for callers that only query
+     */
+    public SQLiteDatabase getReadableDatabase() {
+        return readDatabase;
+    }
 }
@@ -0,0 +1,166 @@
+package com.wmods.wppenhacer.xposed.core.devkit;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.luckypray.dexkit.DexKitBridge;
+import org.luckypray.dexkit.query.BatchFindClassUsingStrings;
+import org.luckypray.dexkit.query.BatchFindMethodUsingStrings;
+import org.luckypray.dexkit.query.enums.StringMatchType;
+import org.luckypray.dexkit.result.ClassData;
+import org.luckypray.dexkit.result.MethodData;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import de.robv.android.xposed.XposedBridge;
+
+/**
+ * Batches the string based DexKit lookups of {@link Unobfuscator}.
+ * <p>
+ * Every string query that misses the hook cache is recorded in a plan. When the hook cache is rebuilt (e.g. after
+ * a WhatsApp update) the recorded plan is resolved with one {@code batchFind} pass per match type on a background
+ * thread, and the finders receive their results from that pass instead of scanning the dex again one by one.
+ * Only the queries issued by the features the user enabled end up in the plan.
+ * <p>
+ * Results are handed over in the order DexKit returns them, as the loaders taking the first match expect.
+ */
+public class DexKitQueryPlanner {
+
+    private static final String PREFS_NAME = "UnobfuscatorQueryPlan";
+    private static final String KEY_PLAN = "plan";
+    private static final char KIND_METHOD = 'M';
+    private static final char KIND_CLASS = 'C';
+    private static final String SEPARATOR = "\u0001";
+
+    private static SharedPreferences planPrefs;
+    private static final Set<String> plan = ConcurrentHashMap.newKeySet();
+    private static final Set<String> issued = ConcurrentHashMap.newKeySet();
+    private static volatile CompletableFuture<Map<String, List<MethodData>>> methodResults;
+    private static volatile CompletableFuture<Map<String, List<ClassData>>> classResults;
+
+    public static synchronized void init(@NonNull Context context) {
+        if (planPrefs != null) return;
+        planPrefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        plan.addAll(planPrefs.getStringSet(KEY_PLAN, new HashSet<>()));
+    }
+
+    /**
+     * Starts resolving the recorded plan in the background.
+     */
+    static void prefetch(@NonNull DexKitBridge dexkit) {
+        if (plan.isEmpty()) return;
+        var methodGroups = new EnumMap<StringMatchType, Map<String, Collection<String>>>(StringMatchType.class);
+        var classGroups = new EnumMap<StringMatchType, Map<String, Collection<String>>>(StringMatchType.class);
+        for (String entry : plan) {
+            var parts = entry.split(SEPARATOR);
+            if (parts.length < 3) continue;
+            StringMatchType type;
+            try {
+                type = StringMatchType.valueOf(parts[1]);
+            } catch (IllegalArgumentException e) {
+                continue;
+            }
+            var groups = entry.charAt(0) == KIND_METHOD ? methodGroups : classGroups;
+            groups.computeIfAbsent(type, t -> new HashMap<>())
+                    .put(entry, Arrays.asList(parts).subList(2, parts.length));
+        }
+
+        methodResults = CompletableFuture.supplyAsync(() -> {
+            var results = new HashMap<String, List<MethodData>>();
+            for (var group : methodGroups.entrySet()) {
+                try {
+                    results.putAll(dexkit.batchFindMethodUsingStrings(
+                            BatchFindMethodUsingStrings.create().groups(group.getValue(), group.getKey())));
+                } catch (Throwable e) {
+                    XposedBridge.log("DexKitQueryPlanner: batch method search failed: " + e.getMessage());
+                }
+            }
+            return results;
+        });
+        classResults = CompletableFuture.supplyAsync(() -> {
+            var results = new HashMap<String, List<ClassData>>();
+            for (var group : classGroups.entrySet()) {
+                try {
+                    results.putAll(dexkit.batchFindClassUsingStrings(
+                            BatchFindClassUsingStrings.create().groups(group.getValue(), group.getKey())));
+                } catch (Throwable e) {
+                    XposedBridge.log("DexKitQueryPlanner: batch class search failed: " + e.getMessage());
+                }
+            }
+            return results;
+        });
+    }
+
+    /**
+     * @return the prefetched methods using all {@code strings}, or null when the query was not part of the plan
+     */
+    @Nullable
+    static List<MethodData> getMethods(StringMatchType type, String... strings) {
+        return lookup(methodResults, key(KIND_METHOD, type, strings));
+    }
+
+    /**
+     * @return the prefetched classes using all {@code strings}, or null when the query was not part of the plan
+     */
+    @Nullable
+    static List<ClassData> getClasses(StringMatchType type, String... strings) {
+        return lookup(classResults, key(KIND_CLASS, type, strings));
+    }
+
+    /**
+     * Drops the recorded queries that were not issued by this process.
+     * <p>
+     * Only meaningful after a cold start, when every loader reached the finders: queries of loaders that were
+     * removed, or whose strings changed with a WhatsApp update, are not replayed again.
+     */
+    public static void prune() {
+        if (planPrefs == null || !plan.retainAll(issued)) return;
+        planPrefs.edit().putStringSet(KEY_PLAN, new HashSet<>(plan)).apply();
+    }
+
+    static void recordMethodQuery(StringMatchType type, String... strings) {
+        record(key(KIND_METHOD, type, strings));
+    }
+
+    static void recordClassQuery(StringMatchType type, String... strings) {
+        record(key(KIND_CLASS, type, strings));
+    }
+
+    @Nullable
+    private static <T> List<T> lookup(CompletableFuture<Map<String, List<T>>> future, String key) {
+        issued.add(key);
+        if (future == null || !plan.contains(key)) return null;
+        try {
+            return future.join().get(key);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static void record(String key) {
+        issued.add(key);
+        if (planPrefs == null || !plan.add(key)) return;
+        planPrefs.edit().putStringSet(KEY_PLAN, new HashSet<>(plan)).apply();
+    }
+
+    private static String key(char kind, StringMatchType type, String... strings) {
+        var parts = new ArrayList<String>(strings.length + 2);
+        parts.add(String.valueOf(kind));
+        parts.add(type.name());
+        parts.addAll(Arrays.asList(strings));
+        return String.join(SEPARATOR, parts);
+    }
+}
@@ -0,0 +1,185 @@
+package com.wmods.wppenhacer.xposed.core.devkit;
+
+import android.util.AtomicFile;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import de.robv.android.xposed.XposedBridge;
+
+/**
+ * Binary store for resolved hook descriptors.
+ * <p>
+ * Each entry is a list of records and each record a list of tokens (class name, member name, parameter types).
+ * All tokens are written once into a shared string table and referenced by index, so the whole cache is
+ * read with a single file read and no string splitting on startup.
+ * <p>
+ * Layout: {@code magic, format, appVersion, updateTime, moduleVersion, strings[], entries[]}.
+ */
+class HookCacheStore {
+
+    private static final int MAGIC = 0x57414543; // "WAEC"
+    private static final int FORMAT_VERSION = 1;
+    private static final long FLUSH_DELAY_MS = 2000;
+
+    private final AtomicFile file;
+    private final long appVersion;
+    private final long updateTime;
+    private final String moduleVersion;
+
+    private final ConcurrentHashMap<String, String[][]> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushPending = new AtomicBoolean();
+    private final ExecutorService flushExecutor = Executors.newSingleThreadExecutor();
+    private volatile boolean dirty;
+
+    HookCacheStore(@NonNull File file, long appVersion, long updateTime, @NonNull String moduleVersion) {
+        this.file = new AtomicFile(file);
+        this.appVersion = appVersion;
+        this.updateTime = updateTime;
+        this.moduleVersion = moduleVersion;
+    }
+
+    /**
+     * Loads the cache file.
+     *
+     * @return false when the file is missing, corrupted or was written for another WhatsApp/module version
+     */
+    boolean load() {
+        entries.clear();
+        if (!file.getBaseFile().exists()) return false;
+        try (var in = new DataInputStream(new ByteArrayInputStream(file.readFully()))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) return false;
+            if (in.readLong() != appVersion || in.readLong() != updateTime) return false;
+            if (!Objects.equals(in.readUTF(), moduleVersion)) return false;
+
+            var strings = new String[in.readInt()];
+            for (int i = 0; i < strings.length; i++) {
+                strings[i] = in.readUTF();
+            }
+
+            int entryCount = in.readInt();
+            for (int i = 0; i < entryCount; i++) {
+                var key = strings[in.readInt()];
+                var records = new String[in.readInt()][];
+                for (int r = 0; r < records.length; r++) {
+                    var tokens = new String[in.readInt()];
+                    for (int t = 0; t < tokens.length; t++) {
+                        tokens[t] = strings[in.readInt()];
+                    }
+                    records[r] = tokens;
+                }
+                entries.put(key, records);
+            }
+            return true;
+        } catch (Exception e) {
+            XposedBridge.log("HookCacheStore: Discarding unreadable cache: " + e.getMessage());
+            entries.clear();
+            return false;
+        }
+    }
+
+    @Nullable
+    String[][] get(String key) {
+        return entries.get(key);
+    }
+
+    void put(String key, String[][] records) {
+        entries.put(key, records);
+        dirty = true;
+        scheduleFlush();
+    }
+
+    void clear() {
+        entries.clear();
+        dirty = true;
+        scheduleFlush();
+    }
+
+    /**
+     * Coalesces writes: a burst of cache misses during feature loading results in one file write.
+     */
+    private void scheduleFlush() {
+        if (!flushPending.compareAndSet(false, true)) return;
+        flushExecutor.execute(() -> {
+            try {
+                TimeUnit.MILLISECONDS.sleep(FLUSH_DELAY_MS);
+            } catch (InterruptedException ignored) {
+            }
+            flushPending.set(false);
+            flush();
+        });
+    }
+
+    synchronized void flush() {
+        if (!dirty) return;
+        dirty = false;
+        var snapshot = new HashMap<>(entries);
+        var stringIndex = new HashMap<String, Integer>();
+        var strings = new ArrayList<String>();
+        for (Map.Entry<String, String[][]> entry : snapshot.entrySet()) {
+            intern(entry.getKey(), stringIndex, strings);
+            for (String[] record : entry.getValue()) {
+                for (String token : record) {
+                    intern(token, stringIndex, strings);
+                }
+            }
+        }
+
+        FileOutputStream fos = null;
+        try {
+            var bytes = new ByteArrayOutputStream();
+            var out = new DataOutputStream(bytes);
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(appVersion);
+            out.writeLong(updateTime);
+            out.writeUTF(moduleVersion);
+            out.writeInt(strings.size());
+            for (String string : strings) {
+                out.writeUTF(string);
+            }
+            out.writeInt(snapshot.size());
+            for (Map.Entry<String, String[][]> entry : snapshot.entrySet()) {
+                out.writeInt(stringIndex.get(entry.getKey()));
+                out.writeInt(entry.getValue().length);
+                for (String[] record : entry.getValue()) {
+                    out.writeInt(record.length);
+                    for (String token : record) {
+                        out.writeInt(stringIndex.get(token));
+                    }
+                }
+            }
+            out.flush();
+            fos = file.startWrite();
+            fos.write(bytes.toByteArray());
+            file.finishWrite(fos);
+        } catch (IOException e) {
+            if (fos != null) file.failWrite(fos);
+            dirty = true;
+            XposedBridge.log("HookCacheStore: Failed to write cache: " + e.getMessage());
+        }
+    }
+
+    private static void intern(String value, Map<String, Integer> index, ArrayList<String> strings) {
+        if (index.containsKey(value)) return;
+        index.put(value, strings.size());
+        strings.add(value);
+    }
+}
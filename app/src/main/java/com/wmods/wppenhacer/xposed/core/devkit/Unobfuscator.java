@@ -3,6 +3,7 @@ package com.wmods.wppenhacer.xposed.core.devkit;
 import android.content.ContentValues;
 import android.content.Context;
 import android.content.SharedPreferences;
+import android.graphics.Paint;
 import android.graphics.Rect;
 import android.graphics.drawable.Drawable;
 import android.hardware.SensorEventListener;
@@ -19,6 +20,7 @@ import androidx.annotation.Nullable;
 import com.wmods.wppenhacer.xposed.core.WppCore;
 import com.wmods.wppenhacer.xposed.core.components.FMessageWpp;
 import com.wmods.wppenhacer.xposed.utils.ReflectionUtils;
+import com.wmods.wppenhacer.xposed.utils.ResIdWpp;
 import com.wmods.wppenhacer.xposed.utils.Utils;
 
 import org.luckypray.dexkit.DexKitBridge;
@@ -54,6 +56,7 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import de.robv.android.xposed.XposedBridge;
@@ -64,7 +67,7 @@ public class Unobfuscator {
     private static final String TAG = "Unobfuscator";
     private static DexKitBridge dexkit;
 
-    public static final HashMap<String, Class<?>> cacheClasses = new HashMap<>();
+    public static final ConcurrentHashMap<String, Class<?>> cacheClasses = new ConcurrentHashMap<>();
 
     static {
         System.loadLibrary("dexkit");
@@ -79,14 +82,17 @@ public class Unobfuscator {
         return true;
     }
 
+    /**
+     * Resolves the string queries recorded by previous scans in one batch, see {@link DexKitQueryPlanner}.
+     */
+    public static void prefetchPlannedQueries() {
+        DexKitQueryPlanner.prefetch(dexkit);
+    }
+
     // TODO: Functions to find classes and methods
-    public synchronized static Method findFirstMethodUsingStrings(ClassLoader classLoader, StringMatchType type,
+    public static Method findFirstMethodUsingStrings(ClassLoader classLoader, StringMatchType type,
             String... strings) throws Exception {
-        MethodMatcher matcher = new MethodMatcher();
-        for (String string : strings) {
-            matcher.addUsingString(string, type);
-        }
-        MethodDataList result = dexkit.findMethod(FindMethod.create().matcher(matcher));
+        List<MethodData> result = findMethodsUsingStrings(type, strings);
         if (result.isEmpty())
             return null;
         for (MethodData methodData : result) {
@@ -96,7 +102,7 @@ public class Unobfuscator {
         return null;
     }
 
-    public synchronized static Method findFirstMethodUsingStringsFilter(ClassLoader classLoader, String packageFilter,
+    public static Method findFirstMethodUsingStringsFilter(ClassLoader classLoader, String packageFilter,
             StringMatchType type, String... strings) throws Exception {
         MethodMatcher matcher = new MethodMatcher();
         for (String string : strings) {
@@ -113,13 +119,9 @@ public class Unobfuscator {
         throw new NoSuchMethodException();
     }
 
-    public synchronized static Method[] findAllMethodUsingStrings(ClassLoader classLoader, StringMatchType type,
+    public static Method[] findAllMethodUsingStrings(ClassLoader classLoader, StringMatchType type,
             String... strings) {
-        MethodMatcher matcher = new MethodMatcher();
-        for (String string : strings) {
-            matcher.addUsingString(string, type);
-        }
-        MethodDataList result = dexkit.findMethod(FindMethod.create().matcher(matcher));
+        List<MethodData> result = findMethodsUsingStrings(type, strings);
         if (result.isEmpty())
             return new Method[0];
         return result.stream().filter(MethodData::isMethod)
@@ -127,32 +129,50 @@ public class Unobfuscator {
                 .toArray(Method[]::new);
     }
 
-    public synchronized static Class<?> findFirstClassUsingStrings(ClassLoader classLoader, StringMatchType type,
+    public static Class<?> findFirstClassUsingStrings(ClassLoader classLoader, StringMatchType type,
             String... strings) throws Exception {
-        var matcher = new ClassMatcher();
-        for (String string : strings) {
-            matcher.addUsingString(string, type);
-        }
-        var result = dexkit.findClass(FindClass.create().matcher(matcher));
+        var result = findClassesUsingStrings(type, strings);
         if (result.isEmpty())
             return null;
         return result.get(0).getInstance(classLoader);
     }
 
-    public synchronized static Class<?>[] findAllClassUsingStrings(ClassLoader classLoader, StringMatchType type,
+    public static Class<?>[] findAllClassUsingStrings(ClassLoader classLoader, StringMatchType type,
             String... strings) throws Exception {
-        var matcher = new ClassMatcher();
-        for (String string : strings) {
-            matcher.addUsingString(string, type);
-        }
-        var result = dexkit.findClass(FindClass.create().matcher(matcher));
+        var result = findClassesUsingStrings(type, strings);
         if (result.isEmpty())
             return null;
         return result.stream().map(classData -> convertRealClass(classData, classLoader)).filter(Objects::nonNull)
                 .toArray(Class[]::new);
     }
 
-    public synchronized static Class<?> findFirstClassUsingStringsFilter(ClassLoader classLoader, String packageFilter,
+    private static List<MethodData> findMethodsUsingStrings(StringMatchType type, String... strings) {
+        var planned = DexKitQueryPlanner.getMethods(type, strings);
+        if (planned != null)
+            return planned;
+        MethodMatcher matcher = new MethodMatcher();
+        for (String string : strings) {
+            matcher.addUsingString(string, type);
+        }
+        MethodDataList result = dexkit.findMethod(FindMethod.create().matcher(matcher));
+        DexKitQueryPlanner.recordMethodQuery(type, strings);
+        return result;
+    }
+
+    private static List<ClassData> findClassesUsingStrings(StringMatchType type, String... strings) {
+        var planned = DexKitQueryPlanner.getClasses(type, strings);
+        if (planned != null)
+            return planned;
+        var matcher = new ClassMatcher();
+        for (String string : strings) {
+            matcher.addUsingString(string, type);
+        }
+        ClassDataList result = dexkit.findClass(FindClass.create().matcher(matcher));
+        DexKitQueryPlanner.recordClassQuery(type, strings);
+        return result;
+    }
+
+    public static Class<?> findFirstClassUsingStringsFilter(ClassLoader classLoader, String packageFilter,
             StringMatchType type, String... strings) throws Exception {
         var matcher = new ClassMatcher();
         for (String string : strings) {
@@ -164,7 +184,7 @@ public class Unobfuscator {
         return result.get(0).getInstance(classLoader);
     }
 
-    public synchronized static Class<?> findFirstClassUsingName(ClassLoader classLoader, StringMatchType type,
+    public static Class<?> findFirstClassUsingName(ClassLoader classLoader, StringMatchType type,
             String name) throws Exception {
         return UnobfuscatorCache.getInstance().getClass(classLoader, name, () -> {
             var result = dexkit.findClass(FindClass.create().matcher(ClassMatcher.create().className(name, type)))
@@ -175,19 +195,19 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static String getMethodDescriptor(Method method) {
+    public static String getMethodDescriptor(Method method) {
         if (method == null)
             return null;
         return method.getDeclaringClass().getName() + "->" + method.getName() + "("
                 + Arrays.stream(method.getParameterTypes()).map(Class::getName).collect(Collectors.joining(",")) + ")";
     }
 
-    public synchronized static String getFieldDescriptor(Field field) {
+    public static String getFieldDescriptor(Field field) {
         return field.getDeclaringClass().getName() + "->" + field.getName() + ":" + field.getType().getName();
     }
 
     @Nullable
-    public synchronized static Method convertRealMethod(MethodData methodData, ClassLoader classLoader) {
+    public static Method convertRealMethod(MethodData methodData, ClassLoader classLoader) {
         try {
             return methodData.getMethodInstance(classLoader);
         } catch (Exception e) {
@@ -196,7 +216,7 @@ public class Unobfuscator {
     }
 
     @Nullable
-    public synchronized static Class<?> convertRealClass(ClassData classData, ClassLoader classLoader) {
+    public static Class<?> convertRealClass(ClassData classData, ClassLoader classLoader) {
         try {
             return classData.getInstance(classLoader);
         } catch (Exception e) {
@@ -205,16 +225,15 @@ public class Unobfuscator {
     }
 
     // TODO: Classes and Methods for FreezeSeen
-    public synchronized static Method loadFreezeSeenMethod(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(classLoader,
-                () -> UnobfuscatorCache.getInstance().getMethod(classLoader,
-                        () -> findFirstMethodUsingStrings(classLoader, StringMatchType.Contains,
-                                "presencestatemanager/setAvailable/new-state")));
+    public static Method loadFreezeSeenMethod(ClassLoader classLoader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(classLoader, "loadFreezeSeenMethod",
+                () -> findFirstMethodUsingStrings(classLoader, StringMatchType.Contains,
+                        "presencestatemanager/setAvailable/new-state"));
     }
 
     // TODO: Classes and Methods for GhostMode
-    public synchronized static Method loadGhostModeMethod(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(classLoader, () -> {
+    public static Method loadGhostModeMethod(ClassLoader classLoader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(classLoader, "loadGhostModeMethod", () -> {
             Method method = findFirstMethodUsingStrings(classLoader, StringMatchType.Contains,
                     "HandleMeComposing/sendComposing");
             if (method == null)
@@ -227,8 +246,8 @@ public class Unobfuscator {
 
     // TODO: Classes and Methods for Receipt
 
-    public synchronized static Method loadReceiptMethod(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(classLoader, () -> {
+    public static Method loadReceiptMethod(ClassLoader classLoader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(classLoader, "loadReceiptMethod", () -> {
             var classDeviceJid = Unobfuscator.findFirstClassUsingName(classLoader, StringMatchType.EndsWith,
                     "jid.DeviceJid");
             var classPhoneUserJid = Unobfuscator.findFirstClassUsingName(classLoader, StringMatchType.EndsWith,
@@ -249,8 +268,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Method loadReceiptOutsideChat(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(classLoader, () -> {
+    public static Method loadReceiptOutsideChat(ClassLoader classLoader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(classLoader, "loadReceiptOutsideChat", () -> {
             var method = loadReceiptMethod(classLoader);
             if (method == null)
                 throw new Exception("Receipt method not found");
@@ -265,8 +284,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Method loadReceiptInChat(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(classLoader, () -> {
+    public static Method loadReceiptInChat(ClassLoader classLoader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(classLoader, "loadReceiptInChat", () -> {
             var method = loadReceiptMethod(classLoader);
             var methodDataList = dexkit
                     .findMethod(FindMethod.create().matcher(MethodMatcher.create().addUsingString("callCreatorJid")
@@ -279,8 +298,8 @@ public class Unobfuscator {
 
     // TODO: Classes and Methods for HideForward
 
-    public synchronized static Method loadForwardTagMethod(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(classLoader, () -> {
+    public static Method loadForwardTagMethod(ClassLoader classLoader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(classLoader, "loadForwardTagMethod", () -> {
             Class<?> messageInfoClass = loadFMessageClass(classLoader);
             var methodList = dexkit.findMethod(FindMethod.create()
                     .matcher(MethodMatcher.create().addUsingString("chatInfo/incrementUnseenImportantMessageCount")));
@@ -305,8 +324,8 @@ public class Unobfuscator {
      * Gets the method that is called when a new incoming message is received.
      * This hooks into the chatInfo/incrementUnseenImportantMessageCount caller.
      */
-    public synchronized static Method loadIncomingMessageMethod(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(classLoader, () -> {
+    public static Method loadIncomingMessageMethod(ClassLoader classLoader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(classLoader, "loadIncomingMessageMethod", () -> {
             // Find the method that uses "chatInfo/incrementUnseenImportantMessageCount"
             var methodList = dexkit.findMethod(FindMethod.create()
                     .matcher(MethodMatcher.create().addUsingString("chatInfo/incrementUnseenImportantMessageCount")));
@@ -327,8 +346,8 @@ public class Unobfuscator {
      * This method takes a single FMessage parameter and is called for all incoming
      * messages.
      */
-    public synchronized static Method loadMessageInsertMethod(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(classLoader, () -> {
+    public static Method loadMessageInsertMethod(ClassLoader classLoader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(classLoader, "loadMessageInsertMethod", () -> {
             var fMessageClass = loadFMessageClass(classLoader);
 
             // Find the method that uses "CoreMessageStore/insertMessage"
@@ -365,8 +384,8 @@ public class Unobfuscator {
      * - Having native methods like start(), stop(), pause()
      * - Constructor takes (String, callback, config) parameters
      */
-    public synchronized static Class<?> loadOpusRecorderClass(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getClass(classLoader, () -> {
+    public static Class<?> loadOpusRecorderClass(ClassLoader classLoader) throws Exception {
+        return UnobfuscatorCache.getInstance().getClass(classLoader, "loadOpusRecorderClass", () -> {
             // Search for the class that contains the "OpusRecorder not closed before
             // finalize" string
             var classList = dexkit.findClass(FindClass.create()
@@ -400,8 +419,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Field loadBroadcastTagField(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getField(classLoader, () -> {
+    public static Field loadBroadcastTagField(ClassLoader classLoader) throws Exception {
+        return UnobfuscatorCache.getInstance().getField(classLoader, "loadBroadcastTagField", () -> {
             var fmessage = loadFMessageClass(classLoader);
             var clazzData = dexkit.findClass(FindClass.create()
                     .matcher(ClassMatcher.create().addUsingString("UPDATE_MESSAGE_MAIN_BROADCAST_SCAN_SQL")));
@@ -445,8 +464,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Class<?> loadForwardClassMethod(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getClass(classLoader, () -> {
+    public static Class<?> loadForwardClassMethod(ClassLoader classLoader) throws Exception {
+        return UnobfuscatorCache.getInstance().getClass(classLoader, "loadForwardClassMethod", () -> {
             for (var s : new String[] {
                     "UserActions/userActionForwardMessage",
                     "UserActionsMessageForwarding/userActionForwardMessage"
@@ -460,8 +479,8 @@ public class Unobfuscator {
     }
 
     // TODO: Classes and Methods for HideView
-    public synchronized static Method loadHideViewSendReadJob(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(classLoader, () -> {
+    public static Method loadHideViewSendReadJob(ClassLoader classLoader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(classLoader, "loadHideViewSendReadJob", () -> {
             var classData = dexkit
                     .getClassData(findFirstClassUsingName(classLoader, StringMatchType.EndsWith, "SendReadReceiptJob"));
             var methodResult = classData.findMethod(
@@ -476,8 +495,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Method loadHideViewInChatMethod(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(classLoader, () -> {
+    public static Method loadHideViewInChatMethod(ClassLoader classLoader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(classLoader, "loadHideViewInChatMethod", () -> {
             var strings = new String[] {
                     "ReadReceipts/sendReceiptForIncomingMessage", "ReadReceipts/sendDeliveryReadReceipt",
                     "ReadReceipts/acknowledgeMessageIfNeeded", "ReadReceipts/sendDeliveryReceiptIfNotRetry"
@@ -491,8 +510,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Class<?> loadFMessageClass(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getClass(classLoader, () -> {
+    public static Class<?> loadFMessageClass(ClassLoader classLoader) throws Exception {
+        return UnobfuscatorCache.getInstance().getClass(classLoader, "loadFMessageClass", () -> {
             var messageClass = findFirstClassUsingStrings(classLoader, StringMatchType.Contains,
                     "FMessage/getSenderUserJid/key.id");
             if (messageClass == null)
@@ -503,8 +522,8 @@ public class Unobfuscator {
 
     // TODO: Classes and Methods for XChatFilter
 
-    public synchronized static Method loadTabListMethod(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(classLoader, () -> {
+    public static Method loadTabListMethod(ClassLoader classLoader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(classLoader, "loadTabListMethod", () -> {
             var classData = dexkit.findClass(FindClass.create().searchPackages("X.")
                     .matcher(ClassMatcher.create().addUsingString("mainContainer")));
             if (classData.isEmpty())
@@ -518,8 +537,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Method loadGetTabMethod(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(classLoader, () -> {
+    public static Method loadGetTabMethod(ClassLoader classLoader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(classLoader, "loadGetTabMethod", () -> {
             Method result = findFirstMethodUsingStringsFilter(classLoader, "X.", StringMatchType.Contains,
                     "No HomeFragment mapping for community tab id:");
             if (result == null)
@@ -528,8 +547,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Method loadTabFragmentMethod(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(classLoader, () -> {
+    public static Method loadTabFragmentMethod(ClassLoader classLoader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(classLoader, "loadTabFragmentMethod", () -> {
             Class<?> clsFrag = XposedHelpers.findClass("com.whatsapp.conversationslist.ConversationsFragment",
                     classLoader);
             Method result = Arrays.stream(clsFrag.getDeclaredMethods()).parallel()
@@ -541,8 +560,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Method loadTabNameMethod(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(classLoader, () -> {
+    public static Method loadTabNameMethod(ClassLoader classLoader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(classLoader, "loadTabNameMethod", () -> {
             int id = UnobfuscatorCache.getInstance().getOfuscateIDString("updates");
             if (id < 1)
                 throw new Exception("TabName ID not found");
@@ -554,8 +573,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Method loadFabMethod(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(classLoader, () -> {
+    public static Method loadFabMethod(ClassLoader classLoader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(classLoader, "loadFabMethod", () -> {
             ClassData classData = dexkit.getClassData("com.whatsapp.conversationslist.ConversationsFragment");
             var result = classData.findMethod(FindMethod.create()
                     .matcher(MethodMatcher.create().paramCount(0).usingNumbers(200).returnType(int.class)));
@@ -565,8 +584,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Method loadIconTabMethod(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(classLoader, () -> {
+    public static Method loadIconTabMethod(ClassLoader classLoader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(classLoader, "loadIconTabMethod", () -> {
             Method result = findFirstMethodUsingStringsFilter(classLoader, "X.", StringMatchType.Contains,
                     "homeFabManager");
             if (result == null)
@@ -575,8 +594,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Method loadTabCountMethod(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(classLoader, () -> {
+    public static Method loadTabCountMethod(ClassLoader classLoader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(classLoader, "loadTabCountMethod", () -> {
             Method result = findFirstMethodUsingStrings(classLoader, StringMatchType.Contains,
                     "required free space should be > 0");
             if (result == null)
@@ -585,8 +604,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Method loadEnableCountTabMethod(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(classLoader, () -> {
+    public static Method loadEnableCountTabMethod(ClassLoader classLoader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(classLoader, "loadEnableCountTabMethod", () -> {
             var result = findFirstMethodUsingStrings(classLoader, StringMatchType.Contains,
                     "Tried to set badge for invalid");
             if (result == null)
@@ -595,8 +614,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Constructor loadEnableCountTabConstructor1(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getConstructor(classLoader, () -> {
+    public static Constructor loadEnableCountTabConstructor1(ClassLoader classLoader) throws Exception {
+        return UnobfuscatorCache.getInstance().getConstructor(classLoader, "loadEnableCountTabConstructor1", () -> {
             var countMethod = loadEnableCountTabMethod(classLoader);
             var indiceClass = countMethod.getParameterTypes()[1];
             var result = dexkit.findClass(FindClass.create().matcher(ClassMatcher.create()
@@ -607,8 +626,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Constructor loadEnableCountTabConstructor2(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getConstructor(classLoader, () -> {
+    public static Constructor loadEnableCountTabConstructor2(ClassLoader classLoader) throws Exception {
+        return UnobfuscatorCache.getInstance().getConstructor(classLoader, "loadEnableCountTabConstructor2", () -> {
             var countTabConstructor1 = loadEnableCountTabConstructor1(classLoader);
             var indiceClass = countTabConstructor1.getParameterTypes()[0];
             var result = dexkit
@@ -620,8 +639,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Constructor loadEnableCountTabConstructor3(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getConstructor(classLoader, () -> {
+    public static Constructor loadEnableCountTabConstructor3(ClassLoader classLoader) throws Exception {
+        return UnobfuscatorCache.getInstance().getConstructor(classLoader, "loadEnableCountTabConstructor3", () -> {
             var countTabConstructor1 = loadEnableCountTabConstructor1(classLoader);
             var indiceClass = countTabConstructor1.getParameterTypes()[0];
             var result = dexkit.findClass(FindClass.create().matcher(ClassMatcher.create()
@@ -633,8 +652,8 @@ public class Unobfuscator {
     }
     // TODO: Classes and methods to TimeToSeconds
 
-    public synchronized static Method loadTimeToSecondsMethod(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(classLoader, () -> {
+    public static Method loadTimeToSecondsMethod(ClassLoader classLoader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(classLoader, "loadTimeToSecondsMethod", () -> {
             Class<?> cls = findFirstClassUsingStrings(classLoader, StringMatchType.Contains, "aBhHKm");
             if (cls == null)
                 throw new Exception("TimeToSeconds class not found");
@@ -650,8 +669,8 @@ public class Unobfuscator {
 
     // TODO: Classes and methods to DndMode
 
-    public synchronized static Method loadDndModeMethod(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(classLoader, () -> {
+    public static Method loadDndModeMethod(ClassLoader classLoader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(classLoader, "loadDndModeMethod", () -> {
             var method = findFirstMethodUsingStrings(classLoader, StringMatchType.Equals, "MessageHandler/start");
             if (method == null)
                 throw new Exception("DndMode method not found");
@@ -660,8 +679,8 @@ public class Unobfuscator {
     }
 
     // TODO: Classes and methods to MediaQuality
-    public synchronized static Method loadMediaQualityVideoMethod2(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(classLoader, () -> {
+    public static Method loadMediaQualityVideoMethod2(ClassLoader classLoader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(classLoader, "loadMediaQualityVideoMethod2", () -> {
             var method = findFirstMethodUsingStrings(classLoader, StringMatchType.Contains, "getCorrectedResolution");
             if (method == null)
                 throw new Exception("MediaQualityVideo method not found");
@@ -669,9 +688,9 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static HashMap<String, Field> loadMediaQualityVideoFields(ClassLoader classLoader)
+    public static HashMap<String, Field> loadMediaQualityVideoFields(ClassLoader classLoader)
             throws Exception {
-        return UnobfuscatorCache.getInstance().getMapField(classLoader, () -> {
+        return UnobfuscatorCache.getInstance().getMapField(classLoader, "loadMediaQualityVideoFields", () -> {
             var method = loadMediaQualityVideoMethod2(classLoader);
             var methodString = method.getReturnType().getDeclaredMethod("toString");
             var methodData = dexkit.getMethodData(methodString);
@@ -704,9 +723,9 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static HashMap<String, Field> loadMediaQualityOriginalVideoFields(ClassLoader classLoader)
+    public static HashMap<String, Field> loadMediaQualityOriginalVideoFields(ClassLoader classLoader)
             throws Exception {
-        return UnobfuscatorCache.getInstance().getMapField(classLoader, () -> {
+        return UnobfuscatorCache.getInstance().getMapField(classLoader, "loadMediaQualityOriginalVideoFields", () -> {
             var method = loadMediaQualityVideoMethod2(classLoader);
             Method methodString;
             try {
@@ -730,8 +749,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Class<?> loadProcessVideoQualityClass(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getClass(classLoader, () -> {
+    public static Class<?> loadProcessVideoQualityClass(ClassLoader classLoader) throws Exception {
+        return UnobfuscatorCache.getInstance().getClass(classLoader, "loadProcessVideoQualityClass", () -> {
             var clazz = findFirstClassUsingStrings(classLoader, StringMatchType.Contains, "ProcessVideoQuality(");
             if (clazz == null)
                 throw new Exception("ProcessVideoQuality method not found");
@@ -739,9 +758,9 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static HashMap<String, Field> loadProcessVideoQualityFields(ClassLoader classLoader)
+    public static HashMap<String, Field> loadProcessVideoQualityFields(ClassLoader classLoader)
             throws Exception {
-        return UnobfuscatorCache.getInstance().getMapField(classLoader, () -> {
+        return UnobfuscatorCache.getInstance().getMapField(classLoader, "loadProcessVideoQualityFields", () -> {
             var clazz = loadProcessVideoQualityClass(classLoader);
             Method methodString;
             try {
@@ -789,8 +808,8 @@ public class Unobfuscator {
 
     // TODO: Classes and methods to ShareLimit
 
-    public synchronized static Method loadShareLimitMethod(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(classLoader, () -> {
+    public static Method loadShareLimitMethod(ClassLoader classLoader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(classLoader, "loadShareLimitMethod", () -> {
             var method = findFirstMethodUsingStrings(classLoader, StringMatchType.Contains, "send_max_video_duration");
             if (method == null)
                 throw new Exception("ShareLimit method not found");
@@ -798,8 +817,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Field loadShareMapItemField(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getField(classLoader, () -> {
+    public static Field loadShareMapItemField(ClassLoader classLoader) throws Exception {
+        return UnobfuscatorCache.getInstance().getField(classLoader, "loadShareMapItemField", () -> {
             var shareLimitMethod = loadShareLimitMethod(classLoader);
             var methodData = dexkit.getMethodData(shareLimitMethod);
             var usingFields = Objects.requireNonNull(methodData).getUsingFields();
@@ -814,8 +833,8 @@ public class Unobfuscator {
 
     // TODO: Classes and methods to StatusDownload
 
-    public synchronized static Method loadStatusActivePage(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(classLoader, () -> {
+    public static Method loadStatusActivePage(ClassLoader classLoader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(classLoader, "loadStatusActivePage", () -> {
             var method = findFirstMethodUsingStrings(classLoader, StringMatchType.Contains,
                     "playbackFragment/setPageActive");
             if (method == null)
@@ -824,8 +843,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Class<?> loadMenuManagerClass(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getClass(classLoader, () -> {
+    public static Class<?> loadMenuManagerClass(ClassLoader classLoader) throws Exception {
+        return UnobfuscatorCache.getInstance().getClass(classLoader, "loadMenuManagerClass", () -> {
             var methods = findAllMethodUsingStrings(classLoader, StringMatchType.Contains,
                     "MenuPopupHelper cannot be used without an anchor");
             for (var method : methods) {
@@ -836,9 +855,9 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Method loadMenuStatusMethod(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(loader, () -> {
-            var id = Utils.getID("menuitem_conversations_message_contact", "id");
+    public static Method loadMenuStatusMethod(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(loader, "loadMenuStatusMethod", () -> {
+            var id = ResIdWpp.id.menuitem_conversations_message_contact;
             var methods = dexkit.findMethod(new FindMethod().matcher(new MethodMatcher().addUsingNumber(id)));
             if (methods.isEmpty())
                 throw new Exception("MenuStatus method not found");
@@ -848,8 +867,8 @@ public class Unobfuscator {
 
     // TODO: Classes and methods to ViewOnce
 
-    public synchronized static Method[] loadViewOnceMethod(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethods(classLoader, () -> {
+    public static Method[] loadViewOnceMethod(ClassLoader classLoader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethods(classLoader, "loadViewOnceMethod", () -> {
             var method = dexkit.findMethod(new FindMethod()
                     .matcher(new MethodMatcher().addUsingString("INSERT_VIEW_ONCE_SQL", StringMatchType.Contains)));
             if (method.isEmpty())
@@ -884,8 +903,8 @@ public class Unobfuscator {
     /**
      * @noinspection SimplifyOptionalCallChains
      */
-    public synchronized static Method loadViewOnceDownloadMenuMethod(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(classLoader, () -> {
+    public static Method loadViewOnceDownloadMenuMethod(ClassLoader classLoader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(classLoader, "loadViewOnceDownloadMenuMethod", () -> {
             var clazz = XposedHelpers.findClass("com.whatsapp.mediaview.MediaViewFragment", classLoader);
             var method = Arrays.stream(clazz.getDeclaredMethods()).filter(m -> m.getParameterCount() == 2 &&
                     Objects.equals(m.getParameterTypes()[0], Menu.class) &&
@@ -899,8 +918,8 @@ public class Unobfuscator {
 
     // TODO: Methods and Classes for Change Colors
 
-    public synchronized static Class<?> loadExpandableWidgetClass(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getClass(loader, () -> {
+    public static Class<?> loadExpandableWidgetClass(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getClass(loader, "loadExpandableWidgetClass", () -> {
             var clazz = findFirstClassUsingStrings(loader, StringMatchType.Contains, "expandableWidgetHelper");
             if (clazz == null)
                 throw new Exception("ExpandableWidgetHelper class not found");
@@ -908,8 +927,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Class<?> loadMaterialShapeDrawableClass(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getClass(loader, () -> {
+    public static Class<?> loadMaterialShapeDrawableClass(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getClass(loader, "loadMaterialShapeDrawableClass", () -> {
             var clazz = findFirstClassUsingStrings(loader, StringMatchType.Contains, "Compatibility shadow requested");
             if (clazz == null)
                 throw new Exception("MaterialShapeDrawable class not found");
@@ -917,8 +936,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Method loadPropsBooleanMethod(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(loader, () -> {
+    public static Method loadPropsBooleanMethod(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(loader, "loadPropsBooleanMethod", () -> {
             var method = findFirstMethodUsingStrings(loader, StringMatchType.Contains, "Unknown BooleanField");
             if (method == null)
                 throw new Exception("Props method not found");
@@ -926,8 +945,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Method loadPropsIntegerMethod(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(loader, () -> {
+    public static Method loadPropsIntegerMethod(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(loader, "loadPropsIntegerMethod", () -> {
             var method = findFirstMethodUsingStrings(loader, StringMatchType.Contains, "Unknown IntField");
             if (method == null)
                 throw new Exception("Props method not found");
@@ -935,8 +954,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Method loadPropsJsonMethod(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(loader, () -> {
+    public static Method loadPropsJsonMethod(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(loader, "loadPropsJsonMethod", () -> {
             var method = findFirstMethodUsingStrings(loader, StringMatchType.Contains, "Unknown JsonField");
             if (method == null)
                 throw new Exception("Props method not found");
@@ -952,8 +971,8 @@ public class Unobfuscator {
         return classes.get(0);
     }
 
-    public synchronized static Method loadHomeConversationFragmentMethod(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(loader, () -> {
+    public static Method loadHomeConversationFragmentMethod(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(loader, "loadHomeConversationFragmentMethod", () -> {
             var homeClass = WppCore.getHomeActivityClass(loader);
             var convFragment = XposedHelpers.findClass("com.whatsapp.ConversationFragment", loader);
             MethodData method = dexkit.findMethod(FindMethod.create()
@@ -967,8 +986,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Field loadAntiRevokeConvFragmentField(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getField(loader, () -> {
+    public static Field loadAntiRevokeConvFragmentField(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getField(loader, "loadAntiRevokeConvFragmentField", () -> {
             Class<?> chatClass = findFirstClassUsingStrings(loader, StringMatchType.Contains,
                     "conversation/createconversation");
             Class<?> conversation = XposedHelpers.findClass("com.whatsapp.ConversationFragment", loader);
@@ -979,8 +998,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Field loadAntiRevokeConvChatField(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getField(loader, () -> {
+    public static Field loadAntiRevokeConvChatField(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getField(loader, "loadAntiRevokeConvChatField", () -> {
             Class<?> chatClass = findFirstClassUsingStrings(loader, StringMatchType.Contains,
                     "conversation/createconversation");
             Class<?> conversation = XposedHelpers.findClass("com.whatsapp.Conversation", loader);
@@ -991,8 +1010,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Field loadAntiRevokeChatJidField(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getField(loader, () -> {
+    public static Field loadAntiRevokeChatJidField(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getField(loader, "loadAntiRevokeChatJidField", () -> {
             Class<?> chatClass = findFirstClassUsingStrings(loader, StringMatchType.Contains,
                     "conversation/createconversation");
             Class<?> jidClass = Unobfuscator.findFirstClassUsingName(loader, StringMatchType.EndsWith, "jid.Jid");
@@ -1003,8 +1022,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Method loadAntiRevokeMessageMethod(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(loader, () -> {
+    public static Method loadAntiRevokeMessageMethod(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(loader, "loadAntiRevokeMessageMethod", () -> {
             Method method = findFirstMethodUsingStrings(loader, StringMatchType.Contains, "msgstore/edit/revoke");
             if (method == null)
                 throw new Exception("AntiRevokeMessage method not found");
@@ -1012,8 +1031,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Field loadMessageKeyField(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getField(loader, () -> {
+    public static Field loadMessageKeyField(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getField(loader, "loadMessageKeyField", () -> {
             var classList = dexkit.findClass(new FindClass().matcher(new ClassMatcher().fieldCount(3)
                     .addMethod(new MethodMatcher().addUsingString("Key").name("toString"))));
             if (classList.isEmpty())
@@ -1030,8 +1049,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Method loadJidGetRawStringMethod(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(loader, () -> {
+    public static Method loadJidGetRawStringMethod(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(loader, "loadJidGetRawStringMethod", () -> {
             var jidClass = findFirstClassUsingName(loader, StringMatchType.EndsWith, "jid.Jid");
             if (jidClass == null)
                 throw new ClassNotFoundException("Jid class not found");
@@ -1082,8 +1101,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Field loadMessageKeyIdField(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getField(loader, () -> {
+    public static Field loadMessageKeyIdField(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getField(loader, "loadMessageKeyIdField", () -> {
             var keyClass = loadMessageKeyClass(loader);
             for (Field f : keyClass.getDeclaredFields()) {
                 if (f.getType().equals(String.class)) {
@@ -1094,8 +1113,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Field loadMessageKeyRemoteJidField(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getField(loader, () -> {
+    public static Field loadMessageKeyRemoteJidField(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getField(loader, "loadMessageKeyRemoteJidField", () -> {
             var keyClass = loadMessageKeyClass(loader);
             var jidClass = findFirstClassUsingName(loader, StringMatchType.EndsWith, "jid.Jid");
             for (Field f : keyClass.getDeclaredFields()) {
@@ -1107,8 +1126,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Field loadMessageKeyFromMeField(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getField(loader, () -> {
+    public static Field loadMessageKeyFromMeField(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getField(loader, "loadMessageKeyFromMeField", () -> {
             var keyClass = loadMessageKeyClass(loader);
             for (Field f : keyClass.getDeclaredFields()) {
                 if (f.getType().equals(boolean.class)) {
@@ -1150,10 +1169,10 @@ public class Unobfuscator {
         return classList.get(0).getInstance(loader);
     }
 
-    public synchronized static Class<?> loadConversationRowClass(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getClass(loader, () -> {
-            var conversation_header = Utils.getID("conversation_row_participant_header_view_stub", "id");
-            var nameId = Utils.getID("name_in_group", "id");
+    public static Class<?> loadConversationRowClass(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getClass(loader, "loadConversationRowClass", () -> {
+            var conversation_header = ResIdWpp.id.conversation_row_participant_header_view_stub;
+            var nameId = ResIdWpp.id.name_in_group;
             var classData = dexkit
                     .findClass(FindClass.create()
                             .matcher(ClassMatcher.create().addMethod(
@@ -1165,8 +1184,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Method loadUnknownStatusPlaybackMethod(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(loader, () -> {
+    public static Method loadUnknownStatusPlaybackMethod(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(loader, "loadUnknownStatusPlaybackMethod", () -> {
             var statusPlaybackClass = XposedHelpers
                     .findClass("com.whatsapp.status.playback.fragment.StatusPlaybackContactFragment", loader);
             var refreshCurrentPage = dexkit
@@ -1187,9 +1206,9 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Class loadStatusPlaybackViewClass(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getClass(loader, () -> {
-            var ids = List.of(Utils.getID("status_header", "id"), Utils.getID("menu", "id"));
+    public static Class loadStatusPlaybackViewClass(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getClass(loader, "loadStatusPlaybackViewClass", () -> {
+            var ids = List.of(ResIdWpp.id.status_header, ResIdWpp.id.menu);
             var clazz = dexkit.findClass(
                     FindClass.create().matcher(
                             ClassMatcher.create().addMethod(
@@ -1200,8 +1219,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Method loadBlueOnReplayMessageJobMethod(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(loader, () -> {
+    public static Method loadBlueOnReplayMessageJobMethod(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(loader, "loadBlueOnReplayMessageJobMethod", () -> {
             var result = findFirstMethodUsingStrings(loader, StringMatchType.Contains, "SendE2EMessageJob/onRun");
             if (result == null)
                 throw new Exception("BlueOnReplayMessageJob method not found");
@@ -1209,8 +1228,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Method loadBlueOnReplayWaJobManagerMethod(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(loader, () -> {
+    public static Method loadBlueOnReplayWaJobManagerMethod(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(loader, "loadBlueOnReplayWaJobManagerMethod", () -> {
             var result = findFirstClassUsingStrings(loader, StringMatchType.Contains, "WaJobManager/start");
             var job = XposedHelpers.findClass("org.whispersystems.jobqueue.Job", loader);
             if (result == null)
@@ -1224,8 +1243,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Class loadArchiveChatClass(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getClass(loader, () -> {
+    public static Class loadArchiveChatClass(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getClass(loader, "loadArchiveChatClass", () -> {
             var clazz = findFirstClassUsingStrings(loader, StringMatchType.Contains,
                     "archive/set-content-indicator-to-empty");
             if (clazz == null)
@@ -1237,8 +1256,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Method loadAntiRevokeOnCallReceivedMethod(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(loader, () -> {
+    public static Method loadAntiRevokeOnCallReceivedMethod(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(loader, "loadAntiRevokeOnCallReceivedMethod", () -> {
             var method = findFirstMethodUsingStrings(loader, StringMatchType.Contains,
                     "voip/callStateChangedOnUIThread");
             if (method == null)
@@ -1247,8 +1266,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Method loadOnChangeStatus(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(loader, () -> {
+    public static Method loadOnChangeStatus(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(loader, "loadOnChangeStatus", () -> {
             Method method = findFirstMethodUsingStrings(loader, StringMatchType.Contains,
                     "ConversationViewFiller/setParentGroupProfilePhoto");
             if (method == null)
@@ -1279,8 +1298,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Class<?> loadViewHolder(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getClass(loader, () -> {
+    public static Class<?> loadViewHolder(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getClass(loader, "loadViewHolder", () -> {
             Method method = findFirstMethodUsingStrings(loader, StringMatchType.Contains, "conversations/click/jid ");
             if (method == null || method.getParameterCount() == 0)
                 throw new RuntimeException("ViewHolder not found!");
@@ -1288,15 +1307,15 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Field loadViewHolderField1(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getField(loader, () -> {
+    public static Field loadViewHolderField1(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getField(loader, "loadViewHolderField1", () -> {
             Class<?> class1 = loadOnChangeStatus(loader).getDeclaringClass().getSuperclass();
             return ReflectionUtils.getFieldByType(class1, loadViewHolder(loader));
         });
     }
 
-    public synchronized static Method loadStatusUserMethod(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(loader, () -> {
+    public static Method loadStatusUserMethod(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(loader, "loadStatusUserMethod", () -> {
             var id = UnobfuscatorCache.getInstance().getOfuscateIDString("lastseensun%s");
             if (id < 1)
                 throw new Exception("GetStatusUser ID not found");
@@ -1308,8 +1327,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Method loadSendPresenceMethod(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(loader, () -> {
+    public static Method loadSendPresenceMethod(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(loader, "loadSendPresenceMethod", () -> {
             var methodData = dexkit.findMethod(FindMethod.create()
                     .matcher(MethodMatcher.create().addUsingString("app/send-presence-subscription jid=")));
             if (methodData.isEmpty())
@@ -1334,8 +1353,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Method loadPinnedHashSetMethod(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(loader, () -> {
+    public static Method loadPinnedHashSetMethod(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(loader, "loadPinnedHashSetMethod", () -> {
             var method = findFirstMethodUsingStrings(loader, StringMatchType.Contains,
                     "getPinnedJids/QUERY_CHAT_SETTINGS");
             if (method == null)
@@ -1344,8 +1363,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Method loadGetFiltersMethod(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(loader, () -> {
+    public static Method loadGetFiltersMethod(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(loader, "loadGetFiltersMethod", () -> {
             var clazzFilters = findFirstClassUsingStrings(loader, StringMatchType.Contains,
                     "conversations/filter/performFiltering");
             if (clazzFilters == null)
@@ -1355,8 +1374,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Method loadPinnedInChatMethod(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(loader, () -> {
+    public static Method loadPinnedInChatMethod(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(loader, "loadPinnedInChatMethod", () -> {
             var method = dexkit.findMethod(
                     new FindMethod().matcher(new MethodMatcher().addUsingNumber(3732).returnType(int.class)));
             if (method.isEmpty())
@@ -1365,9 +1384,9 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Method loadBlueOnReplayCreateMenuConversationMethod(ClassLoader loader)
+    public static Method loadBlueOnReplayCreateMenuConversationMethod(ClassLoader loader)
             throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(loader, () -> {
+        return UnobfuscatorCache.getInstance().getMethod(loader, "loadBlueOnReplayCreateMenuConversationMethod", () -> {
             var conversationClass = XposedHelpers.findClass("com.whatsapp.Conversation", loader);
             if (conversationClass == null)
                 throw new RuntimeException("BlueOnReplayCreateMenuConversation class not found");
@@ -1380,8 +1399,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Method loadBlueOnReplayViewButtonMethod(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(loader, () -> {
+    public static Method loadBlueOnReplayViewButtonMethod(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(loader, "loadBlueOnReplayViewButtonMethod", () -> {
             var method = findFirstMethodUsingStrings(loader, StringMatchType.Contains,
                     "PLAYBACK_PAGE_ITEM_ON_CREATE_VIEW_END");
             if (method == null)
@@ -1390,8 +1409,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Field loadBlueOnReplayViewButtonOutSideField(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getField(loader, () -> {
+    public static Field loadBlueOnReplayViewButtonOutSideField(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getField(loader, "loadBlueOnReplayViewButtonOutSideField", () -> {
             var method = loadBlueOnReplayViewButtonMethod(loader);
             var clazz = method.getDeclaringClass();
             var methodData = dexkit.getMethodData(method);
@@ -1405,8 +1424,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Method loadBlueOnReplayStatusViewMethod(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(loader, () -> {
+    public static Method loadBlueOnReplayStatusViewMethod(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(loader, "loadBlueOnReplayStatusViewMethod", () -> {
             var method = findFirstMethodUsingStrings(loader, StringMatchType.Contains,
                     "StatusPlaybackPage/onViewCreated");
             if (method == null)
@@ -1415,8 +1434,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Method loadChatLimitDeleteMethod(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(loader, () -> {
+    public static Method loadChatLimitDeleteMethod(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(loader, "loadChatLimitDeleteMethod", () -> {
             var clazz = findFirstClassUsingStrings(loader, StringMatchType.Contains,
                     "app/time server update processed");
             if (clazz == null)
@@ -1441,8 +1460,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Method loadChatLimitDelete2Method(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(loader, () -> {
+    public static Method loadChatLimitDelete2Method(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(loader, "loadChatLimitDelete2Method", () -> {
             var method = findFirstMethodUsingStrings(loader, StringMatchType.Contains, "pref_revoke_admin_nux",
                     "dialog/delete no messages");
             if (method == null)
@@ -1451,8 +1470,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Method loadNewMessageMethod(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(loader, () -> {
+    public static Method loadNewMessageMethod(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(loader, "loadNewMessageMethod", () -> {
             var clazzMessageName = loadFMessageClass(loader).getName();
             var listMethods = dexkit.findMethod(FindMethod.create().searchPackages("com.whatsapp")
                     .matcher(MethodMatcher.create().addUsingString("extra_payment_note", StringMatchType.Equals)));
@@ -1470,8 +1489,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Method loadOriginalMessageKey(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(loader, () -> {
+    public static Method loadOriginalMessageKey(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(loader, "loadOriginalMessageKey", () -> {
             var method = findFirstMethodUsingStrings(loader, StringMatchType.Contains,
                     "FMessageUtil/getOriginalMessageKeyIfEdited");
             if (method == null)
@@ -1480,8 +1499,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Method loadNewMessageWithMediaMethod(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(loader, () -> {
+    public static Method loadNewMessageWithMediaMethod(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(loader, "loadNewMessageWithMediaMethod", () -> {
             var methodList = dexkit.findMethod(FindMethod.create().matcher(
                     MethodMatcher.create().addUsingString("INSERT_TABLE_MESSAGE_QUOTED", StringMatchType.Equals)));
             if (methodList.isEmpty())
@@ -1500,8 +1519,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Method loadMessageEditMethod(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(loader, () -> {
+    public static Method loadMessageEditMethod(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(loader, "loadMessageEditMethod", () -> {
             var method = findFirstMethodUsingStrings(loader, StringMatchType.Contains,
                     "MessageEditInfoStore/insertEditInfo/missing");
             if (method == null)
@@ -1510,8 +1529,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Method loadCallerMessageEditMethod(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(loader, () -> {
+    public static Method loadCallerMessageEditMethod(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(loader, "loadCallerMessageEditMethod", () -> {
             var methodData1 = dexkit.getMethodData(loadMessageEditMethod(loader));
             var FMessage = loadFMessageClass(loader);
             var invokes = methodData1.getInvokes();
@@ -1529,8 +1548,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Method loadGetEditMessageMethod(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(loader, () -> {
+    public static Method loadGetEditMessageMethod(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(loader, "loadGetEditMessageMethod", () -> {
             var method = findFirstMethodUsingStrings(loader, StringMatchType.Contains,
                     "MessageEditInfoStore/insertEditInfo/missing");
             if (method == null)
@@ -1561,8 +1580,8 @@ public class Unobfuscator {
     /**
      * @noinspection DataFlowIssue
      */
-    public synchronized static Field loadSetEditMessageField(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getField(loader, () -> {
+    public static Field loadSetEditMessageField(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getField(loader, "loadSetEditMessageField", () -> {
             var method = findFirstMethodUsingStrings(loader, StringMatchType.Contains,
                     "CoreMessageStore/updateCheckoutMessageWithTransactionInfo");
             if (method == null)
@@ -1585,9 +1604,9 @@ public class Unobfuscator {
     /**
      * @noinspection DataFlowIssue
      */
-    public synchronized static Class loadDialogViewClass(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getClass(loader, () -> {
-            var id = Utils.getID("touch_outside", "id");
+    public static Class loadDialogViewClass(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getClass(loader, "loadDialogViewClass", () -> {
+            var id = ResIdWpp.id.touch_outside;
             var result = dexkit.findMethod(
                     new FindMethod().matcher(new MethodMatcher().addUsingNumber(id).returnType(FrameLayout.class)));
             if (result.isEmpty())
@@ -1596,8 +1615,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Constructor loadRecreateFragmentConstructor(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getConstructor(loader, () -> {
+    public static Constructor loadRecreateFragmentConstructor(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getConstructor(loader, "loadRecreateFragmentConstructor", () -> {
             var data = dexkit.findMethod(FindMethod.create().searchPackages("X.")
                     .matcher(MethodMatcher.create().addUsingString("Instantiated fragment")));
             if (data.isEmpty())
@@ -1608,8 +1627,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Method loadOnTabItemAddMethod(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(loader, () -> {
+    public static Method loadOnTabItemAddMethod(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(loader, "loadOnTabItemAddMethod", () -> {
             var result = findFirstMethodUsingStrings(loader, StringMatchType.Contains,
                     "Maximum number of items supported by");
             if (result == null)
@@ -1618,8 +1637,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Method loadGetViewConversationMethod(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(loader, () -> {
+    public static Method loadGetViewConversationMethod(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(loader, "loadGetViewConversationMethod", () -> {
             var clazz = XposedHelpers.findClass("com.whatsapp.conversationslist.ConversationsFragment", loader);
             var method = Arrays.stream(clazz.getDeclaredMethods()).filter(m -> m.getParameterCount() == 3
                     && m.getReturnType().equals(View.class) && m.getParameterTypes()[1].equals(LayoutInflater.class))
@@ -1633,8 +1652,8 @@ public class Unobfuscator {
     /**
      * @noinspection SimplifyStreamApiCallChains
      */
-    public synchronized static Method loadOnMenuItemSelected(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(loader, () -> {
+    public static Method loadOnMenuItemSelected(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(loader, "loadOnMenuItemSelected", () -> {
             var aClass = XposedHelpers.findClass("androidx.viewpager.widget.ViewPager", loader);
             var result = Arrays.stream(aClass.getDeclaredMethods()).filter(m -> m.getParameterCount() == 4 &&
                     m.getParameterTypes()[0].equals(int.class) &&
@@ -1647,8 +1666,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Method loadOnUpdateStatusChanged(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(loader, () -> {
+    public static Method loadOnUpdateStatusChanged(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(loader, "loadOnUpdateStatusChanged", () -> {
             var clazz = getClassByName("UpdatesViewModel", loader);
             var clazzData = dexkit.getClassData(clazz);
             var methodSeduleche = XposedHelpers.findMethodBestMatch(Timer.class, "schedule", TimerTask.class,
@@ -1667,8 +1686,8 @@ public class Unobfuscator {
     /**
      * @noinspection DataFlowIssue
      */
-    public synchronized static Field loadGetInvokeField(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getField(loader, () -> {
+    public static Field loadGetInvokeField(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getField(loader, "loadGetInvokeField", () -> {
             var method = loadOnUpdateStatusChanged(loader);
             var methodData = dexkit.getMethodData(DexSignUtil.getMethodDescriptor(method));
             var fields = methodData.getUsingFields();
@@ -1680,8 +1699,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Class<?> loadStatusInfoClass(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getClass(loader, () -> {
+    public static Class<?> loadStatusInfoClass(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getClass(loader, "loadStatusInfoClass", () -> {
             var clazz = findFirstClassUsingStrings(loader, StringMatchType.Contains, "ContactStatusDataItem");
             if (clazz == null)
                 throw new RuntimeException("StatusInfo class not found");
@@ -1689,8 +1708,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Class loadStatusListUpdatesClass(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getClass(loader, () -> {
+    public static Class loadStatusListUpdatesClass(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getClass(loader, "loadStatusListUpdatesClass", () -> {
             var clazz = findFirstClassUsingStrings(loader, StringMatchType.Contains, "StatusListUpdates");
             if (clazz == null)
                 throw new RuntimeException("StatusListUpdates class not found");
@@ -1698,8 +1717,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Class loadTabFrameClass(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getClass(loader, () -> {
+    public static Class loadTabFrameClass(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getClass(loader, "loadTabFrameClass", () -> {
             var clazz = findFirstClassUsingStrings(loader, StringMatchType.Contains, "android:menu:presenters");
             if (clazz == null)
                 throw new RuntimeException("TabFrame class not found");
@@ -1707,8 +1726,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Class loadRemoveChannelRecClass(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getClass(loader, () -> {
+    public static Class loadRemoveChannelRecClass(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getClass(loader, "loadRemoveChannelRecClass", () -> {
             var clazz = findFirstClassUsingStrings(loader, StringMatchType.Contains, "hasNewsletterSubscriptions");
             if (clazz == null)
                 throw new RuntimeException("RemoveChannelRec class not found");
@@ -1716,8 +1735,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Class loadFilterAdaperClass(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getClass(loader, () -> {
+    public static Class loadFilterAdaperClass(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getClass(loader, "loadFilterAdaperClass", () -> {
             var clazzList = dexkit.findClass(new FindClass().matcher(new ClassMatcher().addMethod(
                     new MethodMatcher().addUsingString("CONTACTS_FILTER").paramCount(1).addParamType(int.class))));
             if (clazzList.isEmpty())
@@ -1726,8 +1745,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Constructor loadSeeMoreConstructor(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getConstructor(loader, () -> {
+    public static Constructor loadSeeMoreConstructor(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getConstructor(loader, "loadSeeMoreConstructor", () -> {
             // Original pattern from JADX - relaxed number requirements
             var classList = dexkit.findClass(FindClass.create().matcher(ClassMatcher.create()
                     .addMethod(MethodMatcher.create().addUsingNumber(16384))
@@ -1773,8 +1792,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Method[] loadSendStickerMethods(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethods(loader, () -> {
+    public static Method[] loadSendStickerMethods(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethods(loader, "loadSendStickerMethods", () -> {
             var methods = findAllMethodUsingStrings(loader, StringMatchType.Contains,
                     "StickerGridViewItem.StickerLocal");
             if (methods == null)
@@ -1784,8 +1803,8 @@ public class Unobfuscator {
 
     }
 
-    public synchronized static Method loadMaterialAlertDialog(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(loader, () -> {
+    public static Method loadMaterialAlertDialog(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(loader, "loadMaterialAlertDialog", () -> {
             var callConfirmationFragment = XposedHelpers
                     .findClass("com.whatsapp.calling.fragment.CallConfirmationFragment", loader);
             var method = ReflectionUtils.findMethodUsingFilter(callConfirmationFragment,
@@ -1808,8 +1827,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Method loadGetIntPreferences(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(loader, () -> {
+    public static Method loadGetIntPreferences(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(loader, "loadGetIntPreferences", () -> {
             var methodList = dexkit.findMethod(new FindMethod().matcher(
                     new MethodMatcher().paramCount(2).addParamType(SharedPreferences.class).addParamType(String.class)
                             .modifiers(Modifier.STATIC | Modifier.PUBLIC).returnType(int.class)));
@@ -1819,8 +1838,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Field loadProfileInfoField(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getField(loader, () -> {
+    public static Field loadProfileInfoField(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getField(loader, "loadProfileInfoField", () -> {
             var clazz = findFirstClassUsingStrings(loader, StringMatchType.Contains, "[obfuscated]@%s");
             if (clazz == null)
                 throw new RuntimeException("ProfileInfo class not found");
@@ -1832,8 +1851,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Method loadAudioProximitySensorMethod(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(loader, () -> {
+    public static Method loadAudioProximitySensorMethod(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(loader, "loadAudioProximitySensorMethod", () -> {
             var method = findFirstMethodUsingStrings(loader, StringMatchType.Contains,
                     "messageaudioplayer/onearproximity");
             if (method == null)
@@ -1842,15 +1861,15 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Class<?> loadAudioPlayerClass(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getClass(loader, () -> {
+    public static Class<?> loadAudioPlayerClass(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getClass(loader, "loadAudioPlayerClass", () -> {
             var method = loadAudioProximitySensorMethod(loader);
             return method.getDeclaringClass();
         });
     }
 
-    public synchronized static Method loadGroupAdminMethod(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(loader, () -> {
+    public static Method loadGroupAdminMethod(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(loader, "loadGroupAdminMethod", () -> {
             var method = dexkit.findMethod(
                     FindMethod.create().matcher(MethodMatcher.create().name("setupUsernameInGroupViewContainer")));
             if (method.isEmpty())
@@ -1859,8 +1878,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Method loadNotifyUpdatePhotoMethod(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(loader, () -> {
+    public static Method loadNotifyUpdatePhotoMethod(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(loader, "loadNotifyUpdatePhotoMethod", () -> {
             String[] signatures = {
                     "handle_notification",
                     "handle_picture",
@@ -1882,8 +1901,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Method loadJidFactory(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(loader, () -> {
+    public static Method loadJidFactory(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(loader, "loadJidFactory", () -> {
             var method = findFirstMethodUsingStrings(loader, StringMatchType.Contains, "lid_me", "status_me",
                     "s.whatsapp.net");
             if (method == null)
@@ -1892,8 +1911,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Method loadGroupCheckAdminMethod(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(loader, () -> {
+    public static Method loadGroupCheckAdminMethod(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(loader, "loadGroupCheckAdminMethod", () -> {
 
             var classData = dexkit
                     .findClass(FindClass.create()
@@ -1921,8 +1940,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Constructor loadStartPrefsConfig(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getConstructor(loader, () -> {
+    public static Constructor loadStartPrefsConfig(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getConstructor(loader, "loadStartPrefsConfig", () -> {
             var results = dexkit.findMethod(
                     new FindMethod().matcher(new MethodMatcher().addUsingString("startup_migrated_version")));
             if (results.isEmpty())
@@ -1931,8 +1950,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Method loadCheckOnlineMethod(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(loader, () -> {
+    public static Method loadCheckOnlineMethod(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(loader, "loadCheckOnlineMethod", () -> {
             var method = findFirstMethodUsingStrings(loader, StringMatchType.Contains,
                     "MessageHandler/handleConnectionThreadReady connectionready");
             if (method == null)
@@ -1944,8 +1963,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Method loadEphemeralInsertdb(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(loader, () -> {
+    public static Method loadEphemeralInsertdb(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(loader, "loadEphemeralInsertdb", () -> {
             var method = dexkit.findMethod(FindMethod.create()
                     .matcher(MethodMatcher.create().addUsingString("expire_timestamp")
                             .addUsingString("ephemeral_initiated_by_me").addUsingString("ephemeral_trigger")
@@ -1957,8 +1976,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Method loadDefEmojiClass(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(loader, () -> {
+    public static Method loadDefEmojiClass(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(loader, "loadDefEmojiClass", () -> {
             var method = findFirstMethodUsingStrings(loader, StringMatchType.Contains, "emojis.oba");
             if (method == null)
                 throw new RuntimeException("DefEmoji class not found");
@@ -1966,10 +1985,10 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Class<?> loadVideoViewContainerClass(ClassLoader loader) {
+    public static Class<?> loadVideoViewContainerClass(ClassLoader loader) {
         try {
             return UnobfuscatorCache.getInstance().getClass(
-                    loader,
+                    loader, "loadVideoViewContainerClass",
                     new UnobfuscatorCache.FunctionCall() {
                         @Override
                         public Object call() {
@@ -2005,10 +2024,10 @@ public class Unobfuscator {
         }
     }
 
-    public synchronized static Class<?> loadImageVewContainerClass(ClassLoader loader) {
+    public static Class<?> loadImageVewContainerClass(ClassLoader loader) {
         try {
             return UnobfuscatorCache.getInstance().getClass(
-                    loader,
+                    loader, "loadImageVewContainerClass",
                     new UnobfuscatorCache.FunctionCall() {
                         @Override
                         public Object call() {
@@ -2029,8 +2048,8 @@ public class Unobfuscator {
                 FindClass.create().matcher(
                         ClassMatcher.create().addMethod(
                                 MethodMatcher.create()
-                                        .addUsingNumber(Integer.valueOf(Utils.getID("hd_invisible_touch", "id")))
-                                        .addUsingNumber(Integer.valueOf(Utils.getID("control_btn", "id"))))));
+                                        .addUsingNumber(Integer.valueOf(ResIdWpp.id.hd_invisible_touch))
+                                        .addUsingNumber(Integer.valueOf(ResIdWpp.id.control_btn)))));
 
         if (clazzList.isEmpty()) {
             return null; // IMPORTANT: do not throw yet
@@ -2046,8 +2065,8 @@ public class Unobfuscator {
         return null;
     }
 
-    public synchronized static Method getFilterInitMethod(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(loader, () -> {
+    public static Method getFilterInitMethod(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(loader, "getFilterInitMethod", () -> {
             var filterAdaperClass = Unobfuscator.loadFilterAdaperClass(loader);
             var constructor = filterAdaperClass.getConstructors()[0];
             var methods = dexkit.findMethod(new FindMethod()
@@ -2072,9 +2091,9 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Class getFilterView(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getClass(loader, () -> {
-            var filter_id = Utils.getID("conversations_swipe_to_reveal_filters_stub", "id");
+    public static Class getFilterView(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getClass(loader, "getFilterView", () -> {
+            var filter_id = ResIdWpp.id.conversations_swipe_to_reveal_filters_stub;
             var results = dexkit.findClass(FindClass.create()
                     .matcher(ClassMatcher.create().addMethod(MethodMatcher.create().addUsingNumber(filter_id))));
             if (results.isEmpty())
@@ -2083,8 +2102,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Method loadSelectedMessageOnCreated(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(loader, () -> {
+    public static Method loadSelectedMessageOnCreated(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(loader, "loadSelectedMessageOnCreated", () -> {
             Class<?> activityCls = loader
                     .loadClass("com.whatsapp.conversation.selection.SingleSelectedMessageActivity");
             return ReflectionUtils.findMethodUsingFilter(activityCls,
@@ -2092,8 +2111,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Class loadActionUser(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getClass(loader, () -> {
+    public static Class loadActionUser(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getClass(loader, "loadActionUser", () -> {
             var classData = dexkit.getClassData("com.whatsapp.conversation.selection.SingleSelectedMessageActivity");
             if (classData == null)
                 throw new RuntimeException("SingleSelectedMessage class not found");
@@ -2109,7 +2128,7 @@ public class Unobfuscator {
     }
 
     public static Method loadUserActionsTextMessageSending(final ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(classLoader, () -> {
+        return UnobfuscatorCache.getInstance().getMethod(classLoader, "loadUserActionsTextMessageSending", () -> {
             Method method = findFirstMethodUsingStrings(classLoader, StringMatchType.Contains,
                     "UserActionsTextMessageSending/createFMessageTextFromUserInputs");
             if (method == null) {
@@ -2128,8 +2147,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Method loadOnPlaybackFinished(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(classLoader, () -> {
+    public static Method loadOnPlaybackFinished(ClassLoader classLoader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(classLoader, "loadOnPlaybackFinished", () -> {
             var method = findFirstMethodUsingStrings(classLoader, StringMatchType.Contains,
                     "playbackPage/onPlaybackContentFinished");
             if (method == null)
@@ -2138,8 +2157,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Method loadNextStatusRunMethod(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(classLoader, () -> {
+    public static Method loadNextStatusRunMethod(ClassLoader classLoader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(classLoader, "loadNextStatusRunMethod", () -> {
             var methodList = dexkit.findMethod(
                     new FindMethod().matcher(new MethodMatcher().addUsingString("playMiddleTone").name("run")));
             if (methodList.isEmpty())
@@ -2148,8 +2167,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Method loadOnInsertReceipt(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(classLoader, () -> {
+    public static Method loadOnInsertReceipt(ClassLoader classLoader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(classLoader, "loadOnInsertReceipt", () -> {
             var method = dexkit
                     .findMethod(FindMethod.create()
                             .matcher(MethodMatcher.create().addUsingString("INSERT_RECEIPT_USER").paramCount(1)))
@@ -2161,8 +2180,8 @@ public class Unobfuscator {
 
     }
 
-    public synchronized static Method loadSendAudioTypeMethod(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(classLoader, () -> {
+    public static Method loadSendAudioTypeMethod(ClassLoader classLoader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(classLoader, "loadSendAudioTypeMethod", () -> {
             var classMsgReplyAct = Unobfuscator.findFirstClassUsingName(classLoader, StringMatchType.EndsWith,
                     "MessageReplyActivity");
             if (classMsgReplyAct == null)
@@ -2184,8 +2203,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Field loadOriginFMessageField(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getField(classLoader, () -> {
+    public static Field loadOriginFMessageField(ClassLoader classLoader) throws Exception {
+        return UnobfuscatorCache.getInstance().getField(classLoader, "loadOriginFMessageField", () -> {
             var result = dexkit.findMethod(FindMethod.create()
                     .matcher(MethodMatcher.create().addUsingString("audio/ogg; codecs=opu").returnType(boolean.class)));
             var FMessageClass = loadFMessageClass(classLoader);
@@ -2205,8 +2224,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Method loadForwardAudioTypeMethod(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(classLoader, () -> {
+    public static Method loadForwardAudioTypeMethod(ClassLoader classLoader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(classLoader, "loadForwardAudioTypeMethod", () -> {
             var results = findAllMethodUsingStrings(classLoader, StringMatchType.Contains,
                     "FMessageFactory/newFMessageForForward/thumbnail");
             if (results == null || results.length < 1)
@@ -2223,8 +2242,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Class loadFragmentLoader(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getClass(classLoader, () -> {
+    public static Class loadFragmentLoader(ClassLoader classLoader) throws Exception {
+        return UnobfuscatorCache.getInstance().getClass(classLoader, "loadFragmentLoader", () -> {
             var clazz = findFirstClassUsingStrings(classLoader, StringMatchType.Contains,
                     "not associated with a fragment manager.");
             if (clazz == null)
@@ -2233,8 +2252,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Method loadShowDialogStatusMethod(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(classLoader, () -> {
+    public static Method loadShowDialogStatusMethod(ClassLoader classLoader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(classLoader, "loadShowDialogStatusMethod", () -> {
             var clazz = loadFragmentLoader(classLoader);
             var frag = classLoader.loadClass("androidx.fragment.app.DialogFragment");
             var result = dexkit.findMethod(FindMethod.create().matcher(
@@ -2247,8 +2266,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Method loadPlaybackSpeed(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(classLoader, () -> {
+    public static Method loadPlaybackSpeed(ClassLoader classLoader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(classLoader, "loadPlaybackSpeed", () -> {
             var method = findFirstMethodUsingStrings(classLoader, StringMatchType.Contains,
                     "heroaudioplayer/setPlaybackSpeed");
             if (method == null)
@@ -2257,7 +2276,7 @@ public class Unobfuscator {
         });
     }
 
-    // public synchronized static Method
+    // public static Method
     // loadArchiveCheckLockedChatsMethod(ClassLoader classLoader) throws Exception {
     // var method = findFirstMethodUsingStrings(classLoader,
     // StringMatchType.Contains,
@@ -2267,7 +2286,7 @@ public class Unobfuscator {
     // return method;
     // }
     //
-    // public synchronized static Method
+    // public static Method
     // loadArchiveCheckLockedChatsMethod2(ClassLoader classLoader) throws Exception
     // {
     // var methods = findAllMethodUsingStrings(classLoader,
@@ -2279,9 +2298,9 @@ public class Unobfuscator {
     // 0).findFirst().orElse(null);
     // }
     //
-    // public synchronized static Class<?> loadArchiveLockedChatClass(ClassLoader
+    // public static Class<?> loadArchiveLockedChatClass(ClassLoader
     // classLoader) throws Exception {
-    // return UnobfuscatorCache.getInstance().getClass(classLoader, () -> {
+    // return UnobfuscatorCache.getInstance().getClass(classLoader, "loadArchiveLockedChatClass", () -> {
     // var clazzList = dexkit.findClass(new FindClass().matcher(new
     // ClassMatcher().addMethod(new
     // MethodMatcher().name("setLockedRowVisibility")).addMethod(new
@@ -2292,8 +2311,8 @@ public class Unobfuscator {
     // });
     // }
 
-    public synchronized static Method loadListUpdateItems(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(classLoader, () -> {
+    public static Method loadListUpdateItems(ClassLoader classLoader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(classLoader, "loadListUpdateItems", () -> {
             var method = dexkit.findMethod(FindMethod.create().matcher(MethodMatcher.create()
                     .addUsingString("Running diff util, updates list size", StringMatchType.Contains)));
             if (method.isEmpty())
@@ -2302,8 +2321,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Class loadHeaderChannelItemClass(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getClass(classLoader, () -> {
+    public static Class loadHeaderChannelItemClass(ClassLoader classLoader) throws Exception {
+        return UnobfuscatorCache.getInstance().getClass(classLoader, "loadHeaderChannelItemClass", () -> {
             var clazz = findFirstClassUsingStrings(classLoader, StringMatchType.Contains, "statusTilesEnabled");
             if (clazz == null)
                 throw new RuntimeException("HeaderChannelItem class not found");
@@ -2311,8 +2330,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Class loadListChannelItemClass(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getClass(classLoader, () -> {
+    public static Class loadListChannelItemClass(ClassLoader classLoader) throws Exception {
+        return UnobfuscatorCache.getInstance().getClass(classLoader, "loadListChannelItemClass", () -> {
             var clazz = findFirstClassUsingStrings(classLoader, StringMatchType.Contains, "isMuteIndicatorEnabled");
             if (clazz == null)
                 throw new RuntimeException("NewsletterDataItem class not found");
@@ -2320,8 +2339,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Method[] loadTextStatusData(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethods(classLoader, () -> {
+    public static Method[] loadTextStatusData(ClassLoader classLoader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethods(classLoader, "loadTextStatusData", () -> {
             Class<?> textData;
             var textDataList = dexkit
                     .findClass(FindClass.create().matcher(ClassMatcher.create().addUsingString("TextData;")));
@@ -2341,8 +2360,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Class<?> loadExpirationClass(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getClass(classLoader, () -> {
+    public static Class<?> loadExpirationClass(ClassLoader classLoader) throws Exception {
+        return UnobfuscatorCache.getInstance().getClass(classLoader, "loadExpirationClass", () -> {
             var methods = findAllMethodUsingStrings(classLoader, StringMatchType.Contains,
                     "software_forced_expiration");
             var expirationMethod = Arrays.stream(methods)
@@ -2353,8 +2372,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Class<?> loadAbsViewHolder(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getClass(classLoader, () -> {
+    public static Class<?> loadAbsViewHolder(ClassLoader classLoader) throws Exception {
+        return UnobfuscatorCache.getInstance().getClass(classLoader, "loadAbsViewHolder", () -> {
             var clazz = findFirstClassUsingStrings(classLoader, StringMatchType.Contains, "not recyclable");
             if (clazz == null)
                 throw new RuntimeException("AbsViewHolder class not found");
@@ -2362,8 +2381,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Method loadFragmentViewMethod(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(classLoader, () -> {
+    public static Method loadFragmentViewMethod(ClassLoader classLoader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(classLoader, "loadFragmentViewMethod", () -> {
             var method = findFirstMethodUsingStrings(classLoader, StringMatchType.Contains,
                     "this was called before onCreateView()");
             if (method == null)
@@ -2372,8 +2391,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Method loadCopiedMessageMethod(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(classLoader, () -> {
+    public static Method loadCopiedMessageMethod(ClassLoader classLoader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(classLoader, "loadCopiedMessageMethod", () -> {
             var method = findFirstMethodUsingStrings(classLoader, StringMatchType.Contains, "conversation/copymessage");
             if (method == null)
                 throw new RuntimeException("CopiedMessage method not found");
@@ -2381,8 +2400,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Class<?> loadSenderPlayedClass(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getClass(classLoader, () -> {
+    public static Class<?> loadSenderPlayedClass(ClassLoader classLoader) throws Exception {
+        return UnobfuscatorCache.getInstance().getClass(classLoader, "loadSenderPlayedClass", () -> {
             var clazz = findFirstClassUsingStrings(classLoader, StringMatchType.Contains, "sendmethods/sendClearDirty");
             if (clazz == null)
                 throw new RuntimeException("SenderPlayed class not found");
@@ -2390,8 +2409,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Method loadSenderPlayedMethod(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(classLoader, () -> {
+    public static Method loadSenderPlayedMethod(ClassLoader classLoader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(classLoader, "loadSenderPlayedMethod", () -> {
             var clazz = loadSenderPlayedClass(classLoader);
             var abstractMediaMessageClass = Unobfuscator.loadAbstractMediaMessageClass(classLoader);
             var interfaces = abstractMediaMessageClass.getInterfaces();
@@ -2439,8 +2458,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Method loadSenderPlayedBusiness(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(classLoader, () -> {
+    public static Method loadSenderPlayedBusiness(ClassLoader classLoader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(classLoader, "loadSenderPlayedBusiness", () -> {
             var loadSenderPlayed = loadSenderPlayedClass(classLoader);
             var foundMethod = ReflectionUtils.findMethodUsingFilter(loadSenderPlayed,
                     method -> method.getParameterCount() > 0 && method.getParameterTypes()[0] == Set.class);
@@ -2450,8 +2469,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Field loadMediaTypeField(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getField(classLoader, () -> {
+    public static Field loadMediaTypeField(ClassLoader classLoader) throws Exception {
+        return UnobfuscatorCache.getInstance().getField(classLoader, "loadMediaTypeField", () -> {
             var methodData = dexkit.findMethod(
                     FindMethod.create().matcher(MethodMatcher.create().addUsingString("conversation/refresh")));
             if (methodData.isEmpty())
@@ -2469,8 +2488,8 @@ public class Unobfuscator {
 
     }
 
-    public synchronized static Method loadBubbleDrawableMethod(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(classLoader, () -> {
+    public static Method loadBubbleDrawableMethod(ClassLoader classLoader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(classLoader, "loadBubbleDrawableMethod", () -> {
             var methodData = dexkit.findMethod(FindMethod.create().matcher(
                     MethodMatcher.create().addUsingString("Unreachable code: direction=").returnType(Drawable.class)));
             if (methodData.isEmpty())
@@ -2479,8 +2498,28 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Method loadBallonDateDrawable(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(classLoader, () -> {
+    /**
+     * The methods building a Paint with a color, the initializers WhatsApp passes to its lazy Paint properties.
+     */
+    public static Method[] loadPaintFactoryMethods(ClassLoader classLoader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethods(classLoader, "loadPaintFactoryMethods", () -> {
+            var methods = dexkit.findMethod(FindMethod.create().matcher(MethodMatcher.create()
+                    .returnType(Paint.class).addInvoke("Landroid/graphics/Paint;->setColor(I)V")));
+            if (methods.isEmpty())
+                throw new Exception("Paint factory methods not found");
+            var list = new ArrayList<Method>();
+            for (var methodData : methods) {
+                if (!methodData.isMethod()) continue;
+                list.add(methodData.getMethodInstance(classLoader));
+            }
+            if (list.isEmpty())
+                throw new Exception("Paint factory methods not found");
+            return list.toArray(new Method[0]);
+        });
+    }
+
+    public static Method loadBallonDateDrawable(ClassLoader classLoader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(classLoader, "loadBallonDateDrawable", () -> {
             var methodData = dexkit.findMethod(FindMethod.create().matcher(
                     MethodMatcher.create().addUsingString("Unreachable code: direction=").returnType(Rect.class)));
             if (methodData.isEmpty())
@@ -2495,8 +2534,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Method loadBallonBorderDrawable(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(classLoader, () -> {
+    public static Method loadBallonBorderDrawable(ClassLoader classLoader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(classLoader, "loadBallonBorderDrawable", () -> {
             var clazz = loadBallonDateDrawable(classLoader).getDeclaringClass();
             var method = ReflectionUtils.findMethodUsingFilterIfExists(clazz,
                     m -> m.getParameterCount() == 3 && m.getReturnType().equals(Drawable.class));
@@ -2507,7 +2546,7 @@ public class Unobfuscator {
     }
 
     public static synchronized Method[] loadRootDetector(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethods(classLoader, () -> {
+        return UnobfuscatorCache.getInstance().getMethods(classLoader, "loadRootDetector", () -> {
             var methods = findAllMethodUsingStrings(classLoader, StringMatchType.Contains, "/system/bin/su");
             if (methods.length == 0)
                 throw new RuntimeException("RootDetector method not found");
@@ -2516,7 +2555,7 @@ public class Unobfuscator {
     }
 
     public static synchronized Method loadCheckEmulator(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(classLoader, () -> {
+        return UnobfuscatorCache.getInstance().getMethod(classLoader, "loadCheckEmulator", () -> {
             var method = findFirstMethodUsingStrings(classLoader, StringMatchType.Contains,
                     "Android SDK built for x86");
             if (method == null)
@@ -2526,7 +2565,7 @@ public class Unobfuscator {
     }
 
     public static synchronized Method loadCheckCustomRom(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(classLoader, () -> {
+        return UnobfuscatorCache.getInstance().getMethod(classLoader, "loadCheckCustomRom", () -> {
             var method = findFirstMethodUsingStrings(classLoader, StringMatchType.Contains, "cyanogen");
             if (method == null)
                 throw new RuntimeException("CheckCustomRom method not found");
@@ -2535,27 +2574,27 @@ public class Unobfuscator {
     }
 
     public static synchronized Method loadTranscribeMethod(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(classLoader, () -> findFirstMethodUsingStrings(classLoader,
+        return UnobfuscatorCache.getInstance().getMethod(classLoader, "loadTranscribeMethod", () -> findFirstMethodUsingStrings(classLoader,
                 StringMatchType.Contains, "transcribe: starting transcription"));
     }
 
     public static synchronized Method loadCheckSupportLanguage(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(classLoader,
+        return UnobfuscatorCache.getInstance().getMethod(classLoader, "loadCheckSupportLanguage",
                 () -> findFirstMethodUsingStrings(classLoader, StringMatchType.Contains, "Unsupported language"));
     }
 
     public static synchronized Class loadTranscriptSegment(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getClass(classLoader,
+        return UnobfuscatorCache.getInstance().getClass(classLoader, "loadTranscriptSegment",
                 () -> findFirstClassUsingStrings(classLoader, StringMatchType.Contains, "TranscriptionSegment("));
     }
 
     public static synchronized Method loadStateChangeMethod(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(classLoader, () -> findFirstMethodUsingStrings(classLoader,
+        return UnobfuscatorCache.getInstance().getMethod(classLoader, "loadStateChangeMethod", () -> findFirstMethodUsingStrings(classLoader,
                 StringMatchType.Contains, "presencestatemanager/startTransitionToUnavailable/new-state"));
     }
 
     public static synchronized Method loadCachedMessageStoreKey(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(loader, () -> {
+        return UnobfuscatorCache.getInstance().getMethod(loader, "loadCachedMessageStoreKey", () -> {
             var method = findFirstMethodUsingStrings(loader, StringMatchType.Contains,
                     "CachedMessageStore/getAvailableMessage/key");
             if (method == null)
@@ -2565,7 +2604,7 @@ public class Unobfuscator {
     }
 
     public static synchronized Class loadAbstractMediaMessageClass(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getClass(loader, () -> {
+        return UnobfuscatorCache.getInstance().getClass(loader, "loadAbstractMediaMessageClass", () -> {
             for (var str : List.of("first_viewed_timestamp", "Field is set but is null in MediaDataV2")) {
                 var classList = dexkit.findClass(FindClass.create().matcher(ClassMatcher.create().addUsingString(str)));
                 for (var clazz : classList) {
@@ -2579,7 +2618,7 @@ public class Unobfuscator {
     }
 
     public static Class<?> loadFragmentClass(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getClass(classLoader, () -> {
+        return UnobfuscatorCache.getInstance().getClass(classLoader, "loadFragmentClass", () -> {
             var clazz = findFirstClassUsingStrings(classLoader, StringMatchType.Contains, "mFragmentId=#");
             if (clazz == null)
                 throw new RuntimeException("Fragment class not found");
@@ -2588,7 +2627,7 @@ public class Unobfuscator {
     }
 
     public static Method loadMediaQualitySelectionMethod(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(classLoader, () -> {
+        return UnobfuscatorCache.getInstance().getMethod(classLoader, "loadMediaQualitySelectionMethod", () -> {
             var methodData = dexkit.findMethod(FindMethod.create().matcher(
                     MethodMatcher.create().addUsingString("enable_media_quality_tool").returnType(boolean.class)));
 
@@ -2604,7 +2643,7 @@ public class Unobfuscator {
     }
 
     public static Field loadFmessageTimestampField(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getField(classLoader, () -> {
+        return UnobfuscatorCache.getInstance().getField(classLoader, "loadFmessageTimestampField", () -> {
             var fmessageClass = loadFMessageClass(classLoader);
             var chatLimitDelete2Method = Unobfuscator.loadChatLimitDelete2Method(classLoader);
             var usingFields = dexkit.getMethodData(chatLimitDelete2Method).getUsingFields();
@@ -2620,7 +2659,7 @@ public class Unobfuscator {
     }
 
     public static Class<?> loadStatusDistributionClass(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getClass(classLoader, () -> {
+        return UnobfuscatorCache.getInstance().getClass(classLoader, "loadStatusDistributionClass", () -> {
             var clazz = findFirstClassUsingStrings(classLoader, StringMatchType.Equals,
                     "Only set a valid status distribution mode");
             if (clazz == null)
@@ -2630,10 +2669,10 @@ public class Unobfuscator {
     }
 
     public static Class<?> loadFilterItemClass(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getClass(classLoader, () -> {
+        return UnobfuscatorCache.getInstance().getClass(classLoader, "loadFilterItemClass", () -> {
             var methodList = dexkit.findMethod(FindMethod.create().matcher(
-                    MethodMatcher.create().addUsingNumber(Utils.getID("invisible_height_placeholder", "id"))
-                            .addUsingNumber(Utils.getID("container_view", "id"))));
+                    MethodMatcher.create().addUsingNumber(ResIdWpp.id.invisible_height_placeholder)
+                            .addUsingNumber(ResIdWpp.id.container_view)));
             if (!methodList.isEmpty())
                 return methodList.get(0).getClassInstance(classLoader);
 
@@ -2651,7 +2690,7 @@ public class Unobfuscator {
     }
 
     public static Class[] loadProximitySensorListenerClasses(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getClasses(classLoader, () -> {
+        return UnobfuscatorCache.getInstance().getClasses(classLoader, "loadProximitySensorListenerClasses", () -> {
             var classDataList = dexkit.findClass(
                     FindClass.create()
                             .matcher(ClassMatcher.create().addInterface(SensorEventListener.class.getName())));
@@ -2663,7 +2702,7 @@ public class Unobfuscator {
     }
 
     public static Class<?> loadRefreshStatusClass(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getClass(classLoader, () -> {
+        return UnobfuscatorCache.getInstance().getClass(classLoader, "loadRefreshStatusClass", () -> {
             var strings = new String[] { "liveStatusUpdatesActive", "Statuses refreshed", "status_updates_active",
                     "StatusUpdateStore" };
             for (var s : strings) {
@@ -2689,7 +2728,7 @@ public class Unobfuscator {
     }
 
     public static Method loadTcTokenMethod(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(classLoader, () -> findFirstMethodUsingStrings(classLoader,
+        return UnobfuscatorCache.getInstance().getMethod(classLoader, "loadTcTokenMethod", () -> findFirstMethodUsingStrings(classLoader,
                 StringMatchType.Contains, "GET_RECEIVED_TOKEN_AND_TIMESTAMP_BY_JID"));
     }
 
@@ -2706,7 +2745,7 @@ public class Unobfuscator {
     }
 
     public static Class loadVoipManager(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getClass(classLoader, () -> {
+        return UnobfuscatorCache.getInstance().getClass(classLoader, "loadVoipManager", () -> {
             var voipClass = WppCore.getVoipManagerClass(classLoader);
             var superClasses = dexkit
                     .findClass(FindClass.create().matcher(ClassMatcher.create().superClass(voipClass.getName())));
@@ -2721,19 +2760,19 @@ public class Unobfuscator {
     }
 
     public static Class loadWaContactClass(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getClass(classLoader,
+        return UnobfuscatorCache.getInstance().getClass(classLoader, "loadWaContactClass",
                 () -> findFirstClassUsingStrings(classLoader, StringMatchType.Contains, "problematic contact:"));
 
     }
 
     public static Method loadViewAddSearchBarMethod(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(classLoader, () -> findFirstMethodUsingStrings(classLoader,
+        return UnobfuscatorCache.getInstance().getMethod(classLoader, "loadViewAddSearchBarMethod", () -> findFirstMethodUsingStrings(classLoader,
                 StringMatchType.Contains, "HeaderFooterRecyclerViewAdapter/addHeaderViewItemIfNeeded/duplicate-item"));
     }
 
     public static Method loadMenuSearchMethod(ClassLoader classLoader) throws Exception {
         return UnobfuscatorCache.getInstance()
-                .getMethod(classLoader,
+                .getMethod(classLoader, "loadMenuSearchMethod",
                         () -> dexkit
                                 .findMethod(
                                         FindMethod.create()
@@ -2743,10 +2782,10 @@ public class Unobfuscator {
     }
 
     public static Method loadAddOptionSearchBarMethod(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(classLoader, () -> {
+        return UnobfuscatorCache.getInstance().getMethod(classLoader, "loadAddOptionSearchBarMethod", () -> {
             var classData = Objects.requireNonNull(dexkit.getClassData(WppCore.getHomeActivityClass(classLoader)));
             MethodDataList methodData = classData.findMethod(FindMethod.create()
-                    .matcher(MethodMatcher.create().addUsingNumber(Utils.getID("menuitem_search", "id"))
+                    .matcher(MethodMatcher.create().addUsingNumber(ResIdWpp.id.menuitem_search)
                             .addUsingNumber(200)
                             .paramCount(1)
                             .addParamType(Menu.class)));
@@ -2758,27 +2797,27 @@ public class Unobfuscator {
     }
 
     public static Method loadAddMenuAndroidX(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(classLoader, () -> findFirstMethodUsingStrings(classLoader,
+        return UnobfuscatorCache.getInstance().getMethod(classLoader, "loadAddMenuAndroidX", () -> findFirstMethodUsingStrings(classLoader,
                 StringMatchType.Contains, "Maximum number of items supported by"));
     }
 
     public static Method loadConvertLidToJid(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(loader, () -> findFirstMethodUsingStrings(loader,
+        return UnobfuscatorCache.getInstance().getMethod(loader, "loadConvertLidToJid", () -> findFirstMethodUsingStrings(loader,
                 StringMatchType.Contains, "WaJidMapRepository/getPhoneJidByAccountUserJid"));
     }
 
     public static Method loadConvertJidToLid(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(loader, () -> findFirstMethodUsingStrings(loader,
+        return UnobfuscatorCache.getInstance().getMethod(loader, "loadConvertJidToLid", () -> findFirstMethodUsingStrings(loader,
                 StringMatchType.Contains, "WaJidMapRepository/getAccountUserJidByPhoneJid"));
     }
 
     public static Class loadWaContactData(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getClass(classLoader,
+        return UnobfuscatorCache.getInstance().getClass(classLoader, "loadWaContactData",
                 () -> findFirstClassUsingStrings(classLoader, StringMatchType.EndsWith, "WaContactData"));
     }
 
     public static Class<?> loadMeManagerClass(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getClass(classLoader, () -> {
+        return UnobfuscatorCache.getInstance().getClass(classLoader, "loadMeManagerClass", () -> {
             var clazz = findFirstClassUsingStrings(classLoader, StringMatchType.StartsWith, "memanager/");
             if (clazz == null)
                 throw new RuntimeException("MeManager class not found");
@@ -2786,8 +2825,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Class<?> loadVerifyKeyClass(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getClass(classLoader, () -> {
+    public static Class<?> loadVerifyKeyClass(ClassLoader classLoader) throws Exception {
+        return UnobfuscatorCache.getInstance().getClass(classLoader, "loadVerifyKeyClass", () -> {
             var classList = dexkit.findClass(FindClass.create().matcher(ClassMatcher.create().addMethod(
                     MethodMatcher.create().addUsingNumber(2966).paramCount(1).addParamType(int.class)))).singleOrNull();
             if (classList == null)
@@ -2796,8 +2835,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Method loadMySearchBarMethod(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(classLoader, () -> {
+    public static Method loadMySearchBarMethod(ClassLoader classLoader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(classLoader, "loadMySearchBarMethod", () -> {
             Method method = findFirstMethodUsingStrings(classLoader, StringMatchType.EndsWith,
                     "search_bar_render_start");
             if (method == null)
@@ -2806,8 +2845,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Method loadAdVerifyMethod(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(classLoader, () -> {
+    public static Method loadAdVerifyMethod(ClassLoader classLoader) throws Exception {
+        return UnobfuscatorCache.getInstance().getMethod(classLoader, "loadAdVerifyMethod", () -> {
             var methodData = dexkit
                     .findMethod(FindMethod.create()
                             .matcher(MethodMatcher.create().paramCount(1).addUsingString("is_wfal_paused")))
@@ -2818,9 +2857,9 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Class<?> loadChatFilterView(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getClass(classLoader, () -> {
-            int value = Utils.getID("conversations_inbox_filters_stub", "id");
+    public static Class<?> loadChatFilterView(ClassLoader classLoader) throws Exception {
+        return UnobfuscatorCache.getInstance().getClass(classLoader, "loadChatFilterView", () -> {
+            int value = ResIdWpp.id.conversations_inbox_filters_stub;
             var clazz = dexkit
                     .findClass(FindClass.create()
                             .matcher(ClassMatcher.create().addMethod(MethodMatcher.create().addUsingNumber(value))))
@@ -2832,7 +2871,7 @@ public class Unobfuscator {
     }
 
     public static Method loadNotificationMethod(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(classLoader, () -> {
+        return UnobfuscatorCache.getInstance().getMethod(classLoader, "loadNotificationMethod", () -> {
             var invokedMethod = dexkit
                     .findMethod(FindMethod.create()
                             .matcher(MethodMatcher.create()
@@ -2845,7 +2884,7 @@ public class Unobfuscator {
     }
 
     public static Method loadLockedChatsMethod(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(classLoader, () -> {
+        return UnobfuscatorCache.getInstance().getMethod(classLoader, "loadLockedChatsMethod", () -> {
             var classData = dexkit
                     .findClass(FindClass.create()
                             .matcher(ClassMatcher.create().addUsingString("conversationsmgr/replacecontact")))
@@ -2868,12 +2907,12 @@ public class Unobfuscator {
     }
 
     public static Class<?> loadChatCacheClass(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getClass(classLoader,
+        return UnobfuscatorCache.getInstance().getClass(classLoader, "loadChatCacheClass",
                 () -> findFirstClassUsingStrings(classLoader, StringMatchType.StartsWith, "Chatscache/"));
     }
 
     public static Method loadLoadedContactsMethod(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(classLoader, () -> {
+        return UnobfuscatorCache.getInstance().getMethod(classLoader, "loadLoadedContactsMethod", () -> {
             var methods = dexkit.findMethod(FindMethod.create()
                     .matcher(MethodMatcher.create().addUsingNumber(8726).paramCount(1).addParamType(Object.class)));
             if (methods.isEmpty())
@@ -2883,7 +2922,7 @@ public class Unobfuscator {
     }
 
     public static Method loadSendMediaUserAction(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(classLoader, () -> {
+        return UnobfuscatorCache.getInstance().getMethod(classLoader, "loadSendMediaUserAction", () -> {
             // This is the string identifier used by newer WhatsApp versions to identify the
             // media sending method
             Method method = findFirstMethodUsingStrings(classLoader, StringMatchType.Contains,
@@ -2920,7 +2959,7 @@ public class Unobfuscator {
     }
 
     public static Method loadSendTextUserAction(ClassLoader classLoader) throws Exception {
-        return UnobfuscatorCache.getInstance().getMethod(classLoader, () -> {
+        return UnobfuscatorCache.getInstance().getMethod(classLoader, "loadSendTextUserAction", () -> {
             // Use the anchor to get the class
             Method textMethod = loadUserActionsTextMessageSending(classLoader);
             if (textMethod == null)
@@ -2952,8 +2991,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Class<?> loadConversationDelegateClass(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getClass(loader, "ConversationDelegate", () -> {
+    public static Class<?> loadConversationDelegateClass(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getClass(loader, "loadConversationDelegateClass", "ConversationDelegate", () -> {
             var conversationClass = XposedHelpers.findClass("com.whatsapp.Conversation", loader);
             if (conversationClass == null)
                 return null;
@@ -2969,8 +3008,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Field loadConversationDelegateField(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getField(loader, "ConversationDelegateField", () -> {
+    public static Field loadConversationDelegateField(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getField(loader, "loadConversationDelegateField", "ConversationDelegateField", () -> {
             var conversationClass = XposedHelpers.findClass("com.whatsapp.Conversation", loader);
             var delegateClass = loadConversationDelegateClass(loader);
             for (var field : conversationClass.getDeclaredFields()) {
@@ -2981,8 +3020,8 @@ public class Unobfuscator {
         });
     }
 
-    public synchronized static Class<?> loadConversationSearchHandlerClass(ClassLoader loader) throws Exception {
-        return UnobfuscatorCache.getInstance().getClass(loader, "ConversationSearchHandler", () -> {
+    public static Class<?> loadConversationSearchHandlerClass(ClassLoader loader) throws Exception {
+        return UnobfuscatorCache.getInstance().getClass(loader, "loadConversationSearchHandlerClass", "ConversationSearchHandler", () -> {
             var searchString = "search_fragment_conversation";
 
             // Try to find classes containing the fragment tag string
@@ -12,28 +12,22 @@ import androidx.annotation.NonNull;
 
 import com.google.devrel.gmscore.tools.apk.arsc.ArscUtils;
 import com.wmods.wppenhacer.BuildConfig;
+import com.wmods.wppenhacer.xposed.core.StartupTrace;
 import com.wmods.wppenhacer.xposed.utils.ReflectionUtils;
 import com.wmods.wppenhacer.xposed.utils.ResId;
 import com.wmods.wppenhacer.xposed.utils.Utils;
 
-import org.json.JSONException;
-import org.json.JSONObject;
-
 import java.io.File;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.Locale;
 import java.util.Map;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.atomic.AtomicReference;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 
 import de.robv.android.xposed.XposedBridge;
 import de.robv.android.xposed.XposedHelpers;
@@ -44,8 +38,16 @@ public class UnobfuscatorCache {
     private static UnobfuscatorCache mInstance;
     public final SharedPreferences sPrefsCacheHooks;
 
+    private static final String CACHE_FILE_NAME = "wae_hook_cache.bin";
+
     private final Map<String, String> reverseResourceMap = new HashMap<>();
     private final SharedPreferences sPrefsCacheStrings;
+    private final HookCacheStore hookStore;
+    private final ConcurrentHashMap<String, Object> resolved = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    // Number of scans running on the current thread, a nested miss never waits on another scan
+    private final ThreadLocal<int[]> resolveDepth = ThreadLocal.withInitial(() -> new int[1]);
+    private boolean coldStart;
 
     @SuppressLint("ApplySharedPref")
     public UnobfuscatorCache(Application application) {
@@ -56,22 +58,21 @@ public class UnobfuscatorCache {
             long version = sPrefsCacheHooks.getLong("version", 0);
             long currentVersion = mApplication.getPackageManager().getPackageInfo(mApplication.getPackageName(), 0)
                     .getLongVersionCode();
-            long savedUpdateTime = sPrefsCacheHooks.getLong("updateTime", 0);
-            String savedVersionName = sPrefsCacheHooks.getString("wae_version_name", "");
             String versionName = BuildConfig.VERSION_NAME;
-            long lastUpdateTime = savedUpdateTime;
+            long lastUpdateTime = 0;
             try {
                 lastUpdateTime = mApplication.getPackageManager().getPackageInfo(BuildConfig.APPLICATION_ID,
                         0).lastUpdateTime;
             } catch (Exception ignored) {
             }
-            if (version != currentVersion || savedUpdateTime != lastUpdateTime
-                    || !versionName.equals(savedVersionName)) {
+            hookStore = new HookCacheStore(new File(mApplication.getFilesDir(), CACHE_FILE_NAME), currentVersion,
+                    lastUpdateTime, versionName);
+            coldStart = !hookStore.load();
+            if (coldStart) {
                 Utils.showToast(application.getString(ResId.string.starting_cache), Toast.LENGTH_LONG);
-                sPrefsCacheHooks.edit().clear().apply();
-                sPrefsCacheHooks.edit().putLong("version", currentVersion).apply();
-                sPrefsCacheHooks.edit().putLong("updateTime", lastUpdateTime).apply();
-                sPrefsCacheHooks.edit().putString("wae_version_name", versionName).apply();
+                hookStore.clear();
+                // Also drops descriptors left by the old string based cache
+                sPrefsCacheHooks.edit().clear().putLong("version", currentVersion).apply();
                 if (version != currentVersion) {
                     sPrefsCacheStrings.edit().clear().apply();
                 }
@@ -92,6 +93,13 @@ public class UnobfuscatorCache {
         return mInstance;
     }
 
+    /**
+     * @return true when the hook cache was discarded on startup and every hook must be scanned again
+     */
+    public boolean isColdStart() {
+        return coldStart;
+    }
+
     private void initCacheStrings() {
         getOfuscateIDString("mystatus");
         getOfuscateIDString("online");
@@ -199,366 +207,260 @@ public class UnobfuscatorCache {
         return id < 1 ? "" : mApplication.getResources().getString(id);
     }
 
-    public Field getField(ClassLoader loader, FunctionCall<Field> functionCall) throws Exception {
-        return getField(loader, getKeyName(), functionCall);
-    }
-
     public Field getField(ClassLoader loader, String key, FunctionCall<Field> functionCall) throws Exception {
-        String value = sPrefsCacheHooks.getString(key, null);
-        if (value == null) {
-            try {
-                Field result = functionCall.call();
-                if (result == null)
-                    throw new NoSuchFieldException("Field is null");
-                saveField(key, result);
-                return result;
-            } catch (Exception e) {
-                throw new Exception("Error getting field " + key + ": " + e.getMessage(), e);
-            }
-        }
-        String[] ClassAndName = value.split(":");
-        Class<?> cls = ReflectionUtils.findClass(ClassAndName[0], loader);
-        return XposedHelpers.findField(cls, ClassAndName[1]);
+        return getOrResolve(loader, key, "field", functionCall,
+                (l, records) -> decodeField(l, records[0]),
+                field -> new String[][]{encodeField(field)});
     }
 
-    public Field[] getFields(ClassLoader loader, FunctionCall<Field[]> functionCall) throws Exception {
-        var methodName = getKeyName();
-        String value = sPrefsCacheHooks.getString(methodName, null);
-        if (value == null) {
-            try {
-                Field[] result = functionCall.call();
-                if (result == null)
-                    throw new NoSuchFieldException("Fields is null");
-                saveFields(methodName, result);
-                return result;
-            } catch (Exception e) {
-                throw new Exception("Error getting fields " + methodName + ": " + e.getMessage(), e);
-            }
-        }
-        ArrayList<Field> fields = new ArrayList<>();
-        String[] fieldsString = value.split("&");
-        for (String field : fieldsString) {
-            String[] ClassAndName = field.split(":");
-            Class<?> cls = ReflectionUtils.findClass(ClassAndName[0], loader);
-            fields.add(XposedHelpers.findField(cls, ClassAndName[1]));
-        }
-        return fields.toArray(new Field[0]);
+    public Field[] getFields(ClassLoader loader, String key, FunctionCall<Field[]> functionCall) throws Exception {
+        return getOrResolve(loader, key, "fields", functionCall,
+                (l, records) -> {
+                    var fields = new Field[records.length];
+                    for (int i = 0; i < records.length; i++) {
+                        fields[i] = decodeField(l, records[i]);
+                    }
+                    return fields;
+                },
+                fields -> {
+                    var records = new String[fields.length][];
+                    for (int i = 0; i < fields.length; i++) {
+                        records[i] = encodeField(fields[i]);
+                    }
+                    return records;
+                });
     }
 
-    // -----------------------------------------------------------------------------------------
-    // UPDATED METHOD: CORRUPTION FIX
-    // -----------------------------------------------------------------------------------------
-    private final Map<String, Boolean> rescanFlags = new HashMap<>();
-
-    public Method getMethod(ClassLoader loader, FunctionCall<Method> functionCall) throws Exception {
-        var methodName = getKeyName();
-        String value;
-        synchronized (sPrefsCacheHooks) {
-            value = sPrefsCacheHooks.getString(methodName, null);
-        }
+    public Method getMethod(ClassLoader loader, String key, FunctionCall<Method> functionCall) throws Exception {
+        return getOrResolve(loader, key, "method", functionCall,
+                (l, records) -> decodeMethod(l, records[0]),
+                method -> new String[][]{encodeMethod(method)});
+    }
 
-        // 1. Check if value exists and is valid
-        if (value != null) {
-            boolean isCorrupted = false;
-            // Detect the specific "Intent" bug or malformed strings
-            if (value.contains("Intent") && !value.contains(":"))
-                isCorrupted = true;
-            if (value.startsWith("L"))
-                isCorrupted = true; // DexKit format sometimes leaks
-            if (value.contains(";"))
-                isCorrupted = true; // Signature format
-
-            if (isCorrupted) {
-                boolean alreadyRescanning;
-                synchronized (rescanFlags) {
-                    alreadyRescanning = rescanFlags.getOrDefault(methodName, false);
-                    if (!alreadyRescanning) {
-                        rescanFlags.put(methodName, true);
+    public Method[] getMethods(ClassLoader loader, String key, FunctionCall<Method[]> functionCall) throws Exception {
+        return getOrResolve(loader, key, "methods", functionCall,
+                (l, records) -> {
+                    var methods = new Method[records.length];
+                    for (int i = 0; i < records.length; i++) {
+                        methods[i] = decodeMethod(l, records[i]);
                     }
-                }
-
-                if (!alreadyRescanning) {
-                    XposedBridge.log("UnobfuscatorCache: Detected corruption in " + methodName + ". Rescanning...");
-                }
-
-                try {
-                    Method result = functionCall.call();
-                    if (result == null)
-                        throw new NoSuchMethodException("Method is null");
-                    saveMethod(methodName, result);
-                    return result;
-                } finally {
-                    synchronized (rescanFlags) {
-                        rescanFlags.remove(methodName);
+                    return methods;
+                },
+                methods -> {
+                    var records = new String[methods.length][];
+                    for (int i = 0; i < methods.length; i++) {
+                        records[i] = encodeMethod(methods[i]);
                     }
-                }
-            }
-        }
-
-        // 2. Standard Logic (Null check)
-        if (value == null) {
-            try {
-                Method result = functionCall.call();
-                if (result == null)
-                    throw new NoSuchMethodException("Method is null");
-                saveMethod(methodName, result);
-                return result;
-            } catch (Exception e) {
-                throw new Exception("Error getting method " + methodName + ": " + e.getMessage(), e);
-            }
-        }
-
-        // 3. Try to load from cache (with safety net)
-        try {
-            return getMethodFromString(loader, value);
-        } catch (Exception e) {
-            XposedBridge.log("UnobfuscatorCache: Failed to parse cached method " + methodName + ". Rescanning...");
-            Method result = functionCall.call();
-            if (result == null)
-                throw new NoSuchMethodException("Method is null");
-            saveMethod(methodName, result);
-            return result;
-        }
+                    return records;
+                });
     }
 
-    public Method[] getMethods(ClassLoader loader, FunctionCall<Method[]> functionCall) throws Exception {
-        var methodName = getKeyName();
-        String value = sPrefsCacheHooks.getString(methodName, null);
-        if (value == null) {
-            try {
-                Method[] result = functionCall.call();
-                if (result == null)
-                    throw new NoSuchMethodException("Methods is null");
-                saveMethods(methodName, result);
-                return result;
-            } catch (Exception e) {
-                throw new Exception("Error getting methods " + methodName + ": " + e.getMessage(), e);
-            }
-        }
-        var methodStrings = value.split("&");
-        ArrayList<Method> methods = new ArrayList<>();
-        for (String methodString : methodStrings) {
-            var method = getMethodFromString(loader, methodString);
-            methods.add(method);
-        }
-        return methods.toArray(new Method[0]);
+    public Class<?> getClass(ClassLoader loader, String key, FunctionCall<Class<?>> functionCall) throws Exception {
+        return getOrResolve(loader, key, "class", functionCall,
+                (l, records) -> XposedHelpers.findClass(records[0][0], l),
+                cls -> new String[][]{{cls.getName()}});
     }
 
-    @NonNull
-    private Method getMethodFromString(ClassLoader loader, String value) throws Exception {
-        if (value == null)
-            throw new Exception("Cache value is null");
-
-        String[] classAndName = value.split(":");
-        if (classAndName.length < 2)
-            throw new Exception("Invalid format");
-
-        Class<?> cls = XposedHelpers.findClass(classAndName[0], loader);
-        if (classAndName.length == 3) {
-            String[] params = classAndName[2].split(",");
-            Class<?>[] paramTypes = Arrays.stream(params).map(param -> ReflectionUtils.findClass(param, loader))
-                    .toArray(Class<?>[]::new);
-            return XposedHelpers.findMethodExact(cls, classAndName[1], paramTypes);
-        }
-        return XposedHelpers.findMethodExact(cls, classAndName[1]);
+    public Class<?>[] getClasses(ClassLoader loader, String key, FunctionCall<Class<?>[]> functionCall) throws Exception {
+        return getOrResolve(loader, key, "classes", functionCall,
+                (l, records) -> {
+                    var classes = new Class<?>[records.length];
+                    for (int i = 0; i < records.length; i++) {
+                        classes[i] = XposedHelpers.findClass(records[i][0], l);
+                    }
+                    return classes;
+                },
+                classes -> {
+                    var records = new String[classes.length][];
+                    for (int i = 0; i < classes.length; i++) {
+                        records[i] = new String[]{classes[i].getName()};
+                    }
+                    return records;
+                });
     }
 
-    public Class<?> getClass(ClassLoader loader, FunctionCall<Class<?>> functionCall) throws Exception {
-        return getClass(loader, getKeyName(), functionCall);
+    public HashMap<String, Field> getMapField(ClassLoader loader, String key,
+                                              FunctionCall<HashMap<String, Field>> functionCall) throws Exception {
+        return getOrResolve(loader, key, "HashMap", functionCall,
+                (l, records) -> {
+                    var map = new HashMap<String, Field>();
+                    for (String[] record : records) {
+                        try {
+                            Field field = l.loadClass(record[1]).getDeclaredField(record[2]);
+                            field.setAccessible(true);
+                            map.put(record[0], field);
+                        } catch (Exception ignored) {
+                        }
+                    }
+                    return map;
+                },
+                map -> {
+                    var records = new ArrayList<String[]>();
+                    for (Map.Entry<String, Field> entry : map.entrySet()) {
+                        Field field = entry.getValue();
+                        records.add(new String[]{entry.getKey(), field.getDeclaringClass().getName(), field.getName()});
+                    }
+                    return records.toArray(new String[0][]);
+                });
     }
 
-    public Class<?> getClass(ClassLoader loader, String key, FunctionCall<Class<?>> functionCall) throws Exception {
-        String value = sPrefsCacheHooks.getString(key, null);
-        if (value == null) {
-            try {
-                Class<?> result = functionCall.call();
-                if (result == null)
-                    throw new ClassNotFoundException("Class is null");
-                saveClass(key, result);
-                return result;
-            } catch (Exception e) {
-                throw new Exception("Error getting class " + key + ": " + e.getMessage(), e);
-            }
-        }
-        return XposedHelpers.findClass(value, loader);
+    @SuppressWarnings("rawtypes")
+    public Constructor getConstructor(ClassLoader loader, String key, FunctionCall functionCall) throws Exception {
+        @SuppressWarnings("unchecked")
+        FunctionCall<Constructor<?>> call = functionCall;
+        return getOrResolve(loader, key, "constructor", call,
+                (l, records) -> {
+                    var record = records[0];
+                    Class<?> cls = XposedHelpers.findClass(record[0], l);
+                    return XposedHelpers.findConstructorExact(cls, decodeTypes(l, record, 1));
+                },
+                constructor -> {
+                    var params = constructor.getParameterTypes();
+                    var record = new String[params.length + 1];
+                    record[0] = constructor.getDeclaringClass().getName();
+                    for (int i = 0; i < params.length; i++) {
+                        record[i + 1] = params[i].getName();
+                    }
+                    return new String[][]{record};
+                });
     }
 
-    public Class<?>[] getClasses(ClassLoader loader, FunctionCall<Class<?>[]> functionCall) throws Exception {
-        var methodName = getKeyName();
-        String value = sPrefsCacheHooks.getString(methodName, null);
-        if (value == null) {
-            try {
-                Class<?>[] result = functionCall.call();
-                if (result == null)
-                    throw new ClassNotFoundException("Classes is null");
-                saveClasses(methodName, result);
+    /**
+     * Returns the member stored under {@code key}, resolving it at most once per process.
+     * Keys are passed explicitly by each {@link Unobfuscator} loader (its own method name), so a cache hit
+     * costs a map lookup instead of capturing the caller's stack.
+     * Cached descriptors that no longer resolve are discarded and the lookup is repeated.
+     */
+    private <T> T getOrResolve(ClassLoader loader, String key, String kind, FunctionCall<T> functionCall,
+                               Decoder<T> decoder, Encoder<T> encoder) throws Exception {
+        long traceStart = StartupTrace.enterResolve();
+        boolean hit = true;
+        try {
+            var result = getCached(loader, key, kind, decoder);
+            if (result != null)
                 return result;
-            } catch (Exception e) {
-                throw new Exception("Error getting classes " + methodName + ": " + e.getMessage(), e);
-            }
+            hit = false;
+            return resolve(key, kind, functionCall, encoder);
+        } finally {
+            StartupTrace.exitResolve(traceStart, key, hit);
         }
-        String[] classStrings = value.split("&");
-        ArrayList<Class<?>> classes = new ArrayList<>();
-        for (String classString : classStrings) {
-            classes.add(XposedHelpers.findClass(classString, loader));
-        }
-        return classes.toArray(new Class<?>[0]);
     }
 
-    public HashMap<String, Field> getMapField(ClassLoader loader, FunctionCall<HashMap<String, Field>> functionCall)
-            throws Exception {
-        var key = getKeyName();
-        String value = sPrefsCacheHooks.getString(key, null);
-        if (value == null) {
+    @SuppressWarnings("unchecked")
+    private <T> T getCached(ClassLoader loader, String key, String kind, Decoder<T> decoder) {
+        var resolvedValue = resolved.get(key);
+        if (resolvedValue != null)
+            return (T) resolvedValue;
+
+        var records = hookStore.get(key);
+        if (records != null && records.length > 0) {
             try {
-                var result = functionCall.call();
-                if (result == null)
-                    throw new Exception("HashMap is null");
-                saveHashMap(key, result);
+                T result = decoder.decode(loader, records);
+                resolved.put(key, result);
                 return result;
-            } catch (Exception e) {
-                throw new Exception("Error getting HashMap " + key + ": " + e.getMessage(), e);
+            } catch (Throwable e) {
+                XposedBridge.log("UnobfuscatorCache: Failed to resolve cached " + kind + " " + key + ". Rescanning...");
             }
         }
-        return loadHashMap(loader, key);
+        return null;
     }
 
-    private void saveHashMap(String key, HashMap<String, Field> map) {
-        JSONObject jsonObject = new JSONObject();
-        for (Map.Entry<String, Field> entry : map.entrySet()) {
-            Field field = entry.getValue();
-            String value = field.getDeclaringClass().getName() + ":" + field.getName();
+    @SuppressWarnings("unchecked")
+    private <T> T resolve(String key, String kind, FunctionCall<T> functionCall, Encoder<T> encoder) throws Exception {
+        // Finders are not synchronized anymore, so concurrent misses on the same key wait for the first scan
+        var depth = resolveDepth.get();
+        var pending = new CompletableFuture<Object>();
+        var running = inFlight.putIfAbsent(key, pending);
+        if (running != null) {
+            if (depth[0] > 0) {
+                // Called from another loader: the running scan may be this thread's own or wait on it, so waiting
+                // could deadlock. Scan again here, as the reentrant monitor used to allow.
+                return scan(key, kind, functionCall, encoder);
+            }
             try {
-                jsonObject.put(entry.getKey(), value);
-            } catch (JSONException e) {
-                e.printStackTrace();
+                return (T) running.get();
+            } catch (ExecutionException e) {
+                throw (Exception) e.getCause();
             }
         }
-        sPrefsCacheHooks.edit().putString(key, jsonObject.toString()).apply();
-    }
-
-    private HashMap<String, Field> loadHashMap(ClassLoader loader, String key) {
-        HashMap<String, Field> map = new HashMap<>();
-        String jsonString = sPrefsCacheHooks.getString(key, null);
-        if (jsonString == null)
-            return map;
 
+        depth[0]++;
         try {
-            JSONObject jsonObject = new JSONObject(jsonString);
-            Iterator<String> keys = jsonObject.keys();
-
-            while (keys.hasNext()) {
-                String mapKey = keys.next();
-                String value = jsonObject.getString(mapKey);
-                String[] parts = value.split(":");
-                if (parts.length == 2) {
-                    String className = parts[0];
-                    String fieldName = parts[1];
-                    try {
-                        Class<?> clazz = loader.loadClass(className);
-                        Field field = clazz.getDeclaredField(fieldName);
-                        field.setAccessible(true);
-                        map.put(mapKey, field);
-                    } catch (Exception ignored) {
-                    }
-                }
-            }
-        } catch (JSONException e) {
-            e.printStackTrace();
+            T result = scan(key, kind, functionCall, encoder);
+            pending.complete(result);
+            return result;
+        } catch (Exception e) {
+            pending.completeExceptionally(e);
+            throw e;
+        } finally {
+            depth[0]--;
+            inFlight.remove(key, pending);
         }
-        return map;
     }
 
-    @SuppressWarnings("ApplySharedPref")
-    public void saveField(String key, Field field) {
-        String value = field.getDeclaringClass().getName() + ":" + field.getName();
-        sPrefsCacheHooks.edit().putString(key, value).apply();
+    private <T> T scan(String key, String kind, FunctionCall<T> functionCall, Encoder<T> encoder) throws Exception {
+        T result;
+        try {
+            result = functionCall.call();
+        } catch (Exception e) {
+            throw new Exception("Error getting " + kind + " " + key + ": " + e.getMessage(), e);
+        }
+        if (result == null)
+            throw new Exception("Error getting " + kind + " " + key + ": " + kind + " is null");
+        hookStore.put(key, encoder.encode(result));
+        resolved.put(key, result);
+        return result;
     }
 
-    @SuppressWarnings("ApplySharedPref")
-    public void saveFields(String key, Field[] fields) {
-        ArrayList<String> values = new ArrayList<>();
-        for (Field field : fields) {
-            values.add(field.getDeclaringClass().getName() + ":" + field.getName());
-        }
-        sPrefsCacheHooks.edit().putString(key, String.join("&", values)).apply();
+    private static String[] encodeField(Field field) {
+        return new String[]{field.getDeclaringClass().getName(), field.getName()};
     }
 
-    @SuppressWarnings("ApplySharedPref")
-    public void saveMethod(String key, Method method) {
-        String value = method.getDeclaringClass().getName() + ":" + method.getName();
-        if (method.getParameterTypes().length > 0) {
-            value += ":"
-                    + Arrays.stream(method.getParameterTypes()).map(Class::getName).collect(Collectors.joining(","));
-        }
-        sPrefsCacheHooks.edit().putString(key, value).apply();
+    private static Field decodeField(ClassLoader loader, String[] record) {
+        Class<?> cls = ReflectionUtils.findClass(record[0], loader);
+        return XposedHelpers.findField(cls, record[1]);
     }
 
-    @SuppressWarnings("ApplySharedPref")
-    public void saveMethods(String key, Method[] methods) {
-        ArrayList<String> values = new ArrayList<>();
-        for (Method method : methods) {
-            String value = method.getDeclaringClass().getName() + ":" + method.getName();
-            if (method.getParameterTypes().length > 0) {
-                value += ":" + Arrays.stream(method.getParameterTypes()).map(Class::getName)
-                        .collect(Collectors.joining(","));
-            }
-            values.add(value);
+    private static String[] encodeMethod(Method method) {
+        var params = method.getParameterTypes();
+        var record = new String[params.length + 2];
+        record[0] = method.getDeclaringClass().getName();
+        record[1] = method.getName();
+        for (int i = 0; i < params.length; i++) {
+            record[i + 2] = params[i].getName();
         }
-        sPrefsCacheHooks.edit().putString(key, String.join("&", values)).apply();
+        return record;
     }
 
-    @SuppressWarnings("ApplySharedPref")
-    public void saveClass(String message, Class<?> messageClass) {
-        sPrefsCacheHooks.edit().putString(message, messageClass.getName()).apply();
+    @NonNull
+    private static Method decodeMethod(ClassLoader loader, String[] record) throws Exception {
+        if (record.length < 2)
+            throw new Exception("Invalid format");
+        Class<?> cls = XposedHelpers.findClass(record[0], loader);
+        return XposedHelpers.findMethodExact(cls, record[1], decodeTypes(loader, record, 2));
     }
 
-    @SuppressWarnings("ApplySharedPref")
-    public void saveClasses(String message, Class<?>[] messageClass) {
-        ArrayList<String> values = new ArrayList<>();
-        for (Class<?> aClass : messageClass) {
-            values.add(aClass.getName());
+    private static Class<?>[] decodeTypes(ClassLoader loader, String[] record, int offset) {
+        var types = new Class<?>[record.length - offset];
+        for (int i = 0; i < types.length; i++) {
+            types[i] = ReflectionUtils.findClass(record[i + offset], loader);
         }
-        sPrefsCacheHooks.edit().putString(message, String.join("&", values)).apply();
+        return types;
     }
 
-    private String getKeyName() {
-        AtomicReference<String> keyName = new AtomicReference<>("");
-        Arrays.stream(Thread.currentThread().getStackTrace())
-                .filter(stackTraceElement -> stackTraceElement.getClassName().equals(Unobfuscator.class.getName()))
-                .findFirst().ifPresent(stackTraceElement -> keyName.set(stackTraceElement.getMethodName()));
-        return keyName.get();
+    /**
+     * Writes pending cache entries to disk immediately.
+     */
+    public void flush() {
+        hookStore.flush();
     }
 
-    public Constructor getConstructor(ClassLoader loader, FunctionCall functionCall) throws Exception {
-        var methodName = getKeyName();
-        String value = sPrefsCacheHooks.getString(methodName, null);
-        if (value == null) {
-            var result = (Constructor) functionCall.call();
-            if (result == null)
-                throw new Exception("Class is null");
-            saveConstructor(methodName, result);
-            return result;
-        }
-        String[] classAndName = value.split(":");
-        Class<?> cls = XposedHelpers.findClass(classAndName[0], loader);
-        if (classAndName.length == 2) {
-            String[] params = classAndName[1].split(",");
-            Class<?>[] paramTypes = Arrays.stream(params).map(param -> ReflectionUtils.findClass(param, loader))
-                    .toArray(Class<?>[]::new);
-            return XposedHelpers.findConstructorExact(cls, paramTypes);
-        }
-        return XposedHelpers.findConstructorExact(cls);
+    private interface Decoder<T> {
+        T decode(ClassLoader loader, String[][] records) throws Exception;
     }
 
-    @SuppressWarnings("ApplySharedPref")
-    private void saveConstructor(String key, Constructor constructor) {
-        String value = constructor.getDeclaringClass().getName();
-        if (constructor.getParameterTypes().length > 0) {
-            value += ":" + Arrays.stream(constructor.getParameterTypes()).map(Class::getName)
-                    .collect(Collectors.joining(","));
-        }
-        sPrefsCacheHooks.edit().putString(key, value).apply();
+    private interface Encoder<T> {
+        String[][] encode(T value);
     }
 
     public interface FunctionCall<T> {
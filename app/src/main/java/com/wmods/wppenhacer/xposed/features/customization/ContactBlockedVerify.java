@@ -10,12 +10,14 @@ import android.widget.TextView;
 import androidx.annotation.NonNull;
 
 import com.wmods.wppenhacer.xposed.core.Feature;
+import com.wmods.wppenhacer.xposed.core.FeatureSpec;
 import com.wmods.wppenhacer.xposed.core.FeatureLoader;
 import com.wmods.wppenhacer.xposed.core.WppCore;
 import com.wmods.wppenhacer.xposed.core.devkit.Unobfuscator;
 import com.wmods.wppenhacer.xposed.utils.DesignUtils;
 import com.wmods.wppenhacer.xposed.utils.ReflectionUtils;
 import com.wmods.wppenhacer.xposed.utils.ResId;
+import com.wmods.wppenhacer.xposed.utils.ResIdWpp;
 import com.wmods.wppenhacer.xposed.utils.Utils;
 
 import org.luckypray.dexkit.query.enums.StringMatchType;
@@ -32,6 +34,7 @@ import de.robv.android.xposed.XSharedPreferences;
 import de.robv.android.xposed.XposedBridge;
 import de.robv.android.xposed.XposedHelpers;
 
+@FeatureSpec(prefs = "verify_blocked_contact")
 public class ContactBlockedVerify extends Feature {
 
     private Object meManagerInstance;
@@ -84,7 +87,7 @@ public class ContactBlockedVerify extends Feature {
                         () -> {
                             try {
                                 var userJid = WppCore.getCurrentUserJid();
-                                var view = (ViewGroup) activity.findViewById(Utils.getID("conversation_contact", "id"));
+                                var view = (ViewGroup) activity.findViewById(ResIdWpp.id.conversation_contact);
                                 if (userJid == null || !userJid.isContact() || view == null) {
                                     return;
                                 }
@@ -17,6 +17,8 @@ import android.graphics.Paint;
 import android.graphics.drawable.Drawable;
 import android.os.Bundle;
 import android.util.TypedValue;
+import android.view.Choreographer;
+import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.FrameLayout;
@@ -30,11 +32,18 @@ import com.wmods.wppenhacer.views.WallpaperView;
 import com.wmods.wppenhacer.xposed.core.Feature;
 import com.wmods.wppenhacer.xposed.core.WppCore;
 import com.wmods.wppenhacer.xposed.core.devkit.Unobfuscator;
+import com.wmods.wppenhacer.xposed.utils.CallScope;
 import com.wmods.wppenhacer.xposed.utils.DesignUtils;
 import com.wmods.wppenhacer.xposed.utils.ReflectionUtils;
+import com.wmods.wppenhacer.xposed.utils.ResIdWpp;
 import com.wmods.wppenhacer.xposed.utils.Utils;
 
+import java.lang.reflect.Member;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Objects;
 import java.util.Properties;
 
@@ -49,6 +58,8 @@ public class CustomThemeV2 extends Feature {
     private HashMap<String, String> navAlpha;
     private HashMap<String, String> toolbarAlpha;
     private Properties properties;
+    private static CallScope paintFactoryScope;
+    private static CallScope viewScope;
 //    private ViewGroup mContent;
 
     public CustomThemeV2(@NonNull ClassLoader classLoader, @NonNull XSharedPreferences preferences) {
@@ -140,6 +151,10 @@ public class CustomThemeV2 extends Feature {
 
             var wallpaperToolbarAlpha = customWallpaper ? prefs.getInt("wallpaper_alpha_toolbar", 30) : Utils.tryParseInt(properties.getProperty("wallpaper_alpha_toolbar"), 30);
             replaceTransparency(toolbarAlpha, (100 - wallpaperToolbarAlpha) / 100.0f);
+
+            IColors.compile(wallAlpha);
+            IColors.compile(navAlpha);
+            IColors.compile(toolbarAlpha);
         }
     }
 
@@ -165,7 +180,7 @@ public class CustomThemeV2 extends Feature {
             protected void afterHookedMethod(MethodHookParam param) throws Throwable {
                 var activity = (Activity) param.thisObject;
                 if (ContextCompat.checkSelfPermission(activity, Manifest.permission.READ_MEDIA_IMAGES) == PackageManager.PERMISSION_GRANTED || ContextCompat.checkSelfPermission(activity, Manifest.permission.READ_EXTERNAL_STORAGE) == PackageManager.PERMISSION_GRANTED) {
-                    injectWallpaper(activity.findViewById(Utils.getID("root_view", "id")));
+                    injectWallpaper(activity.findViewById(ResIdWpp.id.root_view));
                 }
             }
         });
@@ -217,6 +232,8 @@ public class CustomThemeV2 extends Feature {
 
     public void hookTheme() throws Throwable {
         loadAndApplyColors();
+        paintFactoryScope = findPaintFactoryScope();
+        viewScope = CallScope.ofAny(findViewEntryPoints());
 
         XposedBridge.hookAllMethods(AssetManager.class, "getResourceValue", new XC_MethodHook() {
             @Override
@@ -260,7 +277,7 @@ public class CustomThemeV2 extends Feature {
             @Override
             protected void afterHookedMethod(MethodHookParam param) throws Throwable {
                 var view = (View) param.args[0];
-                var textView = (TextView) view.findViewById(Utils.getID("text_view", "id"));
+                var textView = (TextView) view.findViewById(ResIdWpp.id.text_view);
                 if (textView != null) {
                     textView.setTextColor(DesignUtils.getPrimaryTextColor());
                 }
@@ -347,6 +364,7 @@ public class CustomThemeV2 extends Feature {
         IColors.colors.putAll(primaryColors);
         IColors.colors.putAll(textColors);
         IColors.colors.putAll(backgroundColors);
+        IColors.compile(IColors.colors);
         primaryColors.clear();
         textColors.clear();
 
@@ -375,7 +393,7 @@ public class CustomThemeV2 extends Feature {
         var content = (ViewGroup) view;
         var rootView = (ViewGroup) content.getChildAt(0);
 
-        var header = content.findViewById(Utils.getID("toolbar", "id"));
+        var header = content.findViewById(ResIdWpp.id.toolbar);
         replaceColors(header, toolbarAlpha);
         var frameLayout = new WallpaperView(rootView.getContext(), prefs, properties);
         rootView.addView(frameLayout, 0);
@@ -401,9 +419,58 @@ public class CustomThemeV2 extends Feature {
         return resultColor;
     }
 
+    /**
+     * The WhatsApp methods that build a colored Paint, the lazy initializers the "getValue" stack search used
+     * to find below Kotlin's Lazy.getValue. They are resolved once through DexKit and only they are tracked.
+     *
+     * @return null when they cannot be found, Paint colors then fall back to the stack search
+     */
+    private CallScope findPaintFactoryScope() {
+        try {
+            return CallScope.ofAny(Arrays.asList(Unobfuscator.loadPaintFactoryMethods(classLoader)));
+        } catch (Throwable e) {
+            logDebug("Paint factories not found, Paint colors fall back to the stack search", e);
+            return null;
+        }
+    }
+
+    /**
+     * The framework entry points the "android.view" stack search matched: frame callbacks, input events,
+     * clicks, inflation and view construction. They run far less often than the resource lookups they guard.
+     */
+    private static List<Member> findViewEntryPoints() {
+        var members = new ArrayList<Member>();
+        addMethodsNamed(members, Choreographer.class, "doFrame");
+        // hidden from the SDK
+        var inputEventReceiver = XposedHelpers.findClassIfExists("android.view.InputEventReceiver", null);
+        if (inputEventReceiver != null) addMethodsNamed(members, inputEventReceiver, "dispatchInputEvent");
+        addMethodsNamed(members, LayoutInflater.class, "inflate");
+        addMethodsNamed(members, View.class, "performClick");
+        members.addAll(Arrays.asList(View.class.getDeclaredConstructors()));
+        return members;
+    }
+
+    private static void addMethodsNamed(List<Member> members, Class<?> cls, String name) {
+        for (var method : cls.getDeclaredMethods()) {
+            if (method.getName().equals(name) && !Modifier.isAbstract(method.getModifiers())) members.add(method);
+        }
+    }
+
+    /**
+     * @return true while WhatsApp is building one of its lazy Paints on this thread
+     */
+    private static boolean isInPaintFactory() {
+        if (paintFactoryScope == null) return ReflectionUtils.isCalledFromStrings("getValue");
+        return paintFactoryScope.isActive();
+    }
+
+    /**
+     * Called from the AssetManager.getResourceValue hook, which is only reached through the ResourcesImpl
+     * getValue lookups, so the "getValue" caller condition always holds there.
+     */
     private boolean checkNotApplyColor(int color) {
         var activity = WppCore.getCurrentActivity();
-        if (activity != null && activity.getClass().getSimpleName().equals("Conversation") && ReflectionUtils.isCalledFromStrings("getValue") && !ReflectionUtils.isCalledFromStrings("android.view")) {
+        if (activity != null && activity.getClass().getSimpleName().equals("Conversation") && !viewScope.isActive()) {
             return color != 0xff12181c;
         }
         return false;
@@ -424,11 +491,11 @@ public class CustomThemeV2 extends Feature {
             var color = (int) param.args[0];
 
             if (param.thisObject instanceof TextView textView) {
-                var id = Utils.getID("conversations_row_message_count", "id");
+                var id = ResIdWpp.id.conversations_row_message_count;
                 if (textView.getId() == id) {
                     return;
                 }
-            } else if (param.thisObject instanceof Paint && ReflectionUtils.isCalledFromStrings("getValue")) {
+            } else if (param.thisObject instanceof Paint && isInPaintFactory()) {
                 return;
             }
             param.args[0] = IColors.getFromIntColor(color, IColors.colors);
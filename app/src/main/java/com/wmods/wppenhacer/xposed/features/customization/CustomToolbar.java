@@ -16,12 +16,14 @@ import androidx.annotation.NonNull;
 
 import com.wmods.wppenhacer.listeners.OnMultiClickListener;
 import com.wmods.wppenhacer.xposed.core.Feature;
+import com.wmods.wppenhacer.xposed.core.FeatureSpec;
 import com.wmods.wppenhacer.xposed.core.WppCore;
 import com.wmods.wppenhacer.xposed.core.devkit.Unobfuscator;
 import com.wmods.wppenhacer.xposed.features.general.Others;
 import com.wmods.wppenhacer.xposed.utils.DesignUtils;
 import com.wmods.wppenhacer.xposed.utils.ReflectionUtils;
 import com.wmods.wppenhacer.xposed.utils.ResId;
+import com.wmods.wppenhacer.xposed.utils.ResIdWpp;
 import com.wmods.wppenhacer.xposed.utils.Utils;
 
 import org.luckypray.dexkit.query.enums.StringMatchType;
@@ -37,6 +39,7 @@ import de.robv.android.xposed.XSharedPreferences;
 import de.robv.android.xposed.XposedBridge;
 import de.robv.android.xposed.XposedHelpers;
 
+@FeatureSpec(dependsOn = Others.class)
 public class CustomToolbar extends Feature {
 
     private static final String TYPE_ARCHIVE_MULTI_CLICK = "1";
@@ -112,7 +115,7 @@ public class CustomToolbar extends Feature {
                     protected void afterHookedMethod(MethodHookParam param) throws Throwable {
                         var activity = (Activity) param.thisObject;
                         var viewRoot = activity.getWindow().getDecorView();
-                        var version = (TextView) viewRoot.findViewById(Utils.getID("version", "id"));
+                        var version = (TextView) viewRoot.findViewById(ResIdWpp.id.version);
 
                         if (version != null) {
                             var expirationText = activity.getString(ResId.string.expiration, mDateExpiration);
@@ -138,8 +141,8 @@ public class CustomToolbar extends Feature {
         @Override
         protected void afterHookedMethod(MethodHookParam param) throws Throwable {
             var homeActivity = (Activity) param.thisObject;
-            ViewGroup toolbar = homeActivity.findViewById(Utils.getID("toolbar", "id"));
-            var logo = toolbar.findViewById(Utils.getID("toolbar_logo", "id"));
+            ViewGroup toolbar = homeActivity.findViewById(ResIdWpp.id.toolbar);
+            var logo = toolbar.findViewById(ResIdWpp.id.toolbar_logo);
 
             var tabInstance = getTabInstance(homeActivity);
             var archiveIntent = createArchiveIntent(homeActivity);
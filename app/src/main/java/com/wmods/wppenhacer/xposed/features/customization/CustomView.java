@@ -3,10 +3,8 @@ package com.wmods.wppenhacer.xposed.features.customization;
 import static com.wmods.wppenhacer.utils.ColorReplacement.replaceColors;
 
 import android.app.Activity;
-import android.content.Context;
 import android.content.res.ColorStateList;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.graphics.Canvas;
 import android.graphics.LinearGradient;
 import android.graphics.Paint;
@@ -18,10 +16,12 @@ import android.graphics.drawable.ColorDrawable;
 import android.graphics.drawable.Drawable;
 import android.graphics.drawable.ShapeDrawable;
 import android.graphics.drawable.shapes.RectShape;
+import android.os.Handler;
+import android.os.Looper;
 import android.text.TextUtils;
 import android.util.DisplayMetrics;
-import android.util.Log;
-import android.util.LruCache;
+import android.util.SparseArray;
+import android.view.Choreographer;
 import android.view.Gravity;
 import android.view.View;
 import android.view.ViewGroup;
@@ -36,24 +36,19 @@ import androidx.annotation.Nullable;
 import com.wmods.wppenhacer.preference.ThemePreference;
 import com.wmods.wppenhacer.utils.IColors;
 import com.wmods.wppenhacer.xposed.core.Feature;
+import com.wmods.wppenhacer.xposed.core.ViewHookDispatcher;
 import com.wmods.wppenhacer.xposed.core.WppCore;
 import com.wmods.wppenhacer.xposed.utils.ReflectionUtils;
 import com.wmods.wppenhacer.xposed.utils.Utils;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
-import java.io.OutputStream;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.Objects;
 import java.util.Properties;
-import java.util.concurrent.CompletableFuture;
 
 import cz.vutbr.web.css.CSSFactory;
 import cz.vutbr.web.css.CombinedSelector;
@@ -81,6 +76,21 @@ public class CustomView extends Feature {
 
     private static final ThreadLocal<Boolean> isApplyingRules = ThreadLocal.withInitial(() -> false);
 
+    private static final int LEFT = 0;
+    private static final int TOP = 1;
+    private static final int RIGHT = 2;
+    private static final int BOTTOM = 3;
+
+    private SparseArray<ArrayList<RuleItem>> stylePrograms = new SparseArray<>();
+    // Bumped when the rules or the foreground activity change, views styled with an older generation are styled again
+    private int styleGeneration;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final LinkedHashSet<View> pendingViews = new LinkedHashSet<>();
+    private final ArrayList<View> applyingViews = new ArrayList<>();
+    private final ArrayList<View> targetViews = new ArrayList<>();
+    private boolean frameScheduled;
+    private final Choreographer.FrameCallback applyPendingStylesCallback = frameTimeNanos -> applyPendingStyles();
+
 
     public CustomView(@NonNull ClassLoader loader, @NonNull XSharedPreferences preferences) {
         super(loader, preferences);
@@ -135,6 +145,7 @@ public class CustomView extends Feature {
         properties = Utils.getProperties(prefs, "custom_css", "custom_filters");
 
         WppCore.addListenerActivity((activity1, type) -> {
+            if (type == WppCore.ActivityChangeState.ChangeType.RESUMED) styleGeneration++;
             if (type != WppCore.ActivityChangeState.ChangeType.CREATED) return;
             changeDPI(activity1, prefs, properties);
         });
@@ -143,17 +154,21 @@ public class CustomView extends Feature {
 
         themeDir = new File(ThemePreference.rootDirectory, folder_theme);
         filter_itens += "\n" + custom_css;
-        cacheImages = new DrawableCache(Utils.getApplication(), 100 * 1024 * 1024);
+        cacheImages = new DrawableCache(Utils.getApplication(), themeDir);
         var sheet = CSSFactory.parseString(filter_itens, new URL("https://base.url/"));
         registerView(sheet);
 
     }
 
     public void registerView(StyleSheet sheet) {
-        var mapIds = new HashMap<Integer, ArrayList<RuleItem>>();
+        var programs = new SparseArray<ArrayList<RuleItem>>();
+        int count = 0;
         for (var selector : sheet) {
             Class<?> targetClass = null;
             var ruleSet = (RuleSet) selector;
+            if (ruleSet.isEmpty()) continue;
+            var program = compileProgram(ruleSet);
+            if (program.length == 0) continue;
             for (var selectorItem : ruleSet.getSelectors()) {
                 var item = selectorItem.get(0);
                 String className;
@@ -166,57 +181,128 @@ public class CustomView extends Feature {
                     name = selectorItem.get(0).getIDName();
                 }
                 if (name == null) continue;
-                name = name.trim();
-                int id = 0;
-                if (name.contains("android_")) {
-                    try {
-                        id = android.R.id.class.getField(name.substring(8)).getInt(null);
-                    } catch (NoSuchFieldException | IllegalAccessException ignored) {
-                    }
-                } else {
-                    id = Utils.getID(name, "id");
-                }
+                int id = resolveId(name);
                 if (id <= 0) continue;
-                var list = mapIds.getOrDefault(id, new ArrayList<>());
-                list.add(new RuleItem(selectorItem, ruleSet, targetClass));
-                mapIds.put(id, list);
+                var compiledSelector = CompiledSelector.compile(selectorItem);
+                if (compiledSelector == null) continue;
+                var list = programs.get(id);
+                if (list == null) {
+                    list = new ArrayList<>();
+                    programs.put(id, list);
+                }
+                list.add(new RuleItem(compiledSelector, program, targetClass));
+                count++;
             }
         }
+        stylePrograms = programs;
+        styleGeneration++;
+        logDebug("Compiled " + count + " CSS rules for " + programs.size() + " view ids");
 
-        XposedHelpers.findAndHookMethod(View.class, "invalidate", boolean.class, new XC_MethodHook() {
+        var onInvalidate = new ViewHookDispatcher.OnViewEventListener() {
             @Override
-            protected void afterHookedMethod(MethodHookParam param) throws Throwable {
+            public void onViewEvent(View view) {
                 if (Boolean.TRUE.equals(isApplyingRules.get())) return;
-                var view = (View) param.thisObject;
-                requestLayoutChange(view, mapIds);
+                scheduleStyles(view);
             }
-        });
-
-        XposedHelpers.findAndHookMethod(View.class, "requestLayout", new XC_MethodHook() {
+        };
+        var onRequestLayout = new ViewHookDispatcher.OnViewEventListener() {
             @Override
-            protected void afterHookedMethod(MethodHookParam param) throws Throwable {
+            public void onViewEvent(View view) {
                 if (isApplyingRules.get()) return;
-                var view = (View) param.thisObject;
-                view.invalidate();
+                // The view or one of its children changed, its style has to be checked again
+                XposedHelpers.removeAdditionalInstanceField(view, "mCssStamp");
+                scheduleStyles(view);
             }
-        });
+        };
+        for (int i = 0; i < programs.size(); i++) {
+            ViewHookDispatcher.register(ViewHookDispatcher.INVALIDATE, programs.keyAt(i), onInvalidate);
+            ViewHookDispatcher.register(ViewHookDispatcher.REQUEST_LAYOUT, programs.keyAt(i), onRequestLayout);
+        }
 
+    }
 
+    private static int resolveId(String name) {
+        name = name.trim();
+        int id = 0;
+        if (name.contains("android_")) {
+            try {
+                id = android.R.id.class.getField(name.substring(8)).getInt(null);
+            } catch (NoSuchFieldException | IllegalAccessException ignored) {
+            }
+        } else {
+            id = Utils.getID(name, "id");
+        }
+        return id;
     }
 
+    /**
+     * Queues the view for the next frame. However often it is invalidated before that, its rules are applied once.
+     */
+    private void scheduleStyles(View view) {
+        if (Looper.myLooper() != Looper.getMainLooper()) {
+            mainHandler.post(() -> scheduleStyles(view));
+            return;
+        }
+        pendingViews.add(view);
+        if (frameScheduled) return;
+        frameScheduled = true;
+        Choreographer.getInstance().postFrameCallback(applyPendingStylesCallback);
+    }
 
-    private void requestLayoutChange(View view, HashMap<Integer, ArrayList<RuleItem>> mapIds) {
-        var id = view.getId();
-        var list = mapIds.get(id);
-        if (list == null) return;
+    private void applyPendingStyles() {
+        frameScheduled = false;
+        applyingViews.addAll(pendingViews);
+        pendingViews.clear();
+        try {
+            isApplyingRules.set(true);
+            for (var view : applyingViews) {
+                applyStyles(view);
+            }
+        } finally {
+            isApplyingRules.set(false);
+            applyingViews.clear();
+        }
+    }
+
+    private void applyStyles(View view) {
+        var list = stylePrograms.get(view.getId());
+        if (list == null || !view.isAttachedToWindow()) return;
+        // Skip views already styled with the current rules at their current size and content
+        int content = contentHash(view);
+        var stamp = (int[]) XposedHelpers.getAdditionalInstanceField(view, "mCssStamp");
+        if (stamp != null && stamp[0] == styleGeneration && stamp[1] == view.getWidth() && stamp[2] == view.getHeight() && stamp[3] == content)
+            return;
+        boolean contentDependent = false;
+        var activity = WppCore.getCurrentActivity();
         for (var item : list) {
-            try {
-                if (item.targetActivityClass != null && !item.targetActivityClass.isInstance(WppCore.getCurrentActivity()))
-                    continue;
-                CompletableFuture.runAsync(() -> setCssRule(view, item));
-            } catch (Throwable ignored) {
+            if (item.targetActivityClass != null && !item.targetActivityClass.isInstance(activity))
+                continue;
+            contentDependent |= item.selector.contentDependent;
+            targetViews.clear();
+            captureSelector(view, item.selector, 0, targetViews);
+            for (var target : targetViews) {
+                if (target == null || !target.isAttachedToWindow()) continue;
+                for (var op : item.program) {
+                    try {
+                        target = op.apply(target);
+                    } catch (Throwable e) {
+                        log(e);
+                    }
+                }
             }
         }
+        targetViews.clear();
+        // A recycled row can change the text of its children without a new layout, so these are checked every time
+        if (contentDependent) return;
+        XposedHelpers.setAdditionalInstanceField(view, "mCssStamp", new int[]{styleGeneration, view.getWidth(), view.getHeight(), contentHash(view)});
+    }
+
+    /**
+     * Covers the state the app changes through invalidate alone, such as the text and its color.
+     */
+    private static int contentHash(View view) {
+        if (!(view instanceof TextView textView)) return 0;
+        return 31 * textView.getText().toString().hashCode() + textView.getCurrentTextColor();
     }
 
     private void hookDrawableViews() {
@@ -254,38 +340,36 @@ public class CustomView extends Feature {
 
     }
 
-    private void setCssRule(View currentView, RuleItem ruleItem) {
-        var resultViews = new ArrayList<View>();
-        captureSelector(currentView, ruleItem.selector, 0, resultViews);
-        if (ruleItem.rule.getSelectors().length == 0 || ruleItem.rule.isEmpty() || resultViews.isEmpty())
-            return;
-        for (var view : resultViews) {
-            if (view == null || !view.isAttachedToWindow())
-                continue;
+    private StyleOp[] compileProgram(RuleSet ruleSet) {
+        var program = new ArrayList<StyleOp>();
+        for (var declaration : ruleSet) {
             try {
-                currentView.post(() -> {
-                    try {
-                        isApplyingRules.set(true);
-                        setRuleInView(ruleItem, view);
-                    } finally {
-                        isApplyingRules.set(false);
-                    }
-                });
-            } catch (Throwable e) {
-                log(e);
+                var op = compileDeclaration(declaration);
+                if (op != null) program.add(op);
+            } catch (Exception e) {
+                log("Invalid CSS declaration " + declaration + ": " + e.getMessage());
             }
         }
+        return program.toArray(new StyleOp[0]);
     }
 
-    private void setRuleInView(RuleItem ruleItem, View view) {
-        for (var declaration : ruleItem.rule) {
-            var property = declaration.getProperty();
-            switch (property) {
-                case "parent" -> {
-                    var value = declaration.get(0).toString().trim();
+    /**
+     * Parses a declaration once into the operation that applies it.
+     *
+     * @return null when the declaration has no effect
+     */
+    @Nullable
+    private StyleOp compileDeclaration(Declaration declaration) {
+        var property = declaration.getProperty();
+        switch (property) {
+            case "parent" -> {
+                var value = declaration.get(0).toString().trim();
+                var toRoot = "root".equals(value);
+                var parentId = toRoot ? 0 : Utils.getID(value, "id");
+                return view -> {
                     var parent = view.getRootView();
-                    if (!"root".equals(value)) {
-                        parent = parent.findViewById(Utils.getID(value, "id"));
+                    if (!toRoot) {
+                        parent = parent.findViewById(parentId);
                     }
                     if (parent instanceof ViewGroup parentView) {
                         var oldParent = (View) view.getParent();
@@ -296,207 +380,175 @@ public class CustomView extends Feature {
                             var params = new FrameLayout.LayoutParams(view.getLayoutParams());
                             parentView.addView(frameLayout, 0, params);
                             frameLayout.addView(view);
-                            view = frameLayout;
+                            return frameLayout;
                         } else if (oldParent.getTag() == "relative") {
-                            view = oldParent;
+                            return oldParent;
                         }
                     }
-                }
-                case "background-color" -> {
-                    if (declaration.size() != 2) continue;
-                    var color = (TermColor) declaration.get(0);
-                    var colorNew = (TermColor) declaration.get(1);
-                    var colorValue = IColors.toString(color.getValue().getRGB());
-                    var colorNewValue = IColors.toString(colorNew.getValue().getRGB());
-                    HashMap<String, String> colors = new HashMap<>();
-                    colors.put(colorValue, colorNewValue);
+                    return view;
+                };
+            }
+            case "background-color" -> {
+                if (declaration.size() != 2) return null;
+                var color = (TermColor) declaration.get(0);
+                var colorNew = (TermColor) declaration.get(1);
+                HashMap<String, String> colors = new HashMap<>();
+                colors.put(IColors.toString(color.getValue().getRGB()), IColors.toString(colorNew.getValue().getRGB()));
+                var tint = colorNew.getValue().getRGB();
+                return view -> {
                     replaceColors(view, colors);
                     if (view instanceof ImageView imageView) {
                         var drawable = imageView.getDrawable();
-                        if (drawable == null) continue;
-                        drawable.setTint(colorNew.getValue().getRGB());
+                        if (drawable == null) return view;
+                        drawable.setTint(tint);
                         view.postInvalidate();
                     }
-                }
-                case "display" -> {
-                    var value = declaration.get(0).toString();
-                    switch (value) {
-                        case "none" -> view.setVisibility(View.GONE);
-                        case "block" -> view.setVisibility(View.VISIBLE);
-                        case "invisible" -> view.setVisibility(View.INVISIBLE);
-                    }
-                }
-                case "font-size" -> {
-                    if (!(view instanceof TextView textView)) continue;
-                    var value = (TermLength) declaration.get(0);
-                    textView.setTextSize(getRealValue(value, 0));
-                }
-                case "color" -> {
-                    if (!(view instanceof TextView textView)) continue;
-                    var value = (TermColor) declaration.get(0);
-                    textView.setTextColor(value.getValue().getRGB());
-                }
-                case "alpha", "opacity" -> {
-                    var value = (TermFloatValue) declaration.get(0);
-                    view.setAlpha(value.getValue());
-                }
-                case "background-image" -> {
-                    if (!(declaration.get(0) instanceof TermURI uri)) continue;
-                    var draw = cacheImages.getDrawable(uri.getValue(), view.getWidth(), view.getHeight());
-                    if (draw == null) continue;
+                    return view;
+                };
+            }
+            case "display" -> {
+                var visibility = switch (declaration.get(0).toString()) {
+                    case "none" -> View.GONE;
+                    case "block" -> View.VISIBLE;
+                    case "invisible" -> View.INVISIBLE;
+                    default -> -1;
+                };
+                if (visibility == -1) return null;
+                return view -> {
+                    view.setVisibility(visibility);
+                    return view;
+                };
+            }
+            case "font-size" -> {
+                var size = new CssLength((TermLength) declaration.get(0));
+                return view -> {
+                    if (view instanceof TextView textView) textView.setTextSize(size.real(0));
+                    return view;
+                };
+            }
+            case "color" -> {
+                var color = ((TermColor) declaration.get(0)).getValue().getRGB();
+                return view -> {
+                    if (view instanceof TextView textView) textView.setTextColor(color);
+                    return view;
+                };
+            }
+            case "alpha", "opacity" -> {
+                var alpha = ((TermFloatValue) declaration.get(0)).getValue();
+                return view -> {
+                    view.setAlpha(alpha);
+                    return view;
+                };
+            }
+            case "background-image" -> {
+                if (!(declaration.get(0) instanceof TermURI uri)) return null;
+                var path = uri.getValue();
+                return view -> {
+                    var draw = cacheImages.getDrawable(path, view.getWidth(), view.getHeight());
+                    if (draw == null) return view;
                     if (XposedHelpers.getAdditionalInstanceField(view, "mHookedBackground") != null || XposedHelpers.getAdditionalInstanceField(view, "mHookedDrawable") != null)
-                        continue;
+                        return view;
                     setHookedDrawable(view, draw);
+                    return view;
+                };
+            }
+            case "background-size" -> {
+                if (declaration.get(0) instanceof TermLength widthTerm) {
+                    var width = new CssLength(widthTerm);
+                    var height = new CssLength((TermLength) declaration.get(1));
+                    return view -> {
+                        setBackgroundSize(view, width, height);
+                        return view;
+                    };
                 }
-                case "background-size" -> {
-                    if (declaration.get(0) instanceof TermLength width) {
-                        var height = (TermLength) declaration.get(1);
-                        if (view instanceof ImageView imageView) {
-                            if (width.isPercentage() || height.isPercentage()) {
-                                if (width.getValue().intValue() == 100 || height.getValue().intValue() == 100) {
-                                    imageView.setScaleType(ImageView.ScaleType.FIT_CENTER);
-                                    continue;
-                                }
-                            }
-                            var drawable = imageView.getDrawable();
-                            if (!(drawable instanceof BitmapDrawable)) continue;
-                            Bitmap bitmap = ((BitmapDrawable) drawable).getBitmap();
-                            var widthObj = XposedHelpers.getAdditionalInstanceField(view, "mWidth");
-                            var heightObj = XposedHelpers.getAdditionalInstanceField(view, "mHeight");
-                            if (widthObj != null && heightObj != null) {
-                                if (getRealValue(width, imageView.getWidth()) == (int) widthObj && getRealValue(height, imageView.getHeight()) == (int) heightObj)
-                                    continue;
-                            }
-                            Bitmap resizedBitmap = Bitmap.createScaledBitmap(bitmap, getRealValue(width, imageView.getWidth()), getRealValue(height, imageView.getHeight()), false);
-                            var resizeDrawable = new BitmapDrawable(view.getContext().getResources(), resizedBitmap);
-                            XposedHelpers.setAdditionalInstanceField(view, "mHeight", getRealValue(height, imageView.getHeight()));
-                            XposedHelpers.setAdditionalInstanceField(view, "mWidth", getRealValue(width, imageView.getWidth()));
-                            setHookedDrawable(imageView, resizeDrawable);
-                        } else {
-                            var drawable = view.getBackground();
-                            if (!(drawable instanceof BitmapDrawable)) continue;
-                            Bitmap bitmap = ((BitmapDrawable) drawable).getBitmap();
-                            var widthObj = XposedHelpers.getAdditionalInstanceField(view, "mWidth");
-                            var heightObj = XposedHelpers.getAdditionalInstanceField(view, "mHeight");
-                            if (widthObj != null && heightObj != null) {
-                                if (getRealValue(width, view.getWidth()) == (int) widthObj && getRealValue(height, view.getHeight()) == (int) heightObj)
-                                    continue;
-                            }
-                            Bitmap resizedBitmap = Bitmap.createScaledBitmap(bitmap, getRealValue(width, 0), getRealValue(height, 0), false);
-                            var resizeDrawable = new BitmapDrawable(view.getContext().getResources(), resizedBitmap);
-                            XposedHelpers.setAdditionalInstanceField(view, "mHeight", getRealValue(height, 0));
-                            XposedHelpers.setAdditionalInstanceField(view, "mWidth", getRealValue(width, 0));
-                            view.setBackground(resizeDrawable);
-                        }
-                    } else {
-                        var value = declaration.get(0).toString().trim();
-                        if (value.equals("cover")) {
-                            if (view instanceof ImageView imageView) {
-                                imageView.setScaleType(ImageView.ScaleType.CENTER_CROP);
-                                XposedBridge.log("resize ImageView to cover");
-                            } else {
-                                var drawable = view.getBackground();
-                                if (!(drawable instanceof BitmapDrawable)) continue;
-                                Bitmap bitmap = ((BitmapDrawable) drawable).getBitmap();
-                                var widthObj = XposedHelpers.getAdditionalInstanceField(view, "mWidth");
-                                var heightObj = XposedHelpers.getAdditionalInstanceField(view, "mHeight");
-                                if (widthObj != null && heightObj != null) {
-                                    if (Math.abs((int) widthObj - view.getWidth()) <= 20 && Math.abs((int) heightObj - view.getHeight()) <= 20) {
-                                        continue;
-                                    }
-                                }
-                                if (view.getWidth() < 1 || view.getHeight() < 1) continue;
-                                var resizeDrawable = new BitmapDrawable(view.getContext().getResources(), Bitmap.createScaledBitmap(bitmap, view.getWidth(), view.getHeight(), true));
-                                view.setBackground(resizeDrawable);
-                                XposedHelpers.setAdditionalInstanceField(view, "mHeight", view.getHeight());
-                                XposedHelpers.setAdditionalInstanceField(view, "mWidth", view.getWidth());
-                            }
-                        }
-                    }
-                }
-                case "background" -> {
-                    if (declaration.get(0) instanceof TermColor color) {
-                        view.setBackgroundColor(color.getValue().getRGB());
-                        continue;
-                    }
-                    if (declaration.get(0) instanceof TermURI uri) {
-                        var draw = cacheImages.getDrawable(uri.getValue(), view.getWidth(), view.getHeight());
-                        if (draw == null) continue;
-                        view.setBackground(draw);
-                        continue;
-                    }
-                    var value = declaration.get(0).toString().trim();
-                    if (value.equals("none")) {
-                        view.setBackground(null);
-                    } else {
-                        setBackgroundModel(view, declaration.get(0));
-                    }
-
-                }
-                case "foreground" -> {
-                    if (declaration.get(0) instanceof TermColor color) {
-                        view.setBackground(new ColorDrawable(color.getValue().getRGB()));
-                        continue;
-                    }
-                    if (declaration.get(0) instanceof TermURI uri) {
-                        var draw = cacheImages.getDrawable(uri.getValue(), view.getWidth(), view.getHeight());
-                        if (draw == null) continue;
-                        view.setForeground(draw);
-                        continue;
-                    }
-                    var value = declaration.get(0).toString().trim();
-                    if (value.equals("none")) {
-                        view.setForeground(null);
-                    }
-                }
-                case "width" -> {
-                    var value = (TermLength) declaration.get(0);
-                    view.getLayoutParams().width = getRealValue(value, 0);
-                    view.requestLayout();
-                }
-                case "height" -> {
-                    var value = (TermLength) declaration.get(0);
-                    view.getLayoutParams().height = getRealValue(value, 0);
+                if (!declaration.get(0).toString().trim().equals("cover")) return null;
+                return view -> {
+                    setBackgroundCover(view);
+                    return view;
+                };
+            }
+            case "background" -> {
+                if (declaration.get(0) instanceof TermColor color) {
+                    var rgb = color.getValue().getRGB();
+                    return view -> {
+                        view.setBackgroundColor(rgb);
+                        return view;
+                    };
                 }
-                case "left" -> {
-                    var value = (TermLength) declaration.get(0);
-                    var layoutParams = view.getLayoutParams();
-                    if (layoutParams instanceof RelativeLayout.LayoutParams rParams) {
-                        rParams.addRule(RelativeLayout.ALIGN_LEFT, getRealValue(value, 0));
-                    } else if (layoutParams instanceof ViewGroup.MarginLayoutParams fParams) {
-                        fParams.leftMargin = getRealValue(value, 0);
-                    }
+                if (declaration.get(0) instanceof TermURI uri) {
+                    var path = uri.getValue();
+                    return view -> {
+                        var draw = cacheImages.getDrawable(path, view.getWidth(), view.getHeight());
+                        if (draw != null) view.setBackground(draw);
+                        return view;
+                    };
                 }
-                case "right" -> {
-                    var value = (TermLength) declaration.get(0);
-                    var layoutParams = view.getLayoutParams();
-                    if (layoutParams instanceof RelativeLayout.LayoutParams rParams) {
-                        rParams.addRule(RelativeLayout.ALIGN_RIGHT, getRealValue(value, 0));
-                    } else if (layoutParams instanceof ViewGroup.MarginLayoutParams fParams) {
-                        fParams.rightMargin = getRealValue(value, 0);
-                    }
+                var term = declaration.get(0);
+                if (term.toString().trim().equals("none")) {
+                    return view -> {
+                        view.setBackground(null);
+                        return view;
+                    };
                 }
-                case "top" -> {
-                    var value = (TermLength) declaration.get(0);
-                    var layoutParams = view.getLayoutParams();
-                    if (layoutParams instanceof RelativeLayout.LayoutParams rParams) {
-                        rParams.addRule(RelativeLayout.ALIGN_TOP, getRealValue(value, 0));
-                    } else if (layoutParams instanceof ViewGroup.MarginLayoutParams fParams) {
-                        fParams.topMargin = getRealValue(value, 0);
-                    }
+                if (!(term instanceof TermFunction.LinearGradient)) return null;
+                return view -> {
+                    setBackgroundModel(view, term);
+                    return view;
+                };
+            }
+            case "foreground" -> {
+                if (declaration.get(0) instanceof TermColor color) {
+                    var rgb = color.getValue().getRGB();
+                    return view -> {
+                        view.setBackground(new ColorDrawable(rgb));
+                        return view;
+                    };
                 }
-                case "bottom" -> {
-                    var value = (TermLength) declaration.get(0);
-                    var layoutParams = view.getLayoutParams();
-                    if (layoutParams instanceof RelativeLayout.LayoutParams rParams) {
-                        rParams.addRule(RelativeLayout.ALIGN_BOTTOM, getRealValue(value, 0));
-                    } else if (layoutParams instanceof ViewGroup.MarginLayoutParams fParams) {
-                        fParams.bottomMargin = getRealValue(value, 0);
-                    }
+                if (declaration.get(0) instanceof TermURI uri) {
+                    var path = uri.getValue();
+                    return view -> {
+                        var draw = cacheImages.getDrawable(path, view.getWidth(), view.getHeight());
+                        if (draw != null) view.setForeground(draw);
+                        return view;
+                    };
                 }
-                case "color-filter" -> {
-                    var mode = declaration.get(0).toString().trim();
-                    if (mode.equals("none")) {
+                if (!declaration.get(0).toString().trim().equals("none")) return null;
+                return view -> {
+                    view.setForeground(null);
+                    return view;
+                };
+            }
+            case "width" -> {
+                var width = new CssLength((TermLength) declaration.get(0));
+                return view -> {
+                    view.getLayoutParams().width = width.real(0);
+                    view.requestLayout();
+                    return view;
+                };
+            }
+            case "height" -> {
+                var height = new CssLength((TermLength) declaration.get(0));
+                return view -> {
+                    view.getLayoutParams().height = height.real(0);
+                    return view;
+                };
+            }
+            case "left" -> {
+                return compilePosition(declaration, RelativeLayout.ALIGN_LEFT, LEFT);
+            }
+            case "right" -> {
+                return compilePosition(declaration, RelativeLayout.ALIGN_RIGHT, RIGHT);
+            }
+            case "top" -> {
+                return compilePosition(declaration, RelativeLayout.ALIGN_TOP, TOP);
+            }
+            case "bottom" -> {
+                return compilePosition(declaration, RelativeLayout.ALIGN_BOTTOM, BOTTOM);
+            }
+            case "color-filter" -> {
+                var mode = declaration.get(0).toString().trim();
+                if (mode.equals("none")) {
+                    return view -> {
                         if (view instanceof ImageView imageView) {
                             imageView.clearColorFilter();
                         } else {
@@ -505,84 +557,99 @@ public class CustomView extends Feature {
                                 drawable.clearColorFilter();
                             }
                         }
+                        return view;
+                    };
+                }
+                if (!(declaration.get(1) instanceof TermColor color)) return null;
+                PorterDuff.Mode pMode;
+                try {
+                    pMode = PorterDuff.Mode.valueOf(mode);
+                } catch (IllegalArgumentException ignored) {
+                    return null;
+                }
+                var rgb = color.getValue().getRGB();
+                return view -> {
+                    if (view instanceof ImageView imageView) {
+                        imageView.setColorFilter(rgb, pMode);
                     } else {
-                        if (!(declaration.get(1) instanceof TermColor color)) continue;
-                        try {
-                            var pMode = PorterDuff.Mode.valueOf(mode);
-                            if (view instanceof ImageView imageView) {
-                                imageView.setColorFilter(color.getValue().getRGB(), pMode);
-                            } else {
-                                var drawable = view.getBackground();
-                                if (drawable != null) {
-                                    drawable.setColorFilter(color.getValue().getRGB(), pMode);
-                                }
-                            }
-                        } catch (IllegalArgumentException ignored) {
+                        var drawable = view.getBackground();
+                        if (drawable != null) {
+                            drawable.setColorFilter(rgb, pMode);
                         }
                     }
+                    return view;
+                };
+            }
+            case "color-tint" -> {
+                ColorStateList colorStateList;
+                if (declaration.get(0) instanceof TermColor color) {
+                    colorStateList = declaration.size() == 1 ? ColorStateList.valueOf(color.getValue().getRGB()) : getColorStateList(declaration);
+                } else if (declaration.get(0).toString().trim().equals("none")) {
+                    colorStateList = null;
+                } else {
+                    return null;
                 }
-                case "color-tint" -> {
-                    if (declaration.get(0) instanceof TermColor color) {
-                        if (view instanceof ImageView imageView) {
-                            ColorStateList colorStateList = declaration.size() == 1 ? ColorStateList.valueOf(color.getValue().getRGB()) : getColorStateList(declaration);
-                            imageView.setImageTintList(colorStateList);
-                        } else {
-                            var drawable = view.getBackground();
-                            if (drawable != null) {
-                                ColorStateList colorStateList = declaration.size() == 1 ? ColorStateList.valueOf(color.getValue().getRGB()) : getColorStateList(declaration);
-                                drawable.setTintList(colorStateList);
-                            }
-                        }
+                return view -> {
+                    if (view instanceof ImageView imageView) {
+                        imageView.setImageTintList(colorStateList);
                     } else {
-                        var value = declaration.get(0).toString().trim();
-                        if (value.equals("none")) {
-                            if (view instanceof ImageView imageView) {
-                                imageView.setImageTintList(null);
-                            } else {
-                                var drawable = view.getBackground();
-                                if (drawable != null) {
-                                    drawable.setTintList(null);
-                                }
-                            }
+                        var drawable = view.getBackground();
+                        if (drawable != null) {
+                            drawable.setTintList(colorStateList);
                         }
                     }
-                }
-                case "font-weight" -> {
-                    if (!(view instanceof TextView textView)) continue;
-                    String value = declaration.get(0).toString();
+                    return view;
+                };
+            }
+            case "font-weight" -> {
+                String value = declaration.get(0).toString();
+                boolean bold = "bold".equals(value) || value.equals("700") || value.equals("800") || value.equals("900");
+                if (!bold && !"normal".equals(value) && !value.equals("400")) return null;
+                return view -> {
+                    if (!(view instanceof TextView textView)) return view;
                     Typeface current = textView.getTypeface();
-                    if ("bold".equals(value) || value.equals("700") || value.equals("800") || value.equals("900")) {
+                    if (bold) {
                         textView.setTypeface(current, Typeface.BOLD);
-                    } else if ("normal".equals(value) || value.equals("400")) {
+                    } else {
                         textView.setTypeface(Typeface.create(current, Typeface.NORMAL));
                     }
-                }
-                case "font-style" -> {
-                    if (!(view instanceof TextView textView)) continue;
-                    String value = declaration.get(0).toString();
+                    return view;
+                };
+            }
+            case "font-style" -> {
+                String value = declaration.get(0).toString();
+                boolean italic = "italic".equals(value);
+                if (!italic && !"normal".equals(value)) return null;
+                return view -> {
+                    if (!(view instanceof TextView textView)) return view;
                     Typeface current = textView.getTypeface();
-                    if ("italic".equals(value)) {
+                    if (italic) {
                         textView.setTypeface(current, Typeface.ITALIC);
-                    } else if ("normal".equals(value)) {
+                    } else {
                         textView.setTypeface(Typeface.create(current, Typeface.NORMAL));
                     }
-                }
-                case "text-decoration" -> {
-                    if (!(view instanceof TextView textView)) continue;
-                    String value = declaration.get(0).toString();
-                    if (value.contains("underline")) {
-                        textView.setPaintFlags(textView.getPaintFlags() | Paint.UNDERLINE_TEXT_FLAG);
-                    }
-                    if (value.contains("line-through")) {
-                        textView.setPaintFlags(textView.getPaintFlags() | Paint.STRIKE_THRU_TEXT_FLAG);
-                    }
-                    if (value.contains("none")) {
-                        textView.setPaintFlags(textView.getPaintFlags() & (~Paint.UNDERLINE_TEXT_FLAG) & (~Paint.STRIKE_THRU_TEXT_FLAG));
-                    }
-                }
-                case "text-transform" -> {
-                    if (!(view instanceof TextView textView)) continue;
-                    String value = declaration.get(0).toString();
+                    return view;
+                };
+            }
+            case "text-decoration" -> {
+                String value = declaration.get(0).toString();
+                int addFlags = 0;
+                if (value.contains("underline")) addFlags |= Paint.UNDERLINE_TEXT_FLAG;
+                if (value.contains("line-through")) addFlags |= Paint.STRIKE_THRU_TEXT_FLAG;
+                int removeFlags = value.contains("none") ? Paint.UNDERLINE_TEXT_FLAG | Paint.STRIKE_THRU_TEXT_FLAG : 0;
+                int add = addFlags;
+                return view -> {
+                    if (view instanceof TextView textView)
+                        textView.setPaintFlags((textView.getPaintFlags() | add) & ~removeFlags);
+                    return view;
+                };
+            }
+            case "text-transform" -> {
+                String value = declaration.get(0).toString();
+                if (!value.equals("uppercase") && !value.equals("lowercase") && !value.equals("none"))
+                    return null;
+                return view -> {
+                    if (!(view instanceof TextView textView)) return view;
                     switch (value) {
                         case "uppercase" -> textView.setAllCaps(true);
                         case "lowercase" -> {
@@ -591,145 +658,248 @@ public class CustomView extends Feature {
                         }
                         case "none" -> textView.setAllCaps(false);
                     }
-                }
-                case "text-align" -> {
-                    if (!(view instanceof TextView textView)) continue;
-                    String value = declaration.get(0).toString();
-                    switch (value) {
-                        case "center" -> textView.setGravity(Gravity.CENTER);
-                        case "right", "end" ->
-                                textView.setGravity(Gravity.END | Gravity.CENTER_VERTICAL);
-                        case "left", "start" ->
-                                textView.setGravity(Gravity.START | Gravity.CENTER_VERTICAL);
-                    }
-                }
-                case "box-shadow" -> {
-                    for (Term<?> term : declaration) {
-                        if (term instanceof TermLength) {
-                            float val = getExactValue((TermLength) term, 0);
+                    return view;
+                };
+            }
+            case "text-align" -> {
+                var gravity = switch (declaration.get(0).toString()) {
+                    case "center" -> Gravity.CENTER;
+                    case "right", "end" -> Gravity.END | Gravity.CENTER_VERTICAL;
+                    case "left", "start" -> Gravity.START | Gravity.CENTER_VERTICAL;
+                    default -> -1;
+                };
+                if (gravity == -1) return null;
+                return view -> {
+                    if (view instanceof TextView textView) textView.setGravity(gravity);
+                    return view;
+                };
+            }
+            case "box-shadow" -> {
+                for (Term<?> term : declaration) {
+                    if (term instanceof TermLength length) {
+                        var elevation = new CssLength(length);
+                        return view -> {
+                            float val = elevation.exact(0);
                             if (val > 0) view.setElevation(val);
-                            break;
-                        }
+                            return view;
+                        };
                     }
                 }
-                case "transform" -> {
-                    for (Term<?> term : declaration) {
-                        if (term instanceof TermFunction func) {
-                            String funcName = func.getFunctionName();
-                            var args = func.getValues(true);
-                            if ("rotate".equals(funcName) && !args.isEmpty()) {
-                                Term<?> arg = args.get(0);
-                                if (arg instanceof TermLength) {
-                                    try {
-                                        if (arg.toString().contains("deg")) {
-                                            view.setRotation(Float.parseFloat(arg.toString().replace("deg", "")));
-                                        }
-                                    } catch (Exception ignored) {
-                                    }
-                                }
-                            } else if ("scale".equals(funcName)) {
-                                if (args.size() >= 1) {
-                                    float sx = Float.parseFloat(args.get(0).toString());
-                                    view.setScaleX(sx);
-                                    view.setScaleY(sx);
-                                }
-                                if (args.size() >= 2) {
-                                    float sy = Float.parseFloat(args.get(1).toString());
-                                    view.setScaleY(sy);
-                                }
+                return null;
+            }
+            case "transform" -> {
+                float rotation = Float.NaN;
+                float scaleX = Float.NaN;
+                float scaleY = Float.NaN;
+                for (Term<?> term : declaration) {
+                    if (!(term instanceof TermFunction func)) continue;
+                    String funcName = func.getFunctionName();
+                    var args = func.getValues(true);
+                    if ("rotate".equals(funcName) && !args.isEmpty()) {
+                        Term<?> arg = args.get(0);
+                        if (arg instanceof TermLength && arg.toString().contains("deg")) {
+                            try {
+                                rotation = Float.parseFloat(arg.toString().replace("deg", ""));
+                            } catch (NumberFormatException ignored) {
                             }
                         }
+                    } else if ("scale".equals(funcName)) {
+                        if (args.size() >= 1) {
+                            scaleX = scaleY = Float.parseFloat(args.get(0).toString());
+                        }
+                        if (args.size() >= 2) {
+                            scaleY = Float.parseFloat(args.get(1).toString());
+                        }
                     }
                 }
-                case "margin" -> {
-                    if (!(view.getLayoutParams() instanceof ViewGroup.MarginLayoutParams params))
-                        continue;
-                    int left = params.leftMargin;
-                    int top = params.topMargin;
-                    int right = params.rightMargin;
-                    int bottom = params.bottomMargin;
-                    if (declaration.size() == 1) {
-                        int val = getExactValue((TermLength) declaration.get(0), view.getWidth());
-                        left = top = right = bottom = val;
-                    } else if (declaration.size() == 2) {
-                        int vertical = getExactValue((TermLength) declaration.get(0), view.getHeight());
-                        int horizontal = getExactValue((TermLength) declaration.get(1), view.getWidth());
-                        top = bottom = vertical;
-                        left = right = horizontal;
-                    } else if (declaration.size() == 4) {
-                        top = getExactValue((TermLength) declaration.get(0), view.getHeight());
-                        right = getExactValue((TermLength) declaration.get(1), view.getWidth());
-                        bottom = getExactValue((TermLength) declaration.get(2), view.getHeight());
-                        left = getExactValue((TermLength) declaration.get(3), view.getWidth());
+                if (Float.isNaN(rotation) && Float.isNaN(scaleX)) return null;
+                float finalRotation = rotation;
+                float finalScaleX = scaleX;
+                float finalScaleY = scaleY;
+                return view -> {
+                    if (!Float.isNaN(finalRotation)) view.setRotation(finalRotation);
+                    if (!Float.isNaN(finalScaleX)) {
+                        view.setScaleX(finalScaleX);
+                        view.setScaleY(finalScaleY);
                     }
-                    params.setMargins(left, top, right, bottom);
-                    view.requestLayout();
-                }
-                case "margin-left" -> {
-                    if (!(view.getLayoutParams() instanceof ViewGroup.MarginLayoutParams params))
-                        continue;
-                    params.leftMargin = getExactValue((TermLength) declaration.get(0), view.getWidth());
-                    view.requestLayout();
-                }
-                case "margin-top" -> {
-                    if (!(view.getLayoutParams() instanceof ViewGroup.MarginLayoutParams params))
-                        continue;
-                    params.topMargin = getExactValue((TermLength) declaration.get(0), view.getHeight());
-                    view.requestLayout();
-                }
-                case "margin-right" -> {
+                    return view;
+                };
+            }
+            case "margin" -> {
+                var box = compileBox(declaration);
+                return view -> {
                     if (!(view.getLayoutParams() instanceof ViewGroup.MarginLayoutParams params))
-                        continue;
-                    params.rightMargin = getExactValue((TermLength) declaration.get(0), view.getWidth());
+                        return view;
+                    int[] margins = resolveBox(box, view, params.leftMargin, params.topMargin, params.rightMargin, params.bottomMargin);
+                    params.setMargins(margins[LEFT], margins[TOP], margins[RIGHT], margins[BOTTOM]);
                     view.requestLayout();
-                }
-                case "margin-bottom" -> {
+                    return view;
+                };
+            }
+            case "margin-left", "margin-top", "margin-right", "margin-bottom" -> {
+                var side = sideOf(property.substring("margin-".length()));
+                var length = new CssLength((TermLength) declaration.get(0));
+                return view -> {
                     if (!(view.getLayoutParams() instanceof ViewGroup.MarginLayoutParams params))
-                        continue;
-                    params.bottomMargin = getExactValue((TermLength) declaration.get(0), view.getHeight());
-                    view.requestLayout();
-                }
-                case "padding" -> {
-                    int left = view.getPaddingLeft();
-                    int top = view.getPaddingTop();
-                    int right = view.getPaddingRight();
-                    int bottom = view.getPaddingBottom();
-                    if (declaration.size() == 1) {
-                        int val = getExactValue((TermLength) declaration.get(0), view.getWidth());
-                        left = top = right = bottom = val;
-                    } else if (declaration.size() == 2) {
-                        int vertical = getExactValue((TermLength) declaration.get(0), view.getHeight());
-                        int horizontal = getExactValue((TermLength) declaration.get(1), view.getWidth());
-                        top = bottom = vertical;
-                        left = right = horizontal;
-                    } else if (declaration.size() == 4) {
-                        top = getExactValue((TermLength) declaration.get(0), view.getHeight());
-                        right = getExactValue((TermLength) declaration.get(1), view.getWidth());
-                        bottom = getExactValue((TermLength) declaration.get(2), view.getHeight());
-                        left = getExactValue((TermLength) declaration.get(3), view.getWidth());
+                        return view;
+                    int value = length.exact(side == LEFT || side == RIGHT ? view.getWidth() : view.getHeight());
+                    switch (side) {
+                        case LEFT -> params.leftMargin = value;
+                        case TOP -> params.topMargin = value;
+                        case RIGHT -> params.rightMargin = value;
+                        default -> params.bottomMargin = value;
                     }
-                    view.setPadding(left, top, right, bottom);
-                }
-                case "padding-left" -> {
-                    var val = getExactValue((TermLength) declaration.get(0), view.getWidth());
-                    view.setPadding(val, view.getPaddingTop(), view.getPaddingRight(), view.getPaddingBottom());
-                }
-                case "padding-top" -> {
-                    var val = getExactValue((TermLength) declaration.get(0), view.getHeight());
-                    view.setPadding(view.getPaddingLeft(), val, view.getPaddingRight(), view.getPaddingBottom());
+                    view.requestLayout();
+                    return view;
+                };
+            }
+            case "padding" -> {
+                var box = compileBox(declaration);
+                return view -> {
+                    int[] padding = resolveBox(box, view, view.getPaddingLeft(), view.getPaddingTop(), view.getPaddingRight(), view.getPaddingBottom());
+                    view.setPadding(padding[LEFT], padding[TOP], padding[RIGHT], padding[BOTTOM]);
+                    return view;
+                };
+            }
+            case "padding-left", "padding-top", "padding-right", "padding-bottom" -> {
+                var side = sideOf(property.substring("padding-".length()));
+                var length = new CssLength((TermLength) declaration.get(0));
+                return view -> {
+                    int[] padding = {view.getPaddingLeft(), view.getPaddingTop(), view.getPaddingRight(), view.getPaddingBottom()};
+                    padding[side] = length.exact(side == LEFT || side == RIGHT ? view.getWidth() : view.getHeight());
+                    view.setPadding(padding[LEFT], padding[TOP], padding[RIGHT], padding[BOTTOM]);
+                    return view;
+                };
+            }
+        }
+        return null;
+    }
+
+    private static int sideOf(String name) {
+        return switch (name) {
+            case "left" -> LEFT;
+            case "top" -> TOP;
+            case "right" -> RIGHT;
+            default -> BOTTOM;
+        };
+    }
+
+    private StyleOp compilePosition(Declaration declaration, int relativeRule, int side) {
+        var length = new CssLength((TermLength) declaration.get(0));
+        return view -> {
+            var layoutParams = view.getLayoutParams();
+            if (layoutParams instanceof RelativeLayout.LayoutParams rParams) {
+                rParams.addRule(relativeRule, length.real(0));
+            } else if (layoutParams instanceof ViewGroup.MarginLayoutParams fParams) {
+                switch (side) {
+                    case LEFT -> fParams.leftMargin = length.real(0);
+                    case TOP -> fParams.topMargin = length.real(0);
+                    case RIGHT -> fParams.rightMargin = length.real(0);
+                    default -> fParams.bottomMargin = length.real(0);
                 }
-                case "padding-right" -> {
-                    var val = getExactValue((TermLength) declaration.get(0), view.getWidth());
-                    view.setPadding(view.getPaddingLeft(), view.getPaddingTop(), val, view.getPaddingBottom());
+            }
+            return view;
+        };
+    }
+
+    /**
+     * @return the lengths of a 1, 2 or 4 value margin/padding shorthand, in top right bottom left order
+     */
+    @Nullable
+    private static CssLength[] compileBox(Declaration declaration) {
+        return switch (declaration.size()) {
+            case 1, 2, 4 -> {
+                var box = new CssLength[declaration.size()];
+                for (int i = 0; i < box.length; i++) {
+                    box[i] = new CssLength((TermLength) declaration.get(i));
                 }
-                case "padding-bottom" -> {
-                    var val = getExactValue((TermLength) declaration.get(0), view.getHeight());
-                    view.setPadding(view.getPaddingLeft(), view.getPaddingTop(), view.getPaddingRight(), val);
+                yield box;
+            }
+            default -> null;
+        };
+    }
+
+    private static int[] resolveBox(CssLength[] box, View view, int left, int top, int right, int bottom) {
+        int[] values = {left, top, right, bottom};
+        if (box == null) return values;
+        int width = view.getWidth();
+        int height = view.getHeight();
+        if (box.length == 1) {
+            Arrays.fill(values, box[0].exact(width));
+        } else if (box.length == 2) {
+            values[TOP] = values[BOTTOM] = box[0].exact(height);
+            values[LEFT] = values[RIGHT] = box[1].exact(width);
+        } else {
+            values[TOP] = box[0].exact(height);
+            values[RIGHT] = box[1].exact(width);
+            values[BOTTOM] = box[2].exact(height);
+            values[LEFT] = box[3].exact(width);
+        }
+        return values;
+    }
+
+    private void setBackgroundSize(View view, CssLength width, CssLength height) {
+        if (view instanceof ImageView imageView) {
+            if (width.percentage || height.percentage) {
+                if (width.value == 100 || height.value == 100) {
+                    imageView.setScaleType(ImageView.ScaleType.FIT_CENTER);
+                    return;
                 }
             }
+            var drawable = imageView.getDrawable();
+            if (!(drawable instanceof BitmapDrawable)) return;
+            Bitmap bitmap = ((BitmapDrawable) drawable).getBitmap();
+            var widthObj = XposedHelpers.getAdditionalInstanceField(view, "mWidth");
+            var heightObj = XposedHelpers.getAdditionalInstanceField(view, "mHeight");
+            if (widthObj != null && heightObj != null) {
+                if (width.real(imageView.getWidth()) == (int) widthObj && height.real(imageView.getHeight()) == (int) heightObj)
+                    return;
+            }
+            Bitmap resizedBitmap = Bitmap.createScaledBitmap(bitmap, width.real(imageView.getWidth()), height.real(imageView.getHeight()), false);
+            var resizeDrawable = new BitmapDrawable(view.getContext().getResources(), resizedBitmap);
+            XposedHelpers.setAdditionalInstanceField(view, "mHeight", height.real(imageView.getHeight()));
+            XposedHelpers.setAdditionalInstanceField(view, "mWidth", width.real(imageView.getWidth()));
+            setHookedDrawable(imageView, resizeDrawable);
+        } else {
+            var drawable = view.getBackground();
+            if (!(drawable instanceof BitmapDrawable)) return;
+            Bitmap bitmap = ((BitmapDrawable) drawable).getBitmap();
+            var widthObj = XposedHelpers.getAdditionalInstanceField(view, "mWidth");
+            var heightObj = XposedHelpers.getAdditionalInstanceField(view, "mHeight");
+            if (widthObj != null && heightObj != null) {
+                if (width.real(view.getWidth()) == (int) widthObj && height.real(view.getHeight()) == (int) heightObj)
+                    return;
+            }
+            Bitmap resizedBitmap = Bitmap.createScaledBitmap(bitmap, width.real(0), height.real(0), false);
+            var resizeDrawable = new BitmapDrawable(view.getContext().getResources(), resizedBitmap);
+            XposedHelpers.setAdditionalInstanceField(view, "mHeight", height.real(0));
+            XposedHelpers.setAdditionalInstanceField(view, "mWidth", width.real(0));
+            view.setBackground(resizeDrawable);
         }
     }
 
+    private void setBackgroundCover(View view) {
+        if (view instanceof ImageView imageView) {
+            imageView.setScaleType(ImageView.ScaleType.CENTER_CROP);
+            return;
+        }
+        var drawable = view.getBackground();
+        if (!(drawable instanceof BitmapDrawable)) return;
+        Bitmap bitmap = ((BitmapDrawable) drawable).getBitmap();
+        var widthObj = XposedHelpers.getAdditionalInstanceField(view, "mWidth");
+        var heightObj = XposedHelpers.getAdditionalInstanceField(view, "mHeight");
+        if (widthObj != null && heightObj != null) {
+            if (Math.abs((int) widthObj - view.getWidth()) <= 20 && Math.abs((int) heightObj - view.getHeight()) <= 20) {
+                return;
+            }
+        }
+        if (view.getWidth() < 1 || view.getHeight() < 1) return;
+        var resizeDrawable = new BitmapDrawable(view.getContext().getResources(), Bitmap.createScaledBitmap(bitmap, view.getWidth(), view.getHeight(), true));
+        view.setBackground(resizeDrawable);
+        XposedHelpers.setAdditionalInstanceField(view, "mHeight", view.getHeight());
+        XposedHelpers.setAdditionalInstanceField(view, "mWidth", view.getWidth());
+    }
+
     private void setHookedDrawable(View view, Drawable draw) {
         if (view instanceof ImageView imageView) {
             imageView.setImageDrawable(draw);
@@ -778,69 +948,33 @@ public class CustomView extends Feature {
         );
     }
 
-    private int getRealValue(TermLength pValue, int size) {
-        int value;
-        if (pValue.getUnit() == TermNumeric.Unit.px) {
-            value = Utils.dipToPixels(pValue.getValue().intValue());
-        } else if (pValue.isPercentage()) {
-            value = size * pValue.getValue().intValue() / 100;
-        } else {
-            value = pValue.getValue().intValue();
-        }
-        return value > 0 ? value : 1;
-    }
-
-    private int getExactValue(TermLength pValue, int size) {
-        int value;
-        if (pValue.getUnit() == TermNumeric.Unit.px) {
-            value = Utils.dipToPixels(pValue.getValue().intValue());
-        } else if (pValue.isPercentage()) {
-            value = size * pValue.getValue().intValue() / 100;
-        } else {
-            value = pValue.getValue().intValue();
-        }
-        return value;
-    }
-
-    private void captureSelector(View currentView, CombinedSelector selector, int position, ArrayList<View> resultViews) {
-        if (selector.size() == position) return;
-        var selectorItem = selector.get(position);
-        if (selectorItem.getClassName() != null) {
+    private void captureSelector(View currentView, CompiledSelector selector, int position, ArrayList<View> resultViews) {
+        if (selector.steps.length == position) return;
+        var step = selector.steps[position];
+        if (step.kind == SelectorStep.CLASS) {
             captureSelector(currentView, selector, position + 1, resultViews);
-        } else if (selectorItem.getIDName() != null) {
-            var name = selectorItem.getIDName().trim();
-            int id = 0;
-            if (name.contains("android_")) {
-                try {
-                    id = android.R.id.class.getField(name.substring(8)).getInt(null);
-                } catch (NoSuchFieldException | IllegalAccessException ignored) {
-                }
-            } else {
-                id = Utils.getID(name, "id");
-            }
-            if (id <= 0) return;
-            View view = currentView.getId() == id ? currentView : currentView.findViewById(id);
+        } else if (step.kind == SelectorStep.ID) {
+            View view = currentView.getId() == step.id ? currentView : currentView.findViewById(step.id);
             if (view == null) return;
-            if (selector.size() == position + 1) {
+            if (selector.steps.length == position + 1) {
                 resultViews.add(view);
             } else {
                 captureSelector(view, selector, position + 1, resultViews);
             }
         } else {
             if (!(currentView instanceof ViewGroup viewGroup)) return;
-            var name = Arrays.stream(selectorItem.toString().split(":")).map(String::trim).toArray(String[]::new);
             var itemCount = new int[]{0};
             for (int i = 0; i < viewGroup.getChildCount(); i++) {
                 var itemView = viewGroup.getChildAt(i);
-                if (ReflectionUtils.isClassSimpleNameString(itemView.getClass(), name[0])) {
-                    if (name.length > 1)
-                        if (checkAttribute(itemView, itemCount, name[1])) continue;
-                    if (selector.size() == position + 1) {
+                if (ReflectionUtils.isClassSimpleNameString(itemView.getClass(), step.widgetName)) {
+                    if (step.attribute != null)
+                        if (checkAttribute(itemView, itemCount, step)) continue;
+                    if (selector.steps.length == position + 1) {
                         resultViews.add(itemView);
                     } else {
                         captureSelector(itemView, selector, position + 1, resultViews);
                     }
-                } else if (isWidgetString(name[0]) && itemView instanceof ViewGroup viewGroup1) {
+                } else if (step.isWidget && itemView instanceof ViewGroup viewGroup1) {
                     for (int j = 0; j < viewGroup1.getChildCount(); j++) {
                         var childView = viewGroup1.getChildAt(j);
                         captureSelector(childView, selector, position, resultViews);
@@ -850,26 +984,20 @@ public class CustomView extends Feature {
         }
     }
 
-    private boolean checkAttribute(View itemView, int[] itemCount, String name) {
-        if (name.startsWith("nth-child")) {
-            var startIndex = name.indexOf("(") + 1;
-            var endIndex = name.indexOf(")");
-            var index = Integer.parseInt(name.substring(startIndex, endIndex)) - 1;
-            return index != itemCount[0]++;
-        } else if (name.startsWith("contains")) {
-            var startIndex = name.indexOf("(") + 1;
-            var endIndex = name.indexOf(")");
-            var contains = name.substring(startIndex, endIndex);
+    private boolean checkAttribute(View itemView, int[] itemCount, SelectorStep step) {
+        if (step.nthChild >= 0) {
+            return step.nthChild != itemCount[0]++;
+        } else if (step.contains != null) {
             if (itemView instanceof TextView textView) {
-                return !textView.getText().toString().contains(contains);
+                return !textView.getText().toString().contains(step.contains);
             } else {
-                return !itemView.toString().contains(contains);
+                return !itemView.toString().contains(step.contains);
             }
         }
         return false;
     }
 
-    private boolean isWidgetString(String view) {
+    private static boolean isWidgetString(String view) {
         return XposedHelpers.findClassIfExists("android.widget." + view, null) != null;
     }
 
@@ -881,153 +1009,126 @@ public class CustomView extends Feature {
     }
 
 
-    public class DrawableCache {
-        private final LruCache<String, CachedDrawable> drawableCache;
-        private final Context context;
-
-        public DrawableCache(Context context, int maxSize) {
-            this.context = context.getApplicationContext();
-            drawableCache = new LruCache<>(maxSize);
-        }
+    public static class RuleItem {
+        public CompiledSelector selector;
+        public StyleOp[] program;
+        public Class<?> targetActivityClass;
 
-        private Drawable loadDrawableFromFile(String filePath, int reqWidth, int reqHeight) {
-            try {
-                File file = new File(filePath);
-                Bitmap bitmap;
-                if (!file.canRead()) {
-                    try (var parcelFile = WppCore.getClientBridge().openFile(filePath, false)) {
-                        bitmap = BitmapFactory.decodeStream(new FileInputStream(parcelFile.getFileDescriptor()));
-                    }
-                } else {
-                    bitmap = BitmapFactory.decodeFile(file.getAbsolutePath());
-                }
-                var newHeight = reqHeight < 1 ? bitmap.getHeight() : Math.min(bitmap.getHeight(), reqHeight);
-                var newWidth = reqWidth < 1 ? bitmap.getWidth() : Math.min(bitmap.getWidth(), reqWidth);
-                bitmap = Bitmap.createScaledBitmap(bitmap, newWidth, newHeight, true);
-                return new BitmapDrawable(context.getResources(), bitmap);
-            } catch (Exception e) {
-                XposedBridge.log(e);
-                return null;
-            }
+        public RuleItem(CompiledSelector selector, StyleOp[] program, Class<?> targetActivityClass) {
+            this.selector = selector;
+            this.program = program;
+            this.targetActivityClass = targetActivityClass;
         }
+    }
 
+    /**
+     * One compiled CSS declaration.
+     */
+    public interface StyleOp {
+        /**
+         * @return the view the next declarations of the rule apply to
+         */
+        View apply(View view);
+    }
 
-        @Nullable
-        public Drawable getDrawable(String filePath, int width, int height) {
-            File file = filePath.startsWith("/") ? new File(filePath) : new File(themeDir, filePath);
-            String key = file.getAbsolutePath();
-
-            CachedDrawable cachedDrawable = drawableCache.get(key);
-
-            if (cachedDrawable != null) {
-                if (System.currentTimeMillis() - cachedDrawable.lastCheckTime < 2000) {
-                    return cachedDrawable.drawable;
-                }
-            }
-
-            if (!file.exists()) {
-                return null;
-            }
-
-            long lastModified = file.lastModified();
-            if (cachedDrawable != null) {
-                cachedDrawable.lastCheckTime = System.currentTimeMillis();
-                if (cachedDrawable.lastModified == lastModified) {
-                    return cachedDrawable.drawable;
-                }
-            }
-
-            Drawable cachedDrawableFromFile = loadDrawableFromCache(key, lastModified);
-            if (cachedDrawableFromFile != null) {
-                cachedDrawable = new CachedDrawable(cachedDrawableFromFile, lastModified);
-                drawableCache.put(key, cachedDrawable);
-                return cachedDrawableFromFile;
-            }
-            Drawable drawable = loadDrawableFromFile(key, width, height);
-            if (drawable == null) return null;
-            saveDrawableToCache(key, (BitmapDrawable) drawable, lastModified);
-            cachedDrawable = new CachedDrawable(drawable, lastModified);
-            drawableCache.put(key, cachedDrawable);
-            return drawable;
+    /**
+     * A CSS length with its unit resolved at compile time.
+     */
+    public static class CssLength {
+        public final int value;
+        public final boolean percentage;
+        public final boolean px;
+
+        public CssLength(TermLength term) {
+            this.value = term.getValue().intValue();
+            this.percentage = term.isPercentage();
+            this.px = term.getUnit() == TermNumeric.Unit.px;
         }
 
-        private void saveDrawableToCache(String key, BitmapDrawable drawable, long lastModified) {
-            File cacheDir = context.getCacheDir();
-            File cacheLocation = new File(cacheDir, "drawable_cache");
-            if (!cacheLocation.exists()) {
-                cacheLocation.mkdirs();
-            }
-            File cacheFile = new File(cacheLocation, getCacheFileName(key));
-            File metadataFile = new File(cacheLocation, getCacheFileName(key) + ".meta");
-
-            try (OutputStream out = new FileOutputStream(cacheFile);
-                 ObjectOutputStream metaOut = new ObjectOutputStream(new FileOutputStream(metadataFile))) {
-                drawable.getBitmap().compress(Bitmap.CompressFormat.PNG, 80, out);
-                metaOut.writeLong(lastModified);
-                Log.d("DrawableCache", "Saved drawable to cache: " + cacheFile.getAbsolutePath());
-            } catch (IOException e) {
-                Log.e("DrawableCache", "Failed to save drawable to cache", e);
-            }
+        public int exact(int size) {
+            if (px) return Utils.dipToPixels(value);
+            if (percentage) return size * value / 100;
+            return value;
         }
 
-        private Drawable loadDrawableFromCache(String key, long originalLastModified) {
-            File cacheDir = context.getCacheDir();
-            File cacheLocation = new File(cacheDir, "drawable_cache");
-            File cacheFile = new File(cacheLocation, getCacheFileName(key));
-            File metadataFile = new File(cacheLocation, getCacheFileName(key) + ".meta");
-
-            if (!cacheFile.exists() || !metadataFile.exists()) {
-                log("Drawable not found in cache: " + cacheFile.getAbsolutePath());
-                return null;
-            }
-
-            try (ObjectInputStream metaIn = new ObjectInputStream(new FileInputStream(metadataFile))) {
-                long cachedLastModified = metaIn.readLong();
-                if (cachedLastModified != originalLastModified) {
-                    return null;
-                }
-
-                Bitmap bitmap = BitmapFactory.decodeFile(cacheFile.getAbsolutePath());
-                if (bitmap != null) {
-                    return new BitmapDrawable(context.getResources(), bitmap);
-                }
-            } catch (IOException e) {
-                Log.e("DrawableCache", "Failed to load drawable from cache", e);
-            }
-
-            return null;
+        public int real(int size) {
+            int result = exact(size);
+            return result > 0 ? result : 1;
         }
+    }
 
-        private String getCacheFileName(String input) {
-            return String.valueOf(Objects.hash(input));
+    /**
+     * A selector with its ids resolved and its pseudo classes parsed.
+     */
+    public static class CompiledSelector {
+        public final SelectorStep[] steps;
+        /**
+         * True when the selector matches on the text of a view, which may change without a new layout
+         */
+        public final boolean contentDependent;
+
+        private CompiledSelector(SelectorStep[] steps, boolean contentDependent) {
+            this.steps = steps;
+            this.contentDependent = contentDependent;
         }
 
-        private static class CachedDrawable {
-            Drawable drawable;
-            long lastModified;
-            long lastCheckTime;
-
-            CachedDrawable(Drawable drawable, long lastModified) {
-                this.drawable = drawable;
-                this.lastModified = lastModified;
-                this.lastCheckTime = System.currentTimeMillis();
+        /**
+         * @return null when the selector names an id that does not exist or has a malformed pseudo class, so it can never match
+         */
+        @Nullable
+        public static CompiledSelector compile(CombinedSelector selector) {
+            var steps = new SelectorStep[selector.size()];
+            boolean contentDependent = false;
+            for (int i = 0; i < steps.length; i++) {
+                var item = selector.get(i);
+                var step = new SelectorStep();
+                if (item.getClassName() != null) {
+                    step.kind = SelectorStep.CLASS;
+                } else if (item.getIDName() != null) {
+                    step.kind = SelectorStep.ID;
+                    step.id = resolveId(item.getIDName());
+                    if (step.id <= 0) return null;
+                } else {
+                    step.kind = SelectorStep.WIDGET;
+                    var name = Arrays.stream(item.toString().split(":")).map(String::trim).toArray(String[]::new);
+                    step.widgetName = name[0];
+                    step.isWidget = isWidgetString(name[0]);
+                    if (name.length > 1) {
+                        step.attribute = name[1];
+                        var startIndex = name[1].indexOf("(") + 1;
+                        var endIndex = name[1].indexOf(")");
+                        var argument = startIndex > 0 && endIndex >= startIndex ? name[1].substring(startIndex, endIndex) : null;
+                        if (name[1].startsWith("nth-child")) {
+                            try {
+                                step.nthChild = Integer.parseInt(String.valueOf(argument).trim()) - 1;
+                            } catch (NumberFormatException e) {
+                                return null;
+                            }
+                        } else if (name[1].startsWith("contains")) {
+                            if (argument == null) return null;
+                            step.contains = argument;
+                            contentDependent = true;
+                        }
+                    }
+                }
+                steps[i] = step;
             }
+            return new CompiledSelector(steps, contentDependent);
         }
     }
 
-    // Create a unique file name based
-
-
-    public static class RuleItem {
-        public CombinedSelector selector;
-        public RuleSet rule;
-        public Class<?> targetActivityClass;
-
-        public RuleItem(CombinedSelector selectorItem, RuleSet ruleSet, Class<?> targetActivityClass) {
-            this.selector = selectorItem;
-            this.rule = ruleSet;
-            this.targetActivityClass = targetActivityClass;
-        }
+    public static class SelectorStep {
+        static final int CLASS = 0;
+        static final int ID = 1;
+        static final int WIDGET = 2;
+
+        int kind;
+        int id;
+        String widgetName;
+        boolean isWidget;
+        String attribute;
+        int nthChild = -1;
+        String contains;
     }
 
     public static class GradientDrawableParser {
@@ -0,0 +1,420 @@
+package com.wmods.wppenhacer.xposed.features.customization;
+
+import android.app.ActivityManager;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+import android.util.AtomicFile;
+import android.util.Log;
+import android.util.LruCache;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.wmods.wppenhacer.xposed.core.WppCore;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Two tier cache for the images referenced by CSS themes.
+ * <p>
+ * The memory tier is an LRU bounded by the bytes of the cached bitmaps, an eighth of the app's memory class.
+ * The disk tier keeps the decoded pixels of each image raw in {@code cache/drawable_cache}, so reading one back
+ * is a memory mapped copy with no decoding. Its entries are listed in a single append-only journal and it is
+ * bounded by {@link #MAX_DISK_BYTES}, least recently used first.
+ * <p>
+ * Sources are decoded with {@code inSampleSize} close to the size of the view they are drawn in, and never larger
+ * than the screen when the view has no size yet.
+ */
+public class DrawableCache {
+
+    private static final String TAG = "DrawableCache";
+    private static final int JOURNAL_MAGIC = 0x57414443; // "WADC"
+    private static final int JOURNAL_VERSION = 1;
+    private static final byte OP_PUT = 1;
+    private static final byte OP_REMOVE = 2;
+    private static final long MAX_DISK_BYTES = 64L * 1024 * 1024;
+    private static final long CHECK_INTERVAL_MS = 2000;
+
+    private final Context context;
+    private final File themeDir;
+    private final File cacheLocation;
+    private final AtomicFile journalFile;
+    private final LruCache<String, CachedDrawable> memoryCache;
+    private final ExecutorService diskWriter = Executors.newSingleThreadExecutor();
+
+    // Guarded by this
+    private final LinkedHashMap<String, DiskEntry> diskIndex = new LinkedHashMap<>(16, 0.75f, true);
+    private DataOutputStream journal;
+    private long diskBytes;
+    private int journalRecords;
+    private int nextFileId;
+
+    public DrawableCache(@NonNull Context context, @NonNull File themeDir) {
+        this.context = context.getApplicationContext();
+        this.themeDir = themeDir;
+        this.cacheLocation = new File(this.context.getCacheDir(), "drawable_cache");
+        this.journalFile = new AtomicFile(new File(cacheLocation, "journal"));
+
+        var activityManager = this.context.getSystemService(ActivityManager.class);
+        int memoryClass = activityManager != null ? activityManager.getMemoryClass() : 64;
+        memoryCache = new LruCache<>(memoryClass * 1024 * 1024 / 8) {
+            @Override
+            protected int sizeOf(String key, CachedDrawable value) {
+                return value.drawable.getBitmap().getAllocationByteCount();
+            }
+        };
+        diskWriter.execute(this::openJournal);
+    }
+
+    @Nullable
+    public Drawable getDrawable(String filePath, int width, int height) {
+        File file = filePath.startsWith("/") ? new File(filePath) : new File(themeDir, filePath);
+        String key = file.getAbsolutePath();
+        var metrics = context.getResources().getDisplayMetrics();
+        int reqWidth = width < 1 ? metrics.widthPixels : width;
+        int reqHeight = height < 1 ? metrics.heightPixels : height;
+
+        CachedDrawable cachedDrawable = memoryCache.get(key);
+
+        if (cachedDrawable != null && cachedDrawable.covers(reqWidth, reqHeight)) {
+            if (System.currentTimeMillis() - cachedDrawable.lastCheckTime < CHECK_INTERVAL_MS) {
+                return cachedDrawable.drawable;
+            }
+        }
+
+        if (!file.exists()) {
+            return null;
+        }
+
+        long lastModified = file.lastModified();
+        if (cachedDrawable != null && cachedDrawable.covers(reqWidth, reqHeight)) {
+            cachedDrawable.lastCheckTime = System.currentTimeMillis();
+            if (cachedDrawable.lastModified == lastModified) {
+                return cachedDrawable.drawable;
+            }
+        }
+
+        var loaded = loadFromDisk(key, lastModified, reqWidth, reqHeight);
+        if (loaded == null) {
+            loaded = decodeSampled(key, lastModified, width, height, reqWidth, reqHeight);
+            if (loaded == null) return null;
+            var entry = loaded;
+            diskWriter.execute(() -> saveToDisk(key, entry));
+        }
+        memoryCache.put(key, loaded);
+        return loaded.drawable;
+    }
+
+    /**
+     * Decodes the image with the largest power of two subsampling that still covers the requested size, then
+     * scales it down to at most the size of the view, like the themes expect. An axis the view has no size for
+     * yet keeps the size of the decoded bitmap, so the image is not squashed to the screen.
+     */
+    @Nullable
+    private CachedDrawable decodeSampled(String filePath, long lastModified, int width, int height, int reqWidth, int reqHeight) {
+        try {
+            var options = new BitmapFactory.Options();
+            options.inJustDecodeBounds = true;
+            decode(filePath, options);
+            if (options.outWidth < 1 || options.outHeight < 1) return null;
+            int sourceWidth = options.outWidth;
+            int sourceHeight = options.outHeight;
+
+            options.inJustDecodeBounds = false;
+            options.inSampleSize = 1;
+            while (sourceWidth / (options.inSampleSize * 2) >= reqWidth && sourceHeight / (options.inSampleSize * 2) >= reqHeight) {
+                options.inSampleSize *= 2;
+            }
+            Bitmap bitmap = decode(filePath, options);
+            if (bitmap == null) return null;
+
+            var newHeight = height < 1 ? bitmap.getHeight() : Math.min(bitmap.getHeight(), height);
+            var newWidth = width < 1 ? bitmap.getWidth() : Math.min(bitmap.getWidth(), width);
+            if (newWidth != bitmap.getWidth() || newHeight != bitmap.getHeight()) {
+                var scaled = Bitmap.createScaledBitmap(bitmap, newWidth, newHeight, true);
+                if (scaled != bitmap) bitmap.recycle();
+                bitmap = scaled;
+            }
+            boolean fullSize = sourceWidth <= reqWidth && sourceHeight <= reqHeight;
+            return new CachedDrawable(new BitmapDrawable(context.getResources(), bitmap), lastModified, reqWidth, reqHeight, fullSize);
+        } catch (Exception e) {
+            Log.e(TAG, "Failed to decode " + filePath, e);
+            return null;
+        }
+    }
+
+    private static Bitmap decode(String filePath, BitmapFactory.Options options) throws IOException {
+        File file = new File(filePath);
+        if (file.canRead()) {
+            return BitmapFactory.decodeFile(file.getAbsolutePath(), options);
+        }
+        // Opened again for each pass, the descriptor may not be seekable
+        try (var parcelFile = WppCore.getClientBridge().openFile(filePath, false)) {
+            return BitmapFactory.decodeStream(new BufferedInputStream(new FileInputStream(parcelFile.getFileDescriptor())), null, options);
+        }
+    }
+
+    @Nullable
+    private CachedDrawable loadFromDisk(String key, long lastModified, int reqWidth, int reqHeight) {
+        DiskEntry entry;
+        synchronized (this) {
+            entry = diskIndex.get(key);
+        }
+        if (entry == null || entry.lastModified != lastModified || !entry.covers(reqWidth, reqHeight)) return null;
+        var file = new File(cacheLocation, entry.fileName());
+        try (var raf = new RandomAccessFile(file, "r"); var channel = raf.getChannel()) {
+            if (channel.size() != entry.bytes) throw new IOException("Truncated entry");
+            var configs = Bitmap.Config.values();
+            if (entry.config < 0 || entry.config >= configs.length) throw new IOException("Unknown bitmap config");
+            var bitmap = Bitmap.createBitmap(entry.width, entry.height, configs[entry.config]);
+            bitmap.copyPixelsFromBuffer(channel.map(FileChannel.MapMode.READ_ONLY, 0, entry.bytes));
+            return new CachedDrawable(new BitmapDrawable(context.getResources(), bitmap), lastModified,
+                    entry.reqWidth, entry.reqHeight, entry.fullSize);
+        } catch (Exception e) {
+            Log.e(TAG, "Failed to load drawable from cache", e);
+            diskWriter.execute(() -> removeFromDisk(key));
+            return null;
+        }
+    }
+
+    private void saveToDisk(String key, CachedDrawable cached) {
+        var bitmap = cached.drawable.getBitmap();
+        var config = bitmap.getConfig();
+        if (config == null || config == Bitmap.Config.HARDWARE || bitmap.isRecycled()) return;
+        long bytes = bitmap.getByteCount();
+        if (bytes > MAX_DISK_BYTES / 4) return;
+
+        int fileId;
+        synchronized (this) {
+            if (journal == null) return;
+            fileId = nextFileId++;
+        }
+        var entry = new DiskEntry(key, cached.lastModified, bitmap.getWidth(), bitmap.getHeight(), config.ordinal(),
+                cached.reqWidth, cached.reqHeight, cached.fullSize, fileId, bytes);
+        var file = new File(cacheLocation, entry.fileName());
+        try (var raf = new RandomAccessFile(file, "rw"); var channel = raf.getChannel()) {
+            raf.setLength(bytes);
+            bitmap.copyPixelsToBuffer(channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes));
+        } catch (Exception e) {
+            Log.e(TAG, "Failed to save drawable to cache", e);
+            file.delete();
+            return;
+        }
+        synchronized (this) {
+            var old = diskIndex.put(key, entry);
+            if (old != null) deleteEntryFile(old);
+            diskBytes += bytes;
+            appendRecord(OP_PUT, entry);
+            trimDisk();
+            compactJournalIfNeeded();
+        }
+    }
+
+    private synchronized void removeFromDisk(String key) {
+        var old = diskIndex.remove(key);
+        if (old == null) return;
+        deleteEntryFile(old);
+        appendRecord(OP_REMOVE, old);
+    }
+
+    private void trimDisk() {
+        var iterator = diskIndex.values().iterator();
+        while (diskBytes > MAX_DISK_BYTES && iterator.hasNext()) {
+            var eldest = iterator.next();
+            iterator.remove();
+            deleteEntryFile(eldest);
+            appendRecord(OP_REMOVE, eldest);
+        }
+    }
+
+    private void deleteEntryFile(DiskEntry entry) {
+        diskBytes -= entry.bytes;
+        new File(cacheLocation, entry.fileName()).delete();
+    }
+
+    private synchronized void openJournal() {
+        if (!cacheLocation.exists()) {
+            cacheLocation.mkdirs();
+        }
+        if (!readJournal()) {
+            // Missing, corrupted or older format (PNG + .meta files): start over
+            var files = cacheLocation.listFiles();
+            if (files != null) {
+                for (var file : files) file.delete();
+            }
+            diskIndex.clear();
+            diskBytes = 0;
+            nextFileId = 0;
+        }
+        writeJournal();
+    }
+
+    private boolean readJournal() {
+        if (!journalFile.getBaseFile().exists()) return false;
+        try (var in = new DataInputStream(new BufferedInputStream(journalFile.openRead()))) {
+            if (in.readInt() != JOURNAL_MAGIC || in.readInt() != JOURNAL_VERSION) return false;
+            while (true) {
+                byte op;
+                try {
+                    op = in.readByte();
+                } catch (EOFException e) {
+                    break;
+                }
+                var entry = DiskEntry.read(in);
+                nextFileId = Math.max(nextFileId, entry.fileId + 1);
+                var old = diskIndex.remove(entry.key);
+                if (old != null) diskBytes -= old.bytes;
+                if (op == OP_PUT && new File(cacheLocation, entry.fileName()).length() == entry.bytes) {
+                    diskIndex.put(entry.key, entry);
+                    diskBytes += entry.bytes;
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            // A record cut short by a crash ends the journal, the entries read so far are valid
+            return !diskIndex.isEmpty();
+        }
+    }
+
+    /**
+     * Rewrites the journal with only the live entries and reopens it for appending.
+     */
+    private void writeJournal() {
+        try {
+            if (journal != null) journal.close();
+        } catch (IOException ignored) {
+        }
+        journal = null;
+        FileOutputStream out = null;
+        try {
+            out = journalFile.startWrite();
+            var data = new DataOutputStream(new BufferedOutputStream(out));
+            data.writeInt(JOURNAL_MAGIC);
+            data.writeInt(JOURNAL_VERSION);
+            for (var entry : new ArrayList<>(diskIndex.values())) {
+                data.writeByte(OP_PUT);
+                entry.write(data);
+            }
+            data.flush();
+            journalFile.finishWrite(out);
+            journalRecords = diskIndex.size();
+            journal = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(journalFile.getBaseFile(), true)));
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to write journal", e);
+            if (out != null) journalFile.failWrite(out);
+        }
+    }
+
+    private void appendRecord(byte op, DiskEntry entry) {
+        if (journal == null) return;
+        try {
+            journal.writeByte(op);
+            entry.write(journal);
+            journal.flush();
+            journalRecords++;
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to append to journal", e);
+        }
+    }
+
+    private void compactJournalIfNeeded() {
+        if (journalRecords > diskIndex.size() * 2 + 32) {
+            writeJournal();
+        }
+    }
+
+    private static class CachedDrawable {
+        final BitmapDrawable drawable;
+        final long lastModified;
+        final int reqWidth;
+        final int reqHeight;
+        final boolean fullSize;
+        long lastCheckTime;
+
+        CachedDrawable(BitmapDrawable drawable, long lastModified, int reqWidth, int reqHeight, boolean fullSize) {
+            this.drawable = drawable;
+            this.lastModified = lastModified;
+            this.reqWidth = reqWidth;
+            this.reqHeight = reqHeight;
+            this.fullSize = fullSize;
+            this.lastCheckTime = System.currentTimeMillis();
+        }
+
+        /**
+         * @return whether the bitmap is as sharp as a decode for this size would be
+         */
+        boolean covers(int width, int height) {
+            return fullSize || (width <= reqWidth && height <= reqHeight);
+        }
+    }
+
+    private static class DiskEntry {
+        final String key;
+        final long lastModified;
+        final int width;
+        final int height;
+        final int config;
+        final int reqWidth;
+        final int reqHeight;
+        final boolean fullSize;
+        final int fileId;
+        final long bytes;
+
+        DiskEntry(String key, long lastModified, int width, int height, int config, int reqWidth, int reqHeight,
+                  boolean fullSize, int fileId, long bytes) {
+            this.key = key;
+            this.lastModified = lastModified;
+            this.width = width;
+            this.height = height;
+            this.config = config;
+            this.reqWidth = reqWidth;
+            this.reqHeight = reqHeight;
+            this.fullSize = fullSize;
+            this.fileId = fileId;
+            this.bytes = bytes;
+        }
+
+        String fileName() {
+            return fileId + ".raw";
+        }
+
+        boolean covers(int width, int height) {
+            return fullSize || (width <= reqWidth && height <= reqHeight);
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            out.writeUTF(key);
+            out.writeLong(lastModified);
+            out.writeInt(width);
+            out.writeInt(height);
+            out.writeInt(config);
+            out.writeInt(reqWidth);
+            out.writeInt(reqHeight);
+            out.writeBoolean(fullSize);
+            out.writeInt(fileId);
+            out.writeLong(bytes);
+        }
+
+        static DiskEntry read(DataInputStream in) throws IOException {
+            return new DiskEntry(in.readUTF(), in.readLong(), in.readInt(), in.readInt(), in.readInt(),
+                    in.readInt(), in.readInt(), in.readBoolean(), in.readInt(), in.readLong());
+        }
+    }
+}
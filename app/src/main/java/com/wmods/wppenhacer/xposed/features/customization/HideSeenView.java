@@ -6,9 +6,9 @@ import android.graphics.drawable.Drawable;
 import android.os.Handler;
 import android.os.Looper;
 import android.util.LruCache;
+import android.view.Choreographer;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.CursorAdapter;
 import android.widget.ImageView;
 import android.widget.TextView;
 
@@ -16,16 +16,20 @@ import androidx.annotation.NonNull;
 
 import com.wmods.wppenhacer.WppXposed;
 import com.wmods.wppenhacer.xposed.core.Feature;
-import com.wmods.wppenhacer.xposed.core.WppCore;
+import com.wmods.wppenhacer.xposed.core.FeatureSpec;
 import com.wmods.wppenhacer.xposed.core.components.FMessageWpp;
 import com.wmods.wppenhacer.xposed.core.db.MessageHistory;
 import com.wmods.wppenhacer.xposed.features.listeners.ConversationItemListener;
 import com.wmods.wppenhacer.xposed.utils.ResId;
+import com.wmods.wppenhacer.xposed.utils.ResIdWpp;
 import com.wmods.wppenhacer.xposed.utils.Utils;
 
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -35,6 +39,7 @@ import de.robv.android.xposed.XC_MethodHook;
 import de.robv.android.xposed.XSharedPreferences;
 import de.robv.android.xposed.XposedBridge;
 
+@FeatureSpec(prefs = "hide_seen_view", dependsOn = ConversationItemListener.class)
 public class HideSeenView extends Feature {
 
     // Tick style indicator configuration
@@ -45,7 +50,6 @@ public class HideSeenView extends Feature {
 
     // Cache configuration
     private static final int JID_CACHE_SIZE = 30;
-    private static final long REFRESH_DEBOUNCE_MS = 80;
     private static final Object CACHE_LOCK = new Object();
 
     // LRU cache for JID-based message status
@@ -60,6 +64,9 @@ public class HideSeenView extends Feature {
     // Threading and refresh control
     private static final Handler mainHandler = new Handler(Looper.getMainLooper());
     private static final AtomicBoolean refreshScheduled = new AtomicBoolean(false);
+    private static final AtomicBoolean refreshAllPending = new AtomicBoolean(false);
+    private static final Set<String> pendingMessageIds = ConcurrentHashMap.newKeySet();
+    private static final Choreographer.FrameCallback refreshCallback = frameTimeNanos -> refreshVisibleBubbles();
     private static final ExecutorService cacheExecutor = Executors.newFixedThreadPool(2);
 
     // Loading state trackers
@@ -113,6 +120,51 @@ public class HideSeenView extends Feature {
             logDebug("Failed to hook updateViewedMessage: " + e.getMessage());
         }
 
+        try {
+            var updateAllMethod = MessageHistory.class.getDeclaredMethod(
+                    "updateViewedMessages",
+                    String.class,
+                    Collection.class,
+                    MessageHistory.MessageType.class,
+                    boolean.class);
+
+            XposedBridge.hookMethod(updateAllMethod, new XC_MethodHook() {
+                @Override
+                protected void afterHookedMethod(MethodHookParam param) {
+                    String jid = (String) param.args[0];
+                    Collection<?> messageIds = (Collection<?>) param.args[1];
+                    MessageHistory.MessageType type = (MessageHistory.MessageType) param.args[2];
+                    boolean viewed = (boolean) param.args[3];
+
+                    for (Object messageId : messageIds) {
+                        handleHideSeenChanged(jid, (String) messageId, type, viewed);
+                    }
+                }
+            });
+        } catch (Exception e) {
+            logDebug("Failed to hook updateViewedMessages: " + e.getMessage());
+        }
+
+        // New hidden messages are not in the loaded status maps yet
+        try {
+            var insertMethod = MessageHistory.class.getDeclaredMethod(
+                    "insertHideSeenMessage",
+                    String.class,
+                    String.class,
+                    MessageHistory.MessageType.class,
+                    boolean.class);
+
+            XposedBridge.hookMethod(insertMethod, new XC_MethodHook() {
+                @Override
+                protected void afterHookedMethod(MethodHookParam param) {
+                    handleHideSeenChanged((String) param.args[0], (String) param.args[1],
+                            (MessageHistory.MessageType) param.args[2], (boolean) param.args[3]);
+                }
+            });
+        } catch (Exception e) {
+            logDebug("Failed to hook insertHideSeenMessage: " + e.getMessage());
+        }
+
         // Register conversation listener
         ConversationItemListener.conversationListeners.add(new ConversationItemListener.OnConversationItemListener() {
             @Override
@@ -221,7 +273,7 @@ public class HideSeenView extends Feature {
                     }
 
                     loadedMap.put(jid, Boolean.TRUE);
-                    requestRefresh();
+                    requestRefresh(null);
                 } finally {
                     loadingMap.remove(jid);
                 }
@@ -280,25 +332,41 @@ public class HideSeenView extends Feature {
                 cache.viewOnceStatus.put(messageId, viewed);
             }
         }
-        requestRefresh();
+        requestRefresh(messageId);
     }
 
     // ================= UI UPDATE =================
 
-    private static void requestRefresh() {
+    /**
+     * Schedules the visible bubbles of a message to be updated on the next frame, or all the visible bubbles
+     * when messageId is null. Changes made before that frame are applied together.
+     */
+    private static void requestRefresh(String messageId) {
+        if (messageId == null) {
+            refreshAllPending.set(true);
+        } else {
+            pendingMessageIds.add(messageId);
+        }
         if (refreshScheduled.compareAndSet(false, true)) {
-            mainHandler.postDelayed(() -> {
-                refreshScheduled.set(false);
-                updateAllBubbleViews();
-            }, REFRESH_DEBOUNCE_MS);
+            mainHandler.post(() -> Choreographer.getInstance().postFrameCallback(refreshCallback));
         }
     }
 
-    public static void updateAllBubbleViews() {
-        var adapter = ConversationItemListener.getAdapter();
-        if (adapter instanceof CursorAdapter cursorAdapter) {
-            WppCore.getCurrentActivity().runOnUiThread(cursorAdapter::notifyDataSetChanged);
-        }
+    private static void refreshVisibleBubbles() {
+        refreshScheduled.set(false);
+        boolean refreshAll = refreshAllPending.getAndSet(false);
+        var messageIds = new HashSet<>(pendingMessageIds);
+        pendingMessageIds.removeAll(messageIds);
+        if (!refreshAll && messageIds.isEmpty()) return;
+
+        ConversationItemListener.forEachVisibleItem((fMessage, viewGroup) -> {
+            if (!fMessage.isValid()) return;
+            FMessageWpp.Key key = fMessage.getKey();
+            if (key == null || key.isFromMe) return;
+            if (refreshAll || messageIds.contains(key.messageID)) {
+                updateBubbleView(fMessage, viewGroup);
+            }
+        });
     }
 
     @SuppressLint("ResourceType")
@@ -312,7 +380,7 @@ public class HideSeenView extends Feature {
         String jid = userJid.getPhoneRawString();
 
         // Update view-once indicator
-        ImageView viewOnceIcon = viewGroup.findViewById(Utils.getID("view_once_control_icon", "id"));
+        ImageView viewOnceIcon = viewGroup.findViewById(ResIdWpp.id.view_once_control_icon);
         if (viewOnceIcon != null) {
             MessageHistory.MessageType viewOnceType = MessageHistory.MessageType.VIEW_ONCE_TYPE;
             Boolean cachedStatus = getCachedStatus(jid, messageId, viewOnceType);
@@ -326,7 +394,7 @@ public class HideSeenView extends Feature {
         }
 
         // Update message status indicator
-        ViewGroup dateWrapper = viewGroup.findViewById(Utils.getID("date_wrapper", "id"));
+        ViewGroup dateWrapper = viewGroup.findViewById(ResIdWpp.id.date_wrapper);
         if (dateWrapper != null) {
             MessageHistory.MessageType messageType = MessageHistory.MessageType.MESSAGE_TYPE;
             Boolean cachedStatus = getCachedStatus(jid, messageId, messageType);
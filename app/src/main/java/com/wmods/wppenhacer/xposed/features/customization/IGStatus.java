@@ -10,6 +10,7 @@ import androidx.annotation.NonNull;
 import com.wmods.wppenhacer.adapter.IGStatusAdapter;
 import com.wmods.wppenhacer.views.IGStatusView;
 import com.wmods.wppenhacer.xposed.core.Feature;
+import com.wmods.wppenhacer.xposed.core.FeatureSpec;
 import com.wmods.wppenhacer.xposed.core.WppCore;
 import com.wmods.wppenhacer.xposed.core.devkit.Unobfuscator;
 import com.wmods.wppenhacer.xposed.utils.ReflectionUtils;
@@ -25,6 +26,7 @@ import de.robv.android.xposed.XC_MethodHook;
 import de.robv.android.xposed.XSharedPreferences;
 import de.robv.android.xposed.XposedBridge;
 
+@FeatureSpec(prefs = "igstatus")
 public class IGStatus extends Feature {
     public static ArrayList<Object> itens = new ArrayList<>();
     private static final ArrayList<IGStatusView> mListStatusContainer = new ArrayList<>();
@@ -12,12 +12,14 @@ import android.widget.BaseAdapter;
 import androidx.annotation.NonNull;
 
 import com.wmods.wppenhacer.xposed.core.Feature;
+import com.wmods.wppenhacer.xposed.core.FeatureSpec;
 import com.wmods.wppenhacer.xposed.core.WppCore;
 import com.wmods.wppenhacer.xposed.core.db.MessageStore;
 import com.wmods.wppenhacer.xposed.core.devkit.Unobfuscator;
 import com.wmods.wppenhacer.xposed.core.devkit.UnobfuscatorCache;
 import com.wmods.wppenhacer.xposed.utils.DebugUtils;
 import com.wmods.wppenhacer.xposed.utils.ReflectionUtils;
+import com.wmods.wppenhacer.xposed.utils.ResIdWpp;
 import com.wmods.wppenhacer.xposed.utils.Utils;
 
 import java.util.ArrayList;
@@ -33,6 +35,7 @@ import de.robv.android.xposed.XSharedPreferences;
 import de.robv.android.xposed.XposedBridge;
 import de.robv.android.xposed.XposedHelpers;
 
+@FeatureSpec(prefs = "separategroups")
 public class SeparateGroup extends Feature {
 
     public static final int CHATS = 200;
@@ -98,7 +101,7 @@ public class SeparateGroup extends Feature {
                     var chatCount = 0;
                     var groupCount = 0;
                     synchronized (SeparateGroup.class) {
-                        var db = MessageStore.getInstance().getDatabase();
+                        var db = MessageStore.getInstance().getReadableDatabase();
                         var sql = "SELECT * FROM chat WHERE unseen_message_count != 0";
                         var cursor = db.rawQuery(sql, null);
                         while (cursor.moveToNext()) {
@@ -153,7 +156,7 @@ public class SeparateGroup extends Feature {
                             protected void afterHookedMethod(MethodHookParam param) throws Throwable {
                                 if (param.args.length > 2 && ((int) param.args[1]) == GROUPS) {
                                     MenuItem menuItem = (MenuItem) param.getResult();
-                                    menuItem.setIcon(Utils.getID("home_tab_communities_selector", "drawable"));
+                                    menuItem.setIcon(ResIdWpp.drawable.home_tab_communities_selector);
                                 }
                             }
                         });
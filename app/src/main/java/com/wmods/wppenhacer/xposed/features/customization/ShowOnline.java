@@ -3,6 +3,9 @@ package com.wmods.wppenhacer.xposed.features.customization;
 import android.annotation.SuppressLint;
 import android.content.Context;
 import android.graphics.Color;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
 import android.text.TextUtils;
 import android.view.Gravity;
 import android.view.View;
@@ -16,24 +19,53 @@ import androidx.annotation.NonNull;
 import androidx.core.text.TextUtilsCompat;
 
 import com.wmods.wppenhacer.xposed.core.Feature;
+import com.wmods.wppenhacer.xposed.core.FeatureSpec;
 import com.wmods.wppenhacer.xposed.core.components.WaContactWpp;
 import com.wmods.wppenhacer.xposed.core.devkit.Unobfuscator;
 import com.wmods.wppenhacer.xposed.core.devkit.UnobfuscatorCache;
 import com.wmods.wppenhacer.xposed.features.listeners.ContactItemListener;
 import com.wmods.wppenhacer.xposed.utils.ReflectionUtils;
 import com.wmods.wppenhacer.xposed.utils.ResId;
+import com.wmods.wppenhacer.xposed.utils.ResIdWpp;
 import com.wmods.wppenhacer.xposed.utils.Utils;
 
+import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Locale;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import de.robv.android.xposed.XC_MethodHook;
 import de.robv.android.xposed.XSharedPreferences;
 import de.robv.android.xposed.XposedBridge;
 import de.robv.android.xposed.XposedHelpers;
 
+@FeatureSpec(prefs = {"showonlinetext", "dotonline"}, dependsOn = ContactItemListener.class)
 public class ShowOnline extends Feature {
 
+    /**
+     * How long a status read is shown again without asking WhatsApp for it.
+     */
+    private static final long STATUS_TTL_MS = 5_000;
+    /**
+     * How long a contact stays subscribed before its presence is requested again.
+     */
+    private static final long PRESENCE_TTL_MS = 60_000;
+    private static final long BATCH_DELAY_MS = 250;
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    // Accessed on the main thread only, except presences which the batch reads from the executor
+    private final WeakHashMap<View, Object> boundRows = new WeakHashMap<>();
+    private final LinkedHashMap<Object, Object> pendingContacts = new LinkedHashMap<>();
+    private final HashSet<Object> inFlight = new HashSet<>();
+    private final ConcurrentHashMap<Object, PresenceEntry> presences = new ConcurrentHashMap<>();
+    private boolean flushScheduled;
+    private boolean showOnlineText;
+    private boolean showOnlineIcon;
+
     private Object mStatusUser;
     private Object mInstancePresence;
     private Method sendPresenceMethod;
@@ -41,6 +73,7 @@ public class ShowOnline extends Feature {
     private Method getStatusUser;
     private java.lang.reflect.Field fieldTokenDBInstance;
     private Class<?> tokenClass;
+    private Constructor<?> tokenConstructor;
 
     public ShowOnline(@NonNull ClassLoader loader, @NonNull XSharedPreferences preferences) {
         super(loader, preferences);
@@ -71,8 +104,8 @@ public class ShowOnline extends Feature {
     @Override
     public void doHook() throws Throwable {
 
-        var showOnlineText = prefs.getBoolean("showonlinetext", false);
-        var showOnlineIcon = prefs.getBoolean("dotonline", false);
+        showOnlineText = prefs.getBoolean("showonlinetext", false);
+        showOnlineIcon = prefs.getBoolean("dotonline", false);
         if (!showOnlineText && !showOnlineIcon) return;
 
         var classViewHolder = Unobfuscator.loadViewHolder(classLoader);
@@ -82,9 +115,9 @@ public class ShowOnline extends Feature {
             protected void afterHookedMethod(MethodHookParam param) throws Throwable {
                 var view = (View) param.args[1];
                 var context = (Context) param.args[0];
-                LinearLayout content = view.findViewById(Utils.getID("conversations_row_content", "id"));
+                LinearLayout content = view.findViewById(ResIdWpp.id.conversations_row_content);
                 if (content == null) {
-                    content = view.findViewById(Utils.getID("row_content", "id"));
+                    content = view.findViewById(ResIdWpp.id.row_content);
                 }
                 if (showOnlineText) {
                     var linearLayout = new LinearLayout(context);
@@ -102,7 +135,7 @@ public class ShowOnline extends Feature {
                     linearLayout.addView(lastSeenText);
                 }
                 if (showOnlineIcon) {
-                    var contactView = (FrameLayout) view.findViewById(Utils.getID("contact_selector", "id"));
+                    var contactView = (FrameLayout) view.findViewById(ResIdWpp.id.contact_selector);
                     var firstChild = contactView.getChildAt(0);
                     var isLeftToRight = TextUtilsCompat.getLayoutDirectionFromLocale(Locale.getDefault()) == View.LAYOUT_DIRECTION_LTR;
                     if (firstChild instanceof ImageView photoView) {
@@ -174,6 +207,7 @@ public class ShowOnline extends Feature {
 
         // load methods
         tokenClass = sendPresenceMethod.getParameterTypes()[2];
+        tokenConstructor = tokenClass.getConstructors()[0];
         fieldTokenDBInstance = ReflectionUtils.getFieldByExtendType(sendPresenceMethod.getDeclaringClass(), tcTokenMethod.getDeclaringClass());
 
         // Register listener
@@ -183,20 +217,14 @@ public class ShowOnline extends Feature {
             public void onBind(WaContactWpp waContact, View view) {
                 try {
                     var userJid = waContact.getUserJid();
-                    if (userJid.isGroup()) return;
+                    if (userJid.isGroup() || userJid.userJid == null) return;
+                    boundRows.put(view, userJid.userJid);
 
-                    ImageView csDot = showOnlineIcon ? view.findViewById(0x7FFF0001) : null;
-                    if (showOnlineIcon && csDot != null) {
-                        csDot.setVisibility(View.INVISIBLE);
+                    var entry = presences.get(userJid.userJid);
+                    showStatus(view, entry == null ? null : entry.status);
+                    if (entry == null || SystemClock.uptimeMillis() - entry.readAt > STATUS_TTL_MS) {
+                        requestPresence(userJid.userJid, waContact.getObject());
                     }
-                    TextView lastSeenText = showOnlineText ? view.findViewById(0x7FFF0002) : null;
-
-                    var tokenDBInstance = fieldTokenDBInstance.get(mInstancePresence);
-                    var tokenData = ReflectionUtils.callMethod(tcTokenMethod, tokenDBInstance, userJid.userJid);
-                    var tokenObj = tokenClass.getConstructors()[0].newInstance(tokenData == null ? null : XposedHelpers.getObjectField(tokenData, "A01"));
-                    sendPresenceMethod.invoke(null, userJid.userJid, null, tokenObj, mInstancePresence);
-                    var status = (String) ReflectionUtils.callMethod(getStatusUser, mStatusUser, waContact.getObject(), false);
-                    setStatus(status, csDot, lastSeenText);
                 } catch (Exception e) {
                     XposedBridge.log(e);
                 }
@@ -204,9 +232,105 @@ public class ShowOnline extends Feature {
         });
     }
 
+    private void showStatus(View row, String status) {
+        ImageView csDot = showOnlineIcon ? row.findViewById(0x7FFF0001) : null;
+        if (csDot != null) {
+            csDot.setVisibility(View.INVISIBLE);
+        }
+        TextView lastSeenText = showOnlineText ? row.findViewById(0x7FFF0002) : null;
+        setStatus(status, csDot, lastSeenText);
+    }
+
+    /**
+     * Queues the contact for the next batch, called on the main thread for each bound row.
+     */
+    private void requestPresence(Object jid, Object contact) {
+        if (inFlight.contains(jid)) return;
+        pendingContacts.put(jid, contact);
+        if (!flushScheduled) {
+            flushScheduled = true;
+            mainHandler.postDelayed(this::flushPresences, BATCH_DELAY_MS);
+        }
+    }
+
+    private void flushPresences() {
+        flushScheduled = false;
+        // Rows scrolled past during a fling were rebound to other contacts, only the visible ones are fetched
+        var visible = new HashSet<>(boundRows.values());
+        var batch = new LinkedHashMap<Object, Object>();
+        for (var entry : pendingContacts.entrySet()) {
+            if (!visible.contains(entry.getKey())) continue;
+            batch.put(entry.getKey(), entry.getValue());
+            inFlight.add(entry.getKey());
+        }
+        pendingContacts.clear();
+        if (batch.isEmpty()) return;
+
+        Utils.getExecutor().execute(() -> {
+            var results = new HashMap<Object, PresenceEntry>();
+            Object tokenDBInstance = null;
+            try {
+                tokenDBInstance = fieldTokenDBInstance.get(mInstancePresence);
+            } catch (Throwable e) {
+                XposedBridge.log(e);
+            }
+            for (var item : batch.entrySet()) {
+                // One contact failing must not leave the rest of the batch without a status
+                try {
+                    var jid = item.getKey();
+                    var now = SystemClock.uptimeMillis();
+                    var previous = presences.get(jid);
+                    long subscribedAt = previous == null ? 0 : previous.subscribedAt;
+                    if (tokenDBInstance != null && (previous == null || now - previous.subscribedAt > PRESENCE_TTL_MS)) {
+                        var tokenData = ReflectionUtils.callMethod(tcTokenMethod, tokenDBInstance, jid);
+                        var tokenObj = tokenConstructor.newInstance(tokenData == null ? null : XposedHelpers.getObjectField(tokenData, "A01"));
+                        sendPresenceMethod.invoke(null, jid, null, tokenObj, mInstancePresence);
+                        subscribedAt = now;
+                    }
+                    var status = (String) ReflectionUtils.callMethod(getStatusUser, mStatusUser, item.getValue(), false);
+                    results.put(jid, new PresenceEntry(status, now, subscribedAt));
+                } catch (Throwable e) {
+                    XposedBridge.log(e);
+                }
+            }
+            mainHandler.post(() -> {
+                inFlight.removeAll(batch.keySet());
+                presences.putAll(results);
+                evictPresences();
+                for (var row : boundRows.entrySet()) {
+                    var entry = results.get(row.getValue());
+                    if (entry != null) {
+                        showStatus(row.getKey(), entry.status);
+                    }
+                }
+            });
+        });
+    }
+
+    /**
+     * Drops contacts no longer on screen whose subscription expired, they would be requested again anyway.
+     */
+    private void evictPresences() {
+        var now = SystemClock.uptimeMillis();
+        var visible = new HashSet<>(boundRows.values());
+        presences.entrySet().removeIf(entry -> now - entry.getValue().subscribedAt > PRESENCE_TTL_MS && !visible.contains(entry.getKey()));
+    }
+
     @NonNull
     @Override
     public String getPluginName() {
         return "Conversation";
     }
+
+    private static class PresenceEntry {
+        final String status;
+        final long readAt;
+        final long subscribedAt;
+
+        PresenceEntry(String status, long readAt, long subscribedAt) {
+            this.status = status;
+            this.readAt = readAt;
+            this.subscribedAt = subscribedAt;
+        }
+    }
 }
@@ -4,9 +4,12 @@ import android.app.Activity;
 import android.app.PendingIntent;
 import android.content.Intent;
 import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
 import android.os.Parcelable;
 import android.text.TextUtils;
 import android.view.ViewGroup;
+import android.widget.BaseAdapter;
 import android.widget.TextView;
 import android.widget.Toast;
 
@@ -16,6 +19,7 @@ import androidx.core.app.NotificationCompat;
 import androidx.core.app.Person;
 
 import com.wmods.wppenhacer.xposed.core.Feature;
+import com.wmods.wppenhacer.xposed.core.FeatureSpec;
 import com.wmods.wppenhacer.xposed.core.WppCore;
 import com.wmods.wppenhacer.xposed.core.components.FMessageWpp;
 import com.wmods.wppenhacer.xposed.core.db.DelMessageStore;
@@ -25,30 +29,56 @@ import com.wmods.wppenhacer.xposed.core.devkit.UnobfuscatorCache;
 import com.wmods.wppenhacer.xposed.features.listeners.ConversationItemListener;
 import com.wmods.wppenhacer.xposed.utils.ReflectionUtils;
 import com.wmods.wppenhacer.xposed.utils.ResId;
+import com.wmods.wppenhacer.xposed.utils.ResIdWpp;
 import com.wmods.wppenhacer.xposed.utils.Utils;
 
 import java.lang.reflect.Field;
 import java.text.DateFormat;
 import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import de.robv.android.xposed.XC_MethodHook;
 import de.robv.android.xposed.XSharedPreferences;
 import de.robv.android.xposed.XposedBridge;
 import de.robv.android.xposed.XposedHelpers;
 
+@FeatureSpec(dependsOn = ConversationItemListener.class)
 public class AntiRevoke extends Feature {
 
-    private static final ConcurrentHashMap<String, Set<String>> messageRevokedMap = new ConcurrentHashMap<>();
+    private static final int MAX_INDEXED_CHATS = 32;
+    // Least recently used chats are dropped, they are loaded again from the store when opened
+    private static final LinkedHashMap<String, RevokedIndex> revokedIndexes = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, RevokedIndex> eldest) {
+            return size() > MAX_INDEXED_CHATS;
+        }
+    };
+    private static final ExecutorService indexExecutor = Executors.newSingleThreadExecutor();
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private static final AtomicBoolean refreshScheduled = new AtomicBoolean();
     private static final ConcurrentHashMap<String, java.util.List<NotificationCompat.MessagingStyle.Message>> notificationMessagesMap = new ConcurrentHashMap<>();
     private static final ThreadLocal<DateFormat> DATE_FORMAT_THREAD_LOCAL = ThreadLocal
             .withInitial(() -> DateFormat.getDateTimeInstance(DateFormat.SHORT, DateFormat.SHORT,
                     Utils.getApplication().getResources().getConfiguration().getLocales().get(0)));
 
+    // Features are created after ResIdWpp.init, so the ids are already resolved here
+    private final int[] dateViewIds = {
+            ResIdWpp.id.date,
+            ResIdWpp.id.date_tv,
+            ResIdWpp.id.timestamp,
+            ResIdWpp.id.time
+    };
+
     public AntiRevoke(ClassLoader loader, XSharedPreferences preferences) {
         super(loader, preferences);
     }
@@ -86,24 +116,69 @@ public class AntiRevoke extends Feature {
 
     }
 
+    /**
+     * Marks the message as revoked in memory right away, the add-on lookup and the disk write run on the index
+     * thread so WhatsApp's message thread never waits for SQLite.
+     */
     private static void persistRevokedMessage(FMessageWpp fMessage) {
         var messageKey = (String) XposedHelpers.getObjectField(fMessage.getObject(), "A01");
         var stripJID = fMessage.getKey().remoteJid.getPhoneNumber();
-        Set<String> messages = getRevokedMessagesForJid(fMessage);
-        messages.add(messageKey);
-        DelMessageStore.getInstance(Utils.getApplication()).insertMessage(stripJID, messageKey,
-                System.currentTimeMillis());
+        var timestamp = System.currentTimeMillis();
+        var index = getRevokedIndex(stripJID);
+        if (index != null) {
+            index.timestamps.put(messageKey, timestamp);
+        }
+        indexExecutor.execute(() -> {
+            try {
+                if (index != null) {
+                    index.originalKeys.putAll(MessageStore.getInstance().getParentRowIdsByAddOnKeys(List.of(messageKey)));
+                }
+                DelMessageStore.getInstance(Utils.getApplication()).insertMessage(stripJID, messageKey, timestamp);
+            } catch (Exception e) {
+                XposedBridge.log(e);
+            }
+        });
     }
 
-    private static Set<String> getRevokedMessagesForJid(FMessageWpp fMessage) {
-        String stripJID = fMessage.getKey().remoteJid.getPhoneNumber();
+    /**
+     * Returns the index of a chat, starting to load it in the background on first use.
+     * It may still be loading, see {@link RevokedIndex#isLoaded()}.
+     */
+    @Nullable
+    private static RevokedIndex getRevokedIndex(@Nullable String stripJID) {
         if (stripJID == null)
-            return Collections.synchronizedSet(new java.util.HashSet<>());
-        return messageRevokedMap.computeIfAbsent(stripJID, k -> {
-            var messages = DelMessageStore.getInstance(Utils.getApplication()).getMessagesByJid(k);
-            if (messages == null)
-                return Collections.synchronizedSet(new java.util.HashSet<>());
-            return Collections.synchronizedSet(messages);
+            return null;
+        synchronized (revokedIndexes) {
+            var index = revokedIndexes.get(stripJID);
+            if (index == null) {
+                index = new RevokedIndex(stripJID);
+                revokedIndexes.put(stripJID, index);
+            }
+            return index;
+        }
+    }
+
+    /**
+     * Runs on WhatsApp's thread, so a chat whose index is still loading is checked in the store directly
+     * instead of waiting for the whole chat.
+     */
+    private static boolean isRevokeStored(String stripJID, String messageKey) {
+        var index = getRevokedIndex(stripJID);
+        if (index == null)
+            return false;
+        if (index.timestamps.containsKey(messageKey))
+            return true;
+        return !index.isLoaded() && DelMessageStore.getInstance(Utils.getApplication()).containsMessage(stripJID, messageKey);
+    }
+
+    private static void requestRefresh() {
+        if (!refreshScheduled.compareAndSet(false, true))
+            return;
+        mainHandler.post(() -> {
+            refreshScheduled.set(false);
+            if (ConversationItemListener.getAdapter() instanceof BaseAdapter adapter) {
+                adapter.notifyDataSetChanged();
+            }
         });
     }
 
@@ -181,7 +256,7 @@ public class AntiRevoke extends Feature {
                     log("Could not find TextView");
                     return;
                 }
-                int dateId = Utils.getID("date", "id");
+                int dateId = ResIdWpp.id.date;
                 for (Field textView : textViews) {
                     TextView textView1 = (TextView) textView.get(objView);
                     if (textView1 != null && textView1.getId() == dateId) {
@@ -201,6 +276,7 @@ public class AntiRevoke extends Feature {
                 if (intent != null) {
                     String jid = intent.getStringExtra("jid");
                     if (jid != null) {
+                        indexExecutor.execute(() -> getRevokedIndex(new FMessageWpp.UserJid(jid).getPhoneNumber()));
                         Utils.cancelNotification("antirevoke_" + jid, 1001);
                         notificationMessagesMap.remove(jid);
                         if (notificationMessagesMap.isEmpty()) {
@@ -255,15 +331,8 @@ public class AntiRevoke extends Feature {
     }
 
     private TextView findDateView(ViewGroup viewGroup) {
-        int[] ids = {
-                Utils.getID("date", "id"),
-                Utils.getID("date_tv", "id"),
-                Utils.getID("timestamp", "id"),
-                Utils.getID("time", "id")
-        };
-
-        for (int id : ids) {
-            if (id != -1) {
+        for (int id : dateViewIds) {
+            if (id > 0) {
                 var view = viewGroup.findViewById(id);
                 if (view instanceof TextView) {
                     return (TextView) view;
@@ -278,14 +347,17 @@ public class AntiRevoke extends Feature {
             return;
 
         var key = fMessage.getKey();
-        var messageRevokedList = getRevokedMessagesForJid(fMessage);
-        var id = fMessage.getRowId();
-        String keyOrig = null;
-        if (messageRevokedList.contains(key.messageID)
-                || ((keyOrig = MessageStore.getInstance().getOriginalMessageKey(id)) != null
-                        && messageRevokedList.contains(keyOrig))) {
-            var timestamp = DelMessageStore.getInstance(Utils.getApplication())
-                    .getTimestampByMessageId(keyOrig == null ? key.messageID : keyOrig);
+        var index = getRevokedIndex(key.remoteJid.getPhoneNumber());
+        Long timestamp = null;
+        if (index != null && index.isLoaded()) {
+            timestamp = index.timestamps.get(key.messageID);
+            if (timestamp == null) {
+                var keyOrig = index.originalKeys.get(fMessage.getRowId());
+                if (keyOrig != null)
+                    timestamp = index.timestamps.get(keyOrig);
+            }
+        }
+        if (timestamp != null) {
             if (timestamp > 0) {
                 var date = Objects.requireNonNull(DATE_FORMAT_THREAD_LOCAL.get()).format(new Date(timestamp));
                 dateTextView.getPaint().setUnderlineText(true);
@@ -327,11 +399,10 @@ public class AntiRevoke extends Feature {
                 : Integer.parseInt(prefs.getString("antirevoke", "0"));
         if (revokeboolean == 0)
             return revokeboolean;
-        var messageRevokedList = getRevokedMessagesForJid(fMessage);
-        if (!messageRevokedList.contains(messageKey)) {
+        if (!isRevokeStored(stripJID, messageKey)) {
             try {
+                persistRevokedMessage(fMessage);
                 CompletableFuture.runAsync(() -> {
-                    persistRevokedMessage(fMessage);
                     try {
                         var mConversation = WppCore.getCurrentConversation();
                         if (mConversation != null
@@ -506,4 +577,34 @@ public class AntiRevoke extends Feature {
         return "Anti Revoke";
     }
 
+    /**
+     * Revoked messages of one chat: message id to deletion time, plus the rows whose add-on (e.g. an edit) was
+     * revoked. Loaded off the main thread and updated on every revoke, so binding a row only reads memory.
+     */
+    private static class RevokedIndex {
+        final ConcurrentHashMap<String, Long> timestamps = new ConcurrentHashMap<>();
+        final ConcurrentHashMap<Long, String> originalKeys = new ConcurrentHashMap<>();
+        private final CompletableFuture<Void> loading;
+
+        RevokedIndex(String stripJID) {
+            loading = CompletableFuture.runAsync(() -> load(stripJID), indexExecutor);
+        }
+
+        private void load(String stripJID) {
+            try {
+                var stored = DelMessageStore.getInstance(Utils.getApplication()).getTimestampsByJid(stripJID);
+                stored.forEach(timestamps::putIfAbsent);
+                originalKeys.putAll(MessageStore.getInstance().getParentRowIdsByAddOnKeys(stored.keySet()));
+                if (!stored.isEmpty())
+                    requestRefresh();
+            } catch (Exception e) {
+                XposedBridge.log(e);
+            }
+        }
+
+        boolean isLoaded() {
+            return loading.isDone();
+        }
+    }
+
 }
@@ -9,6 +9,7 @@ import android.view.MenuItem;
 import androidx.annotation.NonNull;
 
 import com.wmods.wppenhacer.xposed.core.Feature;
+import com.wmods.wppenhacer.xposed.core.FeatureSpec;
 import com.wmods.wppenhacer.xposed.core.WppCore;
 import com.wmods.wppenhacer.xposed.core.components.FMessageWpp;
 import com.wmods.wppenhacer.xposed.core.devkit.Unobfuscator;
@@ -22,6 +23,7 @@ import java.lang.reflect.Field;
 
 import de.robv.android.xposed.XSharedPreferences;
 
+@FeatureSpec(dependsOn = MenuStatusListener.class)
 public class DeleteStatus extends Feature {
 
 
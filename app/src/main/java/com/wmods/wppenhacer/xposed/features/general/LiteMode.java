@@ -18,6 +18,7 @@ import androidx.annotation.NonNull;
 
 import com.wmods.wppenhacer.utils.RealPathUtil;
 import com.wmods.wppenhacer.xposed.core.Feature;
+import com.wmods.wppenhacer.xposed.core.FeatureSpec;
 import com.wmods.wppenhacer.xposed.core.WppCore;
 import com.wmods.wppenhacer.xposed.core.components.AlertDialogWpp;
 import com.wmods.wppenhacer.xposed.utils.ResId;
@@ -26,6 +27,7 @@ import de.robv.android.xposed.XC_MethodHook;
 import de.robv.android.xposed.XSharedPreferences;
 import de.robv.android.xposed.XposedHelpers;
 
+@FeatureSpec(prefs = "lite_mode")
 public class LiteMode extends Feature {
 
     public static final int REQUEST_FOLDER = 852583;
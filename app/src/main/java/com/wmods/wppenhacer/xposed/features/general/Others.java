@@ -37,13 +37,17 @@ import androidx.core.app.NotificationCompat;
 import com.wmods.wppenhacer.listeners.OnMultiClickListener;
 import com.wmods.wppenhacer.xposed.core.ActivityStateRegistry;
 import com.wmods.wppenhacer.xposed.core.Feature;
+import com.wmods.wppenhacer.xposed.core.FeatureSpec;
+import com.wmods.wppenhacer.xposed.core.ViewHookDispatcher;
 import com.wmods.wppenhacer.xposed.core.WppCore;
 import com.wmods.wppenhacer.xposed.core.components.FMessageWpp;
 import com.wmods.wppenhacer.xposed.core.devkit.Unobfuscator;
 import com.wmods.wppenhacer.xposed.features.listeners.ConversationItemListener;
 import com.wmods.wppenhacer.xposed.utils.AnimationUtil;
+import com.wmods.wppenhacer.xposed.utils.PropsTable;
 import com.wmods.wppenhacer.xposed.utils.ReflectionUtils;
 import com.wmods.wppenhacer.xposed.utils.ResId;
+import com.wmods.wppenhacer.xposed.utils.ResIdWpp;
 import com.wmods.wppenhacer.xposed.utils.Utils;
 
 import org.json.JSONObject;
@@ -54,7 +58,6 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Objects;
 import java.util.Properties;
@@ -67,10 +70,11 @@ import de.robv.android.xposed.XposedBridge;
 import de.robv.android.xposed.XposedHelpers;
 import okhttp3.OkHttpClient;
 
+@FeatureSpec(dependsOn = ConversationItemListener.class)
 public class Others extends Feature {
 
-    public static HashMap<Integer, Boolean> propsBoolean = new HashMap<>();
-    public static HashMap<Integer, Integer> propsInteger = new HashMap<>();
+    public static final PropsTable<Boolean> propsBoolean = new PropsTable<>();
+    public static final PropsTable<Integer> propsInteger = new PropsTable<>();
     private Properties properties;
 
     public Others(ClassLoader loader, XSharedPreferences preferences) {
@@ -360,7 +364,7 @@ public class Others extends Feature {
                                     clickCount = 0; // reset
                                 } else if (doubleTapEnabled && clickCount >= 2) {
                                     var reactionView = (ViewGroup) v
-                                            .findViewById(Utils.getID("reactions_bubble_layout", "id"));
+                                            .findViewById(ResIdWpp.id.reactions_bubble_layout);
                                     if (reactionView != null && reactionView.getVisibility() == View.VISIBLE) {
                                         for (int i = 0; i < reactionView.getChildCount(); i++) {
                                             if (reactionView.getChildAt(i) instanceof TextView textView) {
@@ -393,16 +397,7 @@ public class Others extends Feature {
         XposedBridge.hookAllConstructors(filterView, new XC_MethodHook() {
             @Override
             protected void afterHookedMethod(MethodHookParam param) throws Throwable {
-                var view = (View) param.thisObject;
-                view.setVisibility(View.GONE);
-                XposedHelpers.findAndHookMethod(View.class, "setVisibility", int.class, new XC_MethodHook() {
-                    @Override
-                    protected void beforeHookedMethod(MethodHookParam param) throws Throwable {
-                        if (view == param.thisObject && (int) param.args[0] != View.GONE) {
-                            param.setResult(View.GONE);
-                        }
-                    }
-                });
+                ViewHookDispatcher.keepHidden((View) param.thisObject);
             }
         });
     }
@@ -884,7 +879,7 @@ public class Others extends Feature {
                 super.afterHookedMethod(param);
                 if ((int) param.args[0] == 3) {
                     var view = (View) param.thisObject;
-                    var playback = (TextView) view.findViewById(Utils.getID("fast_playback_overlay", "id"));
+                    var playback = (TextView) view.findViewById(ResIdWpp.id.fast_playback_overlay);
                     if (playback != null) {
                         playback.setText(String.valueOf(voicenote_speed).replace(".", ",") + "×");
                     }
@@ -918,23 +913,20 @@ public class Others extends Feature {
     private void filterItems(String filterItems) {
         List<String> activeFilters = com.wmods.wppenhacer.preference.custom.FilterItemsPreference
                 .getActiveFilters(filterItems);
-        var idsFilter = new ArrayList<Integer>();
+        var hideView = new ViewHookDispatcher.OnViewEventListener() {
+            @Override
+            public void onViewEvent(View view) {
+                if (view.getVisibility() == View.VISIBLE) {
+                    view.setVisibility(View.GONE);
+                }
+            }
+        };
         for (String item : activeFilters) {
             var id = Utils.getID(item, "id");
             if (id > 0) {
-                idsFilter.add(id);
+                ViewHookDispatcher.register(ViewHookDispatcher.INVALIDATE, id, hideView);
             }
         }
-        XposedHelpers.findAndHookMethod(View.class, "invalidate", boolean.class, new XC_MethodHook() {
-            @Override
-            protected void afterHookedMethod(MethodHookParam param) throws Throwable {
-                var view = (View) param.thisObject;
-                var id = view.getId();
-                if (id > 0 && idsFilter.contains(id) && view.getVisibility() == View.VISIBLE) {
-                    view.setVisibility(View.GONE);
-                }
-            }
-        });
     }
 
     private void showOnline(boolean showOnline) throws Exception {
@@ -966,43 +958,56 @@ public class Others extends Feature {
         var methodPropsBoolean = Unobfuscator.loadPropsBooleanMethod(classLoader);
         logDebug(Unobfuscator.getMethodDescriptor(methodPropsBoolean));
         var dataUsageActivityClass = WppCore.getDataUsageActivityClass(classLoader);
+        int booleanPropIndex = findPropIdIndex(methodPropsBoolean);
         XposedBridge.hookMethod(methodPropsBoolean, new XC_MethodHook() {
             @Override
             protected void afterHookedMethod(MethodHookParam param) throws Throwable {
-                var list = ReflectionUtils.findInstancesOfType(param.args, Integer.class);
-                int i = (int) list.get(0).second;
+                int i = (int) param.args[booleanPropIndex];
 
-                var propValue = propsBoolean.get(i);
+                var propValue = propsBoolean.query(i);
                 if (propValue != null) {
                     // Fix Bug in Settings Data Usage
                     if (i == 4023) {
                         if (ReflectionUtils.isCalledFromClass(dataUsageActivityClass))
                             return;
                     }
+                    if (propsBoolean.getQueryCount(i) == 1) logDebug("Overriding boolean prop " + i + " with " + propValue);
                     param.setResult(propValue);
                 }
             }
         });
 
         var methodPropsInteger = Unobfuscator.loadPropsIntegerMethod(classLoader);
+        int integerPropIndex = findPropIdIndex(methodPropsInteger);
 
         XposedBridge.hookMethod(methodPropsInteger, new XC_MethodHook() {
             @Override
             protected void beforeHookedMethod(MethodHookParam param) throws Throwable {
-                var list = ReflectionUtils.findInstancesOfType(param.args, Integer.class);
-                int i = (int) list.get(0).second;
-                var propValue = propsInteger.get(i);
+                int i = (int) param.args[integerPropIndex];
+                var propValue = propsInteger.query(i);
                 if (propValue == null)
                     return;
+                if (propsInteger.getQueryCount(i) == 1) logDebug("Overriding integer prop " + i + " with " + propValue);
                 param.setResult(propValue);
             }
         });
     }
 
+    /**
+     * @return the index of the prop id, the first int parameter of a props getter
+     */
+    private static int findPropIdIndex(Method method) {
+        var parameterTypes = method.getParameterTypes();
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (parameterTypes[i] == int.class || parameterTypes[i] == Integer.class) return i;
+        }
+        throw new IllegalStateException("No prop id parameter in " + method);
+    }
+
     private void hookSearchbar(String filterChats) throws Exception {
         Method searchbar = Unobfuscator.loadViewAddSearchBarMethod(classLoader);
         logDebug("ADD HEADER VIEW: " + DexSignUtil.getMethodDescriptor(searchbar));
-        var searchBarID = Utils.getID("my_search_bar", "id");
+        var searchBarID = ResIdWpp.id.my_search_bar;
 
         XposedBridge.hookMethod(searchbar, new XC_MethodHook() {
             @Override
@@ -1061,7 +1066,7 @@ public class Others extends Feature {
                     @Override
                     protected void afterHookedMethod(MethodHookParam param) throws Throwable {
                         var menu = (Menu) param.args[0];
-                        var item = menu.findItem(Utils.getID("menuitem_search", "id"));
+                        var item = menu.findItem(ResIdWpp.id.menuitem_search);
                         if (item != null) {
                             item.setVisible(Objects.equals(filterChats, "1"));
                         }
@@ -12,6 +12,7 @@ import androidx.annotation.NonNull;
 import java.lang.reflect.Method;
 
 import com.wmods.wppenhacer.xposed.core.Feature;
+import com.wmods.wppenhacer.xposed.core.FeatureSpec;
 import com.wmods.wppenhacer.xposed.core.WppCore;
 import com.wmods.wppenhacer.xposed.core.components.WaContactWpp;
 import com.wmods.wppenhacer.xposed.core.components.FMessageWpp;
@@ -30,6 +31,7 @@ import de.robv.android.xposed.XSharedPreferences;
 import de.robv.android.xposed.XposedBridge;
 import de.robv.android.xposed.XposedHelpers;
 
+@FeatureSpec(prefs = "profile_picture_change_toast", dependsOn = ContactItemListener.class)
 public class ProfilePictureChangeNotifier extends Feature {
 
     private static final String PREF_KEY = "profile_picture_change_toast";
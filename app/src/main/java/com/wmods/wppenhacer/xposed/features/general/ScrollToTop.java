@@ -13,6 +13,7 @@ import com.wmods.wppenhacer.xposed.core.Feature;
 import com.wmods.wppenhacer.xposed.core.WppCore;
 import com.wmods.wppenhacer.xposed.core.devkit.Unobfuscator;
 import com.wmods.wppenhacer.xposed.utils.ReflectionUtils;
+import com.wmods.wppenhacer.xposed.utils.ResIdWpp;
 import com.wmods.wppenhacer.xposed.utils.Utils;
 
 import org.luckypray.dexkit.query.enums.StringMatchType;
@@ -91,7 +92,7 @@ public class ScrollToTop extends Feature {
     }
 
     private void setupToolbar(Activity activity) {
-        var toolbar = (ViewGroup) activity.findViewById(Utils.getID("toolbar", "id"));
+        var toolbar = (ViewGroup) activity.findViewById(ResIdWpp.id.toolbar);
         if (toolbar == null) return;
 
         View clickableView = findClickableView(toolbar);
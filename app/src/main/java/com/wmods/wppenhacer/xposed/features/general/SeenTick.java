@@ -19,26 +19,29 @@ import android.widget.Toast;
 import androidx.annotation.NonNull;
 
 import com.wmods.wppenhacer.xposed.core.Feature;
+import com.wmods.wppenhacer.xposed.core.FeatureSpec;
 import com.wmods.wppenhacer.xposed.core.WppCore;
 import com.wmods.wppenhacer.xposed.core.components.FMessageWpp;
 import com.wmods.wppenhacer.xposed.core.db.MessageHistory;
 import com.wmods.wppenhacer.xposed.core.db.MessageStore;
 import com.wmods.wppenhacer.xposed.core.devkit.Unobfuscator;
-import com.wmods.wppenhacer.xposed.features.customization.HideSeenView;
 import com.wmods.wppenhacer.xposed.features.listeners.MenuStatusListener;
 import com.wmods.wppenhacer.xposed.features.privacy.CustomPrivacy;
 import com.wmods.wppenhacer.xposed.utils.DesignUtils;
 import com.wmods.wppenhacer.xposed.utils.ReflectionUtils;
 import com.wmods.wppenhacer.xposed.utils.ResId;
+import com.wmods.wppenhacer.xposed.utils.ResIdWpp;
 import com.wmods.wppenhacer.xposed.utils.Utils;
 
 import org.luckypray.dexkit.query.enums.StringMatchType;
 
 import java.lang.ref.WeakReference;
+import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
@@ -50,11 +53,14 @@ import de.robv.android.xposed.XSharedPreferences;
 import de.robv.android.xposed.XposedBridge;
 import de.robv.android.xposed.XposedHelpers;
 
+@FeatureSpec(dependsOn = MenuStatusListener.class)
 public class SeenTick extends Feature {
 
     private final Set<FMessageWpp> statuses = ConcurrentHashMap.newKeySet();
     private static Object mWaJobManager;
     private static Class<?> mSendReadClass;
+    private static Class<?> mSendPlayedClass;
+    private static Constructor<?> mParticipantInfoConstructor;
     private static Method WaJobManagerMethod;
     private static FMessageWpp.UserJid currentJid;
     private static String currentScreen = "none";
@@ -67,7 +73,7 @@ public class SeenTick extends Feature {
     public static void setSeenButton(ImageView buttonImage, boolean b) {
         Drawable originalDrawable = DesignUtils.getDrawableByName("ic_notif_mark_read");
         if (originalDrawable == null) {
-            buttonImage.setImageResource(Utils.getID("ic_notif_mark_read", "drawable"));
+            buttonImage.setImageResource(ResIdWpp.drawable.ic_notif_mark_read);
             if (b) buttonImage.setColorFilter(Color.CYAN, PorterDuff.Mode.SRC_ATOP);
             return;
         }
@@ -122,6 +128,14 @@ public class SeenTick extends Feature {
 
         mSendReadClass = Unobfuscator.findFirstClassUsingName(classLoader, StringMatchType.EndsWith, "SendReadReceiptJob");
 
+        try {
+            mSendPlayedClass = Unobfuscator.findFirstClassUsingName(classLoader, StringMatchType.Contains, "SendPlayedReceiptJob");
+            var classParticipantInfo = mSendPlayedClass.getDeclaredConstructors()[0].getParameterTypes()[0];
+            mParticipantInfoConstructor = classParticipantInfo.getDeclaredConstructors()[0];
+        } catch (Throwable e) {
+            logDebug(e);
+        }
+
         // hook instance of WaJobManager;
 
         XposedBridge.hookAllConstructors(WaJobManagerMethod.getDeclaringClass(), new XC_MethodHook() {
@@ -211,13 +225,13 @@ public class SeenTick extends Feature {
                     var key = fMessage.getKey();
                     if (key.isFromMe) return;
                     var view = (View) param.getResult();
-                    var contentView = (LinearLayout) view.findViewById(Utils.getID("bottom_sheet", "id"));
+                    var contentView = (LinearLayout) view.findViewById(ResIdWpp.id.bottom_sheet);
                     var buttonImage = new ImageView(view.getContext());
                     LinearLayout.LayoutParams params = new LinearLayout.LayoutParams(Utils.dipToPixels(32), Utils.dipToPixels(32));
                     params.gravity = Gravity.CENTER_VERTICAL;
                     params.setMargins(Utils.dipToPixels(5), Utils.dipToPixels(5), 0, 0);
                     buttonImage.setLayoutParams(params);
-                    buttonImage.setImageResource(Utils.getID("ic_notif_mark_read", "drawable"));
+                    buttonImage.setImageResource(ResIdWpp.drawable.ic_notif_mark_read);
                     GradientDrawable border = new GradientDrawable();
                     border.setShape(GradientDrawable.RECTANGLE);
                     border.setStroke(1, Color.WHITE);
@@ -267,11 +281,10 @@ public class SeenTick extends Feature {
                 var menu = (Menu) param.args[0];
                 var menuItem = menu.add(0, 0, 0, ResId.string.send_blue_tick);
                 if (ticktype == 1) menuItem.setShowAsAction(2);
-                menuItem.setIcon(Utils.getID("ic_notif_mark_read", "drawable"));
+                menuItem.setIcon(ResIdWpp.drawable.ic_notif_mark_read);
                 menuItem.setOnMenuItemClickListener(item -> {
                     sendBlueTick(currentJid);
                     Utils.showToast(Utils.getApplication().getString(ResId.string.sending_read_blue_tick), Toast.LENGTH_SHORT);
-                    HideSeenView.updateAllBubbleViews();
                     return true;
                 });
             }
@@ -340,7 +353,7 @@ public class SeenTick extends Feature {
                 FMessageWpp fMessage = new FMessageWpp(fmessageObj);
                 if (!fMessage.isViewOnce()) return;
                 Menu menu = (Menu) param.args[0];
-                MenuItem item = menu.add(0, 0, 0, ResId.string.send_blue_tick).setIcon(Utils.getID("ic_notif_mark_read", "drawable"));
+                MenuItem item = menu.add(0, 0, 0, ResId.string.send_blue_tick).setIcon(ResIdWpp.drawable.ic_notif_mark_read);
                 if (ticktype == 1) item.setShowAsAction(MenuItem.SHOW_AS_ACTION_ALWAYS);
                 item.setOnMenuItemClickListener(item1 -> {
                     var userJid = fMessage.getKey().remoteJid;
@@ -350,7 +363,6 @@ public class SeenTick extends Feature {
                     sendBlueTickMedia(fMessage);
                     statuses.clear();
                     Utils.showToast(Utils.getApplication().getString(ResId.string.sending_read_blue_tick), Toast.LENGTH_SHORT);
-                    HideSeenView.updateAllBubbleViews();
                     return true;
                 });
             }
@@ -361,7 +373,7 @@ public class SeenTick extends Feature {
                     @Override
                     protected void afterHookedMethod(MethodHookParam param) throws Throwable {
                         Menu menu = (Menu) param.args[0];
-                        MenuItem item = menu.add(0, 0, 0, ResId.string.send_blue_tick).setIcon(Utils.getID("ic_notif_mark_read", "drawable"));
+                        MenuItem item = menu.add(0, 0, 0, ResId.string.send_blue_tick).setIcon(ResIdWpp.drawable.ic_notif_mark_read);
                         if (ticktype == 1) item.setShowAsAction(MenuItem.SHOW_AS_ACTION_ALWAYS);
                         item.setOnMenuItemClickListener(item1 -> {
                             CompletableFuture.runAsync(() -> {
@@ -376,7 +388,6 @@ public class SeenTick extends Feature {
                                 sendBlueTickMedia(fMessage);
                                 statuses.clear();
                                 Utils.showToast(Utils.getApplication().getString(ResId.string.sending_read_blue_tick), Toast.LENGTH_SHORT);
-                                HideSeenView.updateAllBubbleViews();
                             });
                             return true;
                         });
@@ -398,8 +409,7 @@ public class SeenTick extends Feature {
                 var rawJid = (String) XposedHelpers.getObjectField(obj, "jid");
                 var userJid = new FMessageWpp.UserJid(WppCore.createUserJid(rawJid));
 
-                var customPrivacy = CustomPrivacy.getJSON(userJid.getPhoneNumber());
-                boolean blueOnReply = customPrivacy.optBoolean("BlueOnReply", prefs.getBoolean("blueonreply", false));
+                boolean blueOnReply = CustomPrivacy.isEnabled(userJid.getPhoneNumber(), CustomPrivacy.BLUE_ON_REPLY);
                 if (!blueOnReply) return;
 
                 if (Objects.equals(currentScreen, "status") && !userJid.isStatus()) {
@@ -413,16 +423,16 @@ public class SeenTick extends Feature {
                 } else {
                     sendBlueTick(userJid);
                 }
-                HideSeenView.updateAllBubbleViews();
             }
         });
     }
 
     private static void updateMessageStatusView(String rawJid, List<FMessageWpp> messages) {
+        var messageIds = new ArrayList<String>(messages.size());
         for (var msg : messages) {
-            MessageHistory.getInstance().updateViewedMessage(rawJid, msg.getKey().messageID, MessageHistory.MessageType.MESSAGE_TYPE, true);
+            messageIds.add(msg.getKey().messageID);
         }
-        HideSeenView.updateAllBubbleViews();
+        MessageHistory.getInstance().updateViewedMessages(rawJid, messageIds, MessageHistory.MessageType.MESSAGE_TYPE, true);
     }
 
     private void sendBlueTick(FMessageWpp.UserJid userJid) {
@@ -440,9 +450,11 @@ public class SeenTick extends Feature {
                 return;
 
             if (prefs.getBoolean("hideaudioseen", false)) {
+                var audios = new ArrayList<FMessageWpp>();
                 for (var m : messages) {
-                    if (m.getMediaType() == 2) sendBlueTickMedia(m);
+                    if (m.getMediaType() == 2) audios.add(m);
                 }
+                sendPlayedReceipts(audios);
             }
             sendBlueTickMsg(userJid, messages);
             updateMessageStatusView(userJid.getPhoneRawString(), messages);
@@ -482,7 +494,7 @@ public class SeenTick extends Feature {
                 return;
             try {
                 var arr_s = statuses.stream().map(item -> item.getKey().messageID).toArray(String[]::new);
-                Arrays.stream(arr_s).forEach(s -> MessageStore.getInstance().storeMessageRead(s));
+                MessageStore.getInstance().storeMessagesRead(Arrays.asList(arr_s));
                 var userJidSender = WppCore.createUserJid("status@broadcast");
 
                 var sendJob2 = XposedHelpers.newInstance(mSendReadClass, userJidSender, currentJid.phoneJid, null, null, arr_s, -1, 0L, false);
@@ -497,26 +509,41 @@ public class SeenTick extends Feature {
     }
 
     private void sendBlueTickMedia(FMessageWpp fMessage) {
-        CompletableFuture.runAsync(() -> {
+        CompletableFuture.runAsync(() -> sendPlayedReceipts(List.of(fMessage)), Utils.getExecutor());
+    }
+
+    /**
+     * Sends one played receipt job per chat and participant for all the given media messages.
+     */
+    private void sendPlayedReceipts(List<FMessageWpp> messages) {
+        if (messages.isEmpty() || mParticipantInfoConstructor == null) return;
+        var groupedMap = new LinkedHashMap<String, List<FMessageWpp>>();
+        for (var message : messages) {
+            var userJid = message.getKey().remoteJid;
+            var group = userJid.getUserRawString() + (userJid.isGroup() ? "/" + message.getUserJid().getUserRawString() : "");
+            groupedMap.computeIfAbsent(group, k -> new ArrayList<>()).add(message);
+        }
+        for (var group : groupedMap.values()) {
             try {
-                var userJid = fMessage.getKey().remoteJid;
+                var first = group.get(0);
+                var userJid = first.getKey().remoteJid;
                 Object participant = null;
                 if (userJid.isGroup()) {
-                    participant = fMessage.getUserJid().userJid;
+                    participant = first.getUserJid().userJid;
+                }
+                var rowsId = new Long[group.size()];
+                var messageIds = new String[group.size()];
+                for (int i = 0; i < group.size(); i++) {
+                    rowsId[i] = group.get(i).getRowId();
+                    messageIds[i] = group.get(i).getKey().messageID;
                 }
-                var sendPlayerClass = Unobfuscator.findFirstClassUsingName(classLoader, StringMatchType.Contains, "SendPlayedReceiptJob");
-                var constructor = sendPlayerClass.getDeclaredConstructors()[0];
-                var classParticipantInfo = constructor.getParameterTypes()[0];
-                var rowsId = new Long[]{fMessage.getRowId()};
-                var messageId = fMessage.getKey().messageID;
-                constructor = classParticipantInfo.getDeclaredConstructors()[0];
-                var participantInfo = constructor.newInstance(userJid.userJid, participant, rowsId, new String[]{messageId});
-                var sendJob = XposedHelpers.newInstance(sendPlayerClass, participantInfo, false);
+                var participantInfo = mParticipantInfoConstructor.newInstance(userJid.userJid, participant, rowsId, messageIds);
+                var sendJob = XposedHelpers.newInstance(mSendPlayedClass, participantInfo, false);
                 WaJobManagerMethod.invoke(mWaJobManager, sendJob);
             } catch (Throwable e) {
                 logDebug(e);
             }
-        }, Utils.getExecutor());
+        }
     }
 
     @NonNull
@@ -3,6 +3,7 @@ package com.wmods.wppenhacer.xposed.features.general;
 import androidx.annotation.NonNull;
 
 import com.wmods.wppenhacer.xposed.core.Feature;
+import com.wmods.wppenhacer.xposed.core.FeatureSpec;
 import com.wmods.wppenhacer.xposed.core.devkit.Unobfuscator;
 
 import java.util.HashMap;
@@ -11,6 +12,7 @@ import de.robv.android.xposed.XC_MethodHook;
 import de.robv.android.xposed.XSharedPreferences;
 import de.robv.android.xposed.XposedBridge;
 
+@FeatureSpec(prefs = "removeforwardlimit")
 public class ShareLimit extends Feature {
     public ShareLimit(ClassLoader loader, XSharedPreferences preferences) {
         super(loader, preferences);
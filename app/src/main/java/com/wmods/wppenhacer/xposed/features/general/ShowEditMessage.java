@@ -18,6 +18,7 @@ import androidx.core.widget.NestedScrollView;
 import com.wmods.wppenhacer.adapter.MessageAdapter;
 import com.wmods.wppenhacer.views.NoScrollListView;
 import com.wmods.wppenhacer.xposed.core.Feature;
+import com.wmods.wppenhacer.xposed.core.FeatureSpec;
 import com.wmods.wppenhacer.xposed.core.WppCore;
 import com.wmods.wppenhacer.xposed.core.components.FMessageWpp;
 import com.wmods.wppenhacer.xposed.core.db.MessageHistory;
@@ -27,6 +28,7 @@ import com.wmods.wppenhacer.xposed.features.listeners.ConversationItemListener;
 import com.wmods.wppenhacer.xposed.utils.DesignUtils;
 import com.wmods.wppenhacer.xposed.utils.ReflectionUtils;
 import com.wmods.wppenhacer.xposed.utils.ResId;
+import com.wmods.wppenhacer.xposed.utils.ResIdWpp;
 import com.wmods.wppenhacer.xposed.utils.Utils;
 
 import java.util.ArrayList;
@@ -37,6 +39,7 @@ import de.robv.android.xposed.XSharedPreferences;
 import de.robv.android.xposed.XposedBridge;
 import de.robv.android.xposed.XposedHelpers;
 
+@FeatureSpec(prefs = "antieditmessages", dependsOn = ConversationItemListener.class)
 public class ShowEditMessage extends Feature {
 
     public ShowEditMessage(@NonNull ClassLoader loader, @NonNull XSharedPreferences preferences) {
@@ -95,7 +98,7 @@ public class ShowEditMessage extends Feature {
 
                     @Override
                     public void onItemBind(FMessageWpp fMessage, ViewGroup viewGroup) {
-                        var textView = (TextView) viewGroup.findViewById(Utils.getID("edit_label", "id"));
+                        var textView = (TextView) viewGroup.findViewById(ResIdWpp.id.edit_label);
                         if (textView != null && !textView.getText().toString().contains(strEmoji)) {
                             textView.getPaint().setUnderlineText(true);
                             textView.append(strEmoji);
@@ -11,17 +11,18 @@ import androidx.annotation.NonNull;
 import androidx.core.content.ContextCompat;
 
 import com.wmods.wppenhacer.xposed.core.Feature;
+import com.wmods.wppenhacer.xposed.core.FeatureSpec;
+import com.wmods.wppenhacer.xposed.core.IncomingMessageDispatcher;
 import com.wmods.wppenhacer.xposed.core.WppCore;
 import com.wmods.wppenhacer.xposed.core.components.FMessageWpp;
-import com.wmods.wppenhacer.xposed.core.devkit.Unobfuscator;
 import com.wmods.wppenhacer.xposed.utils.Utils;
 
 import java.util.Objects;
 
-import de.robv.android.xposed.XC_MethodHook;
 import de.robv.android.xposed.XSharedPreferences;
 import de.robv.android.xposed.XposedBridge;
 
+@FeatureSpec(prefs = "tasker")
 public class Tasker extends Feature {
     private static FMessageWpp fMessage;
     private static boolean taskerEnabled;
@@ -61,21 +62,16 @@ public class Tasker extends Feature {
 
     }
 
-    public void hookReceiveMessage() throws Throwable {
-        var method = Unobfuscator.loadReceiptMethod(classLoader);
-
-        XposedBridge.hookMethod(method, new XC_MethodHook() {
+    public void hookReceiveMessage() {
+        IncomingMessageDispatcher.subscribe(classLoader, IncomingMessageDispatcher.SOURCE_RECEIPT, new IncomingMessageDispatcher.OnIncomingMessageListener() {
             @Override
-            protected void beforeHookedMethod(MethodHookParam param) throws Throwable {
-                if (param.args[4] == "sender" || param.args[1] == null || param.args[3] == null)
-                    return;
-                var fMessage = new FMessageWpp.Key(param.args[3]).getFMessage();
+            public void onIncomingMessage(FMessageWpp fMessage) {
                 var userJid = fMessage.getKey().remoteJid;
-                var name = WppCore.getContactName(userJid);
                 var number = userJid.getPhoneNumber();
                 var msg = fMessage.getMessageStr();
                 if (TextUtils.isEmpty(msg) || TextUtils.isEmpty(number) || userJid.isStatus())
                     return;
+                var name = WppCore.getContactName(userJid);
                 new Handler(Utils.getApplication().getMainLooper()).post(() -> {
                     Intent intent = new Intent("com.wmods.wppenhacer.MESSAGE_RECEIVED");
                     intent.putExtra("number", number);
@@ -12,8 +12,10 @@ import com.wmods.wppenhacer.xposed.core.Feature;
 import com.wmods.wppenhacer.xposed.core.WppCore;
 import com.wmods.wppenhacer.xposed.core.components.FMessageWpp;
 
+import java.lang.ref.WeakReference;
 import java.util.HashSet;
 import java.util.Objects;
+import java.util.function.BiConsumer;
 
 import de.robv.android.xposed.XC_MethodHook;
 import de.robv.android.xposed.XSharedPreferences;
@@ -24,6 +26,7 @@ public class ConversationItemListener extends Feature {
 
     public static HashSet<OnConversationItemListener> conversationListeners = new HashSet<>();
     private static ListAdapter mAdapter;
+    private static WeakReference<ListView> mListView;
     private static XC_MethodHook.Unhook hooked;
 
     public ConversationItemListener(@NonNull ClassLoader loader, @NonNull XSharedPreferences preferences) {
@@ -34,6 +37,21 @@ public class ConversationItemListener extends Feature {
         return mAdapter;
     }
 
+    /**
+     * Calls the consumer with each message row currently on screen. Must be called on the UI thread.
+     */
+    public static void forEachVisibleItem(BiConsumer<FMessageWpp, ViewGroup> consumer) {
+        var listView = mListView == null ? null : mListView.get();
+        if (listView == null || mAdapter == null) return;
+        int first = listView.getFirstVisiblePosition();
+        for (int i = 0; i < listView.getChildCount(); i++) {
+            if (!(listView.getChildAt(i) instanceof ViewGroup viewGroup)) continue;
+            var item = listView.getItemAtPosition(first + i);
+            if (!FMessageWpp.isFMessage(item)) continue;
+            consumer.accept(new FMessageWpp(item), viewGroup);
+        }
+    }
+
     @Override
     public void doHook() throws Throwable {
         XposedHelpers.findAndHookMethod(ListView.class, "setAdapter", ListAdapter.class, new XC_MethodHook() {
@@ -49,6 +67,7 @@ public class ConversationItemListener extends Feature {
                 }
                 if (adapter == null) return;
                 mAdapter = adapter;
+                mListView = new WeakReference<>((ListView) param.thisObject);
                 if (hooked != null) hooked.unhook();
                 var method = mAdapter.getClass().getDeclaredMethod("getView", int.class, View.class, ViewGroup.class);
                 hooked = XposedBridge.hookMethod(method, new XC_MethodHook() {
@@ -40,6 +40,7 @@ import android.graphics.PorterDuff;
 import androidx.annotation.NonNull;
 
 import com.wmods.wppenhacer.xposed.core.Feature;
+import com.wmods.wppenhacer.xposed.core.FeatureSpec;
 import com.wmods.wppenhacer.xposed.core.WppCore;
 import com.wmods.wppenhacer.xposed.core.components.FMessageWpp;
 import com.wmods.wppenhacer.xposed.core.db.MessageStore;
@@ -47,6 +48,7 @@ import com.wmods.wppenhacer.xposed.core.devkit.Unobfuscator;
 import com.wmods.wppenhacer.xposed.utils.DesignUtils;
 import com.wmods.wppenhacer.xposed.utils.HKDF;
 import com.wmods.wppenhacer.xposed.utils.ResId;
+import com.wmods.wppenhacer.xposed.utils.ResIdWpp;
 import com.wmods.wppenhacer.xposed.utils.Utils;
 
 import java.io.ByteArrayOutputStream;
@@ -72,6 +74,7 @@ import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
 
+@FeatureSpec(prefs = "media_preview", enabledByDefault = "media_preview")
 public class MediaPreview extends Feature {
 
     private static final String TAG_PREVIEW_BUTTON = "preview_button";
@@ -114,7 +117,7 @@ public class MediaPreview extends Feature {
                             View root = (View) param.thisObject;
                             Context context = root.getContext();
 
-                            ViewGroup surface = root.findViewById(Utils.getID("invisible_press_surface", "id"));
+                            ViewGroup surface = root.findViewById(ResIdWpp.id.invisible_press_surface);
                             if (surface == null || surface.getChildCount() == 0) return;
 
                             View control = surface.getChildAt(0);
@@ -155,8 +158,8 @@ public class MediaPreview extends Feature {
                             View root = (View) param.thisObject;
                             Context context = root.getContext();
 
-                            ViewGroup mediaContainer = root.findViewById(Utils.getID("media_container", "id"));
-                            ViewGroup controlFrame = root.findViewById(Utils.getID("control_frame", "id"));
+                            ViewGroup mediaContainer = root.findViewById(ResIdWpp.id.media_container);
+                            ViewGroup controlFrame = root.findViewById(ResIdWpp.id.control_frame);
 
                             if (mediaContainer == null || controlFrame == null) return;
 
@@ -225,11 +228,10 @@ public class MediaPreview extends Feature {
     private void startPlayer(long j, Context context, boolean isNewsletter) {
         ExecutorService executor = Executors.newSingleThreadExecutor();
         try {
-            Cursor c = MessageStore.getInstance().getDatabase().rawQuery(
-                    String.format(Locale.ENGLISH,
-                            "SELECT message_url,mime_type,hex(media_key),direct_path,file_size " +
-                                    "FROM message_media WHERE message_row_id=\"%d\"", j),
-                    null
+            Cursor c = MessageStore.getInstance().getReadableDatabase().rawQuery(
+                    "SELECT message_url,mime_type,hex(media_key),direct_path,file_size " +
+                            "FROM message_media WHERE message_row_id=?",
+                    new String[]{String.valueOf(j)}
             );
 
             if (c == null || !c.moveToFirst()) return;
@@ -12,6 +12,7 @@ import android.widget.Toast;
 import androidx.annotation.NonNull;
 
 import com.wmods.wppenhacer.xposed.core.Feature;
+import com.wmods.wppenhacer.xposed.core.FeatureSpec;
 import com.wmods.wppenhacer.xposed.core.WppCore;
 import com.wmods.wppenhacer.xposed.core.components.FMessageWpp;
 import com.wmods.wppenhacer.xposed.core.devkit.Unobfuscator;
@@ -26,6 +27,7 @@ import java.util.Collections;
 
 import de.robv.android.xposed.XSharedPreferences;
 
+@FeatureSpec(prefs = "downloadstatus", dependsOn = MenuStatusListener.class)
 public class StatusDownload extends Feature {
 
     public StatusDownload(ClassLoader loader, XSharedPreferences preferences) {
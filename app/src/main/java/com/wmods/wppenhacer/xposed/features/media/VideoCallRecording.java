@@ -26,6 +26,7 @@ import androidx.annotation.NonNull;
 import com.wmods.wppenhacer.BuildConfig;
 import com.wmods.wppenhacer.services.VideoRecordingService;
 import com.wmods.wppenhacer.xposed.core.Feature;
+import com.wmods.wppenhacer.xposed.core.FeatureSpec;
 import com.wmods.wppenhacer.xposed.core.FeatureLoader;
 import com.wmods.wppenhacer.xposed.core.devkit.Unobfuscator;
 
@@ -37,6 +38,7 @@ import de.robv.android.xposed.XposedBridge;
 import de.robv.android.xposed.XposedHelpers;
 import de.robv.android.xposed.callbacks.XC_LoadPackage;
 
+@FeatureSpec(prefs = "video_call_screen_rec")
 public class VideoCallRecording extends Feature {
 
     public static MediaProjection rootMediaProjection;
@@ -15,6 +15,7 @@ import android.widget.TextView;
 
 import com.wmods.wppenhacer.R;
 import com.wmods.wppenhacer.xposed.core.Feature;
+import com.wmods.wppenhacer.xposed.core.FeatureSpec;
 import com.wmods.wppenhacer.xposed.core.components.FMessageWpp;
 import com.wmods.wppenhacer.xposed.core.devkit.Unobfuscator;
 import com.wmods.wppenhacer.xposed.features.listeners.ConversationItemListener;
@@ -23,6 +24,7 @@ import com.wmods.wppenhacer.xposed.utils.DesignUtils;
 import com.wmods.wppenhacer.xposed.utils.MonetColorEngine;
 import com.wmods.wppenhacer.xposed.utils.ReflectionUtils;
 import com.wmods.wppenhacer.xposed.utils.ResId;
+import com.wmods.wppenhacer.xposed.utils.ResIdWpp;
 import com.wmods.wppenhacer.xposed.utils.Utils;
 
 import java.lang.reflect.Method;
@@ -33,6 +35,7 @@ import de.robv.android.xposed.XC_MethodHook;
 import de.robv.android.xposed.XSharedPreferences;
 import de.robv.android.xposed.XposedBridge;
 
+@FeatureSpec(prefs = "audio_speed_control", dependsOn = ConversationItemListener.class)
 public class AudioSpeedControl extends Feature {
     AtomicReference<Float> audioSpeed = new AtomicReference<>(Float.valueOf(1.0f));
     AtomicBoolean changed = new AtomicBoolean(false);
@@ -67,8 +70,8 @@ public class AudioSpeedControl extends Feature {
                     // 1. Try to find the speed TextView
                     TextView textView = null;
                     
-                    int speedBtnId = Utils.getID("fast_playback_overlay", "id");
-                    if (speedBtnId == 0) speedBtnId = Utils.getID("playback_speed_text", "id");
+                    int speedBtnId = ResIdWpp.id.fast_playback_overlay;
+                    if (speedBtnId == 0) speedBtnId = ResIdWpp.id.playback_speed_text;
 
                     if (speedBtnId != 0) {
                         View v = root.findViewById(speedBtnId);
@@ -115,8 +118,8 @@ public class AudioSpeedControl extends Feature {
                     
                     // Fallback to old logic if traversal failed (unlikely if hierarchy matches dump)
                     if (voiceNoteContainer == null) {
-                         int containerId = Utils.getID("voice_note_player_container", "id");
-                         if (containerId == 0) containerId = Utils.getID("audio_player_container", "id");
+                         int containerId = ResIdWpp.id.voice_note_player_container;
+                         if (containerId == 0) containerId = ResIdWpp.id.audio_player_container;
                          if (containerId != 0) voiceNoteContainer = (ViewGroup) root.findViewById(containerId);
                     }
 
@@ -6,6 +6,7 @@ import android.util.Base64;
 import androidx.annotation.NonNull;
 
 import com.wmods.wppenhacer.xposed.core.Feature;
+import com.wmods.wppenhacer.xposed.core.FeatureSpec;
 import com.wmods.wppenhacer.xposed.core.components.FMessageWpp;
 import com.wmods.wppenhacer.xposed.core.devkit.Unobfuscator;
 import com.wmods.wppenhacer.xposed.utils.ReflectionUtils;
@@ -31,6 +32,7 @@ import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.RequestBody;
 
+@FeatureSpec(prefs = "audio_transcription")
 public class AudioTranscript extends Feature {
 
     public AudioTranscript(@NonNull ClassLoader classLoader, @NonNull XSharedPreferences preferences) {
@@ -0,0 +1,266 @@
+package com.wmods.wppenhacer.xposed.features.others;
+
+import android.text.TextUtils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.wmods.wppenhacer.xposed.core.WppCore;
+import com.wmods.wppenhacer.xposed.core.db.AutoReplyDatabase;
+import com.wmods.wppenhacer.xposed.utils.Utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import de.robv.android.xposed.XposedBridge;
+
+/**
+ * Immutable, compiled form of the auto-reply rules.
+ * <p>
+ * Regexes are compiled once, all "contains" patterns are matched in a single pass with an Aho-Corasick automaton,
+ * specific targets are kept in a hash set and time windows are converted to minutes of the day. A new set is only
+ * compiled when the rules JSON in the preferences changes, and it replaces the previous one atomically.
+ */
+final class AutoReplyRuleSet {
+
+    private static final AutoReplyRuleSet EMPTY = new AutoReplyRuleSet(null, new ArrayList<>());
+    private static final Pattern TIME_PATTERN = Pattern.compile("^(\\d{1,2}):(\\d{1,2})");
+    private static volatile AutoReplyRuleSet current = EMPTY;
+
+    private final String json;
+    private final CompiledRule[] rules;
+    private final ContainsMatcher containsMatcher;
+
+    private AutoReplyRuleSet(String json, List<AutoReplyDatabase.AutoReplyRule> source) {
+        this.json = json;
+        this.rules = new CompiledRule[source.size()];
+        var containsPatterns = new ArrayList<String>();
+        for (int i = 0; i < rules.length; i++) {
+            var rule = new CompiledRule(source.get(i));
+            if (rule.rule.matchType == AutoReplyDatabase.MatchType.CONTAINS) {
+                rule.containsIndex = containsPatterns.size();
+                containsPatterns.add(rule.rule.pattern == null ? "" : rule.rule.pattern.toLowerCase());
+            }
+            rules[i] = rule;
+        }
+        this.containsMatcher = new ContainsMatcher(containsPatterns);
+    }
+
+    /**
+     * @return the rules currently saved by the module app, recompiled only if they changed since the last call
+     */
+    @NonNull
+    static AutoReplyRuleSet get() {
+        var prefs = Utils.xprefs;
+        if (prefs == null) return EMPTY;
+        if (prefs.hasFileChanged()) prefs.reload();
+        var json = prefs.getString(AutoReplyDatabase.PREFS_KEY_RULES, null);
+        var set = current;
+        if (Objects.equals(json, set.json)) return set;
+        synchronized (AutoReplyRuleSet.class) {
+            set = current;
+            if (Objects.equals(json, set.json)) return set;
+            set = new AutoReplyRuleSet(json, AutoReplyDatabase.parseRulesJson(json));
+            current = set;
+            XposedBridge.log("AutoReply: Compiled " + set.rules.length + " rules");
+            return set;
+        }
+    }
+
+    boolean isEmpty() {
+        return rules.length == 0;
+    }
+
+    int size() {
+        return rules.length;
+    }
+
+    /**
+     * @param available filter applied after the target and time checks, e.g. the per chat cooldown
+     * @return the first rule that applies to the message, in the order they were saved
+     */
+    @Nullable
+    AutoReplyDatabase.AutoReplyRule match(String senderJid, String messageText, boolean isGroup,
+                                          Predicate<AutoReplyDatabase.AutoReplyRule> available) {
+        var lowerText = messageText.toLowerCase();
+        var contains = containsMatcher.match(lowerText);
+        var phoneNumber = WppCore.stripJID(senderJid);
+        int msOfDay = -1;
+        for (var rule : rules) {
+            if (!rule.isTargetAllowed(senderJid, phoneNumber, isGroup)) continue;
+            if (rule.startMinute >= 0) {
+                if (msOfDay < 0) msOfDay = currentMsOfDay();
+                if (!rule.isWithinTimeWindow(msOfDay)) continue;
+            }
+            if (!available.test(rule.rule)) continue;
+            if (rule.matches(messageText, contains)) return rule.rule;
+        }
+        return null;
+    }
+
+    private static int currentMsOfDay() {
+        var now = Calendar.getInstance();
+        return ((now.get(Calendar.HOUR_OF_DAY) * 60 + now.get(Calendar.MINUTE)) * 60
+                + now.get(Calendar.SECOND)) * 1000 + now.get(Calendar.MILLISECOND);
+    }
+
+    /**
+     * @return minutes since midnight, or -1 when the value is not a HH:mm time
+     */
+    private static int parseMinuteOfDay(String time) {
+        if (TextUtils.isEmpty(time)) return -1;
+        Matcher matcher = TIME_PATTERN.matcher(time.trim());
+        if (!matcher.find()) return -1;
+        int minutes = Integer.parseInt(matcher.group(1)) * 60 + Integer.parseInt(matcher.group(2));
+        return minutes % (24 * 60);
+    }
+
+    private static class CompiledRule {
+        final AutoReplyDatabase.AutoReplyRule rule;
+        final Pattern regex;
+        final Set<String> jids = new HashSet<>();
+        final int startMinute;
+        final int endMinute;
+        int containsIndex = -1;
+
+        CompiledRule(AutoReplyDatabase.AutoReplyRule rule) {
+            this.rule = rule;
+            Pattern compiled = null;
+            if (rule.matchType == AutoReplyDatabase.MatchType.REGEX) {
+                try {
+                    compiled = Pattern.compile(rule.pattern, Pattern.CASE_INSENSITIVE);
+                } catch (PatternSyntaxException e) {
+                    XposedBridge.log("AutoReply: Invalid regex pattern: " + rule.pattern);
+                }
+            }
+            this.regex = compiled;
+            if (rule.targetType == AutoReplyDatabase.TargetType.SPECIFIC && !TextUtils.isEmpty(rule.specificJids)) {
+                for (String part : rule.specificJids.split(",")) {
+                    var trimmed = part.trim();
+                    if (!trimmed.isEmpty()) jids.add(trimmed);
+                }
+            }
+            int start = parseMinuteOfDay(rule.startTime);
+            int end = parseMinuteOfDay(rule.endTime);
+            // no time restriction unless both ends are valid
+            this.startMinute = start >= 0 && end >= 0 ? start : -1;
+            this.endMinute = end;
+        }
+
+        boolean isTargetAllowed(String senderJid, String phoneNumber, boolean isGroup) {
+            return switch (rule.targetType) {
+                case CONTACTS -> !isGroup;
+                case GROUPS -> isGroup;
+                case SPECIFIC -> {
+                    if (jids.isEmpty()) yield false;
+                    if (jids.contains(senderJid) || jids.contains(phoneNumber)) yield true;
+                    for (String jid : jids) {
+                        if (senderJid.contains(jid) || (phoneNumber != null && jid.contains(phoneNumber)))
+                            yield true;
+                    }
+                    yield false;
+                }
+                default -> true;
+            };
+        }
+
+        boolean isWithinTimeWindow(int msOfDay) {
+            int start = startMinute * 60_000;
+            int end = endMinute * 60_000;
+            // Handle overnight windows (e.g., 22:00 - 06:00)
+            if (end < start) return msOfDay > start || msOfDay < end;
+            return msOfDay > start && msOfDay < end;
+        }
+
+        boolean matches(String messageText, BitSet contains) {
+            return switch (rule.matchType) {
+                case ALL -> true;
+                case CONTAINS -> contains.get(containsIndex);
+                case EXACT -> messageText.equalsIgnoreCase(rule.pattern);
+                case REGEX -> regex != null && regex.matcher(messageText).find();
+            };
+        }
+    }
+
+    /**
+     * Aho-Corasick automaton over the lowercase "contains" patterns. One pass over the message finds every pattern
+     * it contains, however many rules there are.
+     */
+    private static class ContainsMatcher {
+        private final List<Map<Character, Integer>> next = new ArrayList<>();
+        private final List<Integer> fail = new ArrayList<>();
+        private final List<BitSet> output = new ArrayList<>();
+        private final BitSet alwaysMatched = new BitSet();
+
+        ContainsMatcher(List<String> patterns) {
+            newState();
+            for (int i = 0; i < patterns.size(); i++) {
+                var pattern = patterns.get(i);
+                if (pattern.isEmpty()) {
+                    alwaysMatched.set(i);
+                    continue;
+                }
+                int state = 0;
+                for (int c = 0; c < pattern.length(); c++) {
+                    var target = next.get(state).get(pattern.charAt(c));
+                    if (target == null) {
+                        target = newState();
+                        next.get(state).put(pattern.charAt(c), target);
+                    }
+                    state = target;
+                }
+                output.get(state).set(i);
+            }
+            var queue = new ArrayDeque<Integer>();
+            for (int child : next.get(0).values()) {
+                fail.set(child, 0);
+                queue.add(child);
+            }
+            while (!queue.isEmpty()) {
+                int state = queue.poll();
+                for (var edge : next.get(state).entrySet()) {
+                    int child = edge.getValue();
+                    int f = fail.get(state);
+                    while (f > 0 && !next.get(f).containsKey(edge.getKey())) f = fail.get(f);
+                    var target = next.get(f).get(edge.getKey());
+                    fail.set(child, target != null && target != child ? target : 0);
+                    output.get(child).or(output.get(fail.get(child)));
+                    queue.add(child);
+                }
+            }
+        }
+
+        private int newState() {
+            next.add(new HashMap<>());
+            fail.add(0);
+            output.add(new BitSet());
+            return next.size() - 1;
+        }
+
+        BitSet match(String lowerText) {
+            var matched = (BitSet) alwaysMatched.clone();
+            if (next.size() == 1) return matched;
+            int state = 0;
+            for (int i = 0; i < lowerText.length(); i++) {
+                char c = lowerText.charAt(i);
+                Integer target;
+                while ((target = next.get(state).get(c)) == null && state > 0) state = fail.get(state);
+                state = target == null ? 0 : target;
+                matched.or(output.get(state));
+            }
+            return matched;
+        }
+    }
+}
@@ -5,9 +5,11 @@ import android.view.Menu;
 import androidx.annotation.NonNull;
 
 import com.wmods.wppenhacer.xposed.core.Feature;
+import com.wmods.wppenhacer.xposed.core.FeatureSpec;
 import com.wmods.wppenhacer.xposed.core.WppCore;
 import com.wmods.wppenhacer.xposed.core.devkit.Unobfuscator;
 import com.wmods.wppenhacer.xposed.utils.ReflectionUtils;
+import com.wmods.wppenhacer.xposed.utils.ResIdWpp;
 import com.wmods.wppenhacer.xposed.utils.Utils;
 
 import java.util.ArrayList;
@@ -18,6 +20,7 @@ import de.robv.android.xposed.XSharedPreferences;
 import de.robv.android.xposed.XposedBridge;
 import de.robv.android.xposed.XposedHelpers;
 
+@FeatureSpec(prefs = {"channels", "removechannel_rec"})
 public class Channels extends Feature {
     public Channels(ClassLoader loader, XSharedPreferences preferences) {
         super(loader, preferences);
@@ -79,7 +82,7 @@ public class Channels extends Feature {
                     @Override
                     protected void beforeHookedMethod(MethodHookParam param) throws Throwable {
                         var menu = (Menu) param.args[0];
-                        var id = Utils.getID("menuitem_create_newsletter", "id");
+                        var id = ResIdWpp.id.menuitem_create_newsletter;
                         var menuItem = menu.findItem(id);
                         if (menuItem != null) {
                             menuItem.setVisible(false);
@@ -7,14 +7,17 @@ import android.widget.Toast;
 import androidx.annotation.NonNull;
 
 import com.wmods.wppenhacer.xposed.core.Feature;
+import com.wmods.wppenhacer.xposed.core.FeatureSpec;
 import com.wmods.wppenhacer.xposed.core.devkit.Unobfuscator;
 import com.wmods.wppenhacer.xposed.utils.ResId;
+import com.wmods.wppenhacer.xposed.utils.ResIdWpp;
 import com.wmods.wppenhacer.xposed.utils.Utils;
 
 import de.robv.android.xposed.XC_MethodHook;
 import de.robv.android.xposed.XSharedPreferences;
 import de.robv.android.xposed.XposedBridge;
 
+@FeatureSpec(prefs = "copystatus")
 public class CopyStatus extends Feature {
     public CopyStatus(@NonNull ClassLoader classLoader, @NonNull XSharedPreferences preferences) {
         super(classLoader, preferences);
@@ -32,7 +35,7 @@ public class CopyStatus extends Feature {
             @Override
             protected void afterHookedMethod(MethodHookParam param) throws Throwable {
                 var view = (View) param.getResult();
-                var caption = (TextView) view.findViewById(Utils.getID("caption", "id"));
+                var caption = (TextView) view.findViewById(ResIdWpp.id.caption);
                 if (caption != null) {
                     caption.setOnLongClickListener((view1 -> {
                         Utils.setToClipboard(caption.getText().toString());
@@ -49,7 +52,7 @@ public class CopyStatus extends Feature {
             @Override
             protected void afterHookedMethod(MethodHookParam param) throws Throwable {
                 var view = (View) param.args[0];
-                var text = (TextView) view.findViewById(Utils.getID("message_text", "id"));
+                var text = (TextView) view.findViewById(ResIdWpp.id.message_text);
                 if (text != null) {
                     text.setOnLongClickListener((view1 -> {
                         Utils.setToClipboard(text.getText().toString());
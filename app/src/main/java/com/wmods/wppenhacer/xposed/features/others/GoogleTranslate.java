@@ -6,6 +6,7 @@ import android.util.Base64;
 import androidx.annotation.NonNull;
 
 import com.wmods.wppenhacer.xposed.core.Feature;
+import com.wmods.wppenhacer.xposed.core.FeatureSpec;
 import com.wmods.wppenhacer.xposed.core.devkit.Unobfuscator;
 
 import org.json.JSONArray;
@@ -32,6 +33,7 @@ import okhttp3.Request;
 import okhttp3.RequestBody;
 import okhttp3.Response;
 
+@FeatureSpec(prefs = "google_translate")
 public class GoogleTranslate extends Feature {
 
     private final OkHttpClient client = new OkHttpClient.Builder()
@@ -10,11 +10,13 @@ import android.widget.LinearLayout;
 import androidx.annotation.NonNull;
 
 import com.wmods.wppenhacer.xposed.core.Feature;
+import com.wmods.wppenhacer.xposed.core.FeatureSpec;
 import com.wmods.wppenhacer.xposed.core.WppCore;
 import com.wmods.wppenhacer.xposed.core.components.FMessageWpp;
 import com.wmods.wppenhacer.xposed.core.devkit.Unobfuscator;
 import com.wmods.wppenhacer.xposed.utils.ReflectionUtils;
 import com.wmods.wppenhacer.xposed.utils.ResId;
+import com.wmods.wppenhacer.xposed.utils.ResIdWpp;
 import com.wmods.wppenhacer.xposed.utils.Utils;
 
 import de.robv.android.xposed.XC_MethodHook;
@@ -22,6 +24,7 @@ import de.robv.android.xposed.XSharedPreferences;
 import de.robv.android.xposed.XposedBridge;
 import de.robv.android.xposed.XposedHelpers;
 
+@FeatureSpec(prefs = "admin_grp")
 public class GroupAdmin extends Feature {
 
     private static final String TAG = "GroupAdmin";
@@ -96,7 +99,7 @@ public class GroupAdmin extends Feature {
                     var context = view.getContext();
                     ImageView iconAdmin;
                     if ((iconAdmin = view.findViewById(0x7fff0010)) == null) {
-                        var nameGroup = (LinearLayout) view.findViewById(Utils.getID("name_in_group", "id"));
+                        var nameGroup = (LinearLayout) view.findViewById(ResIdWpp.id.name_in_group);
                         if (nameGroup == null) {
                             Log.w(TAG, "name_in_group layout not found, skipping icon creation.");
                             return;
@@ -24,6 +24,7 @@ import com.wmods.wppenhacer.xposed.core.Feature;
 import com.wmods.wppenhacer.xposed.core.WppCore;
 import com.wmods.wppenhacer.xposed.core.devkit.Unobfuscator;
 import com.wmods.wppenhacer.xposed.utils.DesignUtils;
+import com.wmods.wppenhacer.xposed.utils.ResIdWpp;
 import com.wmods.wppenhacer.xposed.utils.Utils;
 
 import org.json.JSONArray;
@@ -95,7 +96,7 @@ public class MessageScheduler extends Feature {
 
         // Best-effort icon.
         try {
-            int waIconId = Utils.getID("ic_schedule", "drawable");
+            int waIconId = ResIdWpp.drawable.ic_schedule;
             if (waIconId != -1) {
                 item.setIcon(waIconId);
             } else {
@@ -370,7 +371,7 @@ public class MessageScheduler extends Feature {
 
     private String getMessageInputText(Activity activity) {
         try {
-            int entryId = Utils.getID("entry", "id");
+            int entryId = ResIdWpp.id.entry;
             if (entryId != -1) {
                 View v = activity.findViewById(entryId);
                 if (v instanceof EditText) {
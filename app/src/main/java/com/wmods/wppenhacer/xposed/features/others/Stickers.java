@@ -10,9 +10,11 @@ import android.widget.TextView;
 import androidx.annotation.NonNull;
 
 import com.wmods.wppenhacer.xposed.core.Feature;
+import com.wmods.wppenhacer.xposed.core.FeatureSpec;
 import com.wmods.wppenhacer.xposed.core.components.AlertDialogWpp;
 import com.wmods.wppenhacer.xposed.core.devkit.Unobfuscator;
 import com.wmods.wppenhacer.xposed.utils.ResId;
+import com.wmods.wppenhacer.xposed.utils.ResIdWpp;
 import com.wmods.wppenhacer.xposed.utils.Utils;
 
 import de.robv.android.xposed.XC_MethodHook;
@@ -20,6 +22,7 @@ import de.robv.android.xposed.XSharedPreferences;
 import de.robv.android.xposed.XposedBridge;
 import de.robv.android.xposed.XposedHelpers;
 
+@FeatureSpec(prefs = "alertsticker")
 public class Stickers extends Feature {
     public Stickers(@NonNull ClassLoader classLoader, @NonNull XSharedPreferences preferences) {
         super(classLoader, preferences);
@@ -42,14 +45,14 @@ public class Stickers extends Feature {
                             if (mCaptureOnClickListener == null) return;
                             if (!(param.thisObject instanceof ViewGroup)) return;
                             var view = (View) param.thisObject;
-                            if (view.findViewById(Utils.getID("sticker", "id")) == null) return;
+                            if (view.findViewById(ResIdWpp.id.sticker) == null) return;
 
                             param.args[0] = (View.OnClickListener) v -> {
                                 var context = view.getContext();
                                 var dialog = new AlertDialogWpp(view.getContext());
                                 dialog.setTitle(context.getString(ResId.string.send_sticker));
 
-                                var stickerView = (ImageView) view.findViewById(Utils.getID("sticker", "id"));
+                                var stickerView = (ImageView) view.findViewById(ResIdWpp.id.sticker);
                                 LinearLayout linearLayout = new LinearLayout(context);
                                 linearLayout.setOrientation(LinearLayout.VERTICAL);
                                 linearLayout.setGravity(Gravity.CENTER_HORIZONTAL);
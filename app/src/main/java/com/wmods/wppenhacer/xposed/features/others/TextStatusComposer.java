@@ -9,9 +9,11 @@ import androidx.annotation.NonNull;
 
 import com.wmods.wppenhacer.views.dialog.SimpleColorPickerDialog;
 import com.wmods.wppenhacer.xposed.core.Feature;
+import com.wmods.wppenhacer.xposed.core.FeatureSpec;
 import com.wmods.wppenhacer.xposed.core.WppCore;
 import com.wmods.wppenhacer.xposed.core.devkit.Unobfuscator;
 import com.wmods.wppenhacer.xposed.utils.ReflectionUtils;
+import com.wmods.wppenhacer.xposed.utils.ResIdWpp;
 import com.wmods.wppenhacer.xposed.utils.Utils;
 
 import de.robv.android.xposed.XC_MethodHook;
@@ -19,6 +21,7 @@ import de.robv.android.xposed.XSharedPreferences;
 import de.robv.android.xposed.XposedBridge;
 import de.robv.android.xposed.XposedHelpers;
 
+@FeatureSpec(prefs = "statuscomposer")
 public class TextStatusComposer extends Feature {
     private static final ColorData colorData = new ColorData();
 
@@ -40,15 +43,15 @@ public class TextStatusComposer extends Feature {
                         logDebug("afterHookedMethod", "TextStatusComposer");
                         var activity = WppCore.getCurrentActivity();
                         var viewRoot = (View) param.args[1];
-                        var pickerColor = viewRoot.findViewById(Utils.getID("color_picker_btn", "id"));
-                        var entry = (EditText) viewRoot.findViewById(Utils.getID("entry", "id"));
+                        var pickerColor = viewRoot.findViewById(ResIdWpp.id.color_picker_btn);
+                        var entry = (EditText) viewRoot.findViewById(ResIdWpp.id.entry);
 
                         pickerColor.setOnLongClickListener(v -> {
                             var dialog = new SimpleColorPickerDialog(activity, color -> {
                                 try {
                                     activity.getWindow().setBackgroundDrawable(new ColorDrawable(color));
-                                    viewRoot.findViewById(Utils.getID("background","id")).setBackgroundColor(color);
-                                    var controls = viewRoot.findViewById(Utils.getID("controls", "id"));
+                                    viewRoot.findViewById(ResIdWpp.id.background).setBackgroundColor(color);
+                                    var controls = viewRoot.findViewById(ResIdWpp.id.controls);
                                     controls.setBackgroundColor(color);
                                     colorData.backgroundColor = color;
                                 } catch (Exception e) {
@@ -60,7 +63,7 @@ public class TextStatusComposer extends Feature {
                             return true;
                         });
 
-                        var textColor = viewRoot.findViewById(Utils.getID("font_picker_btn", "id"));
+                        var textColor = viewRoot.findViewById(ResIdWpp.id.font_picker_btn);
                         textColor.setOnLongClickListener(v -> {
                             var dialog = new SimpleColorPickerDialog(activity, color -> {
                                 colorData.textColor = color;
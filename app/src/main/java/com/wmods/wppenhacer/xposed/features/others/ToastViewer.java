@@ -88,7 +88,7 @@ public class ToastViewer extends Feature {
 
                 if (TextUtils.isEmpty(contactName)) contactName = userJid.getPhoneNumber();
 
-                var sql = MessageStore.getInstance().getDatabase();
+                var sql = MessageStore.getInstance().getReadableDatabase();
 
                 if (fmessage.get() != null) {
                     rowId = new FMessageWpp(fmessage.get()).getRowId();
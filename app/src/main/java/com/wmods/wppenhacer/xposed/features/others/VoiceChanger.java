@@ -9,6 +9,7 @@ import android.os.Handler;
 import android.os.Looper;
 
 import com.wmods.wppenhacer.xposed.core.Feature;
+import com.wmods.wppenhacer.xposed.core.FeatureSpec;
 import com.wmods.wppenhacer.xposed.core.devkit.Unobfuscator;
 
 import java.io.File;
@@ -18,7 +19,6 @@ import java.io.IOException;
 import java.lang.reflect.Method;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
-import java.nio.ShortBuffer;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
@@ -48,9 +48,10 @@ import de.robv.android.xposed.XposedHelpers;
  * Hook Strategy:
  * 1. Hook OpusRecorder constructor to capture the output file path
  * 2. Hook OpusRecorder.stop() to trigger voice processing after recording
- * 3. Process the opus file: decode -> apply effects -> re-encode
+ * 3. Stream the opus file: decode -> apply effects -> re-encode, block by block
  * 4. Replace the original file with the processed version
  */
+@FeatureSpec(prefs = "voice_changer_enabled")
 public class VoiceChanger extends Feature {
 
     private static final String TAG = "VoiceChanger";
@@ -85,6 +86,17 @@ public class VoiceChanger extends Feature {
     // Track if we've processed the current recording
     private static boolean recordingProcessed = false;
 
+    // Opus typically uses 48kHz
+    private static final int SAMPLE_RATE = 48000;
+
+    // Opus frame size is typically 960 samples for 48kHz (20ms), mono 16-bit
+    private static final int FRAME_BYTES = 960 * 2;
+
+    private static final long TIMEOUT_US = 10000; // 10ms timeout
+
+    // Direct buffer between the native effect and the encoder, reused across recordings
+    private ByteBuffer stagingBuffer;
+
     // Executor for background processing
     private final ExecutorService executor = Executors.newSingleThreadExecutor();
 
@@ -116,7 +128,14 @@ public class VoiceChanger extends Feature {
 
     private static native void nativeSetCustomParams(float tempo, float pitch, float speed);
 
-    private static native short[] nativeProcessAudio(short[] input, int sampleRate);
+    private static native void nativeBeginStream(int sampleRate);
+
+    private static native int nativeMaxOutputBytes(int inputBytes);
+
+    private static native int nativeProcessBlock(ByteBuffer input, int inputOffset, int inputLength,
+            ByteBuffer output, int outputOffset);
+
+    private static native int nativeFinishStream(ByteBuffer output, int outputOffset);
 
     private static native boolean nativeIsEnabled();
 
@@ -398,32 +417,16 @@ public class VoiceChanger extends Feature {
         log("Processing voice recording: " + opusFilePath);
         log("File size: " + opusFile.length() + " bytes");
 
-        // Step 1: Decode opus to PCM
-        short[] pcmData = decodeOpusToPcm(opusFile);
-        if (pcmData == null || pcmData.length == 0) {
-            log("Failed to decode opus file");
-            return;
-        }
-        log("Decoded " + pcmData.length + " PCM samples");
-
-        // Step 2: Apply voice effect via native library
-        short[] processedPcm = nativeProcessAudio(pcmData, 48000); // Opus typically uses 48kHz
-        if (processedPcm == null || processedPcm.length == 0) {
-            log("Voice processing returned empty result");
-            return;
-        }
-        log("Processed " + processedPcm.length + " PCM samples");
-
-        // Step 3: Encode PCM back to opus
+        // Step 1: Decode, apply the effect and encode block by block
         File tempFile = new File(opusFile.getParent(), "voice_processed_temp.opus");
-        boolean encoded = encodePcmToOpus(processedPcm, 48000, tempFile);
-        if (!encoded) {
-            log("Failed to encode processed audio");
+        if (!transcodeWithEffect(opusFile, tempFile)) {
+            log("Failed to process voice recording");
+            tempFile.delete();
             return;
         }
         log("Encoded to temp file: " + tempFile.getAbsolutePath() + " (" + tempFile.length() + " bytes)");
 
-        // Step 4: Replace original file with processed file
+        // Step 2: Replace original file with processed file
         if (opusFile.delete() && tempFile.renameTo(opusFile)) {
             log("Voice recording processed successfully! Replaced original file.");
         } else {
@@ -452,15 +455,22 @@ public class VoiceChanger extends Feature {
     }
 
     /**
-     * Decode an Opus file to PCM samples using MediaCodec
+     * Streams an Opus file through the native effect into a new Opus file.
+     * <p>
+     * Each block the decoder outputs is processed straight from its direct buffer into a reusable direct
+     * staging buffer, which feeds the encoder one Opus frame at a time. Memory use does not grow with the
+     * length of the recording.
      */
-    private short[] decodeOpusToPcm(File opusFile) {
+    private boolean transcodeWithEffect(File inputFile, File outputFile) {
         MediaExtractor extractor = null;
         MediaCodec decoder = null;
+        MediaCodec encoder = null;
+        MediaMuxer muxer = null;
+        boolean muxerStarted = false;
 
         try {
             extractor = new MediaExtractor();
-            extractor.setDataSource(opusFile.getAbsolutePath());
+            extractor.setDataSource(inputFile.getAbsolutePath());
 
             // Find the audio track
             int audioTrackIndex = -1;
@@ -479,209 +489,165 @@ public class VoiceChanger extends Feature {
 
             if (audioTrackIndex == -1 || format == null) {
                 log("No audio track found in opus file");
-                return null;
+                return false;
             }
 
-            log("Found audio track: " + format.toString());
+            log("Found audio track: " + format);
             extractor.selectTrack(audioTrackIndex);
 
-            String mime = format.getString(MediaFormat.KEY_MIME);
-            decoder = MediaCodec.createDecoderByType(mime);
+            decoder = MediaCodec.createDecoderByType(format.getString(MediaFormat.KEY_MIME));
             decoder.configure(format, null, null, 0);
             decoder.start();
 
-            ByteBuffer[] inputBuffers = decoder.getInputBuffers();
-            ByteBuffer[] outputBuffers = decoder.getOutputBuffers();
-            MediaCodec.BufferInfo bufferInfo = new MediaCodec.BufferInfo();
+            // Create encoder for Opus
+            MediaFormat outputFormat = MediaFormat.createAudioFormat(MediaFormat.MIMETYPE_AUDIO_OPUS, SAMPLE_RATE, 1);
+            outputFormat.setInteger(MediaFormat.KEY_BIT_RATE, 64000); // 64 kbps
+            outputFormat.setInteger(MediaFormat.KEY_SAMPLE_RATE, SAMPLE_RATE);
+            outputFormat.setInteger(MediaFormat.KEY_CHANNEL_COUNT, 1);
 
-            // Collect decoded samples
-            java.util.ArrayList<Short> samples = new java.util.ArrayList<>();
-            boolean inputDone = false;
-            boolean outputDone = false;
-            long timeoutUs = 10000; // 10ms timeout
+            encoder = MediaCodec.createEncoderByType(MediaFormat.MIMETYPE_AUDIO_OPUS);
+            encoder.configure(outputFormat, null, null, MediaCodec.CONFIGURE_FLAG_ENCODE);
+            encoder.start();
 
-            while (!outputDone) {
-                // Feed input
-                if (!inputDone) {
-                    int inputBufferIndex = decoder.dequeueInputBuffer(timeoutUs);
+            muxer = new MediaMuxer(outputFile.getAbsolutePath(), MediaMuxer.OutputFormat.MUXER_OUTPUT_OGG);
+            int trackIndex = -1;
+
+            nativeBeginStream(SAMPLE_RATE);
+            ByteBuffer pending = stagingBuffer != null ? stagingBuffer : reserveStaging(null, FRAME_BYTES * 4);
+            pending.clear();
+            pending.limit(0);
+
+            MediaCodec.BufferInfo decoderInfo = new MediaCodec.BufferInfo();
+            MediaCodec.BufferInfo encoderInfo = new MediaCodec.BufferInfo();
+            boolean extractorDone = false;
+            boolean decoderDone = false;
+            boolean streamFinished = false;
+            boolean encoderInputDone = false;
+            boolean encoderDone = false;
+            long samplesQueued = 0;
+
+            while (!encoderDone) {
+                // Feed compressed packets to the decoder
+                if (!extractorDone) {
+                    int inputBufferIndex = decoder.dequeueInputBuffer(TIMEOUT_US);
                     if (inputBufferIndex >= 0) {
-                        ByteBuffer inputBuffer = inputBuffers[inputBufferIndex];
-                        int sampleSize = extractor.readSampleData(inputBuffer, 0);
+                        ByteBuffer inputBuffer = decoder.getInputBuffer(inputBufferIndex);
+                        int sampleSize = inputBuffer != null ? extractor.readSampleData(inputBuffer, 0) : -1;
 
                         if (sampleSize < 0) {
                             decoder.queueInputBuffer(inputBufferIndex, 0, 0, 0,
                                     MediaCodec.BUFFER_FLAG_END_OF_STREAM);
-                            inputDone = true;
+                            extractorDone = true;
                         } else {
-                            long presentationTimeUs = extractor.getSampleTime();
                             decoder.queueInputBuffer(inputBufferIndex, 0, sampleSize,
-                                    presentationTimeUs, 0);
+                                    extractor.getSampleTime(), 0);
                             extractor.advance();
                         }
                     }
                 }
 
-                // Get output
-                int outputBufferIndex = decoder.dequeueOutputBuffer(bufferInfo, timeoutUs);
-                if (outputBufferIndex >= 0) {
-                    if ((bufferInfo.flags & MediaCodec.BUFFER_FLAG_END_OF_STREAM) != 0) {
-                        outputDone = true;
-                    }
-
-                    if (bufferInfo.size > 0) {
-                        ByteBuffer outputBuffer = outputBuffers[outputBufferIndex];
-                        outputBuffer.position(bufferInfo.offset);
-                        outputBuffer.limit(bufferInfo.offset + bufferInfo.size);
-
-                        ShortBuffer shortBuffer = outputBuffer.order(ByteOrder.nativeOrder()).asShortBuffer();
-                        while (shortBuffer.hasRemaining()) {
-                            samples.add(shortBuffer.get());
+                // Run the next decoded block through the effect once less than a frame is waiting
+                if (!streamFinished && pending.remaining() < FRAME_BYTES) {
+                    if (!decoderDone) {
+                        int outputBufferIndex = decoder.dequeueOutputBuffer(decoderInfo, TIMEOUT_US);
+                        if (outputBufferIndex >= 0) {
+                            if (decoderInfo.size > 0) {
+                                ByteBuffer decoded = decoder.getOutputBuffer(outputBufferIndex);
+                                if (decoded != null) {
+                                    int leftover = pending.remaining();
+                                    pending = reserveStaging(pending, leftover + nativeMaxOutputBytes(decoderInfo.size));
+                                    int written = nativeProcessBlock(decoded, decoderInfo.offset, decoderInfo.size,
+                                            pending, leftover);
+                                    if (written < 0) throw new IOException("Native processing failed");
+                                    pending.position(0);
+                                    pending.limit(leftover + written);
+                                }
+                            }
+                            if ((decoderInfo.flags & MediaCodec.BUFFER_FLAG_END_OF_STREAM) != 0) {
+                                decoderDone = true;
+                            }
+                            decoder.releaseOutputBuffer(outputBufferIndex, false);
                         }
+                    } else {
+                        int leftover = pending.remaining();
+                        pending = reserveStaging(pending, leftover + nativeMaxOutputBytes(0));
+                        int written = nativeFinishStream(pending, leftover);
+                        pending.position(0);
+                        pending.limit(leftover + Math.max(written, 0));
+                        streamFinished = true;
                     }
-
-                    decoder.releaseOutputBuffer(outputBufferIndex, false);
-                } else if (outputBufferIndex == MediaCodec.INFO_OUTPUT_BUFFERS_CHANGED) {
-                    outputBuffers = decoder.getOutputBuffers();
                 }
-            }
-
-            // Convert ArrayList to short[]
-            short[] result = new short[samples.size()];
-            for (int i = 0; i < samples.size(); i++) {
-                result[i] = samples.get(i);
-            }
-            return result;
 
-        } catch (Exception e) {
-            log("Error decoding opus: " + e.getMessage());
-            XposedBridge.log(e);
-            return null;
-        } finally {
-            if (decoder != null) {
-                try {
-                    decoder.stop();
-                    decoder.release();
-                } catch (Exception ignored) {
-                }
-            }
-            if (extractor != null) {
-                extractor.release();
-            }
-        }
-    }
-
-    /**
-     * Encode PCM samples to Opus file using MediaCodec
-     */
-    private boolean encodePcmToOpus(short[] pcmData, int sampleRate, File outputFile) {
-        MediaCodec encoder = null;
-        MediaMuxer muxer = null;
-
-        try {
-            // Create encoder for Opus
-            MediaFormat format = MediaFormat.createAudioFormat(MediaFormat.MIMETYPE_AUDIO_OPUS, sampleRate, 1);
-            format.setInteger(MediaFormat.KEY_BIT_RATE, 64000); // 64 kbps
-            format.setInteger(MediaFormat.KEY_SAMPLE_RATE, sampleRate);
-            format.setInteger(MediaFormat.KEY_CHANNEL_COUNT, 1);
-
-            encoder = MediaCodec.createEncoderByType(MediaFormat.MIMETYPE_AUDIO_OPUS);
-            encoder.configure(format, null, null, MediaCodec.CONFIGURE_FLAG_ENCODE);
-            encoder.start();
-
-            muxer = new MediaMuxer(outputFile.getAbsolutePath(), MediaMuxer.OutputFormat.MUXER_OUTPUT_OGG);
-            int trackIndex = -1;
-            boolean muxerStarted = false;
-
-            MediaCodec.BufferInfo bufferInfo = new MediaCodec.BufferInfo();
-
-            // Convert short[] to byte[]
-            byte[] pcmBytes = new byte[pcmData.length * 2];
-            ByteBuffer.wrap(pcmBytes).order(ByteOrder.nativeOrder())
-                    .asShortBuffer().put(pcmData);
-
-            int inputOffset = 0;
-            boolean inputDone = false;
-            boolean outputDone = false;
-            long presentationTimeUs = 0;
-            long timeoutUs = 10000;
-
-            // Opus frame size is typically 960 samples for 48kHz (20ms)
-            int frameSize = 960 * 2; // bytes per frame (mono, 16-bit)
-
-            while (!outputDone) {
-                // Feed input
-                if (!inputDone) {
-                    int inputBufferIndex = encoder.dequeueInputBuffer(timeoutUs);
+                // Feed the encoder a frame at a time, the remainder only once the stream is finished
+                if (!encoderInputDone && (pending.remaining() >= FRAME_BYTES || streamFinished)) {
+                    int inputBufferIndex = encoder.dequeueInputBuffer(TIMEOUT_US);
                     if (inputBufferIndex >= 0) {
+                        long presentationTimeUs = samplesQueued * 1000000L / SAMPLE_RATE;
                         ByteBuffer inputBuffer = encoder.getInputBuffer(inputBufferIndex);
-                        if (inputBuffer != null) {
+                        if (inputBuffer != null && pending.hasRemaining()) {
                             inputBuffer.clear();
-
-                            int bytesRemaining = pcmBytes.length - inputOffset;
-                            int bytesToWrite = Math.min(Math.min(inputBuffer.capacity(), frameSize), bytesRemaining);
-
-                            if (bytesToWrite > 0) {
-                                inputBuffer.put(pcmBytes, inputOffset, bytesToWrite);
-                                encoder.queueInputBuffer(inputBufferIndex, 0, bytesToWrite,
-                                        presentationTimeUs, 0);
-                                inputOffset += bytesToWrite;
-                                presentationTimeUs += (bytesToWrite / 2) * 1000000L / sampleRate;
-                            }
-
-                            if (inputOffset >= pcmBytes.length) {
-                                // Signal end of stream on next available buffer
-                                int eosBufferIndex = encoder.dequeueInputBuffer(timeoutUs);
-                                if (eosBufferIndex >= 0) {
-                                    encoder.queueInputBuffer(eosBufferIndex, 0, 0,
-                                            presentationTimeUs, MediaCodec.BUFFER_FLAG_END_OF_STREAM);
-                                    inputDone = true;
-                                }
-                            }
+                            int bytesToWrite = Math.min(Math.min(inputBuffer.remaining(), FRAME_BYTES), pending.remaining());
+                            int limit = pending.limit();
+                            pending.limit(pending.position() + bytesToWrite);
+                            inputBuffer.put(pending);
+                            pending.limit(limit);
+                            encoder.queueInputBuffer(inputBufferIndex, 0, bytesToWrite, presentationTimeUs, 0);
+                            samplesQueued += bytesToWrite / 2;
+                        } else {
+                            encoder.queueInputBuffer(inputBufferIndex, 0, 0, presentationTimeUs,
+                                    MediaCodec.BUFFER_FLAG_END_OF_STREAM);
+                            encoderInputDone = true;
                         }
                     }
                 }
 
-                // Get output
-                int outputBufferIndex = encoder.dequeueOutputBuffer(bufferInfo, timeoutUs);
+                // Write encoded packets
+                int outputBufferIndex = encoder.dequeueOutputBuffer(encoderInfo, TIMEOUT_US);
                 if (outputBufferIndex >= 0) {
-                    if ((bufferInfo.flags & MediaCodec.BUFFER_FLAG_END_OF_STREAM) != 0) {
-                        outputDone = true;
+                    if ((encoderInfo.flags & MediaCodec.BUFFER_FLAG_END_OF_STREAM) != 0) {
+                        encoderDone = true;
                     }
 
-                    if (bufferInfo.size > 0) {
+                    if (encoderInfo.size > 0) {
                         if (!muxerStarted) {
-                            MediaFormat outputFormat = encoder.getOutputFormat();
-                            trackIndex = muxer.addTrack(outputFormat);
+                            trackIndex = muxer.addTrack(encoder.getOutputFormat());
                             muxer.start();
                             muxerStarted = true;
                         }
 
                         ByteBuffer outputBuffer = encoder.getOutputBuffer(outputBufferIndex);
                         if (outputBuffer != null) {
-                            outputBuffer.position(bufferInfo.offset);
-                            outputBuffer.limit(bufferInfo.offset + bufferInfo.size);
-                            muxer.writeSampleData(trackIndex, outputBuffer, bufferInfo);
+                            outputBuffer.position(encoderInfo.offset);
+                            outputBuffer.limit(encoderInfo.offset + encoderInfo.size);
+                            muxer.writeSampleData(trackIndex, outputBuffer, encoderInfo);
                         }
                     }
 
                     encoder.releaseOutputBuffer(outputBufferIndex, false);
                 } else if (outputBufferIndex == MediaCodec.INFO_OUTPUT_FORMAT_CHANGED) {
                     if (!muxerStarted) {
-                        MediaFormat outputFormat = encoder.getOutputFormat();
-                        trackIndex = muxer.addTrack(outputFormat);
+                        trackIndex = muxer.addTrack(encoder.getOutputFormat());
                         muxer.start();
                         muxerStarted = true;
                     }
                 }
             }
 
-            return true;
+            log("Processed " + samplesQueued + " PCM samples");
+            return muxerStarted;
 
         } catch (Exception e) {
-            log("Error encoding opus: " + e.getMessage());
+            log("Error processing opus: " + e.getMessage());
             XposedBridge.log(e);
             return false;
         } finally {
+            if (decoder != null) {
+                try {
+                    decoder.stop();
+                    decoder.release();
+                } catch (Exception ignored) {
+                }
+            }
             if (encoder != null) {
                 try {
                     encoder.stop();
@@ -691,12 +657,33 @@ public class VoiceChanger extends Feature {
             }
             if (muxer != null) {
                 try {
-                    muxer.stop();
+                    if (muxerStarted) muxer.stop();
                     muxer.release();
                 } catch (Exception ignored) {
                 }
             }
+            if (extractor != null) {
+                extractor.release();
+            }
+        }
+    }
+
+    /**
+     * Returns a direct buffer of at least {@code required} bytes whose first bytes are the unread bytes of
+     * {@code current}. The buffer is kept for the next recordings and only replaced when it is too small.
+     */
+    private ByteBuffer reserveStaging(ByteBuffer current, int required) {
+        if (current != null && current.capacity() >= required) {
+            current.compact();
+            return current;
+        }
+        ByteBuffer staging = ByteBuffer.allocateDirect(Math.max(required * 2, FRAME_BYTES * 4))
+                .order(ByteOrder.nativeOrder());
+        if (current != null) {
+            staging.put(current);
         }
+        stagingBuffer = staging;
+        return staging;
     }
 
     @Override
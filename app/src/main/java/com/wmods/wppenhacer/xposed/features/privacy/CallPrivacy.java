@@ -123,23 +123,21 @@ public class CallPrivacy extends Feature {
 
         if (phoneNumber == null) return false;
 
-        var customprivacy = CustomPrivacy.getJSON(phoneNumber);
-
         if (type == PrivacyType.ALL_BLOCKED) {
-            return customprivacy.optBoolean("BlockCall", true);
+            return CustomPrivacy.isEnabled(phoneNumber, CustomPrivacy.BLOCK_CALL, true);
         }
 
         if (type == PrivacyType.ALL_PERMITTED) {
-            return customprivacy.optBoolean("BlockCall", false);
+            return CustomPrivacy.isEnabled(phoneNumber, CustomPrivacy.BLOCK_CALL, false);
         }
 
         switch (type) {
             case ONLY_UNKNOWN:
-                if (customprivacy.optBoolean("BlockCall", false)) return true;
+                if (CustomPrivacy.isEnabled(phoneNumber, CustomPrivacy.BLOCK_CALL, false)) return true;
                 var contactName = WppCore.getSContactName(userJid, true);
                 return TextUtils.isEmpty(contactName) || contactName.equals(phoneNumber);
             case BACKLIST:
-                if (customprivacy.optBoolean("BlockCall", false)) return true;
+                if (CustomPrivacy.isEnabled(phoneNumber, CustomPrivacy.BLOCK_CALL, false)) return true;
                 var callBlockList = prefs.getString("call_block_contacts", "[]");
                 var blockList = Arrays.stream(callBlockList.substring(1, callBlockList.length() - 1).split(", ")).map(String::trim).collect(Collectors.toCollection(ArrayList::new));
                 for (var blockNumber : blockList) {
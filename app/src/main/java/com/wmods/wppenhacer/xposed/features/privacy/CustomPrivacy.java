@@ -23,6 +23,7 @@ import androidx.annotation.NonNull;
 
 import com.wmods.wppenhacer.adapter.CustomPrivacyAdapter;
 import com.wmods.wppenhacer.xposed.core.Feature;
+import com.wmods.wppenhacer.xposed.core.FeatureSpec;
 import com.wmods.wppenhacer.xposed.core.WppCore;
 import com.wmods.wppenhacer.xposed.core.components.AlertDialogWpp;
 import com.wmods.wppenhacer.xposed.core.components.FMessageWpp;
@@ -31,6 +32,7 @@ import com.wmods.wppenhacer.xposed.features.others.MenuHome;
 import com.wmods.wppenhacer.xposed.utils.DesignUtils;
 import com.wmods.wppenhacer.xposed.utils.ReflectionUtils;
 import com.wmods.wppenhacer.xposed.utils.ResId;
+import com.wmods.wppenhacer.xposed.utils.ResIdWpp;
 import com.wmods.wppenhacer.xposed.utils.Utils;
 
 import org.json.JSONObject;
@@ -43,12 +45,24 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 import de.robv.android.xposed.XC_MethodHook;
 import de.robv.android.xposed.XSharedPreferences;
 import de.robv.android.xposed.XposedHelpers;
 
+@FeatureSpec(prefs = "custom_privacy_type")
 public class CustomPrivacy extends Feature {
+
+    // Policy flags, in the order of OPTIONS
+    public static final int HIDE_SEEN = 1;
+    public static final int HIDE_VIEW_STATUS = 1 << 1;
+    public static final int HIDE_RECEIPT = 1 << 2;
+    public static final int HIDE_TYPING = 1 << 3;
+    public static final int HIDE_RECORDING = 1 << 4;
+    public static final int BLOCK_CALL = 1 << 5;
+    public static final int BLUE_ON_REPLY = 1 << 6;
+
     private static final List<PrivacyOption> OPTIONS = Arrays.asList(
             new PrivacyOption("HideSeen", ResId.string.hideread, ResId.string.hideread_sum, "hideread", false),
             new PrivacyOption("HideViewStatus", ResId.string.hidestatusview, ResId.string.hidestatusview_sum, "hidestatusview", false),
@@ -62,6 +76,15 @@ public class CustomPrivacy extends Feature {
     private Method chatUserJidMethod;
     private Method groupUserJidMethod;
 
+    /**
+     * Phone number to the flags set for it: the bits given a value in the upper 16 bits, their values in the
+     * lower 16 bits. Contacts with no custom privacy have no entry.
+     */
+    private static volatile ConcurrentHashMap<String, Integer> policies;
+    private static int globalFlags;
+    // SharedPreferences only keeps a weak reference to its listeners
+    private static SharedPreferences.OnSharedPreferenceChangeListener policyListener;
+
     public CustomPrivacy(@NonNull ClassLoader classLoader, @NonNull XSharedPreferences preferences) {
         super(classLoader, preferences);
     }
@@ -72,6 +95,80 @@ public class CustomPrivacy extends Feature {
         return WppCore.getPrivJSON(number + "_privacy", new JSONObject());
     }
 
+    /**
+     * Same as {@code getJSON(number).optBoolean(key, defaultValue)} for the option of the given flag, without
+     * parsing or allocating.
+     */
+    public static boolean isEnabled(String number, int flag, boolean defaultValue) {
+        if (TextUtils.isEmpty(number)) return defaultValue;
+        Integer policy = getPolicies().get(number);
+        if (policy == null || (policy >>> 16 & flag) == 0) return defaultValue;
+        return (policy & flag) != 0;
+    }
+
+    /**
+     * {@link #isEnabled(String, int, boolean)} with the global preference of the option as default.
+     */
+    public static boolean isEnabled(String number, int flag) {
+        return isEnabled(number, flag, (globalFlags & flag) != 0);
+    }
+
+    private static ConcurrentHashMap<String, Integer> getPolicies() {
+        var table = policies;
+        if (table != null) return table;
+        synchronized (CustomPrivacy.class) {
+            if (policies != null) return policies;
+            table = new ConcurrentHashMap<>();
+            int global = 0;
+            for (int i = 0; i < OPTIONS.size(); i++) {
+                if (OPTIONS.get(i).getDefaultValue(Utils.xprefs)) global |= 1 << i;
+            }
+            globalFlags = global;
+            var privPrefs = WppCore.getPrivPrefs();
+            for (var entry : privPrefs.getAll().entrySet()) {
+                putPolicy(table, entry.getKey(), entry.getValue());
+            }
+            // Keep the table current when the dialog saves or the list removes a contact
+            policyListener = (sharedPreferences, key) -> {
+                if (key == null) {
+                    policies = null;
+                    return;
+                }
+                if (!key.endsWith("_privacy")) return;
+                putPolicy(policies, key, sharedPreferences.getString(key, null));
+            };
+            privPrefs.registerOnSharedPreferenceChangeListener(policyListener);
+            policies = table;
+            return table;
+        }
+    }
+
+    private static void putPolicy(ConcurrentHashMap<String, Integer> table, String key, Object value) {
+        if (table == null || key == null || !key.endsWith("_privacy")) return;
+        var number = key.substring(0, key.length() - "_privacy".length());
+        if (!(value instanceof String json)) {
+            table.remove(number);
+            return;
+        }
+        int mask = 0;
+        int values = 0;
+        try {
+            var jsonObject = new JSONObject(json);
+            for (int i = 0; i < OPTIONS.size(); i++) {
+                var optionKey = OPTIONS.get(i).key;
+                if (!jsonObject.has(optionKey)) continue;
+                mask |= 1 << i;
+                if (jsonObject.optBoolean(optionKey)) values |= 1 << i;
+            }
+        } catch (Exception ignored) {
+        }
+        if (mask == 0) {
+            table.remove(number);
+        } else {
+            table.put(number, mask << 16 | values);
+        }
+    }
+
     @Override
     public void doHook() throws Throwable {
         if (Objects.equals(Utils.xprefs.getString("custom_privacy_type", "0"), "0")) return;
@@ -96,7 +193,7 @@ public class CustomPrivacy extends Feature {
                         if (!ContactInfoActivityClass.isInstance(activity) && !GroupInfoActivityClass.isInstance(activity))
                             return;
                         if (activity.findViewById(0x7f0a9999) != null) return;
-                        int id = Utils.getID("contact_info_security_card_layout", "id");
+                        int id = ResIdWpp.id.contact_info_security_card_layout;
                         ViewGroup infoLayout = activity.getWindow().findViewById(id);
                         Drawable icon = activity.getDrawable(ResId.drawable.ic_privacy);
                         View itemView = createItemView(activity, activity.getString(ResId.string.custom_privacy), activity.getString(ResId.string.custom_privacy_sum), icon);
@@ -11,10 +11,9 @@ import com.wmods.wppenhacer.xposed.core.WppCore;
 import com.wmods.wppenhacer.xposed.core.components.FMessageWpp;
 import com.wmods.wppenhacer.xposed.core.db.MessageHistory;
 import com.wmods.wppenhacer.xposed.core.devkit.Unobfuscator;
-import com.wmods.wppenhacer.xposed.features.customization.HideSeenView;
+import com.wmods.wppenhacer.xposed.utils.CallScope;
 import com.wmods.wppenhacer.xposed.utils.ReflectionUtils;
 
-import org.json.JSONObject;
 import org.luckypray.dexkit.query.enums.StringMatchType;
 
 import java.lang.reflect.Method;
@@ -63,10 +62,13 @@ public class HideReceipt extends Feature {
         logDebug("Inside Chat", Unobfuscator.getMethodDescriptor(hideViewInChatMethod));
         logDebug("Outside Chat", Unobfuscator.getMethodDescriptor(outsideMethod));
 
+        var outsideScope = CallScope.of(outsideMethod);
+        var insideScope = CallScope.of(hideViewInChatMethod);
+
         XposedBridge.hookMethod(receiptMethod, new XC_MethodHook() {
             @Override
             protected void beforeHookedMethod(MethodHookParam param) throws Throwable {
-                if (!isValidCallContext(outsideMethod, hideViewInChatMethod)) return;
+                if (!isValidCallContext(outsideScope, insideScope)) return;
 
                 FMessageWpp.Key keyMessage = extractKeyMessage(param);
                 if (keyMessage == null) return;
@@ -83,8 +85,8 @@ public class HideReceipt extends Feature {
         });
     }
 
-    private boolean isValidCallContext(Method outsideMethod, Method hideViewInChatMethod) {
-        return ReflectionUtils.isCalledFromMethod(outsideMethod) || ReflectionUtils.isCalledFromMethod(hideViewInChatMethod);
+    private boolean isValidCallContext(CallScope outsideScope, CallScope insideScope) {
+        return outsideScope.isActive() || insideScope.isActive();
     }
 
     private Object extractUserJidObject(XC_MethodHook.MethodHookParam param) throws Exception {
@@ -125,12 +127,12 @@ public class HideReceipt extends Feature {
 
     private void processReceiptHiding(XC_MethodHook.MethodHookParam param, FMessageWpp.Key keyMessage, FMessageWpp fMessage,
                                       FMessageWpp.UserJid currentUserJid) {
-        JSONObject privacy = CustomPrivacy.getJSON(currentUserJid.getPhoneNumber());
+        String number = currentUserJid.getPhoneNumber();
         List<Pair<Integer, Class<? extends String>>> strings = ReflectionUtils.findClassesOfType(
                 ((Method) param.method).getParameterTypes(), String.class);
         int msgTypeIdx = strings.get(strings.size() - 1).first;
 
-        if (shouldHideReceipt(param, privacy, msgTypeIdx)) {
+        if (shouldHideReceipt(param, number, msgTypeIdx)) {
             param.args[msgTypeIdx] = RECEIPT_TYPE_INACTIVE;
         }
 
@@ -139,9 +141,9 @@ public class HideReceipt extends Feature {
         }
     }
 
-    private boolean shouldHideReceipt(XC_MethodHook.MethodHookParam param, JSONObject privacy, int msgTypeIdx) {
-        boolean customHideReceipt = privacy.optBoolean("HideReceipt", hideReceipt);
-        boolean customHideRead = privacy.optBoolean("HideSeen", hideRead);
+    private boolean shouldHideReceipt(XC_MethodHook.MethodHookParam param, String number, int msgTypeIdx) {
+        boolean customHideReceipt = CustomPrivacy.isEnabled(number, CustomPrivacy.HIDE_RECEIPT, hideReceipt);
+        boolean customHideRead = CustomPrivacy.isEnabled(number, CustomPrivacy.HIDE_SEEN, hideRead);
 
         if (RECEIPT_TYPE_SENDER.equals(param.args[msgTypeIdx])) {
             return false;
@@ -168,7 +170,6 @@ public class HideReceipt extends Feature {
                 : MessageHistory.MessageType.MESSAGE_TYPE;
 
         MessageHistory.getInstance().insertHideSeenMessage(phone, messageId, type, false);
-        HideSeenView.updateAllBubbleViews();
     }
 
     @NonNull
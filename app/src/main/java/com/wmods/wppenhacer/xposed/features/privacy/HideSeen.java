@@ -10,10 +10,9 @@ import com.wmods.wppenhacer.xposed.core.WppCore;
 import com.wmods.wppenhacer.xposed.core.components.FMessageWpp;
 import com.wmods.wppenhacer.xposed.core.db.MessageHistory;
 import com.wmods.wppenhacer.xposed.core.devkit.Unobfuscator;
-import com.wmods.wppenhacer.xposed.features.customization.HideSeenView;
+import com.wmods.wppenhacer.xposed.utils.CallScope;
 import com.wmods.wppenhacer.xposed.utils.ReflectionUtils;
 
-import org.json.JSONObject;
 import org.luckypray.dexkit.query.enums.StringMatchType;
 
 import java.lang.reflect.Method;
@@ -96,8 +95,7 @@ public class HideSeen extends Feature {
                 if (userJid.isNull())
                     return;
 
-                JSONObject privacy = CustomPrivacy.getJSON(userJid.getPhoneNumber());
-                boolean isHide = processReadReceiptByType(param, sendReadReceiptJob, userJid, privacy);
+                boolean isHide = processReadReceiptByType(param, sendReadReceiptJob, userJid, userJid.getPhoneNumber());
 
                 if (isHide) {
                     recordHiddenMessages(sendReadReceiptJob, userJid);
@@ -115,19 +113,19 @@ public class HideSeen extends Feature {
     }
 
     private boolean processReadReceiptByType(XC_MethodHook.MethodHookParam param, Object job,
-            FMessageWpp.UserJid userJid, JSONObject privacy) {
+            FMessageWpp.UserJid userJid, String number) {
         if (userJid.isGroup()) {
-            return processGroupReadReceipt(param, privacy);
+            return processGroupReadReceipt(param, number);
         }
         if (userJid.isStatus()) {
             processStatusReadReceipt(param, job);
             return false;
         }
-        return processDirectReadReceipt(param, privacy);
+        return processDirectReadReceipt(param, number);
     }
 
-    private boolean processGroupReadReceipt(XC_MethodHook.MethodHookParam param, JSONObject privacy) {
-        if (privacy.optBoolean("HideSeen", hideReadGroup) || ghostMode) {
+    private boolean processGroupReadReceipt(XC_MethodHook.MethodHookParam param, String number) {
+        if (CustomPrivacy.isEnabled(number, CustomPrivacy.HIDE_SEEN, hideReadGroup) || ghostMode) {
             param.setResult(null);
             return true;
         }
@@ -136,16 +134,16 @@ public class HideSeen extends Feature {
 
     private void processStatusReadReceipt(XC_MethodHook.MethodHookParam param, Object job) {
         String participant = (String) XposedHelpers.getObjectField(job, "participant");
-        boolean customHideStatusView = CustomPrivacy.getJSON(WppCore.stripJID(participant))
-                .optBoolean("HideViewStatus", hideStatusView);
+        boolean customHideStatusView = CustomPrivacy.isEnabled(WppCore.stripJID(participant),
+                CustomPrivacy.HIDE_VIEW_STATUS, hideStatusView);
 
         if (customHideStatusView || ghostMode) {
             param.setResult(null);
         }
     }
 
-    private boolean processDirectReadReceipt(XC_MethodHook.MethodHookParam param, JSONObject privacy) {
-        boolean customHideRead = privacy.optBoolean("HideSeen", hideRead);
+    private boolean processDirectReadReceipt(XC_MethodHook.MethodHookParam param, String number) {
+        boolean customHideRead = CustomPrivacy.isEnabled(number, CustomPrivacy.HIDE_SEEN, hideRead);
         if (customHideRead || ghostMode) {
             param.setResult(null);
             return true;
@@ -162,7 +160,6 @@ public class HideSeen extends Feature {
                     : MessageHistory.MessageType.MESSAGE_TYPE;
             MessageHistory.getInstance().insertHideSeenMessage(userJid.getPhoneRawString(), messageId, type, false);
         }
-        HideSeenView.updateAllBubbleViews();
     }
 
     private void hookReceiptMethod() throws Exception {
@@ -174,10 +171,13 @@ public class HideSeen extends Feature {
         logDebug("Inside Chat", Unobfuscator.getMethodDescriptor(hideViewInChatMethod));
         logDebug("Outside Chat", Unobfuscator.getMethodDescriptor(outsideMethod));
 
+        var insideScope = CallScope.of(hideViewInChatMethod);
+        var outsideScope = CallScope.of(outsideMethod);
+
         XposedBridge.hookMethod(receiptMethod, new XC_MethodHook() {
             @Override
             protected void beforeHookedMethod(MethodHookParam param) throws Throwable {
-                if (!isValidChatContext(outsideMethod, hideViewInChatMethod))
+                if (!isValidChatContext(outsideScope, insideScope))
                     return;
 
                 Class<?> jidClass = Unobfuscator.findFirstClassUsingName(classLoader, StringMatchType.EndsWith,
@@ -205,10 +205,10 @@ public class HideSeen extends Feature {
         });
     }
 
-    private boolean isValidChatContext(Method outsideMethod, Method hideViewInChatMethod) {
+    private boolean isValidChatContext(CallScope outsideScope, CallScope insideScope) {
         return WppCore.getCurrentConversation() == WppCore.getCurrentActivity()
-                && !ReflectionUtils.isCalledFromMethod(outsideMethod)
-                && ReflectionUtils.isCalledFromMethod(hideViewInChatMethod);
+                && !outsideScope.isActive()
+                && insideScope.isActive();
     }
 
     private boolean isAlreadyHidden(FMessageWpp.Key keyMessage, FMessageWpp fMessage) {
@@ -223,8 +223,7 @@ public class HideSeen extends Feature {
 
     private void processReceiptHiding(XC_MethodHook.MethodHookParam param, FMessageWpp.Key keyMessage,
             FMessageWpp fMessage, int msgTypeIdx) {
-        JSONObject privacy = CustomPrivacy.getJSON(keyMessage.remoteJid.getPhoneNumber());
-        boolean shouldHide = shouldHideReceipt(keyMessage.remoteJid, privacy);
+        boolean shouldHide = shouldHideReceipt(keyMessage.remoteJid, keyMessage.remoteJid.getPhoneNumber());
 
         if (shouldHide) {
             param.args[msgTypeIdx] = null;
@@ -236,15 +235,14 @@ public class HideSeen extends Feature {
                     : MessageHistory.MessageType.MESSAGE_TYPE;
             MessageHistory.getInstance().insertHideSeenMessage(
                     keyMessage.remoteJid.getPhoneRawString(), keyMessage.messageID, type, false);
-            HideSeenView.updateAllBubbleViews();
         }
     }
 
-    private boolean shouldHideReceipt(FMessageWpp.UserJid userJid, JSONObject privacy) {
+    private boolean shouldHideReceipt(FMessageWpp.UserJid userJid, String number) {
         if (userJid.isGroup()) {
-            return privacy.optBoolean("HideSeen", hideReadGroup) || ghostMode;
+            return CustomPrivacy.isEnabled(number, CustomPrivacy.HIDE_SEEN, hideReadGroup) || ghostMode;
         }
-        return privacy.optBoolean("HideSeen", hideRead) || ghostMode;
+        return CustomPrivacy.isEnabled(number, CustomPrivacy.HIDE_SEEN, hideRead) || ghostMode;
     }
 
     private void hookSenderPlayed() throws Exception {
@@ -294,7 +292,6 @@ public class HideSeen extends Feature {
         }
 
         handleViewOnceViewed(fMessage, key);
-        HideSeenView.updateAllBubbleViews();
     }
 
     private boolean shouldHideViewOnce(FMessageWpp fMessage) {
@@ -1,6 +1,7 @@
 package com.wmods.wppenhacer.xposed.features.privacy;
 
 import com.wmods.wppenhacer.xposed.core.Feature;
+import com.wmods.wppenhacer.xposed.core.FeatureSpec;
 import com.wmods.wppenhacer.xposed.core.components.WaContactWpp;
 import com.wmods.wppenhacer.xposed.core.devkit.Unobfuscator;
 import com.wmods.wppenhacer.xposed.utils.ReflectionUtils;
@@ -15,6 +16,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.stream.Collectors;
 
+@FeatureSpec(prefs = "lockedchats_enhancer")
 public class LockedChatsEnhancer extends Feature {
     /* access modifiers changed from: private */
     public Object chatCache;
@@ -8,11 +8,13 @@ import android.widget.TextView;
 import androidx.annotation.NonNull;
 
 import com.wmods.wppenhacer.xposed.core.Feature;
+import com.wmods.wppenhacer.xposed.core.FeatureSpec;
 import com.wmods.wppenhacer.xposed.core.components.FMessageWpp;
 import com.wmods.wppenhacer.xposed.core.devkit.Unobfuscator;
 import com.wmods.wppenhacer.xposed.features.listeners.ConversationItemListener;
 import com.wmods.wppenhacer.xposed.utils.DesignUtils;
 import com.wmods.wppenhacer.xposed.utils.ReflectionUtils;
+import com.wmods.wppenhacer.xposed.utils.ResIdWpp;
 import com.wmods.wppenhacer.xposed.utils.Utils;
 
 import java.lang.reflect.Method;
@@ -21,6 +23,7 @@ import de.robv.android.xposed.XC_MethodHook;
 import de.robv.android.xposed.XSharedPreferences;
 import de.robv.android.xposed.XposedBridge;
 
+@FeatureSpec(dependsOn = ConversationItemListener.class)
 public class TagMessage extends Feature {
     public TagMessage(ClassLoader loader, XSharedPreferences preferences) {
         super(loader, preferences);
@@ -58,10 +61,10 @@ public class TagMessage extends Feature {
             @Override
             public void onItemBind(FMessageWpp fMessage, ViewGroup viewGroup) {
                 if (fMessage.getKey().isFromMe) return;
-                var dateTextView = (TextView) viewGroup.findViewById(Utils.getID("date", "id"));
+                var dateTextView = (TextView) viewGroup.findViewById(ResIdWpp.id.date);
                 if (dateTextView == null) return;
                 var dateWrapper = (ViewGroup) dateTextView.getParent();
-                int id = Utils.getID("broadcast_icon", "id");
+                int id = ResIdWpp.id.broadcast_icon;
                 View res = dateWrapper.findViewById(id);
                 if (fMessage.isBroadcast() && res == null) {
                     var broadcast = new ImageView(dateWrapper.getContext());
@@ -0,0 +1,92 @@
+package com.wmods.wppenhacer.xposed.utils;
+
+import androidx.annotation.NonNull;
+
+import java.lang.reflect.Member;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import de.robv.android.xposed.XC_MethodHook;
+import de.robv.android.xposed.XposedBridge;
+
+/**
+ * Tells whether the current thread is running inside one of a set of methods, without capturing the stack.
+ * <p>
+ * The tracked methods are hooked with a before/after pair that counts, per thread, how many of them are
+ * currently executing. Asking {@link #isActive()} is then a thread local read, which is cheap enough for hooks
+ * that run on every frame (Paint.setColor) or every message receipt.
+ * <p>
+ * When a method cannot be hooked the scope falls back to scanning the stack trace, like
+ * {@link ReflectionUtils#isCalledFromMethod(java.lang.reflect.Method)}.
+ */
+public class CallScope {
+
+    private static final ConcurrentHashMap<Member, CallScope> scopes = new ConcurrentHashMap<>();
+
+    private final ThreadLocal<int[]> depth = ThreadLocal.withInitial(() -> new int[1]);
+    private final List<Member> fallback = new ArrayList<>();
+
+    private CallScope() {
+    }
+
+    /**
+     * @return a scope that is active while {@code member} runs on the current thread
+     */
+    @NonNull
+    public static CallScope of(@NonNull Member member) {
+        return scopes.computeIfAbsent(member, m -> {
+            var scope = new CallScope();
+            scope.track(m);
+            return scope;
+        });
+    }
+
+    /**
+     * @return a scope that is active while any of {@code members} runs on the current thread
+     */
+    @NonNull
+    public static CallScope ofAny(@NonNull Collection<? extends Member> members) {
+        var scope = new CallScope();
+        for (var member : members) {
+            scope.track(member);
+        }
+        return scope;
+    }
+
+    public boolean isActive() {
+        if (depth.get()[0] > 0) return true;
+        if (fallback.isEmpty()) return false;
+        var trace = Thread.currentThread().getStackTrace();
+        for (var member : fallback) {
+            var className = member.getDeclaringClass().getName();
+            for (StackTraceElement element : trace) {
+                if (element.getClassName().equals(className) && element.getMethodName().equals(member.getName()))
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    private void track(Member member) {
+        try {
+            XposedBridge.hookMethod(member, new XC_MethodHook(PRIORITY_HIGHEST) {
+                @Override
+                protected void beforeHookedMethod(MethodHookParam param) {
+                    depth.get()[0]++;
+                }
+
+                @Override
+                protected void afterHookedMethod(MethodHookParam param) {
+                    // the method may already have been running when the hook was installed
+                    var counter = depth.get();
+                    if (counter[0] > 0) counter[0]--;
+                }
+            });
+        } catch (Throwable e) {
+            XposedBridge.log("CallScope: Falling back to stack trace for " + member + ": " + e.getMessage());
+            fallback.add(member);
+        }
+    }
+}
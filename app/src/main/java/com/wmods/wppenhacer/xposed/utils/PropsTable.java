@@ -0,0 +1,102 @@
+package com.wmods.wppenhacer.xposed.utils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Overrides for WhatsApp's AB props, looked up from the props getters on every call.
+ * <p>
+ * Keys are kept in a sorted int array searched by binary search, next to the already boxed result of each
+ * key, so a lookup does not allocate. Features add overrides while hooking, each change copies the arrays
+ * and publishes them at once, so readers never lock.
+ * <p>
+ * Queries are also counted per prop id. The counters are plain ints updated without synchronization and
+ * grow with the highest id queried, so they are approximate under contention.
+ */
+public class PropsTable<T> {
+
+    private volatile Snapshot snapshot = new Snapshot(new int[0], new Object[0]);
+    private volatile int[] queryCounts = new int[0];
+
+    public synchronized void remove(int prop) {
+        var current = snapshot;
+        int index = Arrays.binarySearch(current.props, prop);
+        if (index < 0) return;
+        int size = current.props.length;
+        var props = new int[size - 1];
+        var values = new Object[size - 1];
+        System.arraycopy(current.props, 0, props, 0, index);
+        System.arraycopy(current.values, 0, values, 0, index);
+        System.arraycopy(current.props, index + 1, props, index, size - index - 1);
+        System.arraycopy(current.values, index + 1, values, index, size - index - 1);
+        snapshot = new Snapshot(props, values);
+    }
+
+    public synchronized void put(int prop, @NonNull T value) {
+        var current = snapshot;
+        int index = Arrays.binarySearch(current.props, prop);
+        if (index >= 0) {
+            var values = current.values.clone();
+            values[index] = value;
+            snapshot = new Snapshot(current.props, values);
+            return;
+        }
+        int insert = -index - 1;
+        int size = current.props.length;
+        var props = new int[size + 1];
+        var values = new Object[size + 1];
+        System.arraycopy(current.props, 0, props, 0, insert);
+        System.arraycopy(current.values, 0, values, 0, insert);
+        props[insert] = prop;
+        values[insert] = value;
+        System.arraycopy(current.props, insert, props, insert + 1, size - insert);
+        System.arraycopy(current.values, insert, values, insert + 1, size - insert);
+        snapshot = new Snapshot(props, values);
+    }
+
+    /**
+     * Counts the query and returns the override of the prop.
+     *
+     * @return the boxed override, or null when the prop keeps WhatsApp's value
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public T query(int prop) {
+        if (prop >= 0) {
+            var counts = queryCounts;
+            if (prop >= counts.length) counts = growCounts(prop);
+            counts[prop]++;
+        }
+        var current = snapshot;
+        int index = Arrays.binarySearch(current.props, prop);
+        return index >= 0 ? (T) current.values[index] : null;
+    }
+
+    /**
+     * @return how many times the prop was queried
+     */
+    public int getQueryCount(int prop) {
+        var counts = queryCounts;
+        return prop >= 0 && prop < counts.length ? counts[prop] : 0;
+    }
+
+    private synchronized int[] growCounts(int prop) {
+        var counts = queryCounts;
+        if (prop < counts.length) return counts;
+        counts = Arrays.copyOf(counts, Math.max(prop + 1, counts.length + (counts.length >> 1)));
+        queryCounts = counts;
+        return counts;
+    }
+
+    private static class Snapshot {
+        final int[] props;
+        final Object[] values;
+
+        Snapshot(int[] props, Object[] values) {
+            this.props = props;
+            this.values = values;
+        }
+    }
+}
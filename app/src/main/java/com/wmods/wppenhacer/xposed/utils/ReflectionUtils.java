@@ -299,16 +299,21 @@ public class ReflectionUtils {
     }
 
     public static boolean isCalledFromString(String contains) {
-        var trace = Thread.currentThread().getStackTrace();
-        var text = Arrays.toString(trace);
-        return text.contains(contains);
+        return isCalledFromStrings(contains);
     }
 
+    /**
+     * Matches the class, method and file names of each frame, without rendering the whole trace as text.
+     * Prefer a {@link CallScope} in hooks that run often.
+     */
     public static boolean isCalledFromStrings(String... contains) {
         var trace = Thread.currentThread().getStackTrace();
-        var text = Arrays.toString(trace);
-        for (String s : contains) {
-            if (text.contains(s)) return true;
+        for (StackTraceElement element : trace) {
+            for (String s : contains) {
+                if (element.getClassName().contains(s) || element.getMethodName().contains(s)) return true;
+                var fileName = element.getFileName();
+                if (fileName != null && fileName.contains(s)) return true;
+            }
         }
         return false;
     }
@@ -326,7 +331,7 @@ public class ReflectionUtils {
         return false;
     }
 
-    public synchronized static boolean isCalledFromClass(Class<?> cls) {
+    public static boolean isCalledFromClass(Class<?> cls) {
         var trace = Thread.currentThread().getStackTrace();
         for (StackTraceElement stackTraceElement : trace) {
             if (stackTraceElement.getClassName().equals(cls.getName()))
@@ -335,7 +340,7 @@ public class ReflectionUtils {
         return false;
     }
 
-    public synchronized static boolean isCalledFromMethod(Method method) {
+    public static boolean isCalledFromMethod(Method method) {
         var trace = Thread.currentThread().getStackTrace();
         for (StackTraceElement stackTraceElement : trace) {
             if (stackTraceElement.getClassName().equals(method.getDeclaringClass().getName()) && stackTraceElement.getMethodName().equals(method.getName()))
@@ -0,0 +1,101 @@
+package com.wmods.wppenhacer.xposed.utils;
+
+import android.annotation.SuppressLint;
+import android.content.Context;
+import android.content.res.Resources;
+
+import androidx.annotation.NonNull;
+
+import java.lang.reflect.Field;
+
+import de.robv.android.xposed.XposedBridge;
+
+/**
+ * Ids of WhatsApp's own resources, resolved once when the module loads.
+ * <p>
+ * Each field is named after the resource it holds, so hooks read a static field instead of calling
+ * {@link Utils#getID(String, String)}. A resource missing in the running WhatsApp version keeps 0, like
+ * {@link android.content.res.Resources#getIdentifier(String, String, String)} returns.
+ * Names only known at runtime still go through {@link Utils#getID(String, String)}.
+ */
+public class ResIdWpp {
+
+    public static class id {
+        public static int audio_player_container;
+        public static int background;
+        public static int bottom_sheet;
+        public static int broadcast_icon;
+        public static int caption;
+        public static int color_picker_btn;
+        public static int contact_info_security_card_layout;
+        public static int contact_selector;
+        public static int container_view;
+        public static int control_btn;
+        public static int control_frame;
+        public static int controls;
+        public static int conversation_contact;
+        public static int conversation_row_participant_header_view_stub;
+        public static int conversations_inbox_filters_stub;
+        public static int conversations_row_content;
+        public static int conversations_row_message_count;
+        public static int conversations_swipe_to_reveal_filters_stub;
+        public static int date;
+        public static int date_tv;
+        public static int date_wrapper;
+        public static int design_bottom_sheet;
+        public static int edit_label;
+        public static int entry;
+        public static int fast_playback_overlay;
+        public static int font_picker_btn;
+        public static int hd_invisible_touch;
+        public static int invisible_height_placeholder;
+        public static int invisible_press_surface;
+        public static int media_container;
+        public static int menu;
+        public static int menuitem_conversations_message_contact;
+        public static int menuitem_create_newsletter;
+        public static int menuitem_search;
+        public static int message_text;
+        public static int my_search_bar;
+        public static int name_in_group;
+        public static int playback_speed_text;
+        public static int reactions_bubble_layout;
+        public static int root_view;
+        public static int row_content;
+        public static int status_header;
+        public static int sticker;
+        public static int text_view;
+        public static int time;
+        public static int timestamp;
+        public static int toolbar;
+        public static int toolbar_logo;
+        public static int touch_outside;
+        public static int version;
+        public static int view_once_control_icon;
+        public static int voice_note_player_container;
+    }
+
+    public static class drawable {
+        public static int home_tab_communities_selector;
+        public static int ic_notif_mark_read;
+        public static int ic_schedule;
+    }
+
+    public static void init(@NonNull Context context) {
+        var resources = context.getResources();
+        var packageName = context.getPackageName();
+        resolve(id.class.getFields(), "id", resources, packageName);
+        resolve(drawable.class.getFields(), "drawable", resources, packageName);
+    }
+
+    @SuppressLint("DiscouragedApi")
+    private static void resolve(Field[] fields, String type, Resources resources, String packageName) {
+        for (var field : fields) {
+            try {
+                field.setInt(null, resources.getIdentifier(field.getName(), type, packageName));
+            } catch (Exception e) {
+                XposedBridge.log("Error getting resource ID: type=" + type + ", name=" + field.getName() + ", error: " + e.getMessage());
+            }
+        }
+    }
+}
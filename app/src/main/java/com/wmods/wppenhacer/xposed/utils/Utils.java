@@ -54,6 +54,7 @@ import java.util.Locale;
 import java.util.Objects;
 import java.util.Properties;
 import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.regex.Matcher;
@@ -66,7 +67,7 @@ public class Utils {
 
     private static final ExecutorService executorService = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
     public static XSharedPreferences xprefs;
-    private static final HashMap<String, Integer> ids = new HashMap<>();
+    private static final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
 
     public static void init(ClassLoader loader, XSharedPreferences pref) {
         xprefs = pref;
@@ -102,6 +103,7 @@ public class Utils {
     /**
      * Retrieves the resource ID by name and type.
      * Uses caching to improve performance for repeated lookups.
+     * Names known in advance belong in {@link ResIdWpp}, which hooks read without any lookup.
      *
      * @param name The resource name to look up
      * @param type The resource type (e.g., "id", "drawable", "layout", "string")
@@ -116,11 +118,9 @@ public class Utils {
 
         final String key = type + "_" + name;
 
-        synchronized (ids) {
-            if (ids.containsKey(key)) {
-                Integer cachedId = ids.get(key);
-                return cachedId != null ? cachedId : -1;
-            }
+        Integer cachedId = ids.get(key);
+        if (cachedId != null) {
+            return cachedId;
         }
 
         try {
@@ -128,9 +128,7 @@ public class Utils {
             Context context = app.getApplicationContext();
             int id = context.getResources().getIdentifier(name, type, app.getPackageName());
 
-            synchronized (ids) {
-                ids.put(key, id);
-            }
+            ids.put(key, id);
 
             return id;
         } catch (Exception e) {